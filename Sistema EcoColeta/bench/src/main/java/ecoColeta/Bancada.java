@@ -0,0 +1,122 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Mini harness no estilo JMH das ferramentas com main deste módulo (as que sobem processos, proxies ou comparam
+// variantes em uma só execução; os caminhos principais do Servidor ficam no JMH, ver BenchmarkServidor):
+// iterações de aquecimento descartadas, iterações medidas com N threads e média ± desvio em ops/s,
+// com os bytes alocados por operação (soma das threads medidas, como o -prof gc do JMH)
+// Com -Dbancada.resultados=arquivo, cada resultado também é acrescentado ao arquivo em JSON, um por linha
+// (com o benchmark, a data, a JVM e -Dbancada.versao, se informada), para comparar versões
+final class Bancada {
+    private static volatile int sumidouro; // Impede que o JIT elimine resultados não usados
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final String RESULTADOS = System.getProperty("bancada.resultados"); // Nulo: só a saída padrão
+    private static final String VERSAO = System.getProperty("bancada.versao", "");
+
+    private Bancada() {}
+
+    // Uma execução da operação medida; recebe o gerador aleatório da thread
+    interface Operacao {
+        void executar(ThreadLocalRandom aleatorio) throws Exception;
+    }
+
+    record Resultado(String nome, int threads, double opsPorSegundo, double desvio, double bytesPorOp) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s;%d;%.0f;%.0f;%.0f", nome, threads, opsPorSegundo, desvio, bytesPorOp);
+        }
+    }
+
+    // Medida de uma iteração
+    private record Rodada(double opsPorSegundo, double bytesPorOp) {}
+
+    // Consome um valor para que o cálculo que o produziu não seja descartado
+    static void consumir(Object valor) {
+        if (valor != null && valor.hashCode() == sumidouro) sumidouro++;
+    }
+
+    static Resultado medir(String nome, int threads, int aquecimentos, int iteracoes, long milisPorIteracao, Operacao operacao)
+            throws InterruptedException {
+        for (int i = 0; i < aquecimentos; i++) {
+            rodada(threads, milisPorIteracao, operacao);
+        }
+        List<Rodada> medidas = new ArrayList<>();
+        for (int i = 0; i < iteracoes; i++) {
+            medidas.add(rodada(threads, milisPorIteracao, operacao));
+        }
+        double media = medidas.stream().mapToDouble(Rodada::opsPorSegundo).average().orElse(0);
+        double variancia = medidas.stream().mapToDouble(m -> (m.opsPorSegundo() - media) * (m.opsPorSegundo() - media)).sum()
+                / Math.max(1, medidas.size() - 1);
+        double bytes = medidas.stream().mapToDouble(Rodada::bytesPorOp).average().orElse(0);
+        Resultado resultado = new Resultado(nome, threads, media, Math.sqrt(variancia), bytes);
+        if (RESULTADOS != null) {
+            gravar(StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass().getSimpleName(), resultado);
+        }
+        return resultado;
+    }
+
+    // Executa a operação em laço nas threads durante o tempo dado
+    private static Rodada rodada(int threads, long milis, Operacao operacao) throws InterruptedException {
+        LongAdder contador = new LongAdder();
+        LongAdder alocados = new LongAdder();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> corredores = new ArrayList<>();
+        long[] fim = new long[1];
+        for (int t = 0; t < threads; t++) {
+            Thread corredor = new Thread(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                long feitas = 0;
+                long alocadosAntes = 0;
+                try {
+                    largada.await();
+                    alocadosAntes = THREADS.getCurrentThreadAllocatedBytes();
+                    while (System.nanoTime() < fim[0]) {
+                        operacao.executar(aleatorio);
+                        feitas++;
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    alocados.add(THREADS.getCurrentThreadAllocatedBytes() - alocadosAntes);
+                    contador.add(feitas);
+                }
+            });
+            corredor.start();
+            corredores.add(corredor);
+        }
+        long inicio = System.nanoTime();
+        fim[0] = inicio + milis * 1_000_000;
+        largada.countDown();
+        for (Thread corredor : corredores) corredor.join();
+        long feitas = contador.sum();
+        return new Rodada(feitas / ((System.nanoTime() - inicio) / 1e9), feitas == 0 ? 0 : (double) alocados.sum() / feitas);
+    }
+
+    // Uma linha JSON por resultado; os nomes dos benchmarks não têm aspas nem barras
+    private static synchronized void gravar(String benchmark, Resultado r) {
+        String linha = String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"nome\":\"%s\",\"threads\":%d,\"ops_por_segundo\":%.1f,\"desvio\":%.1f,"
+                        + "\"bytes_por_op\":%.1f,\"versao\":\"%s\",\"java\":\"%s\",\"data\":\"%s\"}%n",
+                benchmark, r.nome(), r.threads(), r.opsPorSegundo(), r.desvio(), r.bytesPorOp(), VERSAO,
+                System.getProperty("java.version"), Instant.now());
+        try {
+            Files.writeString(Path.of(RESULTADOS), linha, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
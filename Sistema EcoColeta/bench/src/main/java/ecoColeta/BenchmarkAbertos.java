@@ -0,0 +1,99 @@
+package ecoColeta;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+// Latência de ABERTOS (RepositorioPontos.abertos) em um catálogo de N pontos com horários variados
+// (algumas dezenas de horários distintos, escritos de formas diferentes) e materiais de frequências diferentes;
+// cada consulta usa um instante sorteado na semana
+// - indice: os conjuntos do material cruzados com os grupos de horários abertos
+// - interpretando: o que o servidor teria de fazer sem o índice, interpretando o horário de cada ponto
+//   que aceita o material a cada consulta
+// Uso: BenchmarkAbertos [pontos] [consultasPorCaso]
+public class BenchmarkAbertos {
+    private static final String[] HORARIOS = {
+        "08:00-18:00", "08-18", "8h às 18h", "07:00-19:00", "09:00-17:00", "24 horas", "06:00-22:00",
+        "Seg a Sex 08:00-18:00; Sáb 08:00-12:00", "seg-sex 8h-17h", "Segunda a Sexta das 7h às 19h",
+        "seg, qua, sex 9-17", "ter a dom 9h-17h", "dias úteis 8-17", "8h30-12h e 14h-18h", "22:00-06:00",
+        "Seg a Sáb 07:00-13:00", "sab-dom 10:00-16:00", "seg-sex 8-18, sab 8-12, dom fechado", "comercial",
+    };
+    private static final String[][] MATERIAIS = {
+        {"papel, vidro, plástico", "0.55"},
+        {"metal, papel", "0.3"},
+        {"óleo de cozinha", "0.1"},
+        {"pilhas, baterias", "0.045"},
+        {"lâmpadas fluorescentes", "0.005"},
+    };
+    private static final String[] CASOS = {"", "papel", "óleo", "pilhas", "lâmpadas"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        Random aleatorio = new Random(42);
+        RepositorioPontos repositorio = new RepositorioPontos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidade; i++) {
+            repositorio.cadastrar("Rua " + i, sortearMaterial(aleatorio), HORARIOS[aleatorio.nextInt(HORARIOS.length)]);
+        }
+        System.out.printf("# %d pontos cadastrados em %d ms%n", quantidade, (System.nanoTime() - inicio) / 1_000_000);
+
+        System.out.println("material;implementacao;media_us;p50_us;p99_us;abertos_medio");
+        for (String material : CASOS) {
+            String nome = material.isEmpty() ? "(qualquer)" : material;
+            medir(nome, "indice", consultas, aleatorio, faixa -> repositorio.abertos(material, faixa, 100).total());
+            medir(nome, "interpretando", Math.max(1, consultas / 200), aleatorio, faixa -> interpretando(repositorio, material, faixa));
+        }
+    }
+
+    interface Consulta {
+        int executar(int faixa);
+    }
+
+    // Aquece com a mesma quantidade de consultas e mede cada uma separadamente para obter os percentis
+    private static void medir(String material, String implementacao, int consultas, Random aleatorio, Consulta consulta) {
+        for (int i = 0; i < consultas; i++) Bancada.consumir(consulta.executar(sortearFaixa(aleatorio)));
+        long[] tempos = new long[consultas];
+        long abertos = 0;
+        for (int i = 0; i < consultas; i++) {
+            int faixa = sortearFaixa(aleatorio);
+            long inicio = System.nanoTime();
+            abertos += consulta.executar(faixa);
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        double media = Arrays.stream(tempos).average().orElse(0);
+        System.out.printf("%s;%s;%.1f;%.1f;%.1f;%d%n", material, implementacao, media / 1000,
+                tempos[consultas / 2] / 1000.0, tempos[Math.min(consultas - 1, (int) (0.99 * consultas))] / 1000.0, abertos / consultas);
+    }
+
+    // Dia e hora sorteados, com 70% das consultas entre 07:00 e 20:00 (quando as pessoas procuram pontos)
+    private static int sortearFaixa(Random aleatorio) {
+        int hora = aleatorio.nextDouble() < 0.7 ? 7 + aleatorio.nextInt(13) : aleatorio.nextInt(24);
+        LocalDateTime instante = LocalDateTime.of(2026, 10, 12, hora, aleatorio.nextInt(60)) // 12/10/2026: segunda
+                .with(DayOfWeek.of(1 + aleatorio.nextInt(7)));
+        return HorarioFuncionamento.faixa(instante.atZone(Servidor.FUSO));
+    }
+
+    private static String sortearMaterial(Random aleatorio) {
+        double sorteio = aleatorio.nextDouble();
+        for (String[] material : MATERIAIS) {
+            sorteio -= Double.parseDouble(material[1]);
+            if (sorteio < 0) return material[0];
+        }
+        return MATERIAIS[0][0];
+    }
+
+    // Referência sem o índice de horários: interpreta o texto do horário de cada candidato
+    private static int interpretando(RepositorioPontos repositorio, String material, int faixa) {
+        int abertos = 0;
+        Iterable<PontoColeta> candidatos = material.isEmpty() ? repositorio.todos() : repositorio.buscarPorMaterial(material);
+        for (PontoColeta p : candidatos) {
+            HorarioFuncionamento h = HorarioFuncionamento.interpretar(p.getHorario());
+            if (h != null && h.aberto(faixa)) abertos++;
+        }
+        return abertos;
+    }
+}
@@ -0,0 +1,107 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// GerenciadorConexoes com um líder e um seguidor, cada servidor em um processo (ver Replicacao):
+// - lento: o seguidor atrás de um ProxyLatencia; a vazão das consultas e a parte delas que o servidor lento
+//   atendeu (com a escolha pela conexão com menos pendentes, ele recebe menos que a metade)
+// - queda: consultas contínuas enquanto o seguidor é encerrado e, depois, iniciado de novo; conta as que
+//   falharam (cada uma é repetida uma vez em outra conexão) e quanto tempo o seguidor levou para voltar à escolha
+// Uso: BenchmarkBalanceamento [threads] [atrasoMillis] [pontos]
+public class BenchmarkBalanceamento {
+    private static final int PORTA = 12461; // Líder nesta porta, seguidor na seguinte e o proxy dele na outra
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long atraso = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        int pontos = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+
+        Path dadosSeguidor = Files.createTempDirectory("ecocoleta-seguidor");
+        List<Process> processos = new ArrayList<>();
+        try {
+            processos.add(ProcessoServidor.iniciar(PORTA, "ecocoleta.dados=" + Files.createTempDirectory("ecocoleta-lider")));
+            povoar(pontos);
+            processos.add(iniciarSeguidor(dadosSeguidor));
+
+            System.out.println("medida;threads;ops_por_segundo;desvio;bytes_por_op");
+            ProxyLatencia proxy = new ProxyLatencia(PORTA + 2, "localhost", PORTA + 1, atraso);
+            try (GerenciadorConexoes conexoes = new GerenciadorConexoes(
+                    List.of("localhost:" + PORTA, "localhost:" + (PORTA + 2)), 2, 60_000)) {
+                System.out.println(Bancada.medir("lento_" + atraso + "ms", threads, 2, 3, 1000, aleatorio ->
+                        Bancada.consumir(conexoes.pesquisar("rua " + aleatorio.nextInt(pontos), 0, 5).join())));
+                System.out.printf("parte_servidor_lento;%d;%.1f%%;;%n", threads, 100 * parte(conexoes.estado(), "localhost:" + (PORTA + 2)));
+            } finally {
+                proxy.close();
+            }
+
+            try (GerenciadorConexoes conexoes = new GerenciadorConexoes(
+                    List.of("localhost:" + PORTA, "localhost:" + (PORTA + 1)), 2, 60_000)) {
+                medirQueda(conexoes, threads, pontos, processos, dadosSeguidor);
+            }
+        } finally {
+            for (Process p : processos) p.destroy();
+        }
+    }
+
+    private static Process iniciarSeguidor(Path dados) throws Exception {
+        return ProcessoServidor.iniciar(PORTA + 1, "ecocoleta.lider=localhost:" + PORTA, "ecocoleta.dados=" + dados);
+    }
+
+    private static void povoar(int pontos) throws Exception {
+        try (ServicoConexao conexao = new ServicoConexao("localhost", PORTA, 60_000, false)) {
+            for (int i = 0; i < pontos; i++) conexao.cadastrar("Rua Balanceada " + i + ", " + (i % 900 + 1), "papel, vidro", "08:00-18:00");
+            conexao.listar(0, 1).join();
+        }
+    }
+
+    // Respondidos pelas conexões do servidor sobre o total (linhas de GerenciadorConexoes.estado)
+    private static double parte(List<String> estado, String servidor) {
+        long dele = 0, total = 0;
+        for (String linha : estado) {
+            String[] campos = linha.split(";");
+            long respondidos = Long.parseLong(campos[3]);
+            total += respondidos;
+            if (campos[0].equals(servidor)) dele += respondidos;
+        }
+        return total == 0 ? 0 : (double) dele / total;
+    }
+
+    // Consultas por 'threads' threads virtuais; o seguidor cai em 1 s e volta em 3 s
+    private static void medirQueda(GerenciadorConexoes conexoes, int threads, int pontos, List<Process> processos, Path dadosSeguidor)
+            throws Exception {
+        LongAdder respondidas = new LongAdder();
+        LongAdder falhas = new LongAdder();
+        long fim = System.nanoTime() + 8_000_000_000L;
+        List<Thread> clientes = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int semente = t;
+            clientes.add(Thread.ofVirtual().start(() -> {
+                int i = semente;
+                while (System.nanoTime() < fim) {
+                    try {
+                        Bancada.consumir(conexoes.pesquisar("rua " + (i++ % pontos), 0, 5).join());
+                        respondidas.increment();
+                    } catch (RuntimeException e) {
+                        falhas.increment();
+                    }
+                }
+            }));
+        }
+        Thread.sleep(1000);
+        processos.get(1).destroyForcibly().waitFor();
+        Thread.sleep(2000);
+        long reinicio = System.nanoTime();
+        processos.set(1, iniciarSeguidor(dadosSeguidor));
+        String seguidor = "localhost:" + (PORTA + 1);
+        while (conexoes.estado().stream().noneMatch(l -> l.startsWith(seguidor + ";true;"))) Thread.sleep(10);
+        long volta = (System.nanoTime() - reinicio) / 1_000_000;
+        for (Thread c : clientes) c.join();
+        System.out.printf("queda_respondidas;%d;%d;;%n", threads, respondidas.sum());
+        System.out.printf("queda_falhas;%d;%d;;%n", threads, falhas.sum());
+        System.out.printf("queda_volta_seguidor_ms;%d;%d;;%n", threads, volta);
+    }
+}
@@ -0,0 +1,128 @@
+package ecoColeta;
+
+import java.lang.management.ManagementFactory;
+
+// Custo de achar o comando e ler os seus campos, por tipo de comando, sem executá-lo:
+// - cadeia: a sequência de equals/startsWith e o String.split que o Servidor usava
+// - tabela: TabelaComandos e LinhaComando (reaproveitada, como em cada conexão)
+// Uso: BenchmarkComandos [milisPorMedida]
+public class BenchmarkComandos {
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final String[] LINHAS = {
+        "ENCERRAR_TUDO",
+        "CADASTRAR;Rua das Flores, 120;papel, vidro;08:00-18:00",
+        "LISTAR",
+        "LISTAR;200;20",
+        "PROXIMO;4321;20",
+        "BUSCAR;vidro",
+        "ATUALIZAR;4321;Rua das Flores, 120;papel, vidro;08:00-18:00",
+        "REMOVER;4321",
+        "SAIR",
+        "DESCONHECIDO;1",
+    };
+
+    interface Execucao {
+        void executar();
+    }
+
+    public static void main(String[] args) {
+        long milis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+
+        // Os mesmos nomes do Servidor, com cada comando fazendo só a leitura dos seus campos
+        TabelaComandos tabela = new TabelaComandos();
+        tabela.registrar("ENCERRAR_TUDO", (linha, _) -> true);
+        tabela.registrar("CADASTRAR", (linha, _) -> {
+            if (linha.separar(4) == 4) Bancada.consumir(linha.texto(1) + linha.texto(2) + linha.texto(3));
+            return true;
+        });
+        tabela.registrar("LISTAR", (linha, _) -> {
+            if (linha.temArgumentos() && linha.separar(3) == 3) Bancada.consumir(linha.inteiro(1) + linha.inteiro(2));
+            return true;
+        });
+        tabela.registrar("PROXIMO", (linha, _) -> {
+            if (linha.separar(3) == 3) Bancada.consumir(linha.inteiro(1) + linha.inteiro(2));
+            return true;
+        });
+        tabela.registrar("EXPORTAR", (linha, _) -> true);
+        tabela.registrar("BUSCAR", (linha, _) -> {
+            if (linha.separar(2) == 2) Bancada.consumir(linha.texto(1));
+            return true;
+        });
+        tabela.registrar("ATUALIZAR", (linha, _) -> {
+            if (linha.separar(5) == 5) Bancada.consumir(linha.inteiro(1) + linha.texto(2) + linha.texto(3) + linha.texto(4));
+            return true;
+        });
+        tabela.registrar("REMOVER", (linha, _) -> {
+            if (linha.separar(2) == 2) Bancada.consumir(linha.inteiro(1));
+            return true;
+        });
+        tabela.registrar("SAIR", (linha, _) -> false);
+        LinhaComando linhaComando = new LinhaComando();
+
+        System.out.println("comando;implementacao;ns_por_op;bytes_alocados_por_op");
+        for (String linha : LINHAS) {
+            String nome = linha.contains(";") ? linha.substring(0, linha.indexOf(';')) : linha;
+            if (linha.equals("LISTAR;200;20")) nome = "LISTAR_pagina";
+            medir(nome, "cadeia", milis, () -> cadeia(linha));
+            medir(nome, "tabela", milis, () -> {
+                try {
+                    linhaComando.ler(linha);
+                    TabelaComandos.Comando comando = tabela.obter(linha, 0, linhaComando.fimNome());
+                    Bancada.consumir(comando == null || comando.executar(linhaComando, null));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+
+    // Reprodução da cadeia antiga, na mesma ordem e com as mesmas leituras de campos
+    private static void cadeia(String comando) {
+        if (comando.equals("ENCERRAR_TUDO")) {
+            Bancada.consumir(comando);
+        } else if (comando.startsWith("CADASTRAR")) {
+            String[] dados = comando.split(";", 4);
+            if (dados.length == 4) Bancada.consumir(dados[1] + dados[2] + dados[3]);
+        } else if (comando.equals("LISTAR")) {
+            Bancada.consumir(comando);
+        } else if (comando.startsWith("LISTAR;")) {
+            String[] dados = comando.split(";", 3);
+            Bancada.consumir(Integer.parseInt(dados[1].trim()) + Integer.parseInt(dados[2].trim()));
+        } else if (comando.startsWith("PROXIMO;")) {
+            String[] dados = comando.split(";", 3);
+            Bancada.consumir(Integer.parseInt(dados[1].trim()) + Integer.parseInt(dados[2].trim()));
+        } else if (comando.equals("EXPORTAR")) {
+            Bancada.consumir(comando);
+        } else if (comando.startsWith("BUSCAR")) {
+            String[] dados = comando.split(";", 2);
+            if (dados.length == 2) Bancada.consumir(dados[1]);
+        } else if (comando.startsWith("ATUALIZAR")) {
+            String[] dados = comando.split(";", 5);
+            if (dados.length == 5) Bancada.consumir(Integer.parseInt(dados[1].trim()) + dados[2] + dados[3] + dados[4]);
+        } else if (comando.startsWith("REMOVER")) {
+            String[] dados = comando.split(";", 2);
+            if (dados.length == 2) Bancada.consumir(Integer.parseInt(dados[1].trim()));
+        } else if (comando.equals("SAIR")) {
+            Bancada.consumir(comando);
+        } else {
+            Bancada.consumir(null);
+        }
+    }
+
+    // Aquece pelo mesmo tempo da medida e informa média de tempo e de bytes alocados por execução
+    private static void medir(String comando, String implementacao, long milis, Execucao execucao) {
+        for (long fim = System.nanoTime() + milis * 1_000_000; System.nanoTime() < fim; ) execucao.executar();
+        long execucoes = 0;
+        long alocadosAntes = THREADS.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        long fim = inicio + milis * 1_000_000;
+        while (System.nanoTime() < fim) {
+            execucao.executar();
+            execucoes++;
+        }
+        long decorrido = System.nanoTime() - inicio;
+        long alocados = THREADS.getCurrentThreadAllocatedBytes() - alocadosAntes;
+        System.out.printf("%s;%s;%.1f;%d%n", comando, implementacao, (double) decorrido / execucoes, alocados / execucoes);
+    }
+}
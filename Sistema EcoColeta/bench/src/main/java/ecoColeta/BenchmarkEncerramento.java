@@ -0,0 +1,55 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Encerramento e reinício do Servidor em outro processo, com o catálogo em disco (ver Encerramento):
+// - encerramento: do SIGTERM (Process.destroy) ao fim do processo, com conexões abertas e o diário a gravar
+//   em snapshot
+// - reinicio_snapshot: do início do processo à porta aceitando, depois de um encerramento gradual (só lê o
+//   snapshot gravado ao encerrar)
+// - reinicio_diario: idem depois de um SIGKILL (Process.destroyForcibly), que reaplica o diário inteiro
+// Uso: BenchmarkEncerramento [pontos] [rodadas]
+public class BenchmarkEncerramento {
+    private static final int PORTA = 12471;
+
+    public static void main(String[] args) throws Exception {
+        int pontos = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int rodadas = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        System.out.println("medida;pontos;milissegundos");
+        for (int r = 0; r < rodadas; r++) {
+            Path dados = Files.createTempDirectory("ecocoleta-encerramento");
+            Process servidor = ProcessoServidor.iniciar(PORTA, "ecocoleta.dados=" + dados);
+            povoar(pontos);
+            servidor.destroyForcibly().waitFor();
+            long inicio = System.nanoTime();
+            servidor = ProcessoServidor.iniciar(PORTA, "ecocoleta.dados=" + dados);
+            System.out.printf("reinicio_diario;%d;%d%n", pontos, (System.nanoTime() - inicio) / 1_000_000);
+
+            try (ServicoConexao aberta = new ServicoConexao("localhost", PORTA, 60_000, false)) {
+                aberta.listar(0, 1).join(); // Uma conexão ociosa para avisar
+                for (int i = 0; i < 1000; i++) aberta.cadastrar("Rua Final " + i, "papel", "08:00-18:00");
+                aberta.listar(0, 1).join();
+                inicio = System.nanoTime();
+                servidor.destroy();
+                if (!servidor.waitFor(60, TimeUnit.SECONDS)) throw new IllegalStateException("O servidor não encerrou");
+                System.out.printf("encerramento;%d;%d%n", pontos, (System.nanoTime() - inicio) / 1_000_000);
+            }
+
+            inicio = System.nanoTime();
+            servidor = ProcessoServidor.iniciar(PORTA, "ecocoleta.dados=" + dados);
+            System.out.printf("reinicio_snapshot;%d;%d%n", pontos, (System.nanoTime() - inicio) / 1_000_000);
+            servidor.destroy();
+            servidor.waitFor();
+        }
+    }
+
+    private static void povoar(int pontos) throws Exception {
+        try (ServicoConexao conexao = new ServicoConexao("localhost", PORTA, 60_000, false)) {
+            for (int i = 0; i < pontos; i++) conexao.cadastrar("Rua Reiniciada " + i + ", " + (i % 900 + 1), "papel, vidro", "08:00-18:00");
+            conexao.listar(0, 1).join();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ecoColeta;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Custo do geocodificador no CADASTRAR sem coordenadas, com uma base sintética de N logradouros
+// (nomes formados com palavras comuns, para que a busca por semelhança tenha candidatos de verdade)
+// - base: BaseLogradouros.buscar direto (o que toda falta no cache paga), com o nome exato e com uma palavra
+//   a menos (cai na busca por semelhança)
+// - cache: Geocodificador.localizar com os endereços já no cache (variando o número do imóvel)
+// - cadastrar: RepositorioPontos.cadastrar sem geocodificador, com o cache frio (endereços sempre novos)
+//   e com o cache quente (sessão de cadastro que repete logradouros)
+// Uso: BenchmarkGeocodificador [logradouros] [consultas]
+public class BenchmarkGeocodificador {
+    private static final String[] TIPOS = {"Rua", "Avenida", "Travessa", "Alameda"};
+    private static final String[] NOMES = {"Barão", "Visconde", "Coronel", "Doutor", "Professor", "Marechal", "Dom", "Padre",
+        "Antônio", "José", "Maria", "João", "Francisco", "Carlos", "Pedro", "Paulo", "Luís", "Manuel", "Ana", "Rita",
+        "Silva", "Souza", "Oliveira", "Santos", "Pereira", "Lima", "Costa", "Ribeiro", "Almeida", "Carvalho", "Gomes",
+        "Martins", "Rocha", "Barbosa", "Mello", "Teixeira", "Moraes", "Campos", "Prado", "Queiroz", "Andrade", "Freitas"};
+    private static final String[] CIDADES = {"São Paulo", "Campinas", "Santos", "Sorocaba", "Jundiaí", "Piracicaba", "Bauru", "Franca"};
+
+    public static void main(String[] args) throws Exception {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        Random aleatorio = new Random(42);
+        List<String[]> logradouros = new ArrayList<>(); // {logradouro, bairro, cidade}
+        StringBuilder csv = new StringBuilder("cep,logradouro,bairro,cidade,uf,latitude,longitude\n");
+        for (int i = 0; i < quantidade; i++) {
+            String nome = TIPOS[aleatorio.nextInt(TIPOS.length)] + " " + NOMES[aleatorio.nextInt(8)] + " "
+                    + NOMES[8 + aleatorio.nextInt(12)] + " " + NOMES[20 + aleatorio.nextInt(NOMES.length - 20)] + " " + palavra(i);
+            String bairro = "Bairro " + aleatorio.nextInt(200);
+            String cidade = CIDADES[aleatorio.nextInt(CIDADES.length)];
+            logradouros.add(new String[] {nome, bairro, cidade});
+            csv.append(String.format(Locale.ROOT, "%08d,%s,%s,%s,SP,%.4f,%.4f\n", 10_000_000 + i, nome, bairro, cidade,
+                    -24 + 2 * aleatorio.nextDouble(), -48 + 2 * aleatorio.nextDouble()));
+        }
+        Path arquivo = Files.createTempFile("logradouros", ".csv");
+        Files.writeString(arquivo, csv, StandardCharsets.UTF_8);
+        long inicio = System.nanoTime();
+        BaseLogradouros base = BaseLogradouros.carregar(arquivo);
+        Files.delete(arquivo);
+        System.out.printf("# %d logradouros carregados em %d ms%n", base.tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+
+        System.out.println("caso;media_us;p50_us;p99_us");
+        medir("base (nome exato)", consultas, i -> {
+            String[] l = logradouros.get(aleatorio.nextInt(quantidade));
+            return base.buscar(BaseLogradouros.normalizar(l[0] + ", " + i + " - " + l[1] + ", " + l[2]));
+        });
+        medir("base (semelhanca)", consultas, i -> {
+            String[] l = logradouros.get(aleatorio.nextInt(quantidade));
+            String semPalavra = l[0].replaceFirst(" \\S+ ", " "); // Sem o primeiro nome: não há logradouro com esse nome exato
+            return base.buscar(BaseLogradouros.normalizar(semPalavra + ", " + i + " - " + l[1] + ", " + l[2]));
+        });
+
+        Geocodificador geocodificador = new Geocodificador(base, 10_000, null);
+        List<String[]> frequentes = logradouros.subList(0, 5_000); // Cabem no cache
+        for (String[] l : frequentes) geocodificador.localizar(l[0] + " - " + l[1] + ", " + l[2]);
+        medir("cache", consultas, i -> {
+            String[] l = frequentes.get(aleatorio.nextInt(frequentes.size()));
+            return geocodificador.localizar(l[0] + ", " + i + " - " + l[1] + ", " + l[2]);
+        });
+
+        RepositorioPontos semGeocodificador = new RepositorioPontos();
+        medir("cadastrar sem geocodificador", consultas, i -> {
+            String[] l = logradouros.get(aleatorio.nextInt(quantidade));
+            return semGeocodificador.cadastrar(l[0] + ", " + i + " - " + l[1] + ", " + l[2], "papel", "08-18");
+        });
+        RepositorioPontos frio = new RepositorioPontos();
+        frio.usarGeocodificador(new Geocodificador(base, 10_000, null));
+        medir("cadastrar cache frio", consultas, i -> {
+            String[] l = logradouros.get(i % quantidade); // Um logradouro novo a cada cadastro
+            return frio.cadastrar(l[0] + ", " + i + " - " + l[1] + ", " + l[2], "papel", "08-18");
+        });
+        RepositorioPontos quente = new RepositorioPontos();
+        quente.usarGeocodificador(geocodificador);
+        medir("cadastrar cache quente", consultas, i -> {
+            String[] l = frequentes.get(aleatorio.nextInt(frequentes.size()));
+            return quente.cadastrar(l[0] + ", " + i + " - " + l[1] + ", " + l[2], "papel", "08-18");
+        });
+        Geocodificador.Estatisticas e = geocodificador.estatisticas();
+        System.out.printf("# cache quente: %d acertos, %d faltas (%.1f%%)%n", e.acertos(), e.faltas(), 100 * e.taxaAcerto());
+    }
+
+    // Palavra única de letras para o i-ésimo logradouro (um número no fim seria lido como o número do imóvel)
+    private static String palavra(int i) {
+        StringBuilder palavra = new StringBuilder();
+        do {
+            palavra.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return "Vila" + palavra;
+    }
+
+    interface Caso {
+        Object executar(int i);
+    }
+
+    // Aquece com a mesma quantidade de execuções e mede cada uma separadamente para obter os percentis
+    private static void medir(String nome, int execucoes, Caso caso) {
+        for (int i = 0; i < execucoes; i++) Bancada.consumir(caso.executar(i));
+        long[] tempos = new long[execucoes];
+        for (int i = 0; i < execucoes; i++) {
+            long inicio = System.nanoTime();
+            Bancada.consumir(caso.executar(execucoes + i));
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        double media = Arrays.stream(tempos).average().orElse(0);
+        System.out.printf("%s;%.2f;%.2f;%.2f%n", nome, media / 1000, tempos[execucoes / 2] / 1000.0,
+                tempos[Math.min(execucoes - 1, (int) (0.99 * execucoes))] / 1000.0);
+    }
+}
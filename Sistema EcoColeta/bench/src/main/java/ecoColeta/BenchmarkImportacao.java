@@ -0,0 +1,63 @@
+package ecoColeta;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Vazão de IMPORTAR e EXPORTAR com um arquivo CSV grande, contra o Servidor em outro processo
+// (com diário em disco); como referência, importa parte do arquivo com CADASTRAR em pipeline
+// Uso: BenchmarkImportacao [linhas] [linhasDaReferencia]
+public class BenchmarkImportacao {
+    private static final int PORTA = 12403;
+    private static final String[] MATERIAIS = {"papel, vidro", "plástico, metal", "óleo de cozinha", "pilhas, baterias", "eletrônicos"};
+
+    public static void main(String[] args) throws Exception {
+        int linhas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int referencia = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        Path pasta = Files.createTempDirectory("ecocoleta-importacao");
+        Path arquivo = pasta.resolve("pontos.csv");
+        try (BufferedWriter csv = Files.newBufferedWriter(arquivo)) {
+            csv.write("endereco,materiais,horario\n");
+            for (int i = 0; i < linhas; i++) {
+                csv.write(Csv.juntar("Rua " + i + ", " + (i % 900 + 1), MATERIAIS[i % MATERIAIS.length], "08:00-18:00"));
+                csv.write('\n');
+            }
+        }
+        System.out.printf("Arquivo: %d linhas, %.1f MB%n", linhas, Files.size(arquivo) / 1048576.0);
+
+        Process servidor = ProcessoServidor.iniciar(PORTA, "ecocoleta.dados=" + pasta.resolve("dados"));
+        try {
+            System.out.println("operacao;linhas;segundos;linhas_por_segundo");
+
+            long inicio = System.nanoTime();
+            String resumo = TransferenciaCsv.importar("localhost", PORTA, arquivo, _ -> {});
+            imprimir("IMPORTAR", linhas, inicio);
+            System.out.println("  " + resumo);
+
+            inicio = System.nanoTime();
+            long exportados = TransferenciaCsv.exportar("localhost", PORTA, pasta.resolve("exportado.csv"), _ -> {});
+            imprimir("EXPORTAR", exportados, inicio);
+
+            try (ServicoConexao conexao = new ServicoConexao("localhost", PORTA, 600_000)) {
+                inicio = System.nanoTime();
+                List<CompletableFuture<List<String>>> respostas = new ArrayList<>(referencia);
+                for (int i = 0; i < referencia; i++) {
+                    respostas.add(conexao.enviar("CADASTRAR;Rua " + i + ";" + MATERIAIS[i % MATERIAIS.length] + ";08:00-18:00"));
+                }
+                for (CompletableFuture<List<String>> resposta : respostas) resposta.join();
+                imprimir("CADASTRAR_pipeline", referencia, inicio);
+            }
+        } finally {
+            servidor.destroy();
+        }
+    }
+
+    private static void imprimir(String operacao, long linhas, long inicio) {
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%s;%d;%.2f;%.0f%n", operacao, linhas, segundos, linhas / segundos);
+    }
+}
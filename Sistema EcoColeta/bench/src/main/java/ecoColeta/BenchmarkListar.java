@@ -0,0 +1,75 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+
+// Latência e alocação por LISTAR: montagem linha a linha (como era) contra a resposta em cache
+// Os bytes vão para um pipe esvaziado por outra thread, para incluir o custo real de escrita em um canal
+// Uso: BenchmarkListar [milisPorMedida]
+public class BenchmarkListar {
+    public static void main(String[] args) throws Exception {
+        long milis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        Pipe pipe = Pipe.open();
+        Thread dreno = Thread.ofPlatform().daemon().start(() -> {
+            ByteBuffer descarte = ByteBuffer.allocateDirect(256 * 1024);
+            try {
+                while (pipe.source().read(descarte) >= 0) descarte.clear();
+            } catch (IOException e) {}
+        });
+        Resposta saida = new Resposta(dados -> {
+            while (dados.hasRemaining()) pipe.sink().write(dados);
+        }, 1024);
+
+        System.out.println("implementacao;pontos;micros_por_listar;bytes_alocados_por_listar");
+        for (int quantidade : new int[] {10_000, 100_000}) {
+            RepositorioPontos repositorio = new RepositorioPontos();
+            for (int i = 0; i < quantidade; i++) {
+                repositorio.cadastrar("Rua " + i + ", " + (i % 900 + 1), "papel, vidro, plástico", "08:00-18:00");
+            }
+            CacheListagem cache = new CacheListagem(repositorio);
+
+            medir("linha_a_linha", quantidade, milis, threads, () -> {
+                for (PontoColeta p : repositorio.todos()) saida.println(p.getId() + " - " + p.toString());
+                saida.println();
+                saida.enviar();
+            });
+            medir("cache", quantidade, milis, threads, () -> {
+                saida.anexar(cache.obter());
+                saida.enviar();
+            });
+            // Pior caso do cache: uma alteração antes de cada LISTAR obriga a remontar
+            medir("cache_invalidado", quantidade, milis, threads, () -> {
+                repositorio.atualizar(1, "Rua 0, 1", "papel, vidro, plástico", "08:00-18:00");
+                saida.anexar(cache.obter());
+                saida.enviar();
+            });
+        }
+        pipe.sink().close();
+        dreno.join();
+    }
+
+    interface Listar {
+        void executar() throws IOException;
+    }
+
+    // Aquece pelo mesmo tempo da medida e informa média de tempo e de bytes alocados por execução
+    private static void medir(String nome, int pontos, long milis, com.sun.management.ThreadMXBean threads, Listar listar)
+            throws IOException {
+        for (long fim = System.nanoTime() + milis * 1_000_000; System.nanoTime() < fim; ) listar.executar();
+        long execucoes = 0;
+        long alocadosAntes = threads.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        long fim = inicio + milis * 1_000_000;
+        while (System.nanoTime() < fim) {
+            listar.executar();
+            execucoes++;
+        }
+        long decorrido = System.nanoTime() - inicio;
+        long alocados = threads.getCurrentThreadAllocatedBytes() - alocadosAntes;
+        System.out.printf("%s;%d;%.1f;%d%n", nome, pontos, decorrido / 1e3 / execucoes, alocados / execucoes);
+    }
+}
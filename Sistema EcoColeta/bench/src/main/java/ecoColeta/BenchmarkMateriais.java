@@ -0,0 +1,82 @@
+package ecoColeta;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.Random;
+
+// Memória ocupada por um catálogo de N pontos e latência de BUSCAR (RepositorioPontos.buscarPorMaterial)
+// - Os textos de materiais chegam como no protocolo: uma String nova por cadastro, mesmo quando o texto se
+//   repete, escritos de formas diferentes (maiúsculas, acentos, sinônimos)
+// - heap: memória ocupada depois de coletar o lixo, antes e depois do cadastro (bytes por ponto incluem o
+//   ponto, o endereço e todos os índices)
+// Uso: BenchmarkMateriais [pontos] [consultasPorCaso]
+public class BenchmarkMateriais {
+    private static final String[][] MATERIAIS = {
+        {"papel, vidro, plástico", "0.3"},
+        {"Papel, Vidro, Plastico", "0.1"},
+        {"papel, papelão, PET", "0.15"},
+        {"metal, papel", "0.15"},
+        {"latas de alumínio, vidro", "0.1"},
+        {"óleo de cozinha", "0.1"},
+        {"pilhas, baterias", "0.05"},
+        {"eletrônicos, pilhas", "0.03"},
+        {"lâmpadas fluorescentes", "0.02"},
+    };
+    private static final String[] CASOS = {"papel", "plástico", "pet", "vidro", "pilhas", "lâmpadas", "papel, vidro"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Random aleatorio = new Random(42);
+        long antes = memoriaOcupada();
+        RepositorioPontos repositorio = new RepositorioPontos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidade; i++) {
+            String materiais = new String(sortearMaterial(aleatorio).toCharArray()); // Cópia própria, como se lida da conexão
+            repositorio.cadastrar("Rua " + i, materiais, "08:00-18:00");
+        }
+        long duracao = System.nanoTime() - inicio;
+        long depois = memoriaOcupada();
+        System.out.printf("# %d pontos cadastrados em %d ms%n", quantidade, duracao / 1_000_000);
+        System.out.printf("# heap: %.1f MB (%.0f bytes por ponto)%n", (depois - antes) / 1e6, (double) (depois - antes) / quantidade);
+
+        System.out.println("consulta;media_us;p50_us;p99_us;encontrados");
+        for (String material : CASOS) medir(repositorio, material, consultas);
+        Reference.reachabilityFence(repositorio);
+    }
+
+    private static long memoriaOcupada() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Aquece com a mesma quantidade de consultas e mede cada uma separadamente para obter os percentis
+    private static void medir(RepositorioPontos repositorio, String material, int consultas) {
+        for (int i = 0; i < consultas; i++) Bancada.consumir(repositorio.buscarPorMaterial(material));
+        long[] tempos = new long[consultas];
+        int encontrados = 0;
+        for (int i = 0; i < consultas; i++) {
+            long inicio = System.nanoTime();
+            encontrados = repositorio.buscarPorMaterial(material).size();
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        double media = Arrays.stream(tempos).average().orElse(0);
+        System.out.printf("%s;%.1f;%.1f;%.1f;%d%n", material, media / 1000, tempos[consultas / 2] / 1000.0,
+                tempos[Math.min(consultas - 1, (int) (0.99 * consultas))] / 1000.0, encontrados);
+    }
+
+    private static String sortearMaterial(Random aleatorio) {
+        double sorteio = aleatorio.nextDouble();
+        for (String[] material : MATERIAIS) {
+            sorteio -= Double.parseDouble(material[1]);
+            if (sorteio < 0) return material[0];
+        }
+        return MATERIAIS[0][0];
+    }
+}
@@ -0,0 +1,100 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Custo das métricas do servidor:
+// - registro: HistogramaLatencia.registrar sozinho, com 1 e com várias threads no mesmo histograma (pior caso:
+//   todas medindo o mesmo comando)
+// - servidor: vazão de comandos curtos (LISTAR de uma página, BUSCAR raro, SUGERIR) por várias conexões, com o
+//   Servidor em outro processo com -Decocoleta.metricas=true e =false, depois de uma rodada de aquecimento de
+//   cada um; a ordem dos dois alterna a cada rodada e o sobrecusto compara as medianas
+// Uso: BenchmarkMetricas [conexoes] [rodadas]
+public class BenchmarkMetricas {
+    private static final int PORTA = 12431; // Um servidor por configuração, em portas seguidas a partir desta
+    private static final String[] CONFIGURACOES = {"true", "false"};
+
+    public static void main(String[] args) throws Exception {
+        int conexoes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rodadas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.println("medida;threads;ops_por_segundo;desvio;bytes_por_op");
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (int threads : new int[] {1, conexoes}) {
+            System.out.println(Bancada.medir("registro", threads, 3, 5, 500,
+                    aleatorio -> histograma.registrar(aleatorio.nextLong(1_000, 5_000_000))));
+        }
+
+        Process[] servidores = new Process[CONFIGURACOES.length];
+        try {
+            for (int i = 0; i < CONFIGURACOES.length; i++) {
+                Path dados = Files.createTempDirectory("ecocoleta-metricas");
+                servidores[i] = ProcessoServidor.iniciar(PORTA + i, "ecocoleta.metricas=" + CONFIGURACOES[i], "ecocoleta.dados=" + dados);
+                povoar(PORTA + i);
+            }
+            for (int i = 0; i < CONFIGURACOES.length; i++) medirServidor(PORTA + i, conexoes, "aquecimento"); // Descartada
+            List<List<Double>> medidas = List.of(new ArrayList<>(), new ArrayList<>());
+            for (int r = 0; r < rodadas; r++) {
+                for (int j = 0; j < CONFIGURACOES.length; j++) {
+                    int i = (j + r) % CONFIGURACOES.length;
+                    Bancada.Resultado resultado = medirServidor(PORTA + i, conexoes, "metricas=" + CONFIGURACOES[i]);
+                    System.out.println(resultado);
+                    medidas.get(i).add(resultado.opsPorSegundo());
+                }
+            }
+            double com = mediana(medidas.get(0));
+            double sem = mediana(medidas.get(1));
+            System.out.printf("sobrecusto_metricas;%d;%.1f%%;;%n", conexoes, 100 * (sem - com) / sem);
+        } finally {
+            for (Process servidor : servidores) {
+                if (servidor != null) servidor.destroy();
+            }
+        }
+    }
+
+    private static double mediana(List<Double> valores) {
+        List<Double> ordenados = valores.stream().sorted().toList();
+        int n = ordenados.size();
+        return n % 2 == 1 ? ordenados.get(n / 2) : (ordenados.get(n / 2 - 1) + ordenados.get(n / 2)) / 2;
+    }
+
+    private static void povoar(int porta) throws Exception {
+        try (ServicoConexao conexao = new ServicoConexao("localhost", porta, 60_000)) {
+            for (int i = 0; i < 5_000; i++) {
+                String material = i % 100 == 0 ? "pilhas" : "papel, vidro";
+                conexao.enviar("CADASTRAR;Rua Medida " + i + ", " + i + ";" + material + ";08:00-18:00");
+            }
+            conexao.enviar("LISTAR;0;1").join();
+        }
+    }
+
+    // Cada thread da Bancada usa a sua conexão, esperando cada resposta antes do próximo comando
+    private static Bancada.Resultado medirServidor(int porta, int conexoes, String nome) throws Exception {
+        ConcurrentLinkedQueue<ServicoConexao> abertas = new ConcurrentLinkedQueue<>();
+        ThreadLocal<ServicoConexao> daThread = ThreadLocal.withInitial(() -> {
+            try {
+                ServicoConexao c = new ServicoConexao("localhost", porta, 60_000);
+                abertas.add(c);
+                return c;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            return Bancada.medir(nome, conexoes, 2, 3, 1000, aleatorio -> {
+                ServicoConexao c = daThread.get();
+                List<String> resposta = switch (aleatorio.nextInt(3)) {
+                    case 0 -> c.enviar("LISTAR;" + aleatorio.nextInt(4_980) + ";20").join();
+                    case 1 -> c.enviar("BUSCAR;pilhas").join();
+                    default -> c.enviar("SUGERIR;rua med;5").join();
+                };
+                Bancada.consumir(resposta);
+            });
+        } finally {
+            for (ServicoConexao c : abertas) c.close();
+        }
+    }
+}
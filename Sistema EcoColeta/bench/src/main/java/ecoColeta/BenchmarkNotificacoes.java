@@ -0,0 +1,82 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Atraso entre um CADASTRAR e a chegada do evento CADASTRADO às conexões que assinaram (ASSINAR), com vários
+// assinantes, nos dois motores; o tempo conta do envio do comando até o evento chegar ao último assinante
+// O Servidor roda em outro processo, com diário em disco
+// Uso: BenchmarkNotificacoes [cadastros] [assinantes separados por vírgula]
+public class BenchmarkNotificacoes {
+    private static final int PORTA = 12421; // Um servidor por motor, em portas seguidas a partir desta
+
+    public static void main(String[] args) throws Exception {
+        int cadastros = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        String[] assinantes = (args.length > 1 ? args[1] : "1,10,100").split(",");
+
+        System.out.println("motor;assinantes;cadastros;p50_us;p99_us;max_us");
+        String[] motores = {"virtual", "nio"};
+        for (int m = 0; m < motores.length; m++) {
+            String motor = motores[m];
+            Path dados = Files.createTempDirectory("ecocoleta-notificacoes");
+            Process servidor = ProcessoServidor.iniciar(PORTA + m, "ecocoleta.motor=" + motor, "ecocoleta.dados=" + dados);
+            try (ServicoConexao conexao = new ServicoConexao("localhost", PORTA + m, 60_000)) {
+                for (String quantidade : assinantes) {
+                    medir(conexao, motor, Integer.parseInt(quantidade.trim()), cadastros / 4, false); // Aquecimento
+                    medir(conexao, motor, Integer.parseInt(quantidade.trim()), cadastros, true);
+                }
+            } finally {
+                servidor.destroy();
+            }
+        }
+    }
+
+    private static void medir(ServicoConexao conexao, String motor, int assinantes, int cadastros, boolean imprimir) throws Exception {
+        // Por ID cadastrado: quantos assinantes ainda não receberam o evento e quando o último recebeu
+        ConcurrentHashMap<Integer, int[]> faltam = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Integer, Long> chegada = new ConcurrentHashMap<>();
+        List<ServicoConexao.Assinatura> assinaturas = new ArrayList<>();
+        for (int i = 0; i < assinantes; i++) {
+            ServicoConexao.Assinatura a = conexao.assinar(eventos -> {
+                long agora = System.nanoTime();
+                for (String evento : eventos) {
+                    if (!evento.startsWith("CADASTRADO;")) continue;
+                    String resto = evento.substring(evento.indexOf(';', "CADASTRADO;".length()) + 1);
+                    int id = Integer.parseInt(resto.substring(0, resto.indexOf(' ')));
+                    int[] contador = faltam.computeIfAbsent(id, _ -> new int[] {assinantes});
+                    synchronized (contador) {
+                        if (--contador[0] == 0) chegada.put(id, agora);
+                    }
+                }
+            });
+            a.inicio().get(10, TimeUnit.SECONDS);
+            assinaturas.add(a);
+        }
+
+        long[] envio = new long[cadastros];
+        int[] ids = new int[cadastros];
+        for (int i = 0; i < cadastros; i++) {
+            envio[i] = System.nanoTime();
+            String resposta = conexao.enviar("CADASTRAR;Rua Notificada " + i + ";papel;08:00-18:00").join().get(0);
+            ids[i] = Integer.parseInt(resposta.substring(resposta.lastIndexOf(' ') + 1));
+        }
+        List<Integer> esperados = Arrays.stream(ids).boxed().toList();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        boolean chegaram;
+        while (!(chegaram = chegada.keySet().containsAll(esperados)) && System.nanoTime() < limite) Thread.sleep(10);
+        for (ServicoConexao.Assinatura a : assinaturas) a.close();
+        if (!chegaram) throw new IllegalStateException("Eventos não chegaram a todos os assinantes");
+        if (!imprimir) return;
+
+        long[] atrasos = new long[cadastros];
+        for (int i = 0; i < cadastros; i++) atrasos[i] = chegada.get(ids[i]) - envio[i];
+        Arrays.sort(atrasos);
+        System.out.printf("%s;%d;%d;%.0f;%.0f;%.0f%n", motor, assinantes, cadastros, atrasos[cadastros / 2] / 1000.0,
+                atrasos[Math.min(cadastros - 1, (int) (0.99 * cadastros))] / 1000.0, atrasos[cadastros - 1] / 1000.0);
+    }
+}
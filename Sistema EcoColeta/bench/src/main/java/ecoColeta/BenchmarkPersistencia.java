@@ -0,0 +1,100 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+// Benchmark da persistência:
+// 1) vazão de gravação no diário com vários administradores simultâneos (group commit)
+// 2) tempo de recuperação de um catálogo grande (snapshot + diário) pelo caminho real do Servidor
+// Uso: BenchmarkPersistencia [operacoesPorRodada] [pontosNaRecuperacao]
+public class BenchmarkPersistencia {
+
+    public static void main(String[] args) throws Exception {
+        int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int pontos = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.println("admins;operacoes;ops_por_segundo;fsyncs;registros_por_fsync");
+        for (int admins : new int[] {1, 4, 16, 64, 256}) {
+            medirGravacao(admins, operacoes);
+        }
+        medirRecuperacao(pontos);
+    }
+
+    // Cada administrador espera seu registro chegar ao disco antes de enviar o próximo, como no servidor
+    private static void medirGravacao(int admins, int operacoes) throws Exception {
+        Path diretorio = Files.createTempDirectory("ecocoleta-bench");
+        Persistencia persistencia = new Persistencia(diretorio);
+        persistencia.recuperar(semRecuperacao());
+        persistencia.iniciar();
+        Object trava = new Object(); // Faz o papel do bloqueio dos pontos no Servidor
+
+        long inicio = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int a = 0; a < admins; a++) {
+                int admin = a;
+                executor.execute(() -> {
+                    for (int i = admin; i < operacoes; i += admins) {
+                        CompletableFuture<Void> gravado;
+                        synchronized (trava) {
+                            gravado = persistencia.registrarCadastro(i, "Rua " + i, "papel, vidro", "08:00-18:00");
+                        }
+                        gravado.join();
+                    }
+                });
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long fsyncs = persistencia.lotesGravados();
+        System.out.printf("%d;%d;%.0f;%d;%.1f%n", admins, operacoes, operacoes / segundos, fsyncs, operacoes / (double) fsyncs);
+        apagar(diretorio);
+    }
+
+    // Grava um snapshot com o catálogo e mais 1% de alterações no diário, depois mede a recuperação
+    private static void medirRecuperacao(int pontos) throws Exception {
+        Path diretorio = Files.createTempDirectory("ecocoleta-bench");
+        Persistencia preparo = new Persistencia(diretorio);
+        preparo.recuperar(semRecuperacao());
+        preparo.iniciar();
+        List<PontoColeta> catalogo = new ArrayList<>(pontos);
+        String[] materiais = {"papel, vidro", "plástico, metal", "óleo de cozinha", "pilhas, baterias", "eletrônicos"};
+        for (int i = 1; i <= pontos; i++) {
+            catalogo.add(new PontoColeta(i, "Rua " + (i % 5000) + ", " + i, materiais[i % materiais.length], "08:00-18:00"));
+        }
+        long segmento = preparo.iniciarSnapshot().join();
+        preparo.gravarSnapshot(catalogo, pontos + 1, segmento);
+        CompletableFuture<Void> ultimo = null;
+        for (int i = 1; i <= pontos / 100; i++) {
+            ultimo = preparo.registrarAtualizacao(i, "Avenida " + i, "vidro", "09:00-17:00");
+        }
+        if (ultimo != null) ultimo.join();
+        catalogo = null;
+
+        long inicio = System.nanoTime();
+        Servidor.carregar(new Persistencia(diretorio));
+        System.out.printf("Recuperação de %d pontos (+%d registros no diário): %d ms%n",
+                pontos, pontos / 100, (System.nanoTime() - inicio) / 1_000_000);
+        apagar(diretorio);
+    }
+
+    private static Persistencia.Recuperacao semRecuperacao() {
+        return new Persistencia.Recuperacao() {
+            public void cadastrar(int id, String endereco, String materiais, String horario) {}
+            public void atualizar(int id, String endereco, String materiais, String horario) {}
+            public void remover(int id) {}
+        };
+    }
+
+    private static void apagar(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ecoColeta;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Latência de PESQUISAR (RepositorioPontos.pesquisar, primeira página de 20) em um catálogo de N pontos espalhados
+// por alguns milhares de logradouros e bairros com nomes variados, e memória ocupada pelo catálogo com todos os índices
+// - exato: uma palavra característica do logradouro e um dos nomes comuns dele ("jaguara barao")
+// - erro: a mesma consulta com uma letra trocada na palavra característica
+// - prefixo: só as 4 primeiras letras da palavra característica
+// - comuns: só palavras presentes em boa parte do catálogo ("rua papel")
+// Uso: BenchmarkPesquisa [pontos] [consultasPorCaso] [logradouros]
+public class BenchmarkPesquisa {
+    private static final String[] TIPOS = {"Rua", "Avenida", "Travessa", "Alameda"};
+    private static final String[] TITULOS = {"Barão", "Visconde", "Coronel", "Doutor", "Professor", "Marechal", "Dom", "Padre"};
+    private static final String[] NOMES = {"Antônio", "José", "Maria", "João", "Francisco", "Carlos", "Pedro", "Paulo",
+        "Luís", "Manuel", "Ana", "Rita"};
+    private static final String[] SILABAS = {"ja", "gua", "ra", "ta", "pu", "bi", "ri", "ti", "ba", "ca", "ma", "ne",
+        "po", "lu", "qui", "ro", "sa", "mi", "to", "va", "ce", "jo", "na", "pi"};
+    private static final String[] CIDADES = {"São Paulo", "Campinas", "Santos", "Sorocaba", "Jundiaí", "Piracicaba", "Bauru", "Franca"};
+    private static final String[] MATERIAIS = {"papel, vidro, plástico", "metal, papel", "óleo de cozinha", "pilhas, baterias",
+        "PET, papelão", "lâmpadas fluorescentes"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int quantidadeLogradouros = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        Random aleatorio = new Random(42);
+        List<String[]> logradouros = new ArrayList<>(); // {nome completo, palavra característica, nome comum}
+        for (int i = 0; i < quantidadeLogradouros; i++) {
+            String caracteristica = palavra(aleatorio);
+            String nome = NOMES[aleatorio.nextInt(NOMES.length)];
+            String completo = TIPOS[aleatorio.nextInt(TIPOS.length)] + " " + TITULOS[aleatorio.nextInt(TITULOS.length)] + " "
+                    + nome + " " + caracteristica;
+            logradouros.add(new String[] {completo, caracteristica, nome});
+        }
+
+        String[] bairros = new String[2_000];
+        for (int i = 0; i < bairros.length; i++) bairros[i] = palavra(aleatorio);
+
+        long antes = memoriaOcupada();
+        RepositorioPontos repositorio = new RepositorioPontos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidade; i++) {
+            String[] l = logradouros.get(aleatorio.nextInt(logradouros.size()));
+            String endereco = l[0] + ", " + (1 + aleatorio.nextInt(3000)) + " - " + bairros[aleatorio.nextInt(bairros.length)]
+                    + ", " + CIDADES[aleatorio.nextInt(CIDADES.length)];
+            repositorio.cadastrar(endereco, MATERIAIS[aleatorio.nextInt(MATERIAIS.length)], "08:00-18:00");
+        }
+        long duracao = System.nanoTime() - inicio;
+        long depois = memoriaOcupada();
+        System.out.printf("# %d pontos em %d logradouros cadastrados em %d ms%n", quantidade, quantidadeLogradouros, duracao / 1_000_000);
+        System.out.printf("# heap: %.1f MB (%.0f bytes por ponto)%n", (depois - antes) / 1e6, (double) (depois - antes) / quantidade);
+
+        System.out.println("caso;media_us;p50_us;p99_us;total_medio");
+        medir("exato", consultas, () -> {
+            String[] l = logradouros.get(aleatorio.nextInt(logradouros.size()));
+            return repositorio.pesquisar(l[1] + " " + l[2], 0, 20);
+        });
+        medir("erro", consultas, () -> {
+            String[] l = logradouros.get(aleatorio.nextInt(logradouros.size()));
+            return repositorio.pesquisar(comErro(l[1], aleatorio) + " " + l[2], 0, 20);
+        });
+        medir("prefixo", consultas, () -> {
+            String[] l = logradouros.get(aleatorio.nextInt(logradouros.size()));
+            return repositorio.pesquisar(l[1].substring(0, 4), 0, 20);
+        });
+        medir("comuns", consultas, () -> repositorio.pesquisar(TIPOS[aleatorio.nextInt(TIPOS.length)] + " papel", 0, 20));
+        Reference.reachabilityFence(repositorio);
+    }
+
+    interface Caso {
+        RepositorioPontos.Pesquisa executar();
+    }
+
+    // Aquece com a mesma quantidade de consultas e mede cada uma separadamente para obter os percentis
+    private static void medir(String nome, int consultas, Caso caso) {
+        for (int i = 0; i < consultas; i++) Bancada.consumir(caso.executar());
+        long[] tempos = new long[consultas];
+        long total = 0;
+        for (int i = 0; i < consultas; i++) {
+            long inicio = System.nanoTime();
+            RepositorioPontos.Pesquisa pesquisa = caso.executar();
+            tempos[i] = System.nanoTime() - inicio;
+            total += pesquisa.total();
+        }
+        Arrays.sort(tempos);
+        double media = Arrays.stream(tempos).average().orElse(0);
+        System.out.printf("%s;%.1f;%.1f;%.1f;%d%n", nome, media / 1000, tempos[consultas / 2] / 1000.0,
+                tempos[Math.min(consultas - 1, (int) (0.99 * consultas))] / 1000.0, total / consultas);
+    }
+
+    private static long memoriaOcupada() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Palavra de 3 ou 4 sílabas, com a inicial maiúscula ("Jaguara", "Itapura")
+    private static String palavra(Random aleatorio) {
+        StringBuilder palavra = new StringBuilder();
+        int silabas = 3 + aleatorio.nextInt(2);
+        for (int i = 0; i < silabas; i++) palavra.append(SILABAS[aleatorio.nextInt(SILABAS.length)]);
+        palavra.setCharAt(0, Character.toUpperCase(palavra.charAt(0)));
+        return palavra.toString();
+    }
+
+    // Troca uma letra do meio da palavra (a primeira é mantida, como nos erros de digitação mais comuns)
+    private static String comErro(String palavra, Random aleatorio) {
+        int posicao = 1 + aleatorio.nextInt(palavra.length() - 1);
+        char trocada = (char) ('a' + aleatorio.nextInt(26));
+        return palavra.substring(0, posicao) + trocada + palavra.substring(posicao + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Vazão de uma importação em massa (CADASTRAR em sequência) por um enlace com latência simulada:
+// - alternado: envia um comando e espera a resposta antes do próximo (um tempo de ida e volta por comando)
+// - pipeline: envia todos com identificador ("@id;COMANDO") e recolhe as respostas conforme chegam
+// O Servidor roda em outro processo, com diário em disco, e o ProxyLatencia fica entre os dois
+// Uso: BenchmarkPipelining [comandosPorImportacao] [atrasos em ms separados por vírgula, por sentido]
+public class BenchmarkPipelining {
+    private static final int PORTA_SERVIDOR = 12401;
+    private static final int PORTA_PROXY = 12402; // Um proxy por atraso, em portas seguidas a partir desta
+
+    public static void main(String[] args) throws Exception {
+        int comandos = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        String[] atrasos = (args.length > 1 ? args[1] : "0,5,25").split(",");
+
+        Path dados = Files.createTempDirectory("ecocoleta-pipelining");
+        Process servidor = ProcessoServidor.iniciar(PORTA_SERVIDOR, "ecocoleta.dados=" + dados);
+        try {
+            System.out.println("atraso_ms;modo;comandos;segundos;comandos_por_segundo");
+            for (int i = 0; i < atrasos.length; i++) {
+                long atraso = Long.parseLong(atrasos[i].trim());
+                int porta = PORTA_PROXY + i;
+                ProxyLatencia proxy = new ProxyLatencia(porta, "localhost", PORTA_SERVIDOR, atraso);
+                try {
+                    importar(porta, atraso, "aquecimento", comandos, false); // Aquece JIT e diário, descartado
+                    System.out.println(importar(porta, atraso, "alternado", comandos, false));
+                    System.out.println(importar(porta, atraso, "pipeline", comandos, true));
+                } finally {
+                    proxy.close();
+                }
+            }
+        } finally {
+            servidor.destroy();
+        }
+    }
+
+    private static String importar(int porta, long atraso, String modo, int comandos, boolean pipeline) throws Exception {
+        try (ServicoConexao conexao = new ServicoConexao("localhost", porta, 120_000)) {
+            long inicio = System.nanoTime();
+            List<CompletableFuture<List<String>>> respostas = new ArrayList<>();
+            for (int i = 0; i < comandos; i++) {
+                CompletableFuture<List<String>> resposta = conexao.enviar("CADASTRAR;Rua Importada " + i + ";papel, vidro;08:00-18:00");
+                if (pipeline) {
+                    respostas.add(resposta);
+                } else {
+                    verificar(resposta.join());
+                }
+            }
+            for (CompletableFuture<List<String>> resposta : respostas) verificar(resposta.join());
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            return String.format("%d;%s;%d;%.3f;%.0f", atraso, modo, comandos, segundos, comandos / segundos);
+        }
+    }
+
+    private static void verificar(List<String> linhas) {
+        if (linhas.isEmpty() || !linhas.get(0).startsWith("Ponto de Coleta Cadastrado")) {
+            throw new IllegalStateException("Resposta inesperada: " + linhas);
+        }
+    }
+}
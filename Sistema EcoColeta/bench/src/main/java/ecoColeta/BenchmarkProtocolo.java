@@ -0,0 +1,145 @@
+package ecoColeta;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Protocolo de texto (com identificador, como o ServicoConexao envia) contra o protocolo binário
+// - decodificacao: só a leitura do pedido no servidor (bytes -> comando e campos)
+// - sessao: o pedido inteiro passando pela Sessao (leitura, execução e resposta), com os bytes
+//   de pedido e de resposta que iriam pela rede
+// Uso: BenchmarkProtocolo [milisPorMedida] [pontos]
+public class BenchmarkProtocolo {
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Execucao {
+        void executar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long milis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int pontos = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        RepositorioPontos repositorio = Servidor.repositorio(); // O mesmo usado pela Sessao
+        for (int i = 0; i < pontos; i++) {
+            repositorio.cadastrar("Rua " + i + ", " + (i % 900 + 1), "papel, vidro, plástico", "08:00-18:00");
+        }
+
+        System.out.println("medida;protocolo;pedido;ns_por_op;bytes_alocados_por_op;bytes_pedido;bytes_resposta");
+
+        decodificacao(milis, "REMOVER", "@1b;REMOVER;4321", quadro(ProtocoloBinario.REMOVER, 47, b -> ProtocoloBinario.escreverVarint(b, 4321)));
+        decodificacao(milis, "PROXIMO", "@1b;PROXIMO;4321;20", quadro(ProtocoloBinario.PROXIMO, 47, b -> {
+            ProtocoloBinario.escreverVarint(b, 4321);
+            ProtocoloBinario.escreverVarint(b, 20);
+        }));
+        decodificacao(milis, "ATUALIZAR", "@1b;ATUALIZAR;4321;Rua das Flores, 120;papel, vidro;08:00-18:00",
+                quadro(ProtocoloBinario.ATUALIZAR, 47, b -> {
+                    ProtocoloBinario.escreverVarint(b, 4321);
+                    ProtocoloBinario.escreverTexto(b, "Rua das Flores, 120");
+                    ProtocoloBinario.escreverTexto(b, "papel, vidro");
+                    ProtocoloBinario.escreverTexto(b, "08:00-18:00");
+                }));
+
+        sessao(milis, "REMOVER_inexistente", "@1b;REMOVER;" + (pontos + 10),
+                quadro(ProtocoloBinario.REMOVER, 47, b -> ProtocoloBinario.escreverVarint(b, pontos + 10)));
+        sessao(milis, "PROXIMO_20", "@1b;PROXIMO;4321;20", quadro(ProtocoloBinario.PROXIMO, 47, b -> {
+            ProtocoloBinario.escreverVarint(b, 4321);
+            ProtocoloBinario.escreverVarint(b, 20);
+        }));
+        sessao(milis, "PROXIMO_1000", "@1b;PROXIMO;1;1000", quadro(ProtocoloBinario.PROXIMO, 47, b -> {
+            ProtocoloBinario.escreverVarint(b, 1);
+            ProtocoloBinario.escreverVarint(b, 1000);
+        }));
+        sessao(milis, "ATUALIZAR", "@1b;ATUALIZAR;4321;Rua das Flores, 120;papel, vidro;08:00-18:00",
+                quadro(ProtocoloBinario.ATUALIZAR, 47, b -> {
+                    ProtocoloBinario.escreverVarint(b, 4321);
+                    ProtocoloBinario.escreverTexto(b, "Rua das Flores, 120");
+                    ProtocoloBinario.escreverTexto(b, "papel, vidro");
+                    ProtocoloBinario.escreverTexto(b, "08:00-18:00");
+                }));
+    }
+
+    interface Campos {
+        void escrever(ByteBuffer quadro);
+    }
+
+    private static ByteBuffer quadro(byte codigo, long id, Campos campos) {
+        ByteBuffer b = ByteBuffer.allocate(256);
+        b.putInt(0).put(codigo);
+        ProtocoloBinario.escreverVarint(b, id);
+        campos.escrever(b);
+        b.putInt(0, b.position() - 4);
+        return b.flip();
+    }
+
+    // Leitura do pedido como cada protocolo faz no servidor: linha -> String -> split -> parseInt,
+    // contra varints e textos lidos direto do buffer do quadro
+    private static void decodificacao(long milis, String pedido, String linha, ByteBuffer quadro) throws Exception {
+        byte[] bytesLinha = (linha + "\n").getBytes(StandardCharsets.UTF_8);
+        medir("decodificacao", "texto", pedido, milis, bytesLinha.length, 0, () -> {
+            String comando = new String(bytesLinha, 0, bytesLinha.length - 1, StandardCharsets.UTF_8);
+            int separador = comando.indexOf(';');
+            String id = comando.substring(1, separador);
+            String[] dados = comando.substring(separador + 1).split(";", 5);
+            int numero = Integer.parseInt(dados[1].trim());
+            if (dados[0].equals("PROXIMO")) numero += Integer.parseInt(dados[2].trim());
+            Bancada.consumir(id);
+            Bancada.consumir(dados);
+            Bancada.consumir(numero);
+        });
+        medir("decodificacao", "binario", pedido, milis, quadro.remaining(), 0, () -> {
+            quadro.position(4);
+            byte codigo = quadro.get();
+            long id = ProtocoloBinario.lerVarint(quadro);
+            int numero = ProtocoloBinario.lerInt(quadro);
+            if (codigo == ProtocoloBinario.PROXIMO) {
+                numero += ProtocoloBinario.lerInt(quadro);
+            } else if (codigo == ProtocoloBinario.ATUALIZAR) {
+                Bancada.consumir(ProtocoloBinario.lerTexto(quadro));
+                Bancada.consumir(ProtocoloBinario.lerTexto(quadro));
+                Bancada.consumir(ProtocoloBinario.lerTexto(quadro));
+            }
+            Bancada.consumir(id + numero);
+        });
+    }
+
+    // Pedido completo por uma Sessao de cada protocolo; a resposta vai para um destino que só conta os bytes
+    private static void sessao(long milis, String pedido, String linha, ByteBuffer quadro) throws Exception {
+        long[] enviados = new long[1];
+        Resposta.Destino contador = dados -> {
+            enviados[0] += dados.remaining();
+            dados.position(dados.limit());
+        };
+
+        ByteBuffer bytesLinha = ByteBuffer.wrap((linha + "\n").getBytes(StandardCharsets.UTF_8));
+        Sessao texto = new Sessao(new Resposta(contador, 1024));
+        texto.receber(bytesLinha.rewind());
+        long respostaTexto = enviados[0];
+        medir("sessao", "texto", pedido, milis, bytesLinha.capacity(), respostaTexto, () -> texto.receber(bytesLinha.rewind()));
+
+        Sessao binaria = new Sessao(new Resposta(contador, 1024));
+        binaria.receber(ByteBuffer.wrap(ProtocoloBinario.SAUDACAO));
+        enviados[0] = 0;
+        binaria.receber(quadro.rewind());
+        long respostaBinaria = enviados[0];
+        medir("sessao", "binario", pedido, milis, quadro.limit(), respostaBinaria, () -> binaria.receber(quadro.rewind()));
+    }
+
+    // Aquece pelo mesmo tempo da medida e informa média de tempo e de bytes alocados por execução
+    private static void medir(String medida, String protocolo, String pedido, long milis, long bytesPedido, long bytesResposta,
+                              Execucao execucao) throws Exception {
+        for (long fim = System.nanoTime() + milis * 1_000_000; System.nanoTime() < fim; ) execucao.executar();
+        long execucoes = 0;
+        long alocadosAntes = THREADS.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        long fim = inicio + milis * 1_000_000;
+        while (System.nanoTime() < fim) {
+            execucao.executar();
+            execucoes++;
+        }
+        long decorrido = System.nanoTime() - inicio;
+        long alocados = THREADS.getCurrentThreadAllocatedBytes() - alocadosAntes;
+        System.out.printf("%s;%s;%s;%.0f;%d;%d;%d%n", medida, protocolo, pedido, (double) decorrido / execucoes,
+                alocados / execucoes, bytesPedido, bytesResposta);
+    }
+}
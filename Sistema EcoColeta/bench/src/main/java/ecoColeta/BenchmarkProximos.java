@@ -0,0 +1,106 @@
+package ecoColeta;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Latência de PROXIMOS (RepositorioPontos.proximos) em um catálogo de N pontos com localização:
+// 90% concentrados em volta de 30 cidades e 10% espalhados pelo território, com materiais de frequências
+// diferentes (qualquer um, comum, médio e raro); cada consulta parte de um lugar sorteado perto de uma cidade
+// - grade: o índice espacial (ou a varredura dos pontos do material, quando ele é raro)
+// - varredura: distância de todos os pontos que aceitam o material, para comparação
+// Uso: BenchmarkProximos [pontos] [consultasPorCaso] [k]
+public class BenchmarkProximos {
+    private static final String[][] MATERIAIS = {
+        // Materiais do ponto e a fração dos pontos que os aceitam
+        {"papel, vidro, plástico", "0.55"},
+        {"metal, papel", "0.3"},
+        {"óleo de cozinha", "0.1"},
+        {"pilhas, baterias", "0.045"},
+        {"lâmpadas fluorescentes", "0.005"},
+    };
+    private static final String[] CASOS = {"", "papel", "óleo", "pilhas", "lâmpadas"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Random aleatorio = new Random(42);
+        double[][] cidades = new double[30][];
+        for (int i = 0; i < cidades.length; i++) cidades[i] = new double[] {-30 + 27 * aleatorio.nextDouble(), -70 + 35 * aleatorio.nextDouble()};
+
+        RepositorioPontos repositorio = new RepositorioPontos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidade; i++) {
+            double[] local = sortearLocal(aleatorio, cidades, 0.9);
+            repositorio.cadastrar("Rua " + i, sortearMaterial(aleatorio), "08:00-18:00", local[0], local[1]);
+        }
+        System.out.printf("# %d pontos cadastrados em %d ms%n", quantidade, (System.nanoTime() - inicio) / 1_000_000);
+
+        System.out.println("material;implementacao;k;media_us;p50_us;p99_us;p999_us");
+        for (String material : CASOS) {
+            String nome = material.isEmpty() ? "(qualquer)" : material;
+            medir(nome, "grade", consultas, k, aleatorio, cidades, (lat, lon) -> repositorio.proximos(lat, lon, k, material));
+            medir(nome, "varredura", Math.max(1, consultas / 100), k, aleatorio, cidades, (lat, lon) -> varredura(repositorio, lat, lon, k, material));
+        }
+    }
+
+    interface Consulta {
+        List<?> executar(double latitude, double longitude);
+    }
+
+    // Aquece com a mesma quantidade de consultas e mede cada uma separadamente para obter os percentis
+    private static void medir(String material, String implementacao, int consultas, int k, Random aleatorio, double[][] cidades, Consulta consulta) {
+        for (int i = 0; i < consultas; i++) {
+            double[] local = sortearLocal(aleatorio, cidades, 1);
+            Bancada.consumir(consulta.executar(local[0], local[1]));
+        }
+        long[] tempos = new long[consultas];
+        for (int i = 0; i < consultas; i++) {
+            double[] local = sortearLocal(aleatorio, cidades, 1);
+            long inicio = System.nanoTime();
+            Bancada.consumir(consulta.executar(local[0], local[1]));
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        double media = Arrays.stream(tempos).average().orElse(0);
+        System.out.printf("%s;%s;%d;%.1f;%.1f;%.1f;%.1f%n", material, implementacao, k, media / 1000,
+                percentil(tempos, 0.5) / 1000, percentil(tempos, 0.99) / 1000, percentil(tempos, 0.999) / 1000);
+    }
+
+    private static double percentil(long[] ordenados, double fracao) {
+        return ordenados[Math.min(ordenados.length - 1, (int) (fracao * ordenados.length))];
+    }
+
+    // Com probabilidade 'perto' o local fica em volta de uma cidade (desvio de cerca de 20 km); senão, em qualquer lugar
+    private static double[] sortearLocal(Random aleatorio, double[][] cidades, double perto) {
+        if (aleatorio.nextDouble() >= perto) return new double[] {-30 + 27 * aleatorio.nextDouble(), -70 + 35 * aleatorio.nextDouble()};
+        double[] cidade = cidades[aleatorio.nextInt(cidades.length)];
+        return new double[] {cidade[0] + 0.2 * aleatorio.nextGaussian(), cidade[1] + 0.2 * aleatorio.nextGaussian()};
+    }
+
+    private static String sortearMaterial(Random aleatorio) {
+        double sorteio = aleatorio.nextDouble();
+        for (String[] material : MATERIAIS) {
+            sorteio -= Double.parseDouble(material[1]);
+            if (sorteio < 0) return material[0];
+        }
+        return MATERIAIS[0][0];
+    }
+
+    // Referência sem índice espacial: distância de todos os pontos que aceitam o material
+    private static List<IndiceEspacial.Vizinho> varredura(RepositorioPontos repositorio, double latitude, double longitude, int k, String material) {
+        IndiceEspacial.Melhores melhores = new IndiceEspacial.Melhores(k, latitude, longitude);
+        if (material.isEmpty()) {
+            for (PontoColeta p : repositorio.todos()) {
+                melhores.oferecer(p.getId(), p.getLatitude(), p.getLongitude());
+            }
+        } else {
+            for (PontoColeta p : repositorio.buscarPorMaterial(material)) {
+                melhores.oferecer(p.getId(), p.getLatitude(), p.getLongitude());
+            }
+        }
+        return List.of(melhores.resultado());
+    }
+}
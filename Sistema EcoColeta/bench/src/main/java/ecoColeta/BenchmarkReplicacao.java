@@ -0,0 +1,103 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Replicação com líder e seguidores, cada servidor em um processo (ver Replicacao):
+// - leitura: vazão de LISTAR de uma página e BUSCAR de um material raro com as conexões repartidas entre os
+//   servidores que atendem leituras (só o líder, depois o líder e 1, 2... seguidores); cada thread da Bancada
+//   usa a sua conexão e espera cada resposta
+// - atraso: tempo entre a resposta do CADASTRAR no líder e o ponto aparecer no primeiro seguidor
+// - encaminhada: CADASTRAR pedido ao seguidor, que só responde depois de a cópia dele ter o ponto
+// A vazão de leitura só cresce com os seguidores se cada processo tiver os seus próprios núcleos
+// Uso: BenchmarkReplicacao [seguidores] [conexoes] [pontos]
+public class BenchmarkReplicacao {
+    private static final int PORTA = 12451; // Líder nesta porta, seguidores nas seguintes
+
+    public static void main(String[] args) throws Exception {
+        int seguidores = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int conexoes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int pontos = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        List<Process> processos = new ArrayList<>();
+        try {
+            processos.add(ProcessoServidor.iniciar(PORTA, "ecocoleta.dados=" + Files.createTempDirectory("ecocoleta-lider")));
+            povoar(PORTA, pontos);
+            for (int i = 1; i <= seguidores; i++) {
+                processos.add(ProcessoServidor.iniciar(PORTA + i, "ecocoleta.lider=localhost:" + PORTA,
+                        "ecocoleta.dados=" + Files.createTempDirectory("ecocoleta-seguidor")));
+            }
+
+            System.out.println("medida;threads;ops_por_segundo;desvio;bytes_por_op");
+            for (int servidores = 1; servidores <= seguidores + 1; servidores++) {
+                System.out.println(medirLeitura(servidores, conexoes, pontos));
+            }
+            if (seguidores > 0) {
+                System.out.println(medirAtraso());
+                System.out.println(medirEncaminhada());
+            }
+        } finally {
+            for (Process p : processos) p.destroy();
+        }
+    }
+
+    private static void povoar(int porta, int pontos) throws Exception {
+        try (ServicoConexao conexao = new ServicoConexao("localhost", porta, 60_000, false)) {
+            for (int i = 0; i < pontos; i++) {
+                String material = i % 100 == 0 ? "pilhas" : "papel, vidro";
+                conexao.cadastrar("Rua Replicada " + i + ", " + (i % 900 + 1), material, "08:00-18:00");
+            }
+            conexao.listar(0, 1).join();
+        }
+    }
+
+    // As conexões das threads repartidas entre o líder e os primeiros seguidores
+    private static Bancada.Resultado medirLeitura(int servidores, int conexoes, int pontos) throws Exception {
+        AtomicInteger proxima = new AtomicInteger();
+        ConcurrentLinkedQueue<ServicoConexao> abertas = new ConcurrentLinkedQueue<>();
+        ThreadLocal<ServicoConexao> daThread = ThreadLocal.withInitial(() -> {
+            try {
+                ServicoConexao c = new ServicoConexao("localhost", PORTA + proxima.getAndIncrement() % servidores, 60_000, false);
+                abertas.add(c);
+                return c;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            return Bancada.medir("leitura_" + servidores + "_servidores", conexoes, 2, 3, 1000, aleatorio -> {
+                ServicoConexao c = daThread.get();
+                Bancada.consumir(aleatorio.nextBoolean() ? c.listar(aleatorio.nextInt(pontos), 20).join() : c.buscar("pilhas").join());
+            });
+        } finally {
+            for (ServicoConexao c : abertas) c.close();
+        }
+    }
+
+    // Cada operação: cadastra no líder e consulta o seguidor até o ponto aparecer
+    private static Bancada.Resultado medirAtraso() throws Exception {
+        try (ServicoConexao lider = new ServicoConexao("localhost", PORTA, 60_000, false);
+             ServicoConexao seguidor = new ServicoConexao("localhost", PORTA + 1, 60_000, false)) {
+            return Bancada.medir("atraso_replicacao", 1, 2, 3, 1000, aleatorio -> {
+                String resposta = lider.cadastrar("Rua Atraso " + aleatorio.nextInt(1000), "papel", "08:00-18:00").join().get(0);
+                int id = Integer.parseInt(resposta.substring(resposta.lastIndexOf(' ') + 1));
+                while (!chegou(seguidor.proximo(id, 1).join(), id)) Thread.onSpinWait();
+            });
+        }
+    }
+
+    // PROXIMO;id;1 responde TOTAL;n e o primeiro ponto a partir do ID (se houver)
+    private static boolean chegou(List<String> linhas, int id) {
+        return linhas.size() > 1 && linhas.get(1).startsWith(id + " - ");
+    }
+
+    private static Bancada.Resultado medirEncaminhada() throws Exception {
+        try (ServicoConexao seguidor = new ServicoConexao("localhost", PORTA + 1, 60_000, false)) {
+            return Bancada.medir("cadastrar_no_seguidor", 1, 2, 3, 1000,
+                    aleatorio -> Bancada.consumir(seguidor.cadastrar("Rua Encaminhada " + aleatorio.nextInt(1000), "papel", "08:00-18:00").join()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Compara o catálogo antigo (Collections.synchronizedList endereçada por posição, BUSCAR por varredura)
+// com o RepositorioPontos (IDs estáveis, leituras sem bloqueio) em uma carga mista de 1 a 32 threads:
+// 80% leitura de um ponto, 10% BUSCAR, 5% ATUALIZAR e 5% CADASTRAR de um ponto novo com REMOVER do mais
+// antigo (o tamanho do catálogo fica constante)
+// Uso: BenchmarkRepositorio [pontos] [milisPorIteracao]
+public class BenchmarkRepositorio {
+    private static final String[] MATERIAIS = {"papel, vidro", "plástico, metal", "óleo de cozinha", "pilhas, baterias", "eletrônicos"};
+    private static final String[] BUSCAS = {"vidro", "metal", "óleo", "pilha", "eletr"};
+
+    // Operações comuns às duas implementações
+    interface Catalogo {
+        String ler(int chave);
+        int buscar(String material);
+        void cadastrar(String endereco, String materiais, String horario);
+        void atualizar(int chave, String endereco, String materiais, String horario);
+        void removerMaisAntigo();
+        int sortearChave(ThreadLocalRandom aleatorio);
+    }
+
+    // Como o Servidor funcionava antes: posição na lista, um único monitor para tudo
+    static class ListaSincronizada implements Catalogo {
+        private final List<PontoColeta> pontos = Collections.synchronizedList(new ArrayList<>());
+        private int proximoId = 1;
+
+        public String ler(int chave) {
+            synchronized (pontos) {
+                return chave < pontos.size() ? pontos.get(chave).toString() : null;
+            }
+        }
+
+        public int buscar(String material) {
+            int encontrados = 0;
+            synchronized (pontos) {
+                for (PontoColeta p : pontos) {
+                    if (p.getMateriais().toLowerCase().contains(material.toLowerCase())) encontrados++;
+                }
+            }
+            return encontrados;
+        }
+
+        public void cadastrar(String endereco, String materiais, String horario) {
+            synchronized (pontos) {
+                pontos.add(new PontoColeta(proximoId++, endereco, materiais, horario));
+            }
+        }
+
+        public void atualizar(int chave, String endereco, String materiais, String horario) {
+            synchronized (pontos) {
+                if (chave < pontos.size()) pontos.set(chave, new PontoColeta(pontos.get(chave).getId(), endereco, materiais, horario));
+            }
+        }
+
+        public void removerMaisAntigo() {
+            synchronized (pontos) {
+                if (!pontos.isEmpty()) pontos.remove(0); // Desloca todas as posições seguintes
+            }
+        }
+
+        public int sortearChave(ThreadLocalRandom aleatorio) {
+            return aleatorio.nextInt(Math.max(1, pontos.size()));
+        }
+    }
+
+    // O repositório atual, endereçado por ID
+    static class Repositorio implements Catalogo {
+        private final RepositorioPontos repositorio = new RepositorioPontos();
+        private final AtomicInteger menorId = new AtomicInteger(1);
+        private final AtomicInteger maiorId = new AtomicInteger();
+
+        public String ler(int chave) {
+            PontoColeta p = repositorio.obter(chave);
+            return p == null ? null : p.toString();
+        }
+
+        public int buscar(String material) {
+            return repositorio.buscarPorMaterial(material).size();
+        }
+
+        public void cadastrar(String endereco, String materiais, String horario) {
+            maiorId.accumulateAndGet(repositorio.cadastrar(endereco, materiais, horario).join().getId(), Math::max);
+        }
+
+        public void atualizar(int chave, String endereco, String materiais, String horario) {
+            repositorio.atualizar(chave, endereco, materiais, horario).join();
+        }
+
+        public void removerMaisAntigo() {
+            repositorio.remover(menorId.getAndIncrement()).join();
+        }
+
+        public int sortearChave(ThreadLocalRandom aleatorio) {
+            int menor = menorId.get();
+            return menor + aleatorio.nextInt(Math.max(1, maiorId.get() - menor + 1));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int pontos = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long milis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        System.out.println("implementacao;threads;ops_por_segundo;desvio;bytes_por_op");
+        for (int threads : new int[] {1, 2, 4, 8, 16, 32}) {
+            System.out.println(medir("synchronizedList", new ListaSincronizada(), pontos, threads, milis));
+            System.out.println(medir("RepositorioPontos", new Repositorio(), pontos, threads, milis));
+        }
+    }
+
+    private static Bancada.Resultado medir(String nome, Catalogo catalogo, int pontos, int threads, long milis) throws Exception {
+        for (int i = 0; i < pontos; i++) {
+            catalogo.cadastrar("Rua " + i, MATERIAIS[i % MATERIAIS.length], "08:00-18:00");
+        }
+        return Bancada.medir(nome, threads, 2, 3, milis, (ThreadLocalRandom aleatorio) -> {
+            int sorteio = aleatorio.nextInt(100);
+            int chave = catalogo.sortearChave(aleatorio);
+            if (sorteio < 80) {
+                Bancada.consumir(catalogo.ler(chave));
+            } else if (sorteio < 90) {
+                Bancada.consumir(catalogo.buscar(BUSCAS[aleatorio.nextInt(BUSCAS.length)]));
+            } else if (sorteio < 95) {
+                catalogo.atualizar(chave, "Rua alterada " + chave, MATERIAIS[chave % MATERIAIS.length], "09:00-17:00");
+            } else {
+                catalogo.cadastrar("Rua nova " + chave, MATERIAIS[chave % MATERIAIS.length], "08:00-18:00");
+                catalogo.removerMaisAntigo();
+            }
+        });
+    }
+}
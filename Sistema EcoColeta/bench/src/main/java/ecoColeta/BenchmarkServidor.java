@@ -0,0 +1,216 @@
+package ecoColeta;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Caminhos principais do Servidor no JMH, para acompanhar regressões de uma versão para outra
+// (resultados em JSON com -rf json e alocação por operação com -prof gc, ver pom.xml):
+// - leitura: LinhaComando separando os campos de um CADASTRAR, sem executá-lo
+// - despacho: um comando que não existe (procura na tabela e resposta de erro)
+// - buscarRaro / buscarComum: BUSCAR de um material com 1% e com 1/3 dos pontos
+// - listarPagina / listarTudo: LISTAR;inicio;20 e o LISTAR completo (resposta em cache)
+// - cadastrarRemover: CADASTRAR de um ponto e REMOVER dele, em 1 e em todas as threads (sem diário em disco)
+// - idaEVolta: LISTAR;inicio;20 por socket (ServicoConexao) contra os motores deste processo
+// Os comandos passam por Servidor.processarComando e as respostas vão para um destino que descarta os bytes;
+// cada tamanho do catálogo (-p pontos=...) roda em uma JVM separada (com 1 milhão de pontos, uns 3 GB de heap)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BenchmarkServidor {
+    private static final int LOTE = 10_000;
+    private static final String CADASTRO = "CADASTRAR;Rua das Flores, 120 - Centro;papel, vidro;08:00-18:00";
+
+    // Destino que descarta a resposta ou guarda o texto da última escrita (para ler o ID do CADASTRAR)
+    private static final class Descarte implements Resposta.Destino {
+        boolean guardar = false;
+        String ultima = "";
+
+        @Override
+        public void escrever(ByteBuffer dados) {
+            if (guardar) ultima = StandardCharsets.UTF_8.decode(dados.duplicate()).toString();
+            dados.position(dados.limit());
+        }
+    }
+
+    // O que cada thread do JMH reaproveita, como uma conexão do Servidor
+    @State(Scope.Thread)
+    public static class Conexao {
+        final LinhaComando linha = new LinhaComando();
+        final Descarte descarte = new Descarte();
+        final Resposta saida = new Resposta(descarte, 1024);
+
+        boolean executar(String comando) throws Exception {
+            boolean continuar = Servidor.processarComando(comando, linha, saida);
+            saida.enviar();
+            return continuar;
+        }
+
+        // Executa e devolve o texto da resposta
+        String responder(String comando) throws Exception {
+            descarte.guardar = true;
+            try {
+                executar(comando);
+                return descarte.ultima;
+            } finally {
+                descarte.guardar = false;
+            }
+        }
+    }
+
+    // O catálogo do Servidor com a quantidade de pontos do parâmetro, povoado em lotes (um bloqueio e nenhuma
+    // gravação por lote)
+    @State(Scope.Benchmark)
+    public static class Catalogo {
+        @Param({"1000", "10000", "100000", "1000000"})
+        int pontos;
+
+        @Setup(Level.Trial)
+        public void povoar() {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Mensagens do Servidor (conexões)
+            RepositorioPontos repositorio = Servidor.repositorio();
+            List<String[]> lote = new ArrayList<>(LOTE);
+            for (int i = repositorio.tamanho(); i < pontos; i++) {
+                String materiais = i % 100 == 0 ? "pilhas" : i % 3 == 0 ? "papel, vidro" : "plástico, metal";
+                lote.add(new String[] {"Rua " + i + ", " + (i % 900 + 1), materiais, "08:00-18:00"});
+                if (lote.size() == LOTE) {
+                    repositorio.cadastrarLote(lote);
+                    lote.clear();
+                }
+            }
+            repositorio.cadastrarLote(lote);
+        }
+    }
+
+    // Um motor do Servidor neste processo, em uma porta livre
+    @State(Scope.Benchmark)
+    public static class Rede {
+        @Param({"virtual", "nio"})
+        String motor;
+
+        int porta;
+        private ServerSocketChannel canal;
+        private MotorConexoes executando;
+
+        @Setup(Level.Trial)
+        public void iniciar(Catalogo catalogo) throws Exception {
+            canal = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+            porta = ((InetSocketAddress) canal.getLocalAddress()).getPort();
+            executando = Servidor.criarMotor(motor);
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    executando.executar(canal);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void parar() throws Exception {
+            executando.parar();
+            canal.close();
+        }
+    }
+
+    // Uma conexão por thread do JMH, aberta antes da medida
+    @State(Scope.Thread)
+    public static class Cliente {
+        ServicoConexao conexao;
+
+        @Setup(Level.Trial)
+        public void conectar(Rede rede) throws Exception {
+            conexao = new ServicoConexao("localhost", rede.porta, 60_000);
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() {
+            conexao.close();
+        }
+    }
+
+    @Benchmark
+    public int leitura(Conexao c) {
+        c.linha.ler(CADASTRO);
+        return c.linha.separar(6) != 6 && c.linha.separar(4) == 4 ? c.linha.texto(1).length() + c.linha.texto(3).length() : 0;
+    }
+
+    @Benchmark
+    public boolean despacho(Conexao c) throws Exception {
+        return c.executar("DESCONHECIDO;1");
+    }
+
+    @Benchmark
+    public boolean buscarRaro(Catalogo catalogo, Conexao c) throws Exception {
+        return c.executar("BUSCAR;pilhas");
+    }
+
+    @Benchmark
+    public boolean buscarComum(Catalogo catalogo, Conexao c) throws Exception {
+        return c.executar("BUSCAR;papel");
+    }
+
+    @Benchmark
+    public boolean listarPagina(Catalogo catalogo, Conexao c) throws Exception {
+        return c.executar("LISTAR;" + ThreadLocalRandom.current().nextInt(catalogo.pontos) + ";20");
+    }
+
+    @Benchmark
+    public boolean listarTudo(Catalogo catalogo, Conexao c) throws Exception {
+        return c.executar("LISTAR");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean cadastrarRemover(Catalogo catalogo, Conexao c) throws Exception {
+        return cadastrarERemover(c);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean cadastrarRemoverConcorrente(Catalogo catalogo, Conexao c) throws Exception {
+        return cadastrarERemover(c);
+    }
+
+    private static boolean cadastrarERemover(Conexao c) throws Exception {
+        String resposta = c.responder("CADASTRAR;Rua Temporária " + ThreadLocalRandom.current().nextInt(1000) + ";papel;08:00-18:00");
+        return c.executar("REMOVER;" + resposta.substring(resposta.lastIndexOf(' ') + 1).trim());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<String> idaEVolta(Catalogo catalogo, Cliente cliente) {
+        return cliente.conexao.enviar("LISTAR;" + ThreadLocalRandom.current().nextInt(catalogo.pontos) + ";20").join();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<String> idaEVoltaConcorrente(Catalogo catalogo, Cliente cliente) {
+        return cliente.conexao.enviar("LISTAR;" + ThreadLocalRandom.current().nextInt(catalogo.pontos) + ";20").join();
+    }
+}
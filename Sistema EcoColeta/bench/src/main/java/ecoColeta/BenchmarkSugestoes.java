@@ -0,0 +1,77 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Latência de SUGERIR (RepositorioPontos.sugerir, 8 sugestões) para prefixos de 1 a 5 letras de logradouros
+// de um catálogo de N pontos espalhados por alguns milhares de logradouros, e custo de manter as sugestões:
+// cadastro dos pontos com o índice (o tempo inclui os demais índices, que não mudam entre as execuções)
+// Uso: BenchmarkSugestoes [pontos] [consultasPorCaso] [logradouros]
+public class BenchmarkSugestoes {
+    private static final String[] TIPOS = {"Rua", "Avenida", "Travessa", "Alameda"};
+    private static final String[] TITULOS = {"Barão", "Visconde", "Coronel", "Doutor", "Professor", "Marechal", "Dom", "Padre"};
+    private static final String[] SILABAS = {"ja", "gua", "ra", "ta", "pu", "bi", "ri", "ti", "ba", "ca", "ma", "ne",
+        "po", "lu", "qui", "ro", "sa", "mi", "to", "va", "ce", "jo", "na", "pi"};
+    private static final String[] MATERIAIS = {"papel, vidro, plástico", "metal, papel", "óleo de cozinha", "pilhas, baterias",
+        "PET, papelão", "lâmpadas fluorescentes"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int quantidadeLogradouros = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        Random aleatorio = new Random(42);
+        List<String> logradouros = new ArrayList<>();
+        for (int i = 0; i < quantidadeLogradouros; i++) {
+            logradouros.add(TIPOS[aleatorio.nextInt(TIPOS.length)] + " " + TITULOS[aleatorio.nextInt(TITULOS.length)] + " " + palavra(aleatorio));
+        }
+
+        RepositorioPontos repositorio = new RepositorioPontos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidade; i++) {
+            // Mais pontos nos primeiros logradouros, como nas ruas comerciais de uma cidade
+            int l = (int) (logradouros.size() * Math.pow(aleatorio.nextDouble(), 2));
+            repositorio.cadastrar(logradouros.get(l) + ", " + (1 + aleatorio.nextInt(3000)) + " - Centro",
+                    MATERIAIS[aleatorio.nextInt(MATERIAIS.length)], "08:00-18:00");
+        }
+        System.out.printf("# %d pontos em %d logradouros cadastrados em %d ms%n", quantidade, quantidadeLogradouros,
+                (System.nanoTime() - inicio) / 1_000_000);
+
+        System.out.println("letras;media_us;p50_us;p99_us;sugestoes_medias");
+        for (int letras : new int[] {1, 2, 3, 5}) {
+            String[] prefixos = new String[consultas];
+            for (int i = 0; i < consultas; i++) {
+                String nome = logradouros.get(aleatorio.nextInt(logradouros.size()));
+                String ultima = nome.substring(nome.lastIndexOf(' ') + 1); // A palavra característica
+                prefixos[i] = ultima.substring(0, Math.min(letras, ultima.length()));
+            }
+            medir(repositorio, letras, prefixos);
+        }
+    }
+
+    // Aquece com as mesmas consultas e mede cada uma separadamente para obter os percentis
+    private static void medir(RepositorioPontos repositorio, int letras, String[] prefixos) {
+        for (String p : prefixos) Bancada.consumir(repositorio.sugerir(p, 8, null));
+        long[] tempos = new long[prefixos.length];
+        long sugestoes = 0;
+        for (int i = 0; i < prefixos.length; i++) {
+            long inicio = System.nanoTime();
+            sugestoes += repositorio.sugerir(prefixos[i], 8, null).size();
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        double media = Arrays.stream(tempos).average().orElse(0);
+        System.out.printf("%d;%.1f;%.1f;%.1f;%.1f%n", letras, media / 1000, tempos[tempos.length / 2] / 1000.0,
+                tempos[Math.min(tempos.length - 1, (int) (0.99 * tempos.length))] / 1000.0, (double) sugestoes / prefixos.length);
+    }
+
+    private static String palavra(Random aleatorio) {
+        StringBuilder palavra = new StringBuilder();
+        int silabas = 3 + aleatorio.nextInt(2);
+        for (int i = 0; i < silabas; i++) palavra.append(SILABAS[aleatorio.nextInt(SILABAS.length)]);
+        palavra.setCharAt(0, Character.toUpperCase(palavra.charAt(0)));
+        return palavra.toString();
+    }
+}
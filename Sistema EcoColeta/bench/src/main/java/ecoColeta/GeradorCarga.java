@@ -0,0 +1,300 @@
+package ecoColeta;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Gerador de carga sem interface: simula sessões do Cliente, cada uma em uma thread virtual com a sua conexão
+// (ServicoConexao, o mesmo código de protocolo dos clientes), repetindo "pensar e pedir" até o fim do teste
+// - Cada pedido é sorteado pela mistura (pesos por operação); o tempo de pensar entre pedidos segue uma
+//   distribuição exponencial com a média informada (0: sem pausa)
+// - LISTAR pede uma página a partir de uma posição sorteada; BUSCAR, um material da lista; ATUALIZAR e REMOVER
+//   usam pontos que a própria sessão cadastrou (sem nenhum, a sessão cadastra um)
+// - Erro: exceção (tempo limite, conexão perdida) ou resposta diferente da esperada; "ID Inválido." em
+//   ATUALIZAR e REMOVER não conta como erro
+// - As sessões começam espalhadas pela rampa; nada é medido no aquecimento. A cada 'intervalo' segundos sai
+//   uma linha de progresso, e no fim a vazão, os percentis de latência (HistogramaLatencia) e a taxa de erro
+//   por operação
+// Sem 'porta', sobe um Servidor local em outro processo (com o motor pedido e diário em diretório temporário)
+// Uso: GeradorCarga [chave=valor...], com as chaves (e os valores padrão):
+//   sessoes=200 segundos=30 aquecimento=5 rampa=5 pensar=100 (ms) intervalo=5 pontos=2000
+//   mistura=LISTAR:40,BUSCAR:35,CADASTRAR:10,ATUALIZAR:10,REMOVER:5 host=localhost porta= motor=virtual
+//   protocolo=texto (ou binario) tempoLimite=10000 (ms)
+public class GeradorCarga {
+    private static final int PORTA_LOCAL = 12441;
+    private static final String MISTURA = "LISTAR:40,BUSCAR:35,CADASTRAR:10,ATUALIZAR:10,REMOVER:5";
+    private static final String[] MATERIAIS = {"papel", "vidro", "plástico", "metal", "pilhas", "óleo de cozinha", "eletrônicos"};
+
+    enum Operacao { LISTAR, BUSCAR, CADASTRAR, ATUALIZAR, REMOVER }
+
+    // Contadores de uma operação; só registram depois do aquecimento
+    private static final class Medida {
+        final HistogramaLatencia latencia = new HistogramaLatencia();
+        final LongAdder erros = new LongAdder();
+        volatile String exemploErro; // Último erro, para o relatório
+    }
+
+    private final Map<String, String> opcoes;
+    private final Operacao[] sorteio = new Operacao[100]; // Cada operação ocupa tantas posições quanto o seu peso
+    private final Map<Operacao, Medida> medidas = new HashMap<>();
+    private final Medida total = new Medida();
+    private final AtomicInteger ativas = new AtomicInteger();
+    private final AtomicInteger totalPontos = new AtomicInteger(1); // Último TOTAL visto, para sortear a posição do LISTAR
+    private final LongAdder concluidos = new LongAdder(); // Para o progresso, com o aquecimento
+    private final LongAdder falhos = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> falhasConexao = new ConcurrentHashMap<>();
+    private volatile long inicioMedida = Long.MAX_VALUE; // Fim do aquecimento (System.nanoTime)
+    private volatile boolean rodando = true;
+
+    GeradorCarga(Map<String, String> opcoes) {
+        this.opcoes = opcoes;
+        for (Operacao o : Operacao.values()) medidas.put(o, new Medida());
+        lerMistura(texto("mistura", MISTURA));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) throw new IllegalArgumentException("Use chave=valor: " + arg);
+            opcoes.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        System.exit(new GeradorCarga(opcoes).executar() ? 0 : 1);
+    }
+
+    // Retorna false se nenhum pedido foi atendido
+    boolean executar() throws Exception {
+        String host = texto("host", "localhost");
+        String portaTexto = texto("porta", "");
+        Process servidor = null;
+        int porta;
+        if (portaTexto.isEmpty()) {
+            porta = PORTA_LOCAL;
+            servidor = ProcessoServidor.iniciar(porta, "ecocoleta.motor=" + texto("motor", "virtual"),
+                    "ecocoleta.dados=" + Files.createTempDirectory("ecocoleta-carga"));
+        } else {
+            porta = Integer.parseInt(portaTexto);
+        }
+        try {
+            povoar(host, porta, numero("pontos", 2000));
+            return simular(host, porta);
+        } finally {
+            if (servidor != null) servidor.destroy();
+        }
+    }
+
+    private boolean simular(String host, int porta) throws Exception {
+        int sessoes = numero("sessoes", 200);
+        long aquecimento = TimeUnit.SECONDS.toNanos(numero("aquecimento", 5));
+        long duracao = TimeUnit.SECONDS.toNanos(numero("segundos", 30));
+        long rampa = TimeUnit.SECONDS.toNanos(numero("rampa", 5));
+        long intervalo = TimeUnit.SECONDS.toNanos(numero("intervalo", 5));
+
+        System.out.printf("sessoes=%d mistura=%s pensar_ms=%d protocolo=%s servidor=%s:%d%n", sessoes, texto("mistura", MISTURA),
+                numero("pensar", 100), texto("protocolo", "texto"), host, porta);
+        System.out.println("segundos;sessoes_ativas;pedidos;pedidos_por_segundo;erros");
+        long inicio = System.nanoTime();
+        inicioMedida = inicio + aquecimento;
+        long fim = inicioMedida + duracao;
+        List<Thread> threads = new ArrayList<>(sessoes);
+        for (int i = 0; i < sessoes; i++) {
+            long atraso = sessoes == 1 ? 0 : rampa * i / (sessoes - 1);
+            threads.add(Thread.ofVirtual().name("sessao-" + i).start(() -> sessao(host, porta, inicio + atraso)));
+        }
+
+        long anteriorFeitas = 0;
+        long anteriorInstante = inicio;
+        for (long proximo = inicio + intervalo; ; proximo += intervalo) {
+            long espera = Math.min(proximo, fim) - System.nanoTime();
+            if (espera > 0) TimeUnit.NANOSECONDS.sleep(espera);
+            long agora = System.nanoTime();
+            long feitas = concluidos.sum();
+            System.out.printf(Locale.ROOT, "%.0f;%d;%d;%.0f;%d%n", (agora - inicio) / 1e9, ativas.get(), feitas,
+                    (feitas - anteriorFeitas) / ((agora - anteriorInstante) / 1e9), falhos.sum());
+            anteriorFeitas = feitas;
+            anteriorInstante = agora;
+            if (agora >= fim) break;
+        }
+        double segundosMedidos = (System.nanoTime() - inicioMedida) / 1e9;
+        rodando = false;
+        for (Thread t : threads) t.join(TimeUnit.SECONDS.toMillis(numero("tempoLimite", 10_000) / 1000 + 5));
+
+        relatorio(segundosMedidos);
+        return total.latencia.retrato().quantidade() > 0;
+    }
+
+    // Uma sessão: conecta no seu horário da rampa e repete pensar e pedir até o fim do teste
+    private void sessao(String host, int porta, long horario) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        List<Integer> meusPontos = new ArrayList<>();
+        try {
+            long espera = horario - System.nanoTime();
+            if (espera > 0) TimeUnit.NANOSECONDS.sleep(espera);
+            try (ServicoConexao conexao = new ServicoConexao(host, porta, numero("tempoLimite", 10_000),
+                    texto("protocolo", "texto").equalsIgnoreCase("binario"))) {
+                ativas.incrementAndGet();
+                try {
+                    while (rodando) {
+                        pensar(aleatorio);
+                        if (!rodando) break;
+                        pedir(conexao, sorteio[aleatorio.nextInt(sorteio.length)], meusPontos, aleatorio);
+                    }
+                } finally {
+                    ativas.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            falhasConexao.computeIfAbsent(String.valueOf(e.getMessage()), _ -> new LongAdder()).increment();
+        }
+    }
+
+    private void pensar(ThreadLocalRandom aleatorio) throws InterruptedException {
+        long media = numero("pensar", 100);
+        if (media > 0) Thread.sleep((long) (-media * Math.log(1 - aleatorio.nextDouble())));
+    }
+
+    private void pedir(ServicoConexao conexao, Operacao operacao, List<Integer> meusPontos, ThreadLocalRandom aleatorio) {
+        if ((operacao == Operacao.ATUALIZAR || operacao == Operacao.REMOVER) && meusPontos.isEmpty()) operacao = Operacao.CADASTRAR;
+        int indice = meusPontos.isEmpty() ? -1 : aleatorio.nextInt(meusPontos.size());
+        long inicio = System.nanoTime();
+        String erro;
+        try {
+            List<String> linhas = switch (operacao) {
+                case LISTAR -> conexao.listar(aleatorio.nextInt(Math.max(1, totalPontos.get())), 20).join();
+                case BUSCAR -> conexao.buscar(MATERIAIS[aleatorio.nextInt(MATERIAIS.length)]).join();
+                case CADASTRAR -> conexao.cadastrar(endereco(aleatorio), materiais(aleatorio), "08:00-18:00").join();
+                case ATUALIZAR -> conexao.atualizar(meusPontos.get(indice), endereco(aleatorio), materiais(aleatorio), "09:00-17:00").join();
+                case REMOVER -> conexao.remover(meusPontos.get(indice)).join();
+            };
+            erro = conferir(operacao, linhas, meusPontos, indice);
+        } catch (RuntimeException e) { // CompletionException com o motivo (tempo limite, conexão perdida)
+            erro = String.valueOf(e.getCause() == null ? e : e.getCause());
+        }
+        concluidos.increment();
+        if (erro != null) falhos.increment();
+        if (inicio < inicioMedida) return;
+        Medida m = medidas.get(operacao);
+        long nanos = System.nanoTime() - inicio;
+        for (Medida alvo : new Medida[] {m, total}) {
+            alvo.latencia.registrar(nanos);
+            if (erro != null) {
+                alvo.erros.increment();
+                alvo.exemploErro = erro;
+            }
+        }
+    }
+
+    // Confere a resposta e atualiza o que a sessão sabe; retorna a descrição do erro, ou null
+    private String conferir(Operacao operacao, List<String> linhas, List<Integer> meusPontos, int indice) {
+        String primeira = linhas.isEmpty() ? "" : linhas.get(0);
+        switch (operacao) {
+            case LISTAR -> {
+                if (!primeira.startsWith("TOTAL;")) return primeira;
+                totalPontos.set(Integer.parseInt(primeira.substring("TOTAL;".length())));
+            }
+            case BUSCAR -> {
+                if (primeira.isEmpty() || primeira.startsWith("Formato Inválido") || primeira.startsWith("Comando Inválido")) return primeira;
+            }
+            case CADASTRAR -> {
+                if (!primeira.startsWith("Ponto de Coleta Cadastrado com Sucesso! ID: ")) return primeira;
+                meusPontos.add(Integer.parseInt(primeira.substring(primeira.lastIndexOf(' ') + 1).trim()));
+            }
+            case ATUALIZAR -> {
+                if (primeira.equals("ID Inválido.")) {
+                    meusPontos.remove(indice);
+                } else if (!primeira.startsWith("Ponto de Coleta Atualizado com Sucesso")) {
+                    return primeira;
+                }
+            }
+            case REMOVER -> {
+                if (!primeira.startsWith("Ponto de Coleta Removido com Sucesso") && !primeira.equals("ID Inválido.")) return primeira;
+                meusPontos.remove(indice);
+            }
+        }
+        return null;
+    }
+
+    // Catálogo inicial, por uma conexão só, com os comandos enviados sem esperar as respostas
+    private void povoar(String host, int porta, int pontos) throws Exception {
+        if (pontos <= 0) return;
+        try (ServicoConexao conexao = new ServicoConexao(host, porta, 60_000)) {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            for (int i = 0; i < pontos; i++) conexao.cadastrar(endereco(aleatorio), materiais(aleatorio), "08:00-18:00");
+            String primeira = conexao.listar(0, 1).join().get(0);
+            totalPontos.set(Integer.parseInt(primeira.substring("TOTAL;".length())));
+        }
+    }
+
+    private void relatorio(double segundos) {
+        System.out.println();
+        System.out.println("operacao;pedidos;erros;taxa_erro;pedidos_por_segundo;media_ms;p50_ms;p99_ms;p999_ms;max_ms");
+        for (Operacao o : Operacao.values()) linhaRelatorio(o.name(), medidas.get(o), segundos);
+        linhaRelatorio("TOTAL", total, segundos);
+        for (Operacao o : Operacao.values()) {
+            String exemplo = medidas.get(o).exemploErro;
+            if (exemplo != null) System.out.println("Exemplo de erro em " + o + ": " + exemplo);
+        }
+        falhasConexao.forEach((motivo, vezes) -> System.out.println("Sessões que não conectaram ou caíram (" + vezes.sum() + "): " + motivo));
+    }
+
+    private static void linhaRelatorio(String nome, Medida m, double segundos) {
+        HistogramaLatencia.Retrato r = m.latencia.retrato();
+        if (r.quantidade() == 0) return;
+        System.out.printf(Locale.ROOT, "%s;%d;%d;%.4f;%.1f;%.3f;%.3f;%.3f;%.3f;%.3f%n", nome, r.quantidade(), m.erros.sum(),
+                (double) m.erros.sum() / r.quantidade(), r.quantidade() / segundos, r.mediaNanos() / 1e6, r.percentilNanos(0.5) / 1e6,
+                r.percentilNanos(0.99) / 1e6, r.percentilNanos(0.999) / 1e6, r.maximoNanos() / 1e6);
+    }
+
+    // "LISTAR:40,BUSCAR:35,...": pesos relativos, convertidos em posições do sorteio
+    private void lerMistura(String mistura) {
+        Map<Operacao, Integer> pesos = new HashMap<>();
+        int soma = 0;
+        for (String parte : mistura.split(",")) {
+            String[] campos = parte.trim().split(":");
+            int peso = Integer.parseInt(campos[1].trim());
+            pesos.put(Operacao.valueOf(campos[0].trim().toUpperCase(Locale.ROOT)), peso);
+            soma += peso;
+        }
+        if (soma <= 0) throw new IllegalArgumentException("Mistura sem pesos: " + mistura);
+        int posicao = 0;
+        double acumulado = 0;
+        for (Operacao o : Operacao.values()) {
+            acumulado += pesos.getOrDefault(o, 0);
+            int ate = (int) Math.round(acumulado * sorteio.length / soma);
+            while (posicao < ate) sorteio[posicao++] = o;
+        }
+    }
+
+    private static String endereco(ThreadLocalRandom aleatorio) {
+        return "Rua Carga " + aleatorio.nextInt(5000) + ", " + (aleatorio.nextInt(2000) + 1);
+    }
+
+    private static String materiais(ThreadLocalRandom aleatorio) {
+        String primeiro = MATERIAIS[aleatorio.nextInt(MATERIAIS.length)];
+        String segundo = MATERIAIS[aleatorio.nextInt(MATERIAIS.length)];
+        return primeiro.equals(segundo) ? primeiro : primeiro + ", " + segundo;
+    }
+
+    private String texto(String chave, String padrao) {
+        return opcoes.getOrDefault(chave, padrao);
+    }
+
+    private long numero(String chave, long padrao) {
+        String valor = opcoes.get(chave);
+        return valor == null || valor.isEmpty() ? padrao : Long.parseLong(valor);
+    }
+
+    private int numero(String chave, int padrao) {
+        return (int) numero(chave, (long) padrao);
+    }
+}
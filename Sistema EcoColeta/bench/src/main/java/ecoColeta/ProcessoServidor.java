@@ -0,0 +1,54 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sobe o Servidor em um processo separado para os benchmarks que medem o sistema pela rede
+final class ProcessoServidor {
+    private ProcessoServidor() {}
+
+    // Inicia o Servidor com a mesma JVM e o mesmo caminho de classes/módulos deste processo;
+    // as propriedades são passadas como -D (ex: "ecocoleta.motor=nio") e a porta é aguardada
+    static Process iniciar(int porta, String... propriedades) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(ProcessHandle.current().info().command().orElse("java"));
+        comando.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        comando.add("-Decocoleta.porta=" + porta);
+        for (String propriedade : propriedades) comando.add("-D" + propriedade);
+        String caminhoModulos = System.getProperty("jdk.module.path");
+        if (caminhoModulos != null) {
+            comando.addAll(List.of("-p", caminhoModulos, "-m", "Projeto_Integrador_II_B/ecoColeta.Servidor"));
+        } else {
+            comando.addAll(List.of("-cp", System.getProperty("java.class.path"), "ecoColeta.Servidor"));
+        }
+        Process servidor = new ProcessBuilder(comando)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start(); // A entrada padrão fica aberta para o console do servidor não encerrar
+        try {
+            aguardarPorta(porta);
+        } catch (IllegalStateException e) {
+            servidor.destroy();
+            throw e;
+        }
+        return servidor;
+    }
+
+    private static void aguardarPorta(int porta) throws InterruptedException {
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            try (SocketChannel c = SocketChannel.open(new InetSocketAddress("localhost", porta))) {
+                c.write(ByteBuffer.wrap("SAIR\n".getBytes(StandardCharsets.UTF_8)));
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Servidor não respondeu na porta " + porta);
+    }
+}
@@ -0,0 +1,80 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Proxy TCP que atrasa cada sentido da conexão em um tempo fixo, simulando um enlace de alta latência
+// (o tempo de ida e volta fica em 2x o atraso); a banda não é limitada
+final class ProxyLatencia implements AutoCloseable {
+    private final ServerSocket escuta;
+
+    // Um trecho de bytes e o instante em que pode ser entregue
+    private record Trecho(long entregaNanos, byte[] bytes) {}
+
+    ProxyLatencia(int portaProxy, String hostDestino, int portaDestino, long atrasoMillis) throws IOException {
+        escuta = new ServerSocket();
+        escuta.setReuseAddress(true); // Permite reabrir a mesma porta logo após o proxy anterior fechar
+        escuta.bind(new InetSocketAddress(portaProxy));
+        Thread.ofVirtual().start(() -> {
+            while (!escuta.isClosed()) {
+                try {
+                    Socket cliente = escuta.accept();
+                    Socket servidor = new Socket(hostDestino, portaDestino);
+                    cliente.setTcpNoDelay(true);
+                    servidor.setTcpNoDelay(true);
+                    encaminhar(cliente, servidor, atrasoMillis);
+                    encaminhar(servidor, cliente, atrasoMillis);
+                } catch (IOException e) {
+                    // Proxy fechado ou destino indisponível
+                }
+            }
+        });
+    }
+
+    // Uma thread lê e carimba o horário de entrega; outra espera o horário e escreve, mantendo a ordem
+    private static void encaminhar(Socket origem, Socket destino, long atrasoMillis) {
+        BlockingQueue<Trecho> fila = new LinkedBlockingQueue<>();
+        Thread.ofVirtual().start(() -> {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream entrada = origem.getInputStream()) {
+                int lidos;
+                while ((lidos = entrada.read(buffer)) > 0) {
+                    fila.add(new Trecho(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(atrasoMillis), Arrays.copyOf(buffer, lidos)));
+                }
+            } catch (IOException e) {
+            } finally {
+                fila.add(new Trecho(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(atrasoMillis), null)); // Fim do fluxo
+            }
+        });
+        Thread.ofVirtual().start(() -> {
+            try (OutputStream saida = destino.getOutputStream()) {
+                while (true) {
+                    Trecho trecho = fila.take();
+                    long espera = trecho.entregaNanos() - System.nanoTime();
+                    if (espera > 0) TimeUnit.NANOSECONDS.sleep(espera);
+                    if (trecho.bytes() == null) break;
+                    saida.write(trecho.bytes());
+                }
+            } catch (IOException | InterruptedException e) {
+            } finally {
+                try {
+                    origem.close();
+                    destino.close();
+                } catch (IOException e) {}
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        escuta.close();
+    }
+}
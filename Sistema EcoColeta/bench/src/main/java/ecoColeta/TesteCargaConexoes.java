@@ -0,0 +1,116 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Teste de carga de conexões: sobe o Servidor em um processo separado com o motor escolhido,
+// abre conexões em degraus e mede a memória residente (RSS) e as threads do processo servidor
+// Uso: TesteCargaConexoes [virtual|nio] [totalConexoes] [degrau] [maxConexoesDoServidor]
+public class TesteCargaConexoes {
+    private static final int PORTA = 12400;
+
+    public static void main(String[] args) throws Exception {
+        String motor = args.length > 0 ? args[0] : "virtual";
+        int total = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int degrau = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int maxServidor = args.length > 3 ? Integer.parseInt(args[3]) : total;
+
+        Process servidor = ProcessoServidor.iniciar(PORTA, "ecocoleta.motor=" + motor, "ecocoleta.maxConexoes=" + maxServidor);
+        List<SocketChannel> conexoes = new ArrayList<>();
+        try {
+            long rssBase = lerStatus(servidor.pid(), "VmRSS:");
+            System.out.printf("Motor: %s | limite do servidor: %d | RSS inicial: %.1f MB%n", motor, maxServidor, rssBase / 1024.0);
+            System.out.println("conexoes;atendidas;rss_mb;threads;kb_por_conexao");
+
+            int atendidasTotal = 0;
+            while (conexoes.size() < total) {
+                List<SocketChannel> novas = new ArrayList<>();
+                try {
+                    for (int i = 0; i < degrau && conexoes.size() + novas.size() < total; i++) {
+                        novas.add(SocketChannel.open(new InetSocketAddress("localhost", PORTA)));
+                    }
+                } catch (IOException e) {
+                    System.out.println("Falha ao abrir conexão (" + e.getMessage() + "); verifique o ulimit -n.");
+                }
+                conexoes.addAll(novas);
+                int atendidas = confirmar(novas);
+                atendidasTotal += atendidas;
+
+                long rss = lerStatus(servidor.pid(), "VmRSS:");
+                long threads = lerStatus(servidor.pid(), "Threads:");
+                double kbPorConexao = atendidasTotal == 0 ? 0 : (rss - rssBase) / (double) atendidasTotal;
+                System.out.printf("%d;%d;%.1f;%d;%.2f%n", conexoes.size(), atendidasTotal, rss / 1024.0, threads, kbPorConexao);
+
+                // Conexões não atendidas indicam que o limite do servidor foi atingido (estão na fila do SO)
+                if (atendidas < novas.size() || novas.size() < degrau) break;
+            }
+            System.out.println("Conexões mantidas e atendidas pelo servidor: " + atendidasTotal);
+        } finally {
+            for (SocketChannel c : conexoes) {
+                try { c.close(); } catch (IOException e) {}
+            }
+            servidor.destroy();
+        }
+    }
+
+    // Envia LISTAR por cada conexão nova e conta quantas receberam a resposta completa em até 5 segundos
+    private static int confirmar(List<SocketChannel> novas) throws IOException {
+        int atendidas = 0;
+        try (Selector seletor = Selector.open()) {
+            for (SocketChannel c : novas) {
+                c.write(ByteBuffer.wrap("LISTAR\n".getBytes(StandardCharsets.UTF_8)));
+                c.configureBlocking(false);
+                c.register(seletor, SelectionKey.OP_READ, new int[1]);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            long limite = System.currentTimeMillis() + 5000;
+            while (atendidas < novas.size() && System.currentTimeMillis() < limite) {
+                if (seletor.select(200) == 0) continue;
+                for (SelectionKey chave : seletor.selectedKeys()) {
+                    int[] quebrasSeguidas = (int[]) chave.attachment();
+                    buffer.clear();
+                    if (((SocketChannel) chave.channel()).read(buffer) < 0) {
+                        chave.cancel();
+                        continue;
+                    }
+                    buffer.flip();
+                    // A resposta termina em uma linha em branco, ou seja, duas quebras seguidas
+                    while (buffer.hasRemaining()) {
+                        quebrasSeguidas[0] = buffer.get() == '\n' ? quebrasSeguidas[0] + 1 : 0;
+                        if (quebrasSeguidas[0] == 2) {
+                            atendidas++;
+                            chave.cancel();
+                            break;
+                        }
+                    }
+                }
+                seletor.selectedKeys().clear();
+            }
+            for (SelectionKey chave : seletor.keys()) chave.cancel();
+            seletor.selectNow(); // Conclui o cancelamento antes de voltar os canais ao modo bloqueante
+        }
+        for (SocketChannel c : novas) c.configureBlocking(true);
+        return atendidas;
+    }
+
+    // Lê um campo numérico de /proc/<pid>/status (Linux); retorna 0 em outros sistemas
+    private static long lerStatus(long pid, String campo) {
+        try {
+            for (String linha : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+                if (linha.startsWith(campo)) {
+                    return Long.parseLong(linha.substring(campo.length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {}
+        return 0;
+    }
+}
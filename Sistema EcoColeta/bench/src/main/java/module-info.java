@@ -0,0 +1,7 @@
+// Benchmarks e ferramentas de carga; inclui as fontes da aplicação (pacote ecoColeta, ver pom.xml)
+module Projeto_Integrador_II_B.bench {
+    requires java.management;  // Bancada e ProcessoServidor (argumentos da JVM, bytes alocados por thread)
+    requires jdk.management;
+    requires jdk.httpserver;
+    requires jmh.core;
+}
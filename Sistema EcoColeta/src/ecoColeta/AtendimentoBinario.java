@@ -0,0 +1,349 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Atendimento de uma conexão que negociou o protocolo binário (ver ProtocoloBinario)
+// - Os bytes recebidos vão para um buffer reaproveitado e cada quadro completo é decodificado ali mesmo:
+//   LISTAR, PROXIMO e REMOVER não criam nenhum objeto para ler o pedido
+// - As respostas são escritas direto no buffer da Resposta; cada ponto é copiado da codificação que
+//   ele guarda (PontoColeta.binario), então uma página não cria objetos além da lista de pontos
+// - TEXTO executa um comando do protocolo de texto e devolve as linhas em um quadro LINHAS
+// - O tempo de cada pedido entra nas métricas do servidor, por código (protocolo "binario")
+// - CADASTRAR, ATUALIZAR e REMOVER respondem quando a alteração estiver no diário (Resposta.adiar); com a
+//   resposta adiada os quadros seguintes esperam no buffer, e a Sessao guarda os bytes que não couberam
+// - Em um servidor seguidor, CADASTRAR, ATUALIZAR e REMOVER vão ao líder como comandos de texto (Replicacao),
+//   e a resposta dele volta no quadro equivalente
+class AtendimentoBinario {
+    private static final String[] NOMES = {null, "CADASTRAR", "LISTAR", "PROXIMO", "BUSCAR", "ATUALIZAR", "REMOVER", "TEXTO"};
+    private static final Metricas.Comando[] MEDIDAS = new Metricas.Comando[NOMES.length]; // Pelo código do pedido
+    static {
+        for (int codigo = 1; Metricas.ATIVAS && codigo < NOMES.length; codigo++) {
+            MEDIDAS[codigo] = Servidor.metricas().comando("binario", NOMES[codigo]);
+        }
+    }
+
+    private final RepositorioPontos repositorio;
+    private final Resposta saida;
+    private ByteBuffer entrada = ByteBuffer.allocate(4096); // Bytes recebidos ainda não processados (modo escrita)
+    private boolean saudado = false;
+
+    // Captura a resposta de um comando TEXTO para devolvê-la dentro de um quadro
+    private ByteBuffer capturado = ByteBuffer.allocate(1024);
+    private final Resposta captura;
+    private final LinhaComando linhaComando = new LinhaComando();
+
+    AtendimentoBinario(RepositorioPontos repositorio, Resposta saida) {
+        this.repositorio = repositorio;
+        this.saida = saida;
+        this.captura = new Resposta(this::capturar, 1024, saida.assincrona());
+    }
+
+    // Processa todos os quadros completos disponíveis; retorna false quando a conexão deve ser encerrada
+    // (saudação de outra versão, quadro com tamanho inválido ou SAIR enviado por TEXTO)
+    // Se a resposta de um quadro ficar adiada, para nele: o que restar em 'dados' fica para a próxima chamada,
+    // que começa pelos quadros já no buffer (mesmo sem dados novos)
+    boolean receber(ByteBuffer dados) throws IOException {
+        do {
+            int copiar = Math.min(entrada.remaining(), dados.remaining());
+            entrada.put(entrada.position(), dados, dados.position(), copiar);
+            entrada.position(entrada.position() + copiar);
+            dados.position(dados.position() + copiar);
+
+            entrada.flip();
+            boolean continuar = processarQuadros();
+            entrada.compact();
+            if (!continuar) return false;
+            if (saida.adiada() != null) return true;
+
+            // Quadro incompleto maior que o buffer: cresce até o tamanho dele
+            if (!entrada.hasRemaining()) {
+                int necessario = saudado && entrada.position() >= 4 ? 4 + entrada.getInt(0) : entrada.capacity() * 2;
+                ByteBuffer maior = ByteBuffer.allocate(Math.max(necessario, entrada.capacity() * 2));
+                entrada.flip();
+                maior.put(entrada);
+                entrada = maior;
+            }
+        } while (dados.hasRemaining());
+        return true;
+    }
+
+    private boolean processarQuadros() throws IOException {
+        if (!saudado) {
+            if (entrada.remaining() < ProtocoloBinario.SAUDACAO.length) return true;
+            for (byte esperado : ProtocoloBinario.SAUDACAO) {
+                if (entrada.get() != esperado) return false; // Outra versão do protocolo
+            }
+            saida.reservar(ProtocoloBinario.SAUDACAO.length).put(ProtocoloBinario.SAUDACAO);
+            saudado = true;
+        }
+        while (entrada.remaining() >= 4) {
+            int tamanho = entrada.getInt(entrada.position());
+            if (tamanho <= 0 || tamanho > ProtocoloBinario.TAMANHO_MAXIMO_QUADRO) return false; // Não há como achar o próximo quadro
+            if (entrada.remaining() < 4 + tamanho) return true;
+
+            int fim = entrada.position() + 4 + tamanho;
+            int limite = entrada.limit();
+            entrada.position(entrada.position() + 4).limit(fim);
+            boolean continuar = processarMedindo(entrada);
+            entrada.limit(limite).position(fim);
+            if (!continuar) return false;
+            if (saida.adiada() != null) return true;
+        }
+        return true;
+    }
+
+    private boolean processarMedindo(ByteBuffer quadro) throws IOException {
+        byte codigo = quadro.get(quadro.position());
+        Metricas.Comando medida = codigo > 0 && codigo < MEDIDAS.length ? MEDIDAS[codigo] : null;
+        if (medida == null) return processar(quadro);
+        long inicio = System.nanoTime();
+        boolean erro = true;
+        try {
+            boolean continuar = processar(quadro);
+            erro = false;
+            return continuar;
+        } finally {
+            CompletableFuture<?> adiada = saida.adiada();
+            if (erro || adiada == null) {
+                medida.registrar(inicio, erro);
+            } else { // Até a resposta ficar pronta
+                adiada.whenComplete((resultado, falha) -> medida.registrar(inicio, falha != null));
+            }
+        }
+    }
+
+    // Executa o pedido contido no quadro (o buffer vai do código até o fim do quadro)
+    private boolean processar(ByteBuffer quadro) throws IOException {
+        byte codigo = quadro.get();
+        long id = 0;
+        try {
+            id = ProtocoloBinario.lerVarint(quadro);
+            switch (codigo) {
+                case ProtocoloBinario.CADASTRAR -> {
+                    String endereco = lerCampo(quadro);
+                    String materiais = lerCampo(quadro);
+                    String horario = lerCampo(quadro);
+                    double[] localizacao = lerLocalizacao(quadro);
+                    Replicacao replicacao = Servidor.replicacao();
+                    if (replicacao != null) {
+                        encaminhar(replicacao, id, "CADASTRAR;" + endereco + ";" + materiais + ";" + horario + localizacaoTexto(localizacao));
+                        return true;
+                    }
+                    long pedido = id;
+                    CompletableFuture<PontoColeta> novo = localizacao != null
+                            ? repositorio.cadastrar(endereco, materiais, horario, localizacao[0], localizacao[1])
+                            : repositorio.cadastrar(endereco, materiais, horario);
+                    saida.adiar(novo, (ponto, falha) -> {
+                        if (falha != null) {
+                            erro(pedido, ProtocoloBinario.ERRO_DISCO, "Erro ao Salvar o Ponto de Coleta em Disco.");
+                            return;
+                        }
+                        int inicio = abrirQuadro(ProtocoloBinario.CADASTRADO, pedido);
+                        ProtocoloBinario.escreverVarint(saida.reservar(5), ponto.getId());
+                        fecharQuadro(inicio);
+                    });
+                }
+                case ProtocoloBinario.LISTAR -> {
+                    int posicao = ProtocoloBinario.lerInt(quadro);
+                    int limite = ProtocoloBinario.lerInt(quadro);
+                    if (limite == 0) throw new IllegalArgumentException();
+                    int idInicial = repositorio.idNaPosicao(posicao);
+                    escreverPagina(id, idInicial < 0 ? Integer.MAX_VALUE : idInicial, limite);
+                }
+                case ProtocoloBinario.PROXIMO -> {
+                    int cursor = ProtocoloBinario.lerInt(quadro);
+                    int limite = ProtocoloBinario.lerInt(quadro);
+                    if (limite == 0) throw new IllegalArgumentException();
+                    escreverPagina(id, cursor, limite);
+                }
+                case ProtocoloBinario.BUSCAR -> {
+                    List<PontoColeta> encontrados = repositorio.buscarPorMaterial(ProtocoloBinario.lerTexto(quadro));
+                    escreverPontos(id, encontrados.size(), 0, encontrados, encontrados.size());
+                }
+                case ProtocoloBinario.ATUALIZAR -> {
+                    int ponto = ProtocoloBinario.lerInt(quadro);
+                    String endereco = lerCampo(quadro);
+                    String materiais = lerCampo(quadro);
+                    String horario = lerCampo(quadro);
+                    double[] localizacao = lerLocalizacao(quadro);
+                    Replicacao replicacao = Servidor.replicacao();
+                    if (replicacao != null) {
+                        encaminhar(replicacao, id, "ATUALIZAR;" + ponto + ";" + endereco + ";" + materiais + ";" + horario + localizacaoTexto(localizacao));
+                        return true;
+                    }
+                    CompletableFuture<PontoColeta> atualizado = localizacao != null
+                            ? repositorio.atualizar(ponto, endereco, materiais, horario, localizacao[0], localizacao[1])
+                            : repositorio.atualizar(ponto, endereco, materiais, horario);
+                    responderAlteracao(id, atualizado, ProtocoloBinario.ATUALIZADO);
+                }
+                case ProtocoloBinario.REMOVER -> {
+                    int ponto = ProtocoloBinario.lerInt(quadro);
+                    Replicacao replicacao = Servidor.replicacao();
+                    if (replicacao != null) {
+                        encaminhar(replicacao, id, "REMOVER;" + ponto);
+                        return true;
+                    }
+                    responderAlteracao(id, repositorio.remover(ponto), ProtocoloBinario.REMOVIDO);
+                }
+                case ProtocoloBinario.TEXTO -> {
+                    return executarTexto(id, ProtocoloBinario.lerTexto(quadro));
+                }
+                default -> erro(id, ProtocoloBinario.ERRO_DESCONHECIDO, "Comando Inválido.");
+            }
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            erro(id, ProtocoloBinario.ERRO_FORMATO, "Formato Inválido.");
+        }
+        return true;
+    }
+
+    // ATUALIZAR e REMOVER: o quadro de sucesso quando o ponto existia e a alteração foi gravada
+    private void responderAlteracao(long id, CompletableFuture<PontoColeta> alteracao, byte sucesso) throws IOException {
+        saida.adiar(alteracao, (ponto, falha) -> {
+            if (falha != null) {
+                erro(id, ProtocoloBinario.ERRO_DISCO, "Erro ao Salvar o Ponto de Coleta em Disco.");
+            } else if (ponto != null) {
+                fecharQuadro(abrirQuadro(sucesso, id));
+            } else {
+                erro(id, ProtocoloBinario.ERRO_ID_INVALIDO, "ID Inválido.");
+            }
+        });
+    }
+
+    // Campo de um ponto; um campo maior que PontoColeta.TAMANHO_MAXIMO_CAMPO é recusado como formato inválido
+    private static String lerCampo(ByteBuffer quadro) {
+        String campo = ProtocoloBinario.lerTexto(quadro);
+        if (ProtocoloBinario.tamanhoUtf8(campo) > PontoColeta.TAMANHO_MAXIMO_CAMPO) throw new IllegalArgumentException("Campo muito longo");
+        return campo;
+    }
+
+    // Latitude e longitude opcionais no fim do quadro, ou null quando o quadro termina antes
+    private static double[] lerLocalizacao(ByteBuffer quadro) {
+        if (!quadro.hasRemaining()) return null;
+        double latitude = quadro.getDouble();
+        double longitude = quadro.getDouble();
+        if (!PontoColeta.localizacaoValida(latitude, longitude)) throw new IllegalArgumentException();
+        return new double[] {latitude, longitude};
+    }
+
+    private static String localizacaoTexto(double[] localizacao) {
+        return localizacao == null ? "" : ";" + localizacao[0] + ";" + localizacao[1];
+    }
+
+    // Alteração encaminhada ao líder: a primeira linha da resposta de texto vira o quadro de resposta
+    private void encaminhar(Replicacao replicacao, long id, String comando) throws IOException {
+        saida.adiar(replicacao.encaminhar(comando), (linhas, falha) -> {
+            if (falha != null) {
+                erro(id, ProtocoloBinario.ERRO_DESCONHECIDO, "Servidor Líder Indisponível.");
+            } else {
+                responderEncaminhada(id, linhas);
+            }
+        });
+    }
+
+    private void responderEncaminhada(long id, List<String> linhas) {
+        String primeira = linhas.isEmpty() ? "" : linhas.get(0);
+        if (primeira.startsWith("Ponto de Coleta Cadastrado com Sucesso! ID: ")) {
+            int inicio = abrirQuadro(ProtocoloBinario.CADASTRADO, id);
+            ProtocoloBinario.escreverVarint(saida.reservar(5), Integer.parseInt(primeira.substring(primeira.lastIndexOf(' ') + 1)));
+            fecharQuadro(inicio);
+        } else if (primeira.startsWith("Ponto de Coleta Atualizado")) {
+            fecharQuadro(abrirQuadro(ProtocoloBinario.ATUALIZADO, id));
+        } else if (primeira.startsWith("Ponto de Coleta Removido")) {
+            fecharQuadro(abrirQuadro(ProtocoloBinario.REMOVIDO, id));
+        } else if (primeira.equals("ID Inválido.")) {
+            erro(id, ProtocoloBinario.ERRO_ID_INVALIDO, primeira);
+        } else if (primeira.startsWith("Formato Inválido")) {
+            erro(id, ProtocoloBinario.ERRO_FORMATO, primeira);
+        } else if (primeira.startsWith("Erro ao Salvar")) {
+            erro(id, ProtocoloBinario.ERRO_DISCO, primeira);
+        } else {
+            erro(id, ProtocoloBinario.ERRO_DESCONHECIDO, primeira);
+        }
+    }
+
+    // Comando do protocolo de texto; IMPORTAR fica de fora porque depende das linhas seguintes da conexão
+    private boolean executarTexto(long id, String comando) throws IOException {
+        if (comando.equals("IMPORTAR")) {
+            erro(id, ProtocoloBinario.ERRO_DESCONHECIDO, "IMPORTAR não está disponível no protocolo binário.");
+            return true;
+        }
+        capturado.clear();
+        boolean continuar = Servidor.processarComando(comando, linhaComando, captura);
+        while (captura.continuarProducao()) {} // O quadro leva a resposta inteira, mesmo a de um EXPORTAR
+        CompletableFuture<?> adiada = captura.adiada();
+        if (adiada != null) { // O quadro sai quando a resposta de texto estiver completa
+            saida.adiar(adiada, (resultado, falha) -> {
+                captura.concluir();
+                escreverCapturado(id);
+            });
+        } else {
+            escreverCapturado(id);
+        }
+        return continuar;
+    }
+
+    private void escreverCapturado(long id) throws IOException {
+        captura.enviar();
+        capturado.flip();
+        int inicio = abrirQuadro(ProtocoloBinario.LINHAS, id);
+        saida.reservar(capturado.remaining()).put(capturado);
+        fecharQuadro(inicio);
+    }
+
+    private void capturar(ByteBuffer dados) {
+        if (capturado.remaining() < dados.remaining()) {
+            ByteBuffer maior = ByteBuffer.allocate(Math.max(capturado.capacity() * 2, capturado.position() + dados.remaining()));
+            capturado.flip();
+            maior.put(capturado);
+            capturado = maior;
+        }
+        capturado.put(dados);
+    }
+
+    // Mesma regra do protocolo de texto: limite de MAXIMO_PAGINA e um ponto a mais para saber se há continuação
+    private void escreverPagina(long id, int idInicial, int limite) {
+        limite = Math.min(limite, Servidor.MAXIMO_PAGINA);
+        List<PontoColeta> pagina = repositorio.pagina(idInicial, limite + 1);
+        int cursor = pagina.size() > limite ? pagina.get(limite).getId() : 0;
+        escreverPontos(id, repositorio.tamanho(), cursor, pagina, Math.min(limite, pagina.size()));
+    }
+
+    private void escreverPontos(long id, int total, int cursor, List<PontoColeta> pontos, int quantidade) {
+        int inicio = abrirQuadro(ProtocoloBinario.PONTOS, id);
+        ByteBuffer b = saida.reservar(15);
+        ProtocoloBinario.escreverVarint(b, total);
+        ProtocoloBinario.escreverVarint(b, cursor);
+        ProtocoloBinario.escreverVarint(b, quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            byte[] ponto = pontos.get(i).binario();
+            saida.reservar(ponto.length).put(ponto);
+        }
+        fecharQuadro(inicio);
+    }
+
+    private void erro(long id, int codigoErro, String mensagem) {
+        int inicio = abrirQuadro(ProtocoloBinario.ERRO, id);
+        ByteBuffer b = saida.reservar(5 + ProtocoloBinario.tamanhoMaximoTexto(mensagem));
+        ProtocoloBinario.escreverVarint(b, codigoErro);
+        ProtocoloBinario.escreverTexto(b, mensagem);
+        fecharQuadro(inicio);
+    }
+
+    // Escreve o cabeçalho do quadro com o tamanho zerado; fecharQuadro preenche o tamanho
+    private int abrirQuadro(byte codigo, long id) {
+        ByteBuffer b = saida.reservar(4 + 1 + 10);
+        int inicio = b.position();
+        b.putInt(0).put(codigo);
+        ProtocoloBinario.escreverVarint(b, id);
+        return inicio;
+    }
+
+    private void fecharQuadro(int inicio) {
+        ByteBuffer b = saida.reservar(0);
+        b.putInt(inicio, b.position() - inicio - 4);
+    }
+}
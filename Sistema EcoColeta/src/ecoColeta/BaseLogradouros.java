@@ -0,0 +1,326 @@
+package ecoColeta;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// Base local de logradouros (CEP, logradouro, bairro, cidade, UF e coordenadas) usada para localizar
+// um endereço digitado sem depender de serviço externo
+// - Formato: CSV com cabeçalho cep,logradouro,bairro,cidade,uf,latitude,longitude; linhas com '#' são comentários
+// - Busca: primeiro pelo CEP contido no endereço; depois pelo nome do logradouro normalizado (sem acentos,
+//   abreviações expandidas, sem o número) e, por fim, por semelhança das palavras do nome
+// - Bairro, cidade ou UF presentes no endereço escolhem entre logradouros de mesmo nome
+// Não é alterada depois de carregada: as buscas podem vir de várias threads
+class BaseLogradouros {
+    // Resultado de uma busca: coordenadas e a descrição do logradouro encontrado
+    record Local(double latitude, double longitude, String descricao) {}
+
+    // 'palavras': códigos das palavras significativas do nome, em ordem crescente
+    private record Entrada(String logradouro, int[] palavras, String bairro, String cidade, String uf, Local local) {}
+
+    // Semelhança mínima entre as palavras do nome digitado e as do logradouro (interseção / união)
+    private static final double SEMELHANCA_MINIMA = 0.6;
+
+    private static final Map<String, String> ABREVIACOES = Map.ofEntries(
+            Map.entry("r", "rua"), Map.entry("av", "avenida"), Map.entry("avn", "avenida"), Map.entry("al", "alameda"),
+            Map.entry("pca", "praca"), Map.entry("pc", "praca"), Map.entry("trav", "travessa"), Map.entry("tv", "travessa"),
+            Map.entry("rod", "rodovia"), Map.entry("estr", "estrada"), Map.entry("lgo", "largo"), Map.entry("lg", "largo"),
+            Map.entry("dr", "doutor"), Map.entry("prof", "professor"), Map.entry("profa", "professora"),
+            Map.entry("sta", "santa"), Map.entry("sto", "santo"), Map.entry("pres", "presidente"),
+            Map.entry("gov", "governador"), Map.entry("cel", "coronel"), Map.entry("mal", "marechal"),
+            Map.entry("gen", "general"), Map.entry("eng", "engenheiro"), Map.entry("des", "desembargador"),
+            Map.entry("vl", "vila"), Map.entry("jd", "jardim"), Map.entry("pq", "parque"));
+    // Tipos de logradouro e preposições: não contam na semelhança (quase todo nome tem)
+    private static final Set<String> POUCO_SIGNIFICATIVAS = Set.of(
+            "rua", "avenida", "alameda", "praca", "travessa", "rodovia", "estrada", "largo", "eixo",
+            "de", "da", "do", "das", "dos", "e", "d");
+    // Marcam o número do imóvel (ex: "n. 120", "nº 120")
+    private static final Set<String> NUMERO = Set.of("n", "no", "num", "numero");
+
+    private final Map<Integer, Entrada> porCep = new HashMap<>();
+    private final Map<String, List<Entrada>> porLogradouro = new HashMap<>();
+    private final Map<String, Integer> codigos = new HashMap<>(); // Palavra significativa -> código
+    private final List<List<Entrada>> porPalavra = new ArrayList<>(); // Por código
+    private final Set<String> cidades = new HashSet<>();
+    private final String identificacao;
+    private int tamanho = 0;
+
+    // Carrega o arquivo informado ou, se for nulo, a amostra distribuída junto com as classes (logradouros.csv)
+    static BaseLogradouros carregar(Path arquivo) throws IOException {
+        byte[] bytes;
+        if (arquivo != null) {
+            bytes = Files.readAllBytes(arquivo);
+        } else {
+            try (InputStream recurso = BaseLogradouros.class.getResourceAsStream("logradouros.csv")) {
+                if (recurso == null) throw new FileNotFoundException("logradouros.csv não encontrado junto às classes");
+                bytes = recurso.readAllBytes();
+            }
+        }
+        return new BaseLogradouros(bytes);
+    }
+
+    private BaseLogradouros(byte[] conteudo) throws IOException {
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(conteudo), StandardCharsets.UTF_8))) {
+            String linha;
+            boolean cabecalho = true;
+            while ((linha = leitor.readLine()) != null) {
+                if (linha.isBlank() || linha.startsWith("#")) continue;
+                if (cabecalho) { // cep,logradouro,bairro,cidade,uf,latitude,longitude
+                    cabecalho = false;
+                    continue;
+                }
+                List<String> campos = Csv.separar(linha);
+                if (campos.size() != 7) continue;
+                adicionar(campos);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        identificacao = tamanho + ";" + Long.toHexString(crc.getValue());
+    }
+
+    private void adicionar(List<String> campos) {
+        double latitude, longitude;
+        try {
+            latitude = Double.parseDouble(campos.get(5));
+            longitude = Double.parseDouble(campos.get(6));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (!PontoColeta.localizacaoValida(latitude, longitude)) return;
+        String descricao = campos.get(1) + " - " + campos.get(2) + ", " + campos.get(3) + "/" + campos.get(4);
+        String logradouro = normalizar(campos.get(1));
+        List<String> significativas = significativas(logradouro);
+        int[] palavras = new int[significativas.size()];
+        for (int i = 0; i < palavras.length; i++) {
+            palavras[i] = codigos.computeIfAbsent(significativas.get(i), _ -> codigos.size());
+            if (palavras[i] == porPalavra.size()) porPalavra.add(new ArrayList<>());
+        }
+        Arrays.sort(palavras);
+        Entrada entrada = new Entrada(logradouro, palavras, normalizar(campos.get(2)),
+                normalizar(campos.get(3)), normalizar(campos.get(4)), new Local(latitude, longitude, descricao));
+
+        int cep = cep(campos.get(0).replace("-", ""));
+        if (cep >= 0) porCep.putIfAbsent(cep, entrada);
+        porLogradouro.computeIfAbsent(logradouro, _ -> new ArrayList<>(1)).add(entrada);
+        for (int palavra : palavras) porPalavra.get(palavra).add(entrada);
+        cidades.add(entrada.cidade());
+        tamanho++;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    // Quantidade de entradas e CRC do arquivo: muda quando a base é trocada ou editada
+    String identificacao() {
+        return identificacao;
+    }
+
+    // Forma normalizada do endereço, usada como chave de busca (e do cache do Geocodificador):
+    // minúsculas sem acentos, abreviações expandidas, partes (separadas por ',', ' - ' ou '/') unidas por ',' e
+    // sem o número do imóvel, que não muda o local encontrado (endereços da mesma rua usam a mesma chave)
+    // Ex: "R. Barão de Jaguara, 1.200 - Centro, Campinas/SP" -> "rua barao de jaguara,centro,campinas,sp"
+    static String normalizar(String endereco) {
+        String texto = IndiceMateriais.normalizar(endereco);
+        StringBuilder chave = new StringBuilder(texto.length());
+        StringBuilder palavra = new StringBuilder();
+        boolean parteVazia = true;
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? texto.charAt(i) : ',';
+            char anterior = i > 0 ? texto.charAt(i - 1) : ' ';
+            char proximo = i + 1 < texto.length() ? texto.charAt(i + 1) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                palavra.append(c);
+                continue;
+            }
+            // Pontos e hífens dentro de números (CEP, milhar) e apóstrofos não separam palavras
+            boolean entreDigitos = Character.isDigit(anterior) && Character.isDigit(proximo);
+            if (((c == '-' || c == '.') && entreDigitos) || c == '\'') continue;
+            if (!palavra.isEmpty()) {
+                String p = ABREVIACOES.getOrDefault(palavra.toString(), palavra.toString());
+                chave.append(parteVazia ? "" : " ").append(p);
+                parteVazia = false;
+                palavra.setLength(0);
+            }
+            boolean separaParte = c == ',' || c == '/' || c == ';' || (c == '-' && !(Character.isLetter(anterior) && Character.isLetter(proximo)));
+            if (separaParte && !parteVazia) {
+                chave.append(',');
+                parteVazia = true;
+            }
+        }
+        StringBuilder semNumeros = new StringBuilder(chave.length());
+        for (String parte : chave.toString().split(",")) {
+            boolean soNumero = parte.chars().allMatch(Character::isDigit);
+            if (soNumero && cep(parte) < 0) continue; // Número em parte separada ("rua x, 120"); o CEP fica
+            boolean temLetra = parte.chars().anyMatch(Character::isLetter); // Sem letras: CEP como "13015 000"
+            semNumeros.append(semNumeros.isEmpty() ? "" : ",").append(temLetra ? semNumero(parte) : parte);
+        }
+        return semNumeros.toString();
+    }
+
+    // Busca o local de um endereço já normalizado; null se não for encontrado ou se houver mais de
+    // um logradouro possível sem bairro ou cidade para decidir
+    Local buscar(String chave) {
+        String[] partes = chave.split(",");
+
+        // CEP: 8 dígitos seguidos (o hífen já foi retirado) ou 5 + 3 separados por espaço
+        for (String parte : partes) {
+            String[] palavras = parte.split(" ");
+            for (int i = 0; i < palavras.length; i++) {
+                String candidato = palavras[i].length() == 5 && i + 1 < palavras.length && palavras[i + 1].length() == 3
+                        ? palavras[i] + palavras[i + 1] : palavras[i];
+                Entrada entrada = porCep.get(cep(candidato));
+                if (candidato.length() == 8 && entrada != null) return entrada.local();
+            }
+        }
+
+        // Logradouro: a primeira parte com letras, sem o número do imóvel; as demais são bairro, cidade e UF
+        int parteLogradouro = -1;
+        for (int i = 0; i < partes.length && parteLogradouro < 0; i++) {
+            if (partes[i].chars().anyMatch(Character::isLetter)) parteLogradouro = i;
+        }
+        if (parteLogradouro < 0) return null;
+        String logradouro = semNumero(partes[parteLogradouro]);
+        List<String> dicas = new ArrayList<>();
+        for (int i = 0; i < partes.length; i++) if (i != parteLogradouro) dicas.add(" " + partes[i] + " ");
+
+        List<Entrada> exatas = porLogradouro.get(logradouro);
+        if (exatas != null) return escolher(exatas, dicas);
+
+        // Endereço sem vírgulas ("rua x 100 centro campinas"): o que vem depois do último número é dica
+        String[] palavrasParte = logradouro.split(" ");
+        for (int i = palavrasParte.length - 2; i > 0; i--) {
+            if (!palavrasParte[i].chars().allMatch(Character::isDigit)) continue;
+            logradouro = semNumero(String.join(" ", Arrays.asList(palavrasParte).subList(0, i + 1)));
+            dicas.add(" " + String.join(" ", Arrays.asList(palavrasParte).subList(i + 1, palavrasParte.length)) + " ");
+            exatas = porLogradouro.get(logradouro);
+            if (exatas != null) return escolher(exatas, dicas);
+            break;
+        }
+
+        // Semelhança: logradouros com a maior proporção de palavras significativas em comum (interseção / união)
+        // Para chegar à semelhança mínima o logradouro precisa ter pelo menos 'exigidas' das q palavras, então
+        // tem alguma das q - exigidas + 1 mais raras: só as listas dessas palavras geram candidatos, e as
+        // palavras comuns (nomes como "jose" ou "silva", presentes em milhares de logradouros) só conferem
+        // As palavras são comparadas pelo código (a lista de cada logradouro é um int[] ordenado): a conferência
+        // de cada candidato não percorre Strings espalhadas pela memória
+        List<String> significativas = significativas(logradouro);
+        int q = significativas.size();
+        if (q == 0) return null;
+        int[] consulta = new int[q]; // Códigos das palavras, das mais raras às mais comuns; -1: palavra fora da base
+        for (int i = 0; i < q; i++) consulta[i] = codigos.getOrDefault(significativas.get(i), -1);
+        consulta = Arrays.stream(consulta).boxed().sorted(Comparator.comparingInt(c -> c < 0 ? 0 : porPalavra.get(c).size()))
+                .mapToInt(Integer::intValue).toArray();
+        int[] ordenada = consulta.clone();
+        Arrays.sort(ordenada);
+        int exigidas = (int) Math.ceil(SEMELHANCA_MINIMA * q - 1e-9);
+        List<Entrada> melhores = new ArrayList<>();
+        double melhor = SEMELHANCA_MINIMA;
+        for (int k = 0; k <= q - exigidas; k++) {
+            if (consulta[k] < 0) continue;
+            candidatos:
+            for (Entrada e : porPalavra.get(consulta[k])) {
+                for (int anterior = 0; anterior < k; anterior++) {
+                    if (Arrays.binarySearch(e.palavras(), consulta[anterior]) >= 0) continue candidatos; // Já avaliado
+                }
+                int comuns = emComum(ordenada, e.palavras());
+                double semelhanca = (double) comuns / (q + e.palavras().length - comuns);
+                if (semelhanca > melhor) {
+                    melhor = semelhanca;
+                    melhores.clear();
+                }
+                if (semelhanca == melhor) melhores.add(e);
+            }
+        }
+        return melhores.isEmpty() ? null : escolher(melhores, dicas);
+    }
+
+    // Entre logradouros de mesmo nome, o que tem mais dicas em comum (cidade vale mais que bairro e UF);
+    // se o endereço cita uma cidade conhecida que não é a de nenhum deles, nenhum é escolhido
+    private Local escolher(List<Entrada> entradas, List<String> dicas) {
+        Entrada escolhida = null;
+        int melhor = -1;
+        boolean empate = false;
+        for (Entrada e : entradas) {
+            int pontos = 0;
+            for (String dica : dicas) {
+                if (dica.contains(" " + e.cidade() + " ")) pontos += 4;
+                if (dica.contains(" " + e.bairro() + " ")) pontos += 2;
+                if (dica.contains(" " + e.uf() + " ")) pontos += 1;
+            }
+            if (pontos > melhor) {
+                melhor = pontos;
+                escolhida = e;
+                empate = false;
+            } else if (pontos == melhor) {
+                empate = true;
+            }
+        }
+        if (melhor < 4 && citaCidade(dicas)) return null; // Outra cidade: o logradouro não está na base
+        if (empate) return null;
+        return escolhida.local();
+    }
+
+    private boolean citaCidade(List<String> dicas) {
+        for (String dica : dicas) {
+            for (String cidade : cidades) if (dica.contains(" " + cidade + " ")) return true;
+        }
+        return false;
+    }
+
+    // Retira o número do imóvel do fim (ex: "rua das flores 120", "rua das flores n 120"); um CEP fica
+    private static String semNumero(String parte) {
+        String[] palavras = parte.split(" ");
+        int fim = palavras.length;
+        while (fim > 1 && palavras[fim - 1].chars().allMatch(Character::isDigit) && cep(palavras[fim - 1]) < 0) fim--;
+        if (fim < palavras.length && fim > 1 && NUMERO.contains(palavras[fim - 1])) fim--;
+        return String.join(" ", Arrays.asList(palavras).subList(0, fim));
+    }
+
+    // Quantidade de valores presentes nos dois arrays ordenados
+    private static int emComum(int[] a, int[] b) {
+        int comuns = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                comuns++;
+                i++;
+                j++;
+            }
+        }
+        return comuns;
+    }
+
+    private static List<String> significativas(String logradouro) {
+        List<String> palavras = new ArrayList<>();
+        for (String palavra : logradouro.split(" ")) {
+            if (!palavra.isEmpty() && !POUCO_SIGNIFICATIVAS.contains(palavra) && !palavras.contains(palavra)) palavras.add(palavra);
+        }
+        return palavras;
+    }
+
+    // CEP como número (-1 se não tiver exatamente 8 dígitos)
+    private static int cep(String texto) {
+        if (texto.length() != 8 || !texto.chars().allMatch(Character::isDigit)) return -1;
+        return Integer.parseInt(texto);
+    }
+}
@@ -0,0 +1,71 @@
+package ecoColeta;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Resposta completa do LISTAR já codificada em bytes, reaproveitada enquanto o catálogo não muda
+// - A listagem guarda a versão do repositório em que foi montada; uma alteração só invalida o cache,
+//   e a listagem é remontada no próximo LISTAR (uma única thread monta, as outras aguardam e reutilizam)
+// - Os bytes ficam em um buffer direto, que o socket envia sem a cópia intermediária feita para buffers do heap;
+//   cada conexão recebe uma visão somente leitura do mesmo buffer
+class CacheListagem {
+    private record Listagem(long versao, ByteBuffer bytes) {}
+
+    private final RepositorioPontos repositorio;
+    private final ReentrantLock montagem = new ReentrantLock();
+    private volatile Listagem atual = new Listagem(-1, ByteBuffer.allocateDirect(0));
+
+    CacheListagem(RepositorioPontos repositorio) {
+        this.repositorio = repositorio;
+    }
+
+    // Bytes da resposta do LISTAR (linhas dos pontos e a linha em branco final), prontos para envio
+    ByteBuffer obter() {
+        Listagem listagem = atual;
+        if (listagem.versao() != repositorio.versao()) listagem = remontar();
+        return listagem.bytes().asReadOnlyBuffer(); // Posição própria para cada conexão, sem copiar os bytes
+    }
+
+    private Listagem remontar() {
+        montagem.lock();
+        try {
+            long versao = repositorio.versao(); // Lida antes de percorrer: se mudar durante a montagem, o próximo LISTAR remonta
+            if (atual.versao() == versao) return atual; // Outra thread montou enquanto esta aguardava
+            Listagem nova = new Listagem(versao, codificar(atual.bytes().capacity()));
+            atual = nova;
+            return nova;
+        } finally {
+            montagem.unlock();
+        }
+    }
+
+    // Mesmo texto que o Servidor enviava linha a linha; o tamanho da listagem anterior serve de estimativa
+    private ByteBuffer codificar(int estimativa) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(4096, estimativa + estimativa / 8));
+        if (repositorio.vazio()) {
+            buffer = acrescentar(buffer, "Nenhum Ponto de Coleta Cadastrado.\n".getBytes(StandardCharsets.UTF_8));
+        } else {
+            for (PontoColeta p : repositorio.todos()) {
+                buffer = acrescentar(buffer, (p.getId() + " - " + p.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        buffer = acrescentar(buffer, new byte[] {'\n'});
+        buffer.flip();
+        if (buffer.capacity() - buffer.limit() < buffer.limit() / 4) return buffer;
+        // Sobrou muito espaço (pontos removidos): guarda só o necessário
+        ByteBuffer justo = ByteBuffer.allocateDirect(buffer.limit());
+        justo.put(buffer).flip();
+        return justo;
+    }
+
+    private static ByteBuffer acrescentar(ByteBuffer buffer, byte[] bytes) {
+        if (buffer.remaining() < bytes.length) {
+            ByteBuffer maior = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + bytes.length));
+            buffer.flip();
+            maior.put(buffer);
+            buffer = maior;
+        }
+        return buffer.put(bytes);
+    }
+}
@@ -0,0 +1,233 @@
+package ecoColeta;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Cópia do catálogo no cliente, mantida em dia pelo SINCRONIZAR (só o que mudou desde a versão que ela tem)
+// - LISTAR, PROXIMO e BUSCAR são respondidos aqui, com as mesmas linhas do servidor e sobre as mesmas estruturas
+//   (TabelaPontos e IndiceMateriais), sem trazer as páginas pela rede a cada consulta
+// - A cópia vale por FRESCOR_MILLIS depois de sincronizar, desde que este cliente não tenha pedido alterações
+//   nesse meio tempo; depois disso, a consulta espera um SINCRONIZAR (que, sem alterações, é uma linha)
+// - Quem já sabe de uma alteração mais nova (evento de ASSINAR) exige a versão dela: a próxima consulta espera
+//   a cópia chegar lá
+// - Se o servidor não responder, as consultas usam a cópia que houver
+// - Com -Decocoleta.catalogoLocal=arquivo a cópia é gravada ao fechar e carregada na abertura: a primeira
+//   sincronização só traz o que mudou desde a execução anterior (se o servidor ainda for a mesma instância)
+class CatalogoLocal implements AutoCloseable {
+    static final long FRESCOR_MILLIS = Long.getLong("ecocoleta.frescorCatalogo", 1000);
+    private static final String ARQUIVO = System.getProperty("ecocoleta.catalogoLocal"); // Nulo: só em memória
+    private static final String CABECALHO = "ECOCOLETA-CATALOGO";
+
+    // Os pontos, o índice de materiais e até que versão (de qual instância do servidor) eles vão
+    private static final class Copia {
+        final TabelaPontos pontos = new TabelaPontos();
+        final IndiceMateriais materiais = new IndiceMateriais();
+        String instancia; // Nula: nunca sincronizada
+        long versao;
+
+        // As alterações são aplicadas por uma sincronização por vez
+        void colocar(PontoColeta ponto) {
+            PontoColeta anterior = pontos.colocar(ponto);
+            if (anterior == null) {
+                materiais.adicionar(ponto);
+            } else {
+                materiais.atualizar(anterior, ponto);
+            }
+        }
+
+        void remover(int id) {
+            PontoColeta anterior = pontos.remover(id);
+            if (anterior != null) materiais.remover(anterior);
+        }
+    }
+
+    private final GerenciadorConexoes conexao;
+    private final Path arquivo;
+    private volatile Copia copia = new Copia();
+    private CompletableFuture<Void> sincronizacao; // Em andamento (as consultas que chegam esperam a mesma)
+    private volatile long sincronizadaEm;                  // System.nanoTime() do início da última sincronização
+    private volatile long alteracoesVistas = -1;           // Alterações deste cliente cobertas por ela (-1: nunca sincronizou)
+    private volatile String instanciaExigida;              // Nula: nenhuma versão exigida
+    private volatile long versaoExigida;
+
+    CatalogoLocal(GerenciadorConexoes conexao) {
+        this(conexao, ARQUIVO == null ? null : Path.of(ARQUIVO));
+    }
+
+    CatalogoLocal(GerenciadorConexoes conexao, Path arquivo) {
+        this.conexao = conexao;
+        this.arquivo = arquivo;
+        if (arquivo != null && Files.exists(arquivo)) {
+            try {
+                copia = ler(arquivo);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Cópia local do catálogo ignorada: " + e.getMessage()); // Sincroniza do zero
+            }
+        }
+    }
+
+    // ---------------- Consultas (mesmas linhas do servidor) ----------------
+
+    // TOTAL;n, os pontos a partir da posição e CURSOR;id se ainda houver pontos
+    CompletableFuture<List<String>> listar(int inicio, int limite) {
+        return emDia().thenApply(c -> pagina(c, c.pontos.idNaPosicao(inicio), limite));
+    }
+
+    CompletableFuture<List<String>> proximo(int cursor, int limite) {
+        return emDia().thenApply(c -> pagina(c, cursor, limite));
+    }
+
+    CompletableFuture<List<String>> buscar(String material) {
+        return emDia().thenApply(c -> {
+            List<String> linhas = new ArrayList<>();
+            BitSet ids = c.materiais.buscar(material);
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                PontoColeta p = c.pontos.obter(id);
+                if (p != null) linhas.add(p.getId() + " - " + p);
+            }
+            if (linhas.isEmpty()) linhas.add("Nenhum Ponto Encontrado para o Material: " + material);
+            return linhas;
+        });
+    }
+
+    private static List<String> pagina(Copia c, int idInicial, int limite) {
+        limite = Math.min(limite, Servidor.MAXIMO_PAGINA);
+        List<String> linhas = new ArrayList<>(Math.min(limite, 1024) + 2);
+        linhas.add("TOTAL;" + c.pontos.tamanho());
+        Iterator<PontoColeta> it = c.pontos.aPartirDe(idInicial < 0 ? Integer.MAX_VALUE : idInicial);
+        for (int i = 0; i < limite && it.hasNext(); i++) {
+            PontoColeta p = it.next();
+            linhas.add(p.getId() + " - " + p);
+        }
+        if (it.hasNext()) linhas.add("CURSOR;" + it.next().getId());
+        return linhas;
+    }
+
+    // ---------------- Sincronização ----------------
+
+    // A próxima consulta só responde quando a cópia chegar à versão (da instância do servidor informada)
+    void exigirVersao(String instancia, long versao) {
+        versaoExigida = versao;
+        instanciaExigida = instancia;
+    }
+
+    private boolean atendeExigida(Copia c) {
+        String instancia = instanciaExigida;
+        return instancia == null || (instancia.equals(c.instancia) && c.versao >= versaoExigida);
+    }
+
+    // A cópia, depois de sincronizar se ela não estiver em dia; uma sincronização que já estava a caminho
+    // pode ter saído antes da versão exigida, então nesse caso sincroniza mais uma vez
+    private CompletableFuture<Copia> emDia() {
+        boolean fresca = System.nanoTime() - sincronizadaEm < FRESCOR_MILLIS * 1_000_000
+                && alteracoesVistas == conexao.alteracoesEnviadas();
+        if (fresca && atendeExigida(copia)) return CompletableFuture.completedFuture(copia);
+        return sincronizar()
+                .thenCompose(_ -> atendeExigida(copia) ? CompletableFuture.<Void>completedFuture(null) : sincronizar())
+                .handle((_, erro) -> {
+                    Copia atual = copia;
+                    if (erro != null && atual.instancia == null) throw new CompletionException(erro); // Nada para mostrar
+                    return atual;
+                });
+    }
+
+    // Traz as alterações desde a versão da cópia, em quantas respostas forem necessárias
+    synchronized CompletableFuture<Void> sincronizar() {
+        if (sincronizacao != null) return sincronizacao;
+        long inicio = System.nanoTime();
+        long alteracoes = conexao.alteracoesEnviadas(); // As pedidas antes deste SINCRONIZAR chegam antes dele
+        CompletableFuture<Void> andamento = trazer(copia).handle((c, erro) -> {
+            synchronized (this) {
+                sincronizacao = null; // Antes de completar: quem continua a partir daqui pode pedir outra
+            }
+            if (erro != null) throw erro instanceof CompletionException ce ? ce : new CompletionException(erro);
+            copia = c;
+            sincronizadaEm = inicio;
+            alteracoesVistas = alteracoes;
+            return null;
+        });
+        if (!andamento.isDone()) sincronizacao = andamento;
+        return andamento;
+    }
+
+    // Pede um trecho e aplica; COMPLETO começa uma cópia nova, que só substitui a atual no fim
+    private CompletableFuture<Copia> trazer(Copia destino) {
+        return conexao.sincronizar(destino.instancia, destino.versao).thenCompose(linhas -> {
+            if (linhas.isEmpty()) throw new CompletionException(new IOException("Resposta vazia ao SINCRONIZAR."));
+            String[] cabecalho = linhas.get(0).split(";");
+            if (cabecalho.length != 3 || !(cabecalho[0].equals("COMPLETO") || cabecalho[0].equals("SINCRONIZADO"))) {
+                throw new CompletionException(new IOException(linhas.get(0))); // Ex: servidor sem SINCRONIZAR
+            }
+            Copia c = cabecalho[0].equals("COMPLETO") ? new Copia() : destino;
+            boolean continua = false;
+            for (int i = 1; i < linhas.size(); i++) {
+                String linha = linhas.get(i);
+                if (linha.equals("CONTINUA")) {
+                    continua = true;
+                } else if (linha.startsWith("REMOVIDO;")) {
+                    c.remover(Integer.parseInt(linha.substring("REMOVIDO;".length())));
+                } else {
+                    c.colocar(PontoColeta.daLinhaCsv(linha));
+                }
+            }
+            c.instancia = cabecalho[1];
+            c.versao = Long.parseLong(cabecalho[2]);
+            return continua ? trazer(c) : CompletableFuture.completedFuture(c);
+        });
+    }
+
+    // ---------------- Arquivo ----------------
+
+    // ECOCOLETA-CATALOGO;instancia;versao e uma linha CSV por ponto (como no EXPORTAR)
+    private static Copia ler(Path arquivo) throws IOException {
+        try (BufferedReader entrada = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String[] cabecalho = String.valueOf(entrada.readLine()).split(";");
+            if (cabecalho.length != 3 || !cabecalho[0].equals(CABECALHO)) throw new IOException("Arquivo inválido: " + arquivo);
+            Copia c = new Copia();
+            String linha;
+            while ((linha = entrada.readLine()) != null) {
+                if (!linha.isEmpty()) c.colocar(PontoColeta.daLinhaCsv(linha));
+            }
+            c.instancia = cabecalho[1];
+            c.versao = Long.parseLong(cabecalho[2]);
+            return c;
+        }
+    }
+
+    // Grava em um arquivo temporário e troca de uma vez: uma falha no meio não estraga a cópia anterior
+    void salvar() throws IOException {
+        Copia c = copia;
+        if (arquivo == null || c.instancia == null) return;
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        if (arquivo.getParent() != null) Files.createDirectories(arquivo.getParent());
+        try (BufferedWriter saida = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8)) {
+            saida.write(CABECALHO + ";" + c.instancia + ";" + c.versao);
+            saida.newLine();
+            for (PontoColeta p : c.pontos) {
+                saida.write(p.linhaCsv());
+                saida.newLine();
+            }
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        try {
+            salvar();
+        } catch (IOException e) {
+            System.err.println("Não foi possível gravar a cópia local do catálogo: " + e.getMessage());
+        }
+    }
+}
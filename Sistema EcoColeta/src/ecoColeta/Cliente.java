@@ -1,37 +1,114 @@
 package ecoColeta;
 
 import java.io.*;
-import java.net.*;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 // Classe Cliente que se comunica com o Servidor via console (linha de comando)
+// O protocolo (texto ou binário) é escolhido com -Decocoleta.protocolo, ver ServicoConexao, e os servidores com
+// -Decocoleta.servidores, ver GerenciadorConexoes
 public class Cliente {
+    private static final int TAMANHO_PAGINA = 20; // Pontos exibidos por página na listagem
+    private static final long TEMPO_LIMITE_MILLIS = 30_000;
+
+    // Aguarda a resposta do servidor; se nenhum servidor responder, avisa e segue (as conexões são refeitas
+    // em segundo plano, ver GerenciadorConexoes)
+    private static List<String> aguardar(CompletableFuture<List<String>> pedido) {
+        try {
+            return pedido.join();
+        } catch (CompletionException e) {
+            System.out.println(">> Servidor indisponível no momento. Tente novamente.");
+            return List.of();
+        }
+    }
 
     // Método auxiliar para ler e imprimir as respostas enviadas pelo servidor
-    private static void lerRespostaDoServidor(BufferedReader entrada) throws IOException {
-        String resposta;
-        while ((resposta = entrada.readLine()) != null) {
-            if (resposta.trim().isEmpty()) break; // Sai do loop quando encontra linha em branco
+    private static void lerRespostaDoServidor(CompletableFuture<List<String>> pedido) {
+        for (String resposta : aguardar(pedido)) {
             System.out.println(">> " + resposta); // Imprime a resposta do servidor
             // Se a resposta indicar que a conexão será encerrada, fecha o programa
             if (resposta.contains("Conexão Encerrada.") || resposta.contains("Servidor será encerrado")) {
                 System.exit(0);
             }
         }
-        // Se o servidor fechar a conexão inesperadamente
-        if (resposta == null) {
-            System.out.println("O servidor fechou a conexão.");
-            System.exit(0);
+    }
+
+    // Converte o ID digitado; se não for um número, avisa como o servidor faria e retorna null
+    private static Integer lerId(String texto) {
+        try {
+            return Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            System.out.println(">> Formato Inválido. O ID deve ser um Número.");
+            return null;
+        }
+    }
+
+    // Lista os pontos página por página, pedindo confirmação antes de buscar a próxima
+    // A cópia local do catálogo responde como o servidor: TOTAL;n, as linhas da página e CURSOR;id quando ainda há pontos
+    private static void listarPaginado(CatalogoLocal catalogo, Scanner scanner) {
+        CompletableFuture<List<String>> pedido = catalogo.listar(0, TAMANHO_PAGINA);
+        while (true) {
+            Integer cursor = null;
+            for (String resposta : aguardar(pedido)) {
+                if (resposta.startsWith("TOTAL;")) {
+                    if (resposta.equals("TOTAL;0")) System.out.println(">> Nenhum Ponto de Coleta Cadastrado.");
+                } else if (resposta.startsWith("CURSOR;")) {
+                    cursor = Integer.parseInt(resposta.substring("CURSOR;".length()));
+                } else {
+                    System.out.println(">> " + resposta);
+                }
+            }
+            if (cursor == null) return; // Última página
+            System.out.print("\n[Enter] Próxima Página | [S] Parar: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("S")) return;
+            System.out.println();
+            pedido = catalogo.proximo(cursor, TAMANHO_PAGINA);
         }
     }
 
+    // Pesquisa livre página por página, dos pontos mais aos menos relevantes, como na listagem
+    // O servidor responde TOTAL;n e as linhas das posições pedidas (PESQUISAR;texto;inicio;limite)
+    private static void pesquisarPaginado(GerenciadorConexoes conexao, Scanner scanner, String texto) {
+        int inicio = 0;
+        while (true) {
+            int total = 0;
+            for (String resposta : aguardar(conexao.pesquisar(texto, inicio, TAMANHO_PAGINA))) {
+                if (resposta.startsWith("TOTAL;")) {
+                    total = Integer.parseInt(resposta.substring("TOTAL;".length()));
+                } else {
+                    System.out.println(">> " + resposta);
+                }
+            }
+            inicio += TAMANHO_PAGINA;
+            if (inicio >= total) return; // Última página
+            System.out.print("\n[Enter] Próxima Página (" + inicio + " de " + total + ") | [S] Parar: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("S")) return;
+            System.out.println();
+        }
+    }
+
+    // Lê o texto da pesquisa e mostra os resultados
+    private static void pesquisar(GerenciadorConexoes conexao, Scanner scanner) {
+        System.out.println();
+        System.out.print("Digite o Endereço, Bairro ou Material a Pesquisar: ");
+        String texto = scanner.nextLine().trim();
+        System.out.println();
+        if (texto.isEmpty()) {
+            System.out.println(">> Digite o que procura.");
+            return;
+        }
+        pesquisarPaginado(conexao, scanner, texto);
+    }
+
     // Método principal
     public static void main(String[] args) {
         // Bloco try-with-resources garante que todos os recursos serão fechados automaticamente
         try (
-            Socket socket = new Socket("localhost", 12345); // Conecta ao servidor na porta 12345
-            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream())); // Recebe mensagens
-            PrintWriter saida = new PrintWriter(socket.getOutputStream(), true); // Envia mensagens
+            GerenciadorConexoes conexao = new GerenciadorConexoes(TEMPO_LIMITE_MILLIS); // Conecta aos servidores (padrão: localhost:12345)
+            CatalogoLocal catalogo = new CatalogoLocal(conexao); // Listagens e buscas respondidas localmente (SINCRONIZAR)
             Scanner scanner = new Scanner(System.in) // Lê entrada do usuário
         ) {
             boolean executando = true; // Controle do loop principal
@@ -67,10 +144,10 @@ public class Cliente {
 
                 // Opção de sair do sistema
                 if (tipo.equals("3")) {
-                    saida.println("ENCERRAR_TUDO"); // Comando para encerrar o servidor
+                    CompletableFuture<List<String>> pedido = conexao.enviar("ENCERRAR_TUDO"); // Comando para encerrar o servidor
                     System.out.println("\nOpção escolhida: 3 - Encerrando o sistema...");
                     System.out.println();
-                    lerRespostaDoServidor(entrada); // Lê a resposta do servidor
+                    lerRespostaDoServidor(pedido); // Lê a resposta do servidor
                     executando = false;
                     break;
                 }
@@ -107,7 +184,10 @@ public class Cliente {
                         System.out.println("║  [3] Buscar por Material           ║");
                         System.out.println("║  [4] Atualizar Ponto de Coleta     ║");
                         System.out.println("║  [5] Remover Ponto de Coleta       ║");
-                        System.out.println("║  [6] Sair                          ║");
+                        System.out.println("║  [6] Importar Pontos (CSV)         ║");
+                        System.out.println("║  [7] Exportar Pontos (CSV)         ║");
+                        System.out.println("║  [8] Pesquisar Endereço/Material   ║");
+                        System.out.println("║  [9] Sair                          ║");
                         System.out.println("║                                    ║");
                         System.out.println("╚════════════════════════════════════╝");
                         System.out.println();
@@ -118,7 +198,8 @@ public class Cliente {
                         System.out.println("╠════════════════════════════════════╣");
                         System.out.println("║  [1] Listar Pontos de Coleta       ║");
                         System.out.println("║  [2] Buscar por Material           ║");
-                        System.out.println("║  [3] Sair                          ║");
+                        System.out.println("║  [3] Pesquisar Endereço/Material   ║");
+                        System.out.println("║  [4] Sair                          ║");
                         System.out.println("║                                    ║");
                         System.out.println("╚════════════════════════════════════╝");
                         System.out.println();
@@ -129,12 +210,12 @@ public class Cliente {
                     String opcao = scanner.nextLine();
 
                     // Validação da opção digitada
-                    if (isAdmin && !Arrays.asList("1","2","3","4","5","6").contains(opcao)) {
-                        System.out.println("\nOpção Inválida! Digite de 1 a 6.\n");
+                    if (isAdmin && !Arrays.asList("1","2","3","4","5","6","7","8","9").contains(opcao)) {
+                        System.out.println("\nOpção Inválida! Digite de 1 a 9.\n");
                         continue;
                     }
-                    if (!isAdmin && !Arrays.asList("1","2","3").contains(opcao)) {
-                        System.out.println("\nOpção Inválida! Digite de 1 a 3.\n");
+                    if (!isAdmin && !Arrays.asList("1","2","3","4").contains(opcao)) {
+                        System.out.println("\nOpção Inválida! Digite de 1 a 4.\n");
                         continue;
                     }
 
@@ -151,14 +232,12 @@ public class Cliente {
                                 System.out.print("Digite o Horário de Funcionamento: ");
                                 String horario = scanner.nextLine();
                                 System.out.println();
-                                saida.println("CADASTRAR;" + endereco + ";" + materiais + ";" + horario);
-                                lerRespostaDoServidor(entrada);
+                                lerRespostaDoServidor(conexao.cadastrar(endereco, materiais, horario));
                                 continue;
                             } else {
                                 // Listagem de pontos de coleta para cidadão
-                                saida.println("LISTAR");
                                 System.out.println();
-                                lerRespostaDoServidor(entrada);
+                                listarPaginado(catalogo, scanner);
                                 continue;
                             }
 
@@ -166,44 +245,46 @@ public class Cliente {
                             if (isAdmin) {
                                 // Listagem para administrador
                                 System.out.println();
-                                saida.println("LISTAR");
-                                lerRespostaDoServidor(entrada);
+                                listarPaginado(catalogo, scanner);
                                 continue;
                             } else {
                                 // Busca por material para cidadão
                                 System.out.println();
                                 System.out.print("Digite o Material a Buscar: ");
                                 String material = scanner.nextLine();
-                                saida.println("BUSCAR;" + material);
                                 System.out.println();
-                                lerRespostaDoServidor(entrada);
+                                lerRespostaDoServidor(catalogo.buscar(material));
                                 continue;
                             }
 
                         case "3":
                             if (!isAdmin) {
-                                // Sai do menu cidadão e retorna ao menu inicial
-                                System.out.println();
-                                System.out.println("Saindo do Menu EcoColeta e Voltando ao Menu Inicial...");
-                                System.out.println();
-                                try { Thread.sleep(500); } catch (InterruptedException e) {}
-                                noMenu = false;
+                                // Pesquisa livre para cidadão
+                                pesquisar(conexao, scanner);
                                 continue;
                             } else {
                                 // Admin pode buscar por material na opção 3
                                 System.out.println();
                                 System.out.print("Digite o Material a Buscar: ");
                                 String mat = scanner.nextLine();
-                                saida.println("BUSCAR;" + mat);
                                 System.out.println();
-                                lerRespostaDoServidor(entrada);
+                                lerRespostaDoServidor(catalogo.buscar(mat));
                                 continue;
                             }
 
                         case "4":
+                            if (!isAdmin) {
+                                // Sai do menu cidadão e retorna ao menu inicial
+                                System.out.println();
+                                System.out.println("Saindo do Menu EcoColeta e Voltando ao Menu Inicial...");
+                                System.out.println();
+                                try { Thread.sleep(500); } catch (InterruptedException e) {}
+                                noMenu = false;
+                                continue;
+                            }
                             // Atualizar ponto de coleta (admin)
                             System.out.println();
-                            System.out.print("Índice do Ponto: ");
+                            System.out.print("ID do Ponto: ");
                             String idxA = scanner.nextLine();
                             System.out.println();
                             System.out.print("Novo Endereço: ");
@@ -213,21 +294,56 @@ public class Cliente {
                             System.out.print("Novo Horário de Funcionamento: ");
                             String novoHorario = scanner.nextLine();
                             System.out.println();
-                            saida.println("ATUALIZAR;" + idxA + ";" + novoEnd + ";" + novosMat + ";" + novoHorario);
-                            lerRespostaDoServidor(entrada);
+                            Integer idA = lerId(idxA);
+                            if (idA != null) lerRespostaDoServidor(conexao.atualizar(idA, novoEnd, novosMat, novoHorario));
                             continue;
 
                         case "5":
                             // Remover ponto de coleta (admin)
                             System.out.println();
-                            System.out.print("Índice do Ponto: ");
+                            System.out.print("ID do Ponto: ");
                             String idxR = scanner.nextLine();
                             System.out.println();
-                            saida.println("REMOVER;" + idxR);
-                            lerRespostaDoServidor(entrada);
+                            Integer idR = lerId(idxR);
+                            if (idR != null) lerRespostaDoServidor(conexao.remover(idR));
                             continue;
 
                         case "6":
+                            // Importar pontos de um arquivo CSV (admin)
+                            System.out.println();
+                            System.out.print("Caminho do Arquivo CSV: ");
+                            String arquivoImportar = scanner.nextLine().trim();
+                            try {
+                                String resumo = TransferenciaCsv.importar(conexao.enderecoPrincipal(), Path.of(arquivoImportar),
+                                        linhas -> System.out.print("\rImportando... " + linhas + " pontos"));
+                                System.out.println();
+                                System.out.println(">> " + resumo);
+                            } catch (IOException | InvalidPathException e) {
+                                System.out.println("\nNão foi possível importar o arquivo: " + e.getMessage());
+                            }
+                            continue;
+
+                        case "7":
+                            // Exportar todos os pontos para um arquivo CSV (admin)
+                            System.out.println();
+                            System.out.print("Caminho do Arquivo CSV: ");
+                            String arquivoExportar = scanner.nextLine().trim();
+                            try {
+                                long pontos = TransferenciaCsv.exportar(conexao.enderecoPrincipal(), Path.of(arquivoExportar),
+                                        linhas -> System.out.print("\rExportando... " + linhas + " pontos"));
+                                System.out.println();
+                                System.out.println(">> Exportação Concluída: " + pontos + " pontos gravados em " + arquivoExportar);
+                            } catch (IOException | InvalidPathException e) {
+                                System.out.println("\nNão foi possível exportar o arquivo: " + e.getMessage());
+                            }
+                            continue;
+
+                        case "8":
+                            // Pesquisa livre (admin)
+                            pesquisar(conexao, scanner);
+                            continue;
+
+                        case "9":
                             if (isAdmin) {
                                 // Sai do menu admin e retorna ao menu inicial
                                 System.out.println();
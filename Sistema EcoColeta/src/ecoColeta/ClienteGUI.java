@@ -3,26 +3,44 @@ package ecoColeta;
 // Importações do JavaFX para criar a interface gráfica, animações, layout e efeitos
 import javafx.animation.*;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.effect.DropShadow;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
 import java.io.*;
-import java.net.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 // Classe principal do cliente com interface gráfica
 public class ClienteGUI extends Application {
 
-    // Variáveis para comunicação com o servidor
-    private Socket socket;           // Socket para conectar ao servidor
-    private BufferedReader entrada;  // Para receber mensagens do servidor
-    private PrintWriter saida;       // Para enviar mensagens ao servidor
+    // Comunicação com o servidor fora da thread do JavaFX, para a interface nunca travar esperando resposta
+    private static final long TEMPO_LIMITE_MILLIS = 10_000;
+    private GerenciadorConexoes conexao;
+    private CatalogoLocal catalogo; // Listagens e buscas respondidas pela cópia local do catálogo (SINCRONIZAR)
+    private final List<Future<?>> pedidosDaTela = new ArrayList<>(); // Cancelados ao trocar de tela
+    private ServicoConexao.Assinatura eventosDaTela; // Eventos do catálogo da tela atual; fechada ao trocar de tela
+    // Sugestões enquanto digita: o pedido sai quando o usuário para de digitar por esse tempo, e o anterior é cancelado
+    private static final Duration ESPERA_SUGESTOES = Duration.millis(120);
+    private static final int QUANTIDADE_SUGESTOES = 8;
 
     private Stage stage;             // Janela principal do JavaFX
     private Scene cena;              // Cena atual que será exibida
@@ -62,14 +80,19 @@ public class ClienteGUI extends Application {
     // Método que conecta ao servidor
     private void conectarServidor() {
         try {
-            socket = new Socket("localhost", 12345); // Conecta na máquina local, porta 12345
-            entrada = new BufferedReader(new InputStreamReader(socket.getInputStream())); // Recebe dados
-            saida = new PrintWriter(socket.getOutputStream(), true); // Envia dados
+            conexao = new GerenciadorConexoes(TEMPO_LIMITE_MILLIS); // Servidores de -Decocoleta.servidores (padrão: localhost:12345)
+            catalogo = new CatalogoLocal(conexao);
         } catch (IOException _ignore) {
-            showError("Não foi possível conectar ao servidor. Verifique se ele está em execução.");
+            showError("Não foi possível conectar a nenhum servidor. Verifique se eles estão em execução.");
         }
     }
 
+    @Override
+    public void stop() {
+        if (catalogo != null) catalogo.close(); // Grava a cópia local, se configurada
+        if (conexao != null) conexao.close();
+    }
+
     // ---------------- Telas ----------------
 
     // Tela de login
@@ -164,23 +187,32 @@ public class ClienteGUI extends Application {
         Button btnCadastrar = criarBotao("➕ Cadastrar Ponto de Coleta");
         Button btnListar = criarBotao("📋 Listar Pontos de Coleta");
         Button btnBuscar = criarBotao("🔍 Buscar por Material");
+        Button btnPesquisar = criarBotao("🔎 Pesquisar Endereço ou Material");
+        Button btnProximos = criarBotao("📍 Pontos Próximos");
+        Button btnAbertos = criarBotao("🕒 Abertos Agora");
         Button btnAtualizar = criarBotao("✏️ Atualizar Ponto de Coleta");
         Button btnRemover = criarBotao("🗑️ Remover Ponto de Coleta");
+        Button btnTransferir = criarBotao("📦 Importar / Exportar CSV");
         Button btnSair = criarBotao("🚪 Sair");
 
         // Adiciona apenas os botões relevantes de acordo com tipo de usuário
         if (!isAdmin) {
-            root.getChildren().addAll(lblMenu, btnListar, btnBuscar, btnSair);
+            root.getChildren().addAll(lblMenu, btnListar, btnBuscar, btnPesquisar, btnProximos, btnAbertos, btnSair);
         } else {
-            root.getChildren().addAll(lblMenu, btnCadastrar, btnListar, btnBuscar, btnAtualizar, btnRemover, btnSair);
+            root.getChildren().addAll(lblMenu, btnCadastrar, btnListar, btnBuscar, btnPesquisar, btnProximos, btnAbertos, btnAtualizar, btnRemover,
+                    btnTransferir, btnSair);
         }
 
         // Configura ações dos botões
         btnCadastrar.setOnAction(_ -> fadeSlideTransition(this::telaCadastro));
         btnListar.setOnAction(_ -> fadeSlideTransition(this::telaListagem));
         btnBuscar.setOnAction(_ -> fadeSlideTransition(this::telaBusca));
+        btnPesquisar.setOnAction(_ -> fadeSlideTransition(this::telaPesquisa));
+        btnProximos.setOnAction(_ -> fadeSlideTransition(this::telaProximos));
+        btnAbertos.setOnAction(_ -> fadeSlideTransition(this::telaAbertos));
         btnAtualizar.setOnAction(_ -> fadeSlideTransition(this::telaAtualizar));
         btnRemover.setOnAction(_ -> fadeSlideTransition(this::telaRemover));
+        btnTransferir.setOnAction(_ -> fadeSlideTransition(this::telaTransferencia));
         btnSair.setOnAction(_ -> fadeSlideTransition(() -> {
             isAdmin = false;
             telaLogin();
@@ -206,12 +238,20 @@ public class ClienteGUI extends Application {
         TextField enderecoField = criarCampo("Endereço");
         TextField materiaisField = criarCampo("Materiais Aceitos (ex: papel, vidro)");
         TextField horarioField = criarCampo("Horário de Funcionamento (ex: 08:00-18:00)");
+        TextField latitudeField = criarCampo("Latitude (opcional, ex: -22.9035)");
+        TextField longitudeField = criarCampo("Longitude (opcional, ex: -47.0616)");
+        Button btnLocalizar = criarBotao("📍 Localizar");
+        HBox localizacaoBox = new HBox(10, latitudeField, longitudeField, btnLocalizar);
+        localizacaoBox.setAlignment(Pos.CENTER);
 
         Button btnSalvar = criarBotao("💾 Salvar");
         Button btnVoltar = criarBotao("↩️ Voltar");
 
         Label lblMsg = new Label();
         lblMsg.setFont(Font.font(fontePrincipal, 12));
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnSalvar.disableProperty().bind(carregando.visibleProperty()); // Evita envios repetidos enquanto aguarda
+        configurarLocalizar(btnLocalizar, enderecoField, latitudeField, longitudeField, carregando, lblMsg);
 
         // Ao clicar em salvar, envia comando "CADASTRAR" para o servidor
         btnSalvar.setOnAction(_ -> {
@@ -223,9 +263,11 @@ public class ClienteGUI extends Application {
                 lblMsg.setText("Preencha todos os campos!");
                 return;
             }
-            saida.println("CADASTRAR;" + endereco + ";" + materias + ";" + horario);
-            lblMsg.setTextFill(Color.web(corSucesso));
-            lblMsg.setText(receberResposta());
+            double[] localizacao = lerLocalizacao(latitudeField, longitudeField, lblMsg);
+            if (localizacao == null) return;
+            pedir(conexao.cadastrar(endereco, materias, horario, localizacao[0], localizacao[1]), carregando,
+                  linhas -> mostrarMensagem(lblMsg, corSucesso, String.join("\n", linhas)),
+                  erro -> mostrarMensagem(lblMsg, corErro, erro));
         });
 
         btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
@@ -233,7 +275,7 @@ public class ClienteGUI extends Application {
         HBox btnBox = new HBox(15, btnSalvar, btnVoltar);
         btnBox.setAlignment(Pos.CENTER);
 
-        root.getChildren().addAll(lbl, enderecoField, materiaisField, horarioField, btnBox, lblMsg);
+        root.getChildren().addAll(lbl, enderecoField, materiaisField, horarioField, localizacaoBox, btnBox, carregando, lblMsg);
         aplicarFade(root);
         cena.setRoot(root);
         stage.setTitle("EcoColeta - Cadastro");
@@ -248,20 +290,62 @@ public class ClienteGUI extends Application {
         lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
 
         Button btnVoltar = criarBotao("↩️ Voltar");
-        TextArea txt = new TextArea();
-        txt.setEditable(false);
-        txt.setWrapText(true);
-        txt.setFont(Font.font(fontePrincipal, 14));
-        txt.setStyle(campoTextAreaStyle());
-        adicionarEfeitoHoverCampo(txt);
 
-        // Envia comando "LISTAR" ao servidor e recebe resposta
-        saida.println("LISTAR");
-        txt.setText(receberRespostaMultilinha());
+        // Lista virtualizada: o ListView só cria células para as linhas visíveis, e a ListaPaginada
+        // busca no servidor (LISTAR;inicio;limite) apenas as páginas dessas linhas
+        ListView<String> lista = new ListView<>();
+        lista.setFixedCellSize(28); // Altura fixa: o ListView calcula a rolagem sem medir todas as linhas
+        lista.setStyle(campoTextAreaStyle());
+        lista.setPlaceholder(new Label("Carregando..."));
+        VBox.setVgrow(lista, Priority.ALWAYS);
+
+        Label lblTotal = new Label();
+        lblTotal.setFont(Font.font(fontePrincipal, 12));
+        lblTotal.setTextFill(Color.web(corTexto));
+        ProgressIndicator carregando = criarIndicadorCarregando();
+
+        // Assina os eventos do catálogo antes da primeira página: o ASSINADO traz a versão e o total de partida,
+        // e os eventos que chegarem antes de a lista existir ficam guardados para ela; depois disso cadastros,
+        // alterações e remoções (desta ou de outras telas) aparecem na lista sem listar de novo
+        List<String> eventosAntes = new ArrayList<>();
+        ListaPaginada[] paginada = new ListaPaginada[1];
+        ServicoConexao.Assinatura[] assinatura = new ServicoConexao.Assinatura[1];
+        assinatura[0] = conexao.assinar(eventos -> Platform.runLater(() -> {
+            if (paginada[0] == null) {
+                eventosAntes.addAll(eventos);
+                return;
+            }
+            paginada[0].aplicar(eventos);
+            catalogo.exigirVersao(assinatura[0].instancia(), paginada[0].versao()); // As páginas buscadas daqui em diante já têm os eventos
+            lblTotal.setText(paginada[0].size() + " pontos de coleta");
+        }));
+        eventosDaTela = assinatura[0];
+
+        // A primeira página (e o total, se o servidor não aceitar ASSINAR) define o tamanho da lista;
+        // as demais vêm conforme a rolagem
+        acompanhar(assinatura[0].inicio(), carregando).whenComplete((inicio, erroAssinatura) -> {
+            if (erroAssinatura != null && foiCancelado(erroAssinatura)) return;
+            if (inicio != null) catalogo.exigirVersao(inicio.instancia(), inicio.versao()); // Páginas a partir do ASSINADO
+            pedirPagina(0, ListaPaginada.TAMANHO_PAGINA, carregando).whenComplete((primeira, erro) -> {
+                if (erro != null) {
+                    if (!foiCancelado(erro)) lista.setPlaceholder(new Label(descreverErro(erro)));
+                    return;
+                }
+                ListaPaginada.Pagina pagina = inicio == null ? primeira : new ListaPaginada.Pagina(inicio.total(), primeira.linhas());
+                paginada[0] = new ListaPaginada(pagina, (inicioPagina, limite) -> pedirPagina(inicioPagina, limite, null));
+                if (inicio != null) {
+                    paginada[0].acompanharDesde(inicio.versao());
+                    paginada[0].aplicar(eventosAntes);
+                }
+                lista.setItems(paginada[0]);
+                lista.setPlaceholder(new Label("Nenhum Ponto de Coleta Cadastrado."));
+                lblTotal.setText(paginada[0].size() + " pontos de coleta");
+            });
+        });
 
         btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
 
-        root.getChildren().addAll(lbl, txt, btnVoltar);
+        root.getChildren().addAll(lbl, lblTotal, carregando, lista, btnVoltar);
         aplicarFade(root);
         cena.setRoot(root);
         stage.setTitle("EcoColeta - Listagem");
@@ -280,6 +364,7 @@ public class ClienteGUI extends Application {
 
         Button btnBuscar = criarBotao("🔍 Buscar");
         Button btnVoltar = criarBotao("↩️ Voltar");
+        configurarSugestoes(materialField, "MATERIAL", btnBuscar::fire);
 
         TextArea txt = new TextArea();
         txt.setEditable(false);
@@ -288,6 +373,9 @@ public class ClienteGUI extends Application {
         txt.setStyle(campoTextAreaStyle());
         adicionarEfeitoHoverCampo(txt);
 
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnBuscar.disableProperty().bind(carregando.visibleProperty());
+
         // Ao clicar em buscar, envia comando "BUSCAR;material"
         btnBuscar.setOnAction(_ -> {
             String material = materialField.getText().trim();
@@ -295,18 +383,183 @@ public class ClienteGUI extends Application {
                 txt.setText("Digite um material!");
                 return;
             }
-            saida.println("BUSCAR;" + material);
-            txt.setText(receberRespostaMultilinha());
+            txt.clear();
+            pedir(catalogo.buscar(material), carregando, linhas -> txt.setText(String.join("\n", linhas)), txt::setText);
         });
 
         btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
 
-        root.getChildren().addAll(lbl, materialField, btnBuscar, txt, btnVoltar);
+        root.getChildren().addAll(lbl, materialField, btnBuscar, carregando, txt, btnVoltar);
         aplicarFade(root);
         cena.setRoot(root);
         stage.setTitle("EcoColeta - Busca");
     }
 
+    // Tela de pesquisa livre no endereço e nos materiais, com os resultados em ordem de relevância
+    private void telaPesquisa() {
+        VBox root = criarRootBase(25);
+
+        Label lbl = new Label("Pesquisar Pontos de Coleta");
+        lbl.setFont(Font.font(fontePrincipal, 22));
+        lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
+
+        TextField textoField = criarCampo("Endereço, bairro ou material (ex: barão jaguara papel)");
+        adicionarEfeitoHoverCampo(textoField);
+
+        Button btnPesquisar = criarBotao("🔎 Pesquisar");
+        Button btnVoltar = criarBotao("↩️ Voltar");
+
+        // Lista virtualizada como a da listagem: as páginas seguintes (PESQUISAR;texto;inicio;limite)
+        // só são pedidas quando o usuário rola até elas
+        ListView<String> lista = new ListView<>();
+        lista.setFixedCellSize(28);
+        lista.setStyle(campoTextAreaStyle());
+        lista.setPlaceholder(new Label("Digite o que procura e clique em Pesquisar."));
+        VBox.setVgrow(lista, Priority.ALWAYS);
+
+        Label lblTotal = new Label();
+        lblTotal.setFont(Font.font(fontePrincipal, 12));
+        lblTotal.setTextFill(Color.web(corTexto));
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnPesquisar.disableProperty().bind(carregando.visibleProperty());
+
+        btnPesquisar.setOnAction(_ -> {
+            String texto = textoField.getText().trim();
+            if (texto.isEmpty()) {
+                lista.setPlaceholder(new Label("Digite o que procura!"));
+                return;
+            }
+            lista.setItems(FXCollections.observableArrayList());
+            lblTotal.setText("");
+            pedirPaginaPesquisa(texto, 0, ListaPaginada.TAMANHO_PAGINA, carregando).whenComplete((primeira, erro) -> {
+                if (erro != null) {
+                    if (!foiCancelado(erro)) lista.setPlaceholder(new Label(descreverErro(erro)));
+                    return;
+                }
+                lista.setItems(new ListaPaginada(primeira, (inicio, limite) -> pedirPaginaPesquisa(texto, inicio, limite, null)));
+                lista.setPlaceholder(new Label("Nenhum Ponto Encontrado para: " + texto));
+                lblTotal.setText(primeira.total() + " pontos encontrados, dos mais aos menos relevantes");
+            });
+        });
+        textoField.setOnAction(_ -> btnPesquisar.fire());
+        configurarSugestoes(textoField, "", btnPesquisar::fire);
+
+        btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
+
+        root.getChildren().addAll(lbl, textoField, btnPesquisar, lblTotal, carregando, lista, btnVoltar);
+        aplicarFade(root);
+        cena.setRoot(root);
+        stage.setTitle("EcoColeta - Pesquisa");
+    }
+
+    // Tela dos pontos mais próximos de uma localização que aceitam um material
+    private void telaProximos() {
+        VBox root = criarRootBase(25);
+
+        Label lbl = new Label("Pontos de Coleta Próximos");
+        lbl.setFont(Font.font(fontePrincipal, 22));
+        lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
+
+        TextField latitudeField = criarCampo("Sua Latitude (ex: -22.9035)");
+        TextField longitudeField = criarCampo("Sua Longitude (ex: -47.0616)");
+        HBox localizacaoBox = new HBox(10, latitudeField, longitudeField);
+        localizacaoBox.setAlignment(Pos.CENTER);
+        TextField materialField = criarCampo("Material (vazio: qualquer um)");
+        TextField quantidadeField = criarCampo("Quantidade de Pontos");
+        quantidadeField.setText("5");
+        adicionarEfeitoHoverCampo(materialField);
+
+        Button btnBuscar = criarBotao("📍 Buscar Próximos");
+        Button btnVoltar = criarBotao("↩️ Voltar");
+
+        TextArea txt = new TextArea();
+        txt.setEditable(false);
+        txt.setWrapText(true);
+        txt.setFont(Font.font(fontePrincipal, 14));
+        txt.setStyle(campoTextAreaStyle());
+        adicionarEfeitoHoverCampo(txt);
+
+        Label lblMsg = new Label();
+        lblMsg.setFont(Font.font(fontePrincipal, 12));
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnBuscar.disableProperty().bind(carregando.visibleProperty());
+
+        // Ao clicar em buscar, envia comando "PROXIMOS;latitude;longitude;quantidade;material"
+        btnBuscar.setOnAction(_ -> {
+            lblMsg.setText("");
+            if (latitudeField.getText().isBlank() || longitudeField.getText().isBlank()) {
+                mostrarMensagem(lblMsg, corErro, "Informe a Latitude e a Longitude!");
+                return;
+            }
+            double[] localizacao = lerLocalizacao(latitudeField, longitudeField, lblMsg);
+            if (localizacao == null) return;
+            int quantidade;
+            try {
+                quantidade = Integer.parseInt(quantidadeField.getText().trim());
+                if (quantidade <= 0) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                mostrarMensagem(lblMsg, corErro, "A Quantidade deve ser um Número Positivo.");
+                return;
+            }
+            txt.clear();
+            pedir(conexao.proximos(localizacao[0], localizacao[1], quantidade, materialField.getText().trim()), carregando,
+                  linhas -> txt.setText(String.join("\n", linhas)), txt::setText);
+        });
+
+        btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
+
+        root.getChildren().addAll(lbl, localizacaoBox, materialField, quantidadeField, btnBuscar, carregando, lblMsg, txt, btnVoltar);
+        aplicarFade(root);
+        cena.setRoot(root);
+        stage.setTitle("EcoColeta - Pontos Próximos");
+    }
+
+    // Tela dos pontos que aceitam um material e estão abertos agora (ou em outra data e hora)
+    private void telaAbertos() {
+        VBox root = criarRootBase(25);
+
+        Label lbl = new Label("Pontos de Coleta Abertos");
+        lbl.setFont(Font.font(fontePrincipal, 22));
+        lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
+
+        TextField materialField = criarCampo("Material (vazio: qualquer um)");
+        TextField instanteField = criarCampo("Data e Hora (vazio: agora, ex: 2026-10-18 14:30)");
+        adicionarEfeitoHoverCampo(materialField);
+
+        Button btnBuscar = criarBotao("🕒 Buscar Abertos");
+        Button btnVoltar = criarBotao("↩️ Voltar");
+
+        TextArea txt = new TextArea();
+        txt.setEditable(false);
+        txt.setWrapText(true);
+        txt.setFont(Font.font(fontePrincipal, 14));
+        txt.setStyle(campoTextAreaStyle());
+        adicionarEfeitoHoverCampo(txt);
+
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnBuscar.disableProperty().bind(carregando.visibleProperty());
+
+        // Ao clicar em buscar, envia comando "ABERTOS;material;instante"; a linha TOTAL;n vira um resumo
+        btnBuscar.setOnAction(_ -> {
+            txt.clear();
+            pedir(conexao.abertos(materialField.getText().trim(), instanteField.getText().trim()), carregando, linhas -> {
+                List<String> texto = new ArrayList<>(linhas);
+                if (!texto.isEmpty() && texto.get(0).startsWith("TOTAL;")) {
+                    String total = texto.remove(0).substring("TOTAL;".length());
+                    if (!total.equals("0")) texto.add(0, "Pontos abertos: " + total + " (mostrando " + texto.size() + ")\n");
+                }
+                txt.setText(String.join("\n", texto));
+            }, txt::setText);
+        });
+
+        btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
+
+        root.getChildren().addAll(lbl, materialField, instanteField, btnBuscar, carregando, txt, btnVoltar);
+        aplicarFade(root);
+        cena.setRoot(root);
+        stage.setTitle("EcoColeta - Abertos Agora");
+    }
+
     // Tela de atualização de ponto de coleta
     private void telaAtualizar() {
         VBox root = criarRootBase(25);
@@ -315,18 +568,26 @@ public class ClienteGUI extends Application {
         lbl.setFont(Font.font(fontePrincipal, 22));
         lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
 
-        TextField idxField = criarCampo("Índice do Ponto");
+        TextField idxField = criarCampo("ID do Ponto");
         TextField enderecoField = criarCampo("Novo Endereço");
         TextField materiaisField = criarCampo("Novos Materiais");
         TextField horarioField = criarCampo("Novo Horário de Funcionamento");
+        TextField latitudeField = criarCampo("Nova Latitude (vazio: mantém)");
+        TextField longitudeField = criarCampo("Nova Longitude (vazio: mantém)");
+        Button btnLocalizar = criarBotao("📍 Localizar");
+        HBox localizacaoBox = new HBox(10, latitudeField, longitudeField, btnLocalizar);
+        localizacaoBox.setAlignment(Pos.CENTER);
 
         Button btnAtualizar = criarBotao("✏️ Atualizar");
         Button btnVoltar = criarBotao("↩️ Voltar");
 
         Label lblMsg = new Label();
         lblMsg.setFont(Font.font(fontePrincipal, 12));
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnAtualizar.disableProperty().bind(carregando.visibleProperty());
+        configurarLocalizar(btnLocalizar, enderecoField, latitudeField, longitudeField, carregando, lblMsg);
 
-        // Ao clicar em atualizar, envia comando "ATUALIZAR;indice;endereco;materiais;horario"
+        // Ao clicar em atualizar, envia comando "ATUALIZAR;id;endereco;materiais;horario"
         btnAtualizar.setOnAction(_ -> {
             String idx = idxField.getText().trim();
             String endereco = enderecoField.getText().trim();
@@ -337,14 +598,18 @@ public class ClienteGUI extends Application {
                 lblMsg.setText("Preencha todos os campos!");
                 return;
             }
-            saida.println("ATUALIZAR;" + idx + ";" + endereco + ";" + materias + ";" + horario);
-            lblMsg.setTextFill(Color.web(corSucesso));
-            lblMsg.setText(receberResposta());
+            Integer id = lerId(idx, lblMsg);
+            if (id == null) return;
+            double[] localizacao = lerLocalizacao(latitudeField, longitudeField, lblMsg);
+            if (localizacao == null) return;
+            pedir(conexao.atualizar(id, endereco, materias, horario, localizacao[0], localizacao[1]), carregando,
+                  linhas -> mostrarMensagem(lblMsg, corSucesso, String.join("\n", linhas)),
+                  erro -> mostrarMensagem(lblMsg, corErro, erro));
         });
 
         btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
 
-        root.getChildren().addAll(lbl, idxField, enderecoField, materiaisField, horarioField, btnAtualizar, btnVoltar, lblMsg);
+        root.getChildren().addAll(lbl, idxField, enderecoField, materiaisField, horarioField, localizacaoBox, btnAtualizar, btnVoltar, carregando, lblMsg);
         aplicarFade(root);
         cena.setRoot(root);
         stage.setTitle("EcoColeta - Atualizar");
@@ -358,7 +623,7 @@ public class ClienteGUI extends Application {
         lbl.setFont(Font.font(fontePrincipal, 22));
         lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
 
-        TextField idxField = criarCampo("Índice do Ponto");
+        TextField idxField = criarCampo("ID do Ponto");
         adicionarEfeitoHoverCampo(idxField);
 
         Button btnRemover = criarBotao("🗑️ Remover");
@@ -366,48 +631,309 @@ public class ClienteGUI extends Application {
 
         Label lblMsg = new Label();
         lblMsg.setFont(Font.font(fontePrincipal, 12));
+        ProgressIndicator carregando = criarIndicadorCarregando();
+        btnRemover.disableProperty().bind(carregando.visibleProperty());
 
-        // Ao clicar em remover, envia comando "REMOVER;indice"
+        // Ao clicar em remover, envia comando "REMOVER;id"
         btnRemover.setOnAction(_ -> {
             String idx = idxField.getText().trim();
             if (idx.isEmpty()) {
                 lblMsg.setTextFill(Color.web(corErro));
-                lblMsg.setText("Preencha o índice!");
+                lblMsg.setText("Preencha o ID!");
                 return;
             }
-            saida.println("REMOVER;" + idx);
-            lblMsg.setTextFill(Color.web(corSucesso));
-            lblMsg.setText(receberResposta());
+            Integer id = lerId(idx, lblMsg);
+            if (id == null) return;
+            pedir(conexao.remover(id), carregando,
+                  linhas -> mostrarMensagem(lblMsg, corSucesso, String.join("\n", linhas)),
+                  erro -> mostrarMensagem(lblMsg, corErro, erro));
         });
 
         btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
 
-        root.getChildren().addAll(lbl, idxField, btnRemover, btnVoltar, lblMsg);
+        root.getChildren().addAll(lbl, idxField, btnRemover, btnVoltar, carregando, lblMsg);
         aplicarFade(root);
         cena.setRoot(root);
         stage.setTitle("EcoColeta - Remover");
     }
 
+    // Tela de importação e exportação de pontos em CSV
+    private void telaTransferencia() {
+        VBox root = criarRootBase(25);
+
+        Label lbl = new Label("Importar / Exportar CSV");
+        lbl.setFont(Font.font(fontePrincipal, 22));
+        lbl.setStyle("-fx-font-weight: bold; -fx-text-fill: #145a32;");
+
+        Label lblInfo = new Label("Colunas: endereco, materiais, horario");
+        lblInfo.setFont(Font.font(fontePrincipal, 12));
+        lblInfo.setTextFill(Color.web(corTexto));
+
+        Button btnImportar = criarBotao("📥 Importar Arquivo CSV");
+        Button btnExportar = criarBotao("📤 Exportar Arquivo CSV");
+        Button btnVoltar = criarBotao("↩️ Voltar");
+
+        ProgressBar barra = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        barra.setMaxWidth(Double.MAX_VALUE);
+        barra.setVisible(false);
+        barra.managedProperty().bind(barra.visibleProperty());
+        btnImportar.disableProperty().bind(barra.visibleProperty()); // Uma transferência por vez
+        btnExportar.disableProperty().bind(barra.visibleProperty());
+
+        Label lblMsg = new Label();
+        lblMsg.setFont(Font.font(fontePrincipal, 12));
+        lblMsg.setWrapText(true);
+
+        FileChooser seletor = new FileChooser();
+        seletor.getExtensionFilters().add(new FileChooser.ExtensionFilter("Arquivos CSV", "*.csv"));
+
+        btnImportar.setOnAction(_ -> {
+            File arquivo = seletor.showOpenDialog(stage);
+            if (arquivo == null) return;
+            transferir(new Task<>() {
+                @Override
+                protected String call() throws IOException {
+                    return TransferenciaCsv.importar(conexao.enderecoPrincipal(), arquivo.toPath(),
+                            linhas -> updateMessage("Importando... " + linhas + " pontos"));
+                }
+            }, barra, lblMsg);
+        });
+
+        btnExportar.setOnAction(_ -> {
+            seletor.setInitialFileName("pontos.csv");
+            File arquivo = seletor.showSaveDialog(stage);
+            if (arquivo == null) return;
+            Path destino = arquivo.toPath();
+            transferir(new Task<>() {
+                @Override
+                protected String call() throws IOException {
+                    long pontos = TransferenciaCsv.exportar(conexao.enderecoPrincipal(), destino,
+                            linhas -> updateMessage("Exportando... " + linhas + " pontos"));
+                    return "Exportação Concluída: " + pontos + " pontos gravados em " + destino.getFileName();
+                }
+            }, barra, lblMsg);
+        });
+
+        btnVoltar.setOnAction(_ -> fadeSlideTransition(this::telaMenu));
+
+        root.getChildren().addAll(lbl, lblInfo, btnImportar, btnExportar, barra, lblMsg, btnVoltar);
+        aplicarFade(root);
+        cena.setRoot(root);
+        stage.setTitle("EcoColeta - Importar / Exportar");
+    }
+
     // ---------------- Métodos auxiliares ----------------
 
-    // Recebe resposta de uma linha do servidor
-    private String receberResposta() {
+    // Executa uma importação/exportação em uma thread própria (ela usa sua própria conexão),
+    // mostrando o progresso; é cancelada (interrompida) se o usuário sair da tela
+    private void transferir(Task<String> tarefa, ProgressBar barra, Label lblMsg) {
+        lblMsg.setTextFill(Color.web(corTexto));
+        lblMsg.textProperty().bind(tarefa.messageProperty());
+        barra.setVisible(true);
+        pedidosDaTela.add(tarefa);
+        tarefa.setOnSucceeded(_ -> {
+            lblMsg.textProperty().unbind();
+            barra.setVisible(false);
+            pedidosDaTela.remove(tarefa);
+            mostrarMensagem(lblMsg, corSucesso, tarefa.getValue());
+        });
+        tarefa.setOnFailed(_ -> {
+            lblMsg.textProperty().unbind();
+            barra.setVisible(false);
+            pedidosDaTela.remove(tarefa);
+            mostrarMensagem(lblMsg, corErro, "Falha na transferência: " + tarefa.getException().getMessage());
+        });
+        Thread.ofPlatform().daemon().name("ecocoleta-transferencia").start(tarefa);
+    }
+
+    // Acompanha um pedido sem bloquear a tela: mostra o indicador enquanto aguarda e entrega a resposta
+    // (ou a descrição do erro) na thread do JavaFX; o pedido é cancelado se o usuário sair da tela antes
+    private void pedir(CompletableFuture<List<String>> pedido, ProgressIndicator carregando, Consumer<List<String>> aoResponder, Consumer<String> aoFalhar) {
+        acompanhar(pedido, carregando).whenComplete((linhas, erro) -> {
+            if (erro == null) {
+                aoResponder.accept(linhas);
+            } else if (!foiCancelado(erro)) {
+                aoFalhar.accept(descreverErro(erro));
+            }
+        });
+    }
+
+    // Busca uma página da listagem; o servidor responde TOTAL;n, as linhas e, se houver mais, CURSOR;id
+    // O futuro retornado completa na thread do JavaFX
+    private CompletableFuture<ListaPaginada.Pagina> pedirPagina(int inicio, int limite, ProgressIndicator carregando) {
+        return lerPagina(catalogo.listar(inicio, limite), limite, carregando);
+    }
+
+    // Idem para uma página da pesquisa (TOTAL;n e as linhas, em ordem de relevância)
+    private CompletableFuture<ListaPaginada.Pagina> pedirPaginaPesquisa(String texto, int inicio, int limite, ProgressIndicator carregando) {
+        return lerPagina(conexao.pesquisar(texto, inicio, limite), limite, carregando);
+    }
+
+    private CompletableFuture<ListaPaginada.Pagina> lerPagina(CompletableFuture<List<String>> pedido, int limite, ProgressIndicator carregando) {
+        return acompanhar(pedido, carregando).thenApply(linhas -> {
+            int total = 0;
+            List<String> pontos = new ArrayList<>(limite);
+            for (String linha : linhas) {
+                if (linha.startsWith("TOTAL;")) {
+                    total = Integer.parseInt(linha.substring("TOTAL;".length()));
+                } else if (!linha.startsWith("CURSOR;")) { // Acesso por posição: o cursor não é necessário aqui
+                    pontos.add(linha);
+                }
+            }
+            return new ListaPaginada.Pagina(total, pontos);
+        });
+    }
+
+    // Registra o pedido na tela atual e devolve um futuro que completa na thread do JavaFX
+    private <T> CompletableFuture<T> acompanhar(CompletableFuture<T> pedido, ProgressIndicator carregando) {
+        pedidosDaTela.add(pedido);
+        if (carregando != null) carregando.setVisible(true);
+        return pedido.whenCompleteAsync((_, _) -> {
+            pedidosDaTela.remove(pedido);
+            if (carregando != null) carregando.setVisible(false);
+        }, Platform::runLater);
+    }
+
+    // Cancela os pedidos da tela que está sendo fechada; as respostas que chegarem depois são descartadas
+    private void cancelarPedidosDaTela() {
+        for (Future<?> pedido : new ArrayList<>(pedidosDaTela)) pedido.cancel(true); // Interrompe importações e exportações
+        pedidosDaTela.clear();
+        if (eventosDaTela != null) {
+            eventosDaTela.close();
+            eventosDaTela = null;
+        }
+    }
+
+    private static boolean foiCancelado(Throwable erro) {
+        return erro instanceof CancellationException || erro.getCause() instanceof CancellationException;
+    }
+
+    private static String descreverErro(Throwable erro) {
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        if (causa instanceof TimeoutException || causa instanceof java.net.SocketTimeoutException) {
+            return "O servidor não respondeu a tempo. Tente novamente.";
+        }
+        return "Erro ao receber resposta do servidor.";
+    }
+
+    // Sugestões do servidor (SUGERIR) em um menu abaixo do campo enquanto o usuário digita
+    // - Espera ESPERA_SUGESTOES sem teclas antes de pedir, e cancela o pedido anterior: quem digita rápido
+    //   gera um pedido só, e uma resposta atrasada nunca substitui a do texto atual
+    // - Escolher uma sugestão preenche o campo e executa a ação (buscar ou pesquisar)
+    private void configurarSugestoes(TextField campo, String tipo, Runnable aoEscolher) {
+        ContextMenu menu = new ContextMenu();
+        PauseTransition espera = new PauseTransition(ESPERA_SUGESTOES);
+        List<CompletableFuture<List<String>>> pendente = new ArrayList<>(1); // Último pedido feito
+        boolean[] escolhendo = {false}; // O texto mudou pela escolha de uma sugestão: não pede de novo
+
+        espera.setOnFinished(_ -> {
+            for (CompletableFuture<List<String>> anterior : pendente) anterior.cancel(true);
+            pendente.clear();
+            String texto = campo.getText().trim();
+            if (texto.length() < 2) {
+                menu.hide();
+                return;
+            }
+            CompletableFuture<List<String>> pedido = conexao.sugerir(texto, QUANTIDADE_SUGESTOES, tipo);
+            pendente.add(pedido);
+            acompanhar(pedido, null).whenComplete((linhas, erro) -> {
+                if (erro != null || !pendente.contains(pedido) || !campo.isFocused()) return;
+                menu.getItems().clear();
+                for (String linha : linhas) {
+                    String[] partes = linha.split(";", 3); // tipo;texto;pontos
+                    if (partes.length < 3) continue; // Formato inválido: não é uma sugestão
+                    MenuItem item = new MenuItem(partes[1] + "  (" + partes[2] + (partes[2].equals("1") ? " ponto)" : " pontos)"));
+                    item.setOnAction(_ -> {
+                        escolhendo[0] = true;
+                        campo.setText(partes[1]);
+                        campo.positionCaret(partes[1].length());
+                        escolhendo[0] = false;
+                        aoEscolher.run();
+                    });
+                    menu.getItems().add(item);
+                }
+                if (menu.getItems().isEmpty()) menu.hide();
+                else if (!menu.isShowing()) menu.show(campo, Side.BOTTOM, 0, 0);
+            });
+        });
+        campo.textProperty().addListener((_, _, _) -> {
+            if (!escolhendo[0]) espera.playFromStart();
+        });
+        campo.focusedProperty().addListener((_, _, focado) -> {
+            if (!focado) menu.hide();
+        });
+        campo.setOnKeyPressed(e -> { // Enter executa a ação sem esperar as sugestões
+            if (e.getCode() == KeyCode.ENTER) {
+                espera.stop();
+                for (CompletableFuture<List<String>> anterior : pendente) anterior.cancel(true);
+                pendente.clear();
+                menu.hide();
+            }
+        });
+    }
+
+    // Converte o ID digitado; se não for um número, mostra o mesmo aviso que o servidor daria e retorna null
+    private Integer lerId(String texto, Label lblMsg) {
         try {
-            StringBuilder sb = new StringBuilder();
-            String resposta;
-            while ((resposta = entrada.readLine()) != null) {
-                if (resposta.trim().isEmpty()) break;
-                sb.append(resposta).append("\n");
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            mostrarMensagem(lblMsg, corErro, "Formato Inválido. O ID deve ser um Número.");
+            return null;
+        }
+    }
+
+    // Botão que pede ao servidor a localização do endereço digitado (GEOCODIFICAR) e preenche a latitude e a
+    // longitude, para o usuário conferir antes de salvar; sem ele, o servidor localiza o endereço no cadastro
+    private void configurarLocalizar(Button btnLocalizar, TextField enderecoField, TextField latitudeField, TextField longitudeField,
+                                     ProgressIndicator carregando, Label lblMsg) {
+        btnLocalizar.disableProperty().bind(carregando.visibleProperty());
+        btnLocalizar.setOnAction(_ -> {
+            String endereco = enderecoField.getText().trim();
+            if (endereco.isEmpty()) {
+                mostrarMensagem(lblMsg, corErro, "Informe o Endereço!");
+                return;
             }
-            return sb.toString().trim();
-        } catch (IOException _ignore) {
-            return "Erro ao receber resposta do servidor.";
+            pedir(conexao.geocodificar(endereco), carregando, linhas -> {
+                String[] campos = linhas.isEmpty() ? new String[0] : linhas.get(0).split(";", 4);
+                if (campos.length == 4 && campos[0].equals("LOCALIZACAO")) {
+                    latitudeField.setText(campos[1]);
+                    longitudeField.setText(campos[2]);
+                    mostrarMensagem(lblMsg, corSucesso, "Localizado: " + campos[3]);
+                } else {
+                    mostrarMensagem(lblMsg, corErro, String.join("\n", linhas));
+                }
+            }, erro -> mostrarMensagem(lblMsg, corErro, erro));
+        });
+    }
+
+    // Converte a latitude e a longitude digitadas (vírgula ou ponto decimal); as duas vazias resultam em NaN
+    // (sem localização); valores inválidos mostram o aviso e retornam null
+    private double[] lerLocalizacao(TextField latitudeField, TextField longitudeField, Label lblMsg) {
+        String latitude = latitudeField.getText().trim().replace(',', '.');
+        String longitude = longitudeField.getText().trim().replace(',', '.');
+        if (latitude.isEmpty() && longitude.isEmpty()) return new double[] {Double.NaN, Double.NaN};
+        try {
+            double[] localizacao = {Double.parseDouble(latitude), Double.parseDouble(longitude)};
+            if (PontoColeta.localizacaoValida(localizacao[0], localizacao[1])) return localizacao;
+        } catch (NumberFormatException e) {
+            // Mesmo aviso de valor fora dos limites
         }
+        mostrarMensagem(lblMsg, corErro, "Localização Inválida. Latitude entre -90 e 90, Longitude entre -180 e 180.");
+        return null;
+    }
+
+    private void mostrarMensagem(Label lbl, String cor, String texto) {
+        lbl.setTextFill(Color.web(cor));
+        lbl.setText(texto);
     }
 
-    // Recebe resposta multilinha (reutiliza receberResposta)
-    private String receberRespostaMultilinha() {
-        return receberResposta();
+    // Indicador de carregamento, invisível (e sem ocupar espaço) enquanto não há pedido pendente
+    private ProgressIndicator criarIndicadorCarregando() {
+        ProgressIndicator indicador = new ProgressIndicator();
+        indicador.setPrefSize(28, 28);
+        indicador.setVisible(false);
+        indicador.managedProperty().bind(indicador.visibleProperty());
+        return indicador;
     }
 
     // Mostra mensagem de erro e encerra a aplicação
@@ -501,6 +1027,7 @@ public class ClienteGUI extends Application {
 
     // Animação de transição entre telas
     private void fadeSlideTransition(Runnable acao) {
+        cancelarPedidosDaTela(); // Respostas da tela anterior não são mais necessárias
         FadeTransition ft = new FadeTransition(Duration.millis(300), cena.getRoot());
         ft.setFromValue(1);
         ft.setToValue(0);
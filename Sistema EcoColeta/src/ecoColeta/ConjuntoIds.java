@@ -0,0 +1,94 @@
+package ecoColeta;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+// Conjunto de IDs em forma de mapa de bits que pode ser lido por várias threads sem bloqueio
+// As alterações devem vir de um único escritor por vez (o bloqueio de escrita do repositório);
+// cada palavra é lida e gravada de forma atômica, então um leitor vê o conjunto antes ou depois
+// de cada alteração, nunca um estado corrompido
+class ConjuntoIds {
+    private volatile AtomicLongArray palavras = new AtomicLongArray(4);
+    private int quantidade = 0; // Só acessado pelo escritor
+
+    void adicionar(int id) {
+        int indice = id >>> 6;
+        AtomicLongArray atual = palavras;
+        if (indice >= atual.length()) {
+            // Cresce copiando as palavras; leitores que ainda usam o array antigo enxergam o estado anterior
+            AtomicLongArray maior = new AtomicLongArray(Math.max(atual.length() * 2, indice + 1));
+            for (int i = 0; i < atual.length(); i++) maior.set(i, atual.get(i));
+            palavras = atual = maior;
+        }
+        long bit = 1L << id;
+        long antes = atual.get(indice);
+        if ((antes & bit) != 0) return;
+        atual.set(indice, antes | bit); // Único escritor: não há outra gravação concorrente nesta palavra
+        quantidade++;
+    }
+
+    void remover(int id) {
+        int indice = id >>> 6;
+        AtomicLongArray atual = palavras;
+        if (indice >= atual.length()) return;
+        long bit = 1L << id;
+        long antes = atual.get(indice);
+        if ((antes & bit) == 0) return;
+        atual.set(indice, antes & ~bit);
+        quantidade--;
+    }
+
+    boolean vazio() {
+        return quantidade == 0;
+    }
+
+    // Quantidade de IDs; lida fora do escritor é só uma estimativa (pode estar atrasada)
+    int quantidade() {
+        return quantidade;
+    }
+
+    boolean contem(int id) {
+        AtomicLongArray atual = palavras;
+        int indice = id >>> 6;
+        return indice < atual.length() && (atual.get(indice) & (1L << id)) != 0;
+    }
+
+    // Percorre os IDs em ordem crescente direto nas palavras, sem copiá-las
+    void paraCada(IntConsumer acao) {
+        AtomicLongArray atual = palavras;
+        for (int i = 0; i < atual.length(); i++) {
+            for (long palavra = atual.get(i); palavra != 0; palavra &= palavra - 1) {
+                acao.accept((i << 6) + Long.numberOfTrailingZeros(palavra));
+            }
+        }
+    }
+
+    // Tamanho do mapa de bits em palavras de 64 IDs (cobre todos os IDs do conjunto)
+    int palavras() {
+        return palavras.length();
+    }
+
+    // Acrescenta (OU bit a bit) os IDs deste conjunto em um mapa de bits local da consulta;
+    // IDs além do tamanho do destino são ignorados
+    void adicionarEm(long[] destino) {
+        AtomicLongArray atual = palavras;
+        int n = Math.min(atual.length(), destino.length);
+        for (int i = 0; i < n; i++) destino[i] |= atual.get(i);
+    }
+
+    // Acrescenta no destino os IDs deste conjunto que também estão no filtro (destino |= conjunto & filtro)
+    void adicionarIntersecaoEm(long[] destino, long[] filtro) {
+        AtomicLongArray atual = palavras;
+        int n = Math.min(atual.length(), Math.min(destino.length, filtro.length));
+        for (int i = 0; i < n; i++) destino[i] |= atual.get(i) & filtro[i];
+    }
+
+    // Acrescenta (OU bit a bit) os IDs deste conjunto em um BitSet local da consulta
+    void adicionarEm(BitSet destino) {
+        AtomicLongArray atual = palavras;
+        long[] copia = new long[atual.length()];
+        for (int i = 0; i < copia.length; i++) copia[i] = atual.get(i);
+        destino.or(BitSet.valueOf(copia));
+    }
+}
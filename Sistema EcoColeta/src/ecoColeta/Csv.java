@@ -0,0 +1,56 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Leitura e escrita de linhas CSV (separador vírgula, campos entre aspas quando necessário, "" para aspas)
+// Usado pelo IMPORTAR/EXPORTAR no servidor e pelos clientes; como o protocolo é por linhas,
+// um campo nunca contém quebra de linha
+final class Csv {
+    private Csv() {}
+
+    // Separa uma linha nos seus campos; aspas sem fechamento vão até o fim da linha
+    static List<String> separar(String linha) {
+        List<String> campos = new ArrayList<>(4);
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"'); // Aspas duplicadas dentro do campo
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString().trim());
+        return campos;
+    }
+
+    // Monta uma linha, pondo entre aspas os campos com vírgula, aspas ou espaços nas pontas
+    static String juntar(String... campos) {
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) linha.append(',');
+            String campo = campos[i];
+            boolean aspas = campo.indexOf(',') >= 0 || campo.indexOf('"') >= 0 || !campo.equals(campo.trim());
+            if (aspas) {
+                linha.append('"').append(campo.replace("\"", "\"\"")).append('"');
+            } else {
+                linha.append(campo);
+            }
+        }
+        return linha.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package ecoColeta;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Etapas do encerramento do servidor, executadas uma vez e na ordem em que foram registradas, seja pelo SAIR no
+// console, seja por um sinal do sistema (SIGTERM de quem faz a implantação, Ctrl+C), que chega pelo gancho de
+// encerramento da JVM; o Servidor registra as conexões (drenar o motor) antes das gravações em disco
+// Cada etapa é medida no log e uma falha não impede as seguintes
+class Encerramento {
+    // Uma etapa do encerramento; pode bloquear (ex: esperar as conexões)
+    interface Etapa {
+        void executar() throws Exception;
+    }
+
+    private record Registrada(String nome, Etapa etapa) {}
+
+    private final List<Registrada> etapas = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean iniciado = new AtomicBoolean();
+    private final CountDownLatch concluido = new CountDownLatch(1);
+
+    void registrar(String nome, Etapa etapa) {
+        etapas.add(new Registrada(nome, etapa));
+    }
+
+    // Executa as etapas na primeira chamada; as seguintes (ex: o gancho, depois do SAIR) esperam ela terminar
+    void executar() {
+        if (!iniciado.compareAndSet(false, true)) {
+            try {
+                concluido.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try {
+            for (Registrada r : etapas) {
+                long inicio = System.nanoTime();
+                try {
+                    r.etapa().executar();
+                    System.out.printf("Encerramento: %s em %d ms.%n", r.nome(), (System.nanoTime() - inicio) / 1_000_000);
+                } catch (Exception e) {
+                    System.err.println("Encerramento: falha em " + r.nome() + ": " + e);
+                }
+            }
+        } finally {
+            concluido.countDown();
+        }
+    }
+
+    // Executa as etapas quando a JVM for encerrada por um sinal ou por System.exit
+    void instalarGancho() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::executar, "ecocoleta-encerramento"));
+    }
+}
@@ -0,0 +1,158 @@
+package ecoColeta;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Localiza endereços na BaseLogradouros guardando os resultados em um cache LRU limitado, gravado em disco
+// - A chave é o endereço normalizado (BaseLogradouros.normalizar), então variações de acento, maiúsculas
+//   e abreviações do mesmo endereço usam a mesma entrada; endereços não encontrados também ficam no cache
+// - Em sessões de cadastro em massa os mesmos logradouros se repetem: a busca por semelhança na base
+//   é feita uma vez e as seguintes custam uma consulta ao mapa
+// - O cache é gravado junto com os dados do servidor e recarregado na inicialização; é descartado se a
+//   base de logradouros mudou desde a gravação
+class Geocodificador {
+    private static final String CABECALHO = "# ecocoleta-geocodificador;";
+    private static final BaseLogradouros.Local NAO_ENCONTRADO = new BaseLogradouros.Local(Double.NaN, Double.NaN, "");
+
+    // Contadores do cache, para acompanhar a taxa de acerto
+    record Estatisticas(long acertos, long faltas, int entradas, int capacidade, int logradouros) {
+        double taxaAcerto() {
+            long total = acertos + faltas;
+            return total == 0 ? 0 : (double) acertos / total;
+        }
+    }
+
+    private final BaseLogradouros base;
+    private final int capacidade;
+    private final Path arquivo; // Nulo: o cache não é gravado
+    private final ReentrantLock bloqueio = new ReentrantLock(); // LinkedHashMap em ordem de acesso muda a cada consulta
+    private final LinkedHashMap<String, BaseLogradouros.Local> cache;
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private volatile boolean alterado = false;
+
+    Geocodificador(BaseLogradouros base, int capacidade, Path arquivo) {
+        this.base = base;
+        this.capacidade = capacidade;
+        this.arquivo = arquivo;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BaseLogradouros.Local> maisAntiga) {
+                return size() > Geocodificador.this.capacidade;
+            }
+        };
+    }
+
+    // Local do endereço, ou null se ele não estiver na base
+    BaseLogradouros.Local localizar(String endereco) {
+        String chave = BaseLogradouros.normalizar(endereco);
+        BaseLogradouros.Local local;
+        bloqueio.lock();
+        try {
+            local = cache.get(chave);
+        } finally {
+            bloqueio.unlock();
+        }
+        if (local != null) {
+            acertos.increment();
+        } else {
+            // Busca fora do bloqueio: duas threads podem buscar o mesmo endereço ao mesmo tempo, com o mesmo resultado
+            faltas.increment();
+            local = base.buscar(chave);
+            if (local == null) local = NAO_ENCONTRADO;
+            bloqueio.lock();
+            try {
+                cache.put(chave, local);
+            } finally {
+                bloqueio.unlock();
+            }
+            alterado = true;
+        }
+        return local == NAO_ENCONTRADO ? null : local;
+    }
+
+    Estatisticas estatisticas() {
+        int entradas;
+        bloqueio.lock();
+        try {
+            entradas = cache.size();
+        } finally {
+            bloqueio.unlock();
+        }
+        return new Estatisticas(acertos.sum(), faltas.sum(), entradas, capacidade, base.tamanho());
+    }
+
+    // ---------------- Persistência ----------------
+    // Arquivo de texto: cabeçalho com a identificação da base e uma linha por entrada (chave, latitude,
+    // longitude e descrição separadas por tabulação; "-" para não encontrado), da menos à mais recente
+
+    // Recupera o cache gravado; um arquivo ausente, de outra base ou ilegível deixa o cache vazio
+    void carregar() throws IOException {
+        if (arquivo == null || !Files.exists(arquivo)) return;
+        try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            if (!(CABECALHO + base.identificacao()).equals(leitor.readLine())) return; // Base trocada: resultados antigos não valem
+            Map<String, BaseLogradouros.Local> lidas = new LinkedHashMap<>();
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                String[] campos = linha.split("\t", -1);
+                if (campos.length == 2 && campos[1].equals("-")) {
+                    lidas.put(campos[0], NAO_ENCONTRADO);
+                } else if (campos.length == 4) {
+                    lidas.put(campos[0], new BaseLogradouros.Local(Double.parseDouble(campos[1]), Double.parseDouble(campos[2]), campos[3]));
+                }
+            }
+            bloqueio.lock();
+            try {
+                cache.putAll(lidas); // Em ordem: as mais recentes ficam por último, como estavam
+            } finally {
+                bloqueio.unlock();
+            }
+        } catch (NumberFormatException e) {
+            // Arquivo corrompido: recomeça vazio
+        }
+    }
+
+    // Grava o cache se ele mudou desde a última gravação (arquivo temporário e troca atômica, como o snapshot)
+    void salvar() throws IOException {
+        if (arquivo == null || !alterado) return;
+        alterado = false;
+        List<Map.Entry<String, BaseLogradouros.Local>> copia;
+        bloqueio.lock();
+        try {
+            copia = new ArrayList<>(cache.entrySet());
+        } finally {
+            bloqueio.unlock();
+        }
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileOutputStream saida = new FileOutputStream(temporario.toFile());
+             BufferedWriter escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8))) {
+            escritor.write(CABECALHO + base.identificacao());
+            escritor.newLine();
+            for (Map.Entry<String, BaseLogradouros.Local> e : copia) {
+                BaseLogradouros.Local local = e.getValue();
+                escritor.write(local == NAO_ENCONTRADO ? e.getKey() + "\t-"
+                        : e.getKey() + "\t" + local.latitude() + "\t" + local.longitude() + "\t" + local.descricao().replace('\t', ' '));
+                escritor.newLine();
+            }
+            escritor.flush();
+            saida.getFD().sync();
+        } catch (IOException e) {
+            alterado = true; // Tenta de novo na próxima gravação
+            throw e;
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
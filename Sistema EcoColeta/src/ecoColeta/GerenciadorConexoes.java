@@ -0,0 +1,359 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Conexões do cliente com um ou mais servidores do mesmo catálogo (ex: o líder e os seus seguidores, ver
+// Replicacao), listados em -Decocoleta.servidores=host:porta,host:porta (padrão: localhost:12345)
+// - Cada servidor recebe CONEXOES_POR_SERVIDOR conexões (ServicoConexao, cada uma com vários pedidos a caminho);
+//   uma consulta vai para a conexão saudável com menos pedidos pendentes (empates em rodízio), então um servidor
+//   lento, que acumula pedidos, passa a receber menos
+// - Cada conexão tem uma thread virtual que a acompanha: se ela ficar ociosa por INTERVALO_VERIFICACAO_MILLIS,
+//   manda um VERSAO (qualquer resposta serve); se um pedido falhar (conexão recusada ou caída, sem resposta no
+//   tempo limite), a conexão sai da escolha e é tentada de novo com espera exponencial, de ESPERA_MINIMA_MILLIS
+//   dobrando até ESPERA_MAXIMA_MILLIS, sorteada entre a metade e o total para os clientes não voltarem juntos
+// - Uma consulta que falha é repetida uma vez em outro servidor; alterações não (podem ter sido gravadas)
+// - Alterações, SINCRONIZAR e ASSINAR vão pela conexão principal, que só muda quando cai: cada servidor tem a
+//   sua instância e versões, e a cópia local (CatalogoLocal) só sabe que já tem as próprias alterações se elas
+//   saíram pela mesma conexão antes do SINCRONIZAR. Uma assinatura fica no servidor em que começou (ela mesma
+//   se reconecta); a próxima vai para a nova principal
+// Os métodos de cada comando são os mesmos de ServicoConexao
+class GerenciadorConexoes implements AutoCloseable {
+    static final String SERVIDORES = System.getProperty("ecocoleta.servidores", "localhost:12345");
+    static final int CONEXOES_POR_SERVIDOR = Integer.getInteger("ecocoleta.conexoesPorServidor", 2);
+    private static final long INTERVALO_VERIFICACAO_MILLIS = 2000;
+    private static final long PASSO_MILLIS = 250; // Com que frequência cada thread olha a sua conexão
+    private static final long ESPERA_MINIMA_MILLIS = 250;
+    private static final long ESPERA_MAXIMA_MILLIS = 30_000;
+
+    // Uma conexão com um dos servidores e o que a escolha precisa saber dela
+    private final class Membro {
+        final String host;
+        final int porta;
+        final AtomicInteger pendentes = new AtomicInteger();
+        final AtomicLong respondidos = new AtomicLong();
+        volatile ServicoConexao conexao;   // Nula até a primeira conexão dar certo
+        volatile boolean saudavel = false; // Só as saudáveis são escolhidas
+        volatile long ultimaResposta;      // System.nanoTime()
+        int falhas;                        // Tentativas seguidas sem resposta (só a thread que a acompanha)
+
+        Membro(String host, int porta) {
+            this.host = host;
+            this.porta = porta;
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + porta;
+        }
+    }
+
+    private final long tempoLimiteMillis;
+    private final Membro[] membros;
+    private final AtomicInteger rodada = new AtomicInteger();
+    private final AtomicLong alteracoesEnviadas = new AtomicLong();
+    private final CompletableFuture<Void> conectado = new CompletableFuture<>(); // Primeira conexão de qualquer servidor
+    private final AtomicInteger semResposta = new AtomicInteger(); // Membros cuja primeira tentativa falhou
+    private volatile Membro principal;
+    private volatile boolean fechado = false;
+
+    // Servidores de -Decocoleta.servidores
+    GerenciadorConexoes(long tempoLimiteMillis) throws IOException {
+        this(Arrays.asList(SERVIDORES.split(",")), CONEXOES_POR_SERVIDOR, tempoLimiteMillis);
+    }
+
+    // Retorna quando ao menos um servidor responder; se nenhum responder, lança IOException
+    GerenciadorConexoes(List<String> servidores, int conexoesPorServidor, long tempoLimiteMillis) throws IOException {
+        this.tempoLimiteMillis = tempoLimiteMillis;
+        List<Membro> lista = new ArrayList<>();
+        for (String servidor : servidores) {
+            String texto = servidor.trim();
+            int separador = texto.lastIndexOf(':');
+            if (separador < 0) throw new IllegalArgumentException("Use -Decocoleta.servidores=host:porta,host:porta");
+            for (int i = 0; i < Math.max(1, conexoesPorServidor); i++) {
+                lista.add(new Membro(texto.substring(0, separador), Integer.parseInt(texto.substring(separador + 1))));
+            }
+        }
+        membros = lista.toArray(new Membro[0]);
+        for (Membro m : membros) Thread.ofVirtual().name("ecocoleta-verificacao").start(() -> acompanhar(m));
+        try {
+            conectado.get();
+        } catch (ExecutionException e) {
+            close();
+            throw new IOException("Nenhum servidor respondeu (" + String.join(",", servidores) + ").", e.getCause());
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IOException("Conexão interrompida.", e);
+        }
+    }
+
+    // ---------------- Comandos ----------------
+
+    // Comando de texto qualquer, pela conexão principal e sem repetir
+    CompletableFuture<List<String>> enviar(String comando) {
+        return pelaPrincipal(c -> c.enviar(comando));
+    }
+
+    CompletableFuture<List<String>> cadastrar(String endereco, String materiais, String horario) {
+        return alterar(c -> c.cadastrar(endereco, materiais, horario));
+    }
+
+    CompletableFuture<List<String>> cadastrar(String endereco, String materiais, String horario, double latitude, double longitude) {
+        return alterar(c -> c.cadastrar(endereco, materiais, horario, latitude, longitude));
+    }
+
+    CompletableFuture<List<String>> atualizar(int id, String endereco, String materiais, String horario) {
+        return alterar(c -> c.atualizar(id, endereco, materiais, horario));
+    }
+
+    CompletableFuture<List<String>> atualizar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+        return alterar(c -> c.atualizar(id, endereco, materiais, horario, latitude, longitude));
+    }
+
+    CompletableFuture<List<String>> remover(int id) {
+        return alterar(c -> c.remover(id));
+    }
+
+    CompletableFuture<List<String>> listar(int inicio, int limite) {
+        return consultar(c -> c.listar(inicio, limite));
+    }
+
+    CompletableFuture<List<String>> proximo(int cursor, int limite) {
+        return consultar(c -> c.proximo(cursor, limite));
+    }
+
+    CompletableFuture<List<String>> buscar(String material) {
+        return consultar(c -> c.buscar(material));
+    }
+
+    CompletableFuture<List<String>> proximos(double latitude, double longitude, int quantidade, String material) {
+        return consultar(c -> c.proximos(latitude, longitude, quantidade, material));
+    }
+
+    CompletableFuture<List<String>> pesquisar(String texto, int inicio, int limite) {
+        return consultar(c -> c.pesquisar(texto, inicio, limite));
+    }
+
+    CompletableFuture<List<String>> sugerir(String prefixo, int n, String tipo) {
+        return consultar(c -> c.sugerir(prefixo, n, tipo));
+    }
+
+    CompletableFuture<List<String>> abertos(String material, String instante) {
+        return consultar(c -> c.abertos(material, instante));
+    }
+
+    CompletableFuture<List<String>> geocodificar(String endereco) {
+        return consultar(c -> c.geocodificar(endereco));
+    }
+
+    CompletableFuture<List<String>> sincronizar(String instancia, long versao) {
+        return pelaPrincipal(c -> c.sincronizar(instancia, versao));
+    }
+
+    // Alterações pedidas por este cliente (todas pela conexão principal)
+    long alteracoesEnviadas() {
+        return alteracoesEnviadas.get();
+    }
+
+    // Assinatura no servidor da conexão principal (ou, se nenhuma estiver saudável, no primeiro já conectado,
+    // que a assinatura segue tentando)
+    ServicoConexao.Assinatura assinar(Consumer<List<String>> aoReceber) {
+        Membro m = principal();
+        if (m == null) m = Arrays.stream(membros).filter(x -> x.conexao != null).findFirst().orElseThrow();
+        return m.conexao.assinar(aoReceber);
+    }
+
+    // Servidor da conexão principal, para as transferências de CSV (que abrem uma conexão própria)
+    InetSocketAddress enderecoPrincipal() {
+        Membro m = principal();
+        if (m == null) m = membros[0];
+        return InetSocketAddress.createUnresolved(m.host, m.porta);
+    }
+
+    // Uma linha por conexão: servidor;saudavel;pendentes;respondidos (para acompanhar a distribuição)
+    List<String> estado() {
+        List<String> linhas = new ArrayList<>(membros.length);
+        for (Membro m : membros) linhas.add(m + ";" + m.saudavel + ";" + m.pendentes.get() + ";" + m.respondidos.get());
+        return linhas;
+    }
+
+    // ---------------- Escolha da conexão ----------------
+
+    private CompletableFuture<List<String>> alterar(Function<ServicoConexao, CompletableFuture<List<String>>> pedido) {
+        alteracoesEnviadas.incrementAndGet();
+        return pelaPrincipal(pedido);
+    }
+
+    private CompletableFuture<List<String>> pelaPrincipal(Function<ServicoConexao, CompletableFuture<List<String>>> pedido) {
+        Membro m = principal();
+        if (m == null) return CompletableFuture.failedFuture(new IOException("Nenhum servidor disponível."));
+        return enviar(m, pedido);
+    }
+
+    // Consulta com uma repetição em outro servidor; cancelar o futuro cancela o pedido em andamento
+    private CompletableFuture<List<String>> consultar(Function<ServicoConexao, CompletableFuture<List<String>>> pedido) {
+        CompletableFuture<List<String>> resultado = new CompletableFuture<>();
+        tentar(resultado, pedido, null, 2);
+        return resultado;
+    }
+
+    private void tentar(CompletableFuture<List<String>> resultado, Function<ServicoConexao, CompletableFuture<List<String>>> pedido,
+                        Membro anterior, int tentativas) {
+        Membro m = escolher(anterior);
+        if (m == null) {
+            resultado.completeExceptionally(new IOException("Nenhum servidor disponível."));
+            return;
+        }
+        CompletableFuture<List<String>> resposta = enviar(m, pedido);
+        resultado.whenComplete((_, _) -> {
+            if (resultado.isCancelled()) resposta.cancel(false);
+        });
+        resposta.whenComplete((linhas, erro) -> {
+            if (erro == null) {
+                resultado.complete(linhas);
+            } else if (tentativas > 1 && falhaDeConexao(erro) && !resultado.isDone()) {
+                tentar(resultado, pedido, m, tentativas - 1);
+            } else {
+                resultado.completeExceptionally(erro);
+            }
+        });
+    }
+
+    // Envia pela conexão e acompanha o resultado: a falha da conexão a tira da escolha
+    private CompletableFuture<List<String>> enviar(Membro m, Function<ServicoConexao, CompletableFuture<List<String>>> pedido) {
+        ServicoConexao conexao = m.conexao;
+        m.pendentes.incrementAndGet();
+        CompletableFuture<List<String>> resposta = pedido.apply(conexao);
+        resposta.whenComplete((_, erro) -> {
+            m.pendentes.decrementAndGet();
+            if (erro == null) {
+                m.respondidos.incrementAndGet();
+                m.ultimaResposta = System.nanoTime();
+            } else if (falhaDeConexao(erro)) {
+                m.saudavel = false; // A thread que a acompanha tenta de novo
+            }
+        });
+        return resposta;
+    }
+
+    // A principal atual, se ainda estiver saudável; senão a primeira saudável na ordem da lista
+    private Membro principal() {
+        Membro atual = principal;
+        if (atual != null && atual.saudavel) return atual;
+        for (Membro m : membros) {
+            if (m.saudavel) {
+                principal = m;
+                return m;
+            }
+        }
+        return null;
+    }
+
+    // A saudável com menos pedidos pendentes (fora do servidor que acabou de falhar, cujas outras conexões
+    // ainda podem não ter percebido); o ponto de partida gira para os empates não caírem sempre na mesma
+    private Membro escolher(Membro evitar) {
+        Membro escolhido = null;
+        int menor = Integer.MAX_VALUE;
+        int inicio = Math.floorMod(rodada.getAndIncrement(), membros.length);
+        for (int i = 0; i < membros.length; i++) {
+            Membro m = membros[(inicio + i) % membros.length];
+            if (!m.saudavel || (evitar != null && m.porta == evitar.porta && m.host.equals(evitar.host))) continue;
+            int pendentes = m.pendentes.get();
+            if (pendentes < menor) {
+                escolhido = m;
+                menor = pendentes;
+            }
+        }
+        return escolhido;
+    }
+
+    // Conexão recusada ou caída, ou servidor sem resposta no tempo limite; cancelamentos não contam
+    private static boolean falhaDeConexao(Throwable erro) {
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        return causa instanceof IOException || causa instanceof TimeoutException;
+    }
+
+    // ---------------- Verificação e reconexão ----------------
+
+    // Laço da thread de cada conexão: verifica a ociosa e tenta de novo a que falhou, com espera exponencial
+    private void acompanhar(Membro m) {
+        boolean primeira = true;
+        while (!fechado) {
+            boolean ociosa = m.pendentes.get() == 0
+                    && System.nanoTime() - m.ultimaResposta > TimeUnit.MILLISECONDS.toNanos(INTERVALO_VERIFICACAO_MILLIS);
+            if (!m.saudavel || ociosa) {
+                try {
+                    verificar(m);
+                    m.falhas = 0;
+                    m.saudavel = true;
+                    conectado.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    m.saudavel = false;
+                    if (primeira && semResposta.incrementAndGet() == membros.length) conectado.completeExceptionally(e);
+                    primeira = false;
+                    if (!dormir(espera(m.falhas++))) return;
+                    continue;
+                }
+                primeira = false;
+            }
+            if (!dormir(PASSO_MILLIS)) return;
+        }
+    }
+
+    // Conecta (na primeira vez) e manda um VERSAO; a conexão que caiu é refeita pelo próprio ServicoConexao
+    private void verificar(Membro m) throws IOException {
+        ServicoConexao conexao = m.conexao;
+        if (conexao == null) {
+            conexao = new ServicoConexao(m.host, m.porta, tempoLimiteMillis);
+            if (fechado) {
+                conexao.close();
+                return;
+            }
+            m.conexao = conexao;
+        }
+        try {
+            conexao.enviar("VERSAO").join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("O servidor não respondeu a tempo.", e.getCause());
+        }
+        m.ultimaResposta = System.nanoTime();
+    }
+
+    private static long espera(int falhas) {
+        long limite = Math.min(ESPERA_MAXIMA_MILLIS, ESPERA_MINIMA_MILLIS << Math.min(falhas, 16));
+        return limite / 2 + ThreadLocalRandom.current().nextLong(limite / 2 + 1);
+    }
+
+    private boolean dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+            return !fechado;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    // Encerra as conexões; pedidos pendentes falham
+    @Override
+    public void close() {
+        fechado = true;
+        for (Membro m : membros) {
+            ServicoConexao conexao = m.conexao;
+            if (conexao != null) conexao.close();
+        }
+    }
+}
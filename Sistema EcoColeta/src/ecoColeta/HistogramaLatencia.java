@@ -0,0 +1,75 @@
+package ecoColeta;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histograma de tempos em nanossegundos no estilo do HdrHistogram: uma faixa por potência de 2, cada uma
+// dividida em SUBFAIXAS contadores iguais, então cada valor é guardado com erro menor que 1/SUBFAIXAS (~3%)
+// em qualquer ordem de grandeza, com memória fixa (de 1 ns a cerca de 36 minutos em pouco mais de mil contadores)
+// - Registrar é calcular a posição (só deslocamentos, sem laço) e incrementar um contador; várias threads
+//   registram ao mesmo tempo sem bloqueio
+// - Os percentis vêm de um Retrato (cópia dos contadores), sem parar quem registra; os valores só acumulam,
+//   como os contadores do Prometheus
+class HistogramaLatencia {
+    private static final int BITS_SUBFAIXA = 5;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    private static final long MAIOR_VALOR = (1L << 41) - 1; // Valores maiores contam como este
+    private static final int POSICOES = posicao(MAIOR_VALOR) + 1;
+
+    private final AtomicLongArray contadores = new AtomicLongArray(POSICOES);
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    void registrar(long nanos) {
+        long valor = Math.clamp(nanos, 0, MAIOR_VALOR);
+        contadores.getAndIncrement(posicao(valor));
+        soma.add(valor);
+        if (valor > maximo.get()) maximo.accumulateAndGet(valor, Math::max); // Quase sempre só a leitura
+    }
+
+    // Abaixo de 2 * SUBFAIXAS cada valor tem o seu contador; acima, os BITS_SUBFAIXA + 1 bits mais altos do
+    // valor escolhem o contador dentro da faixa da potência de 2
+    private static int posicao(long valor) {
+        if (valor < 2 * SUBFAIXAS) return (int) valor;
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBFAIXA;
+        return (deslocamento << BITS_SUBFAIXA) + (int) (valor >>> deslocamento);
+    }
+
+    // Maior valor guardado na posição (o percentil é informado pelo limite de cima, como no HdrHistogram)
+    private static long maiorDaPosicao(int posicao) {
+        if (posicao < 2 * SUBFAIXAS) return posicao;
+        int deslocamento = (posicao >>> BITS_SUBFAIXA) - 1;
+        long subfaixa = (posicao & (SUBFAIXAS - 1)) + SUBFAIXAS;
+        return ((subfaixa + 1) << deslocamento) - 1;
+    }
+
+    Retrato retrato() {
+        long[] copia = new long[POSICOES];
+        long quantidade = 0;
+        for (int i = 0; i < POSICOES; i++) {
+            copia[i] = contadores.get(i);
+            quantidade += copia[i];
+        }
+        return new Retrato(copia, quantidade, soma.sum(), maximo.get());
+    }
+
+    // Cópia dos contadores em um instante; a soma e o máximo podem incluir registros um pouco mais novos
+    record Retrato(long[] contadores, long quantidade, long somaNanos, long maximoNanos) {
+        double mediaNanos() {
+            return quantidade == 0 ? 0 : (double) somaNanos / quantidade;
+        }
+
+        // Menor valor que cobre a fração pedida dos registros (0.99: p99)
+        long percentilNanos(double fracao) {
+            if (quantidade == 0) return 0;
+            long alvo = Math.max(1, (long) Math.ceil(fracao * quantidade));
+            long acumulado = 0;
+            for (int i = 0; i < contadores.length; i++) {
+                acumulado += contadores[i];
+                if (acumulado >= alvo) return Math.min(maiorDaPosicao(i), maximoNanos);
+            }
+            return maximoNanos;
+        }
+    }
+}
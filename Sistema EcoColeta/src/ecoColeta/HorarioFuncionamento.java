@@ -0,0 +1,218 @@
+package ecoColeta;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Horário de funcionamento interpretado: mapa de bits da semana em faixas de 5 minutos (segunda 00:00 = faixa 0)
+// - Interpretado uma vez no cadastro e na atualização; "está aberto agora?" é um teste de bit
+// - Imutável, com igualdade pelo mapa: textos diferentes com o mesmo horário ("08-18", "8h às 18h")
+//   dão objetos iguais, e o IndiceHorarios guarda um só objeto por horário distinto
+// Formatos aceitos (sem diferenciar maiúsculas e acentos), combináveis em um mesmo texto:
+//   "08:00-18:00", "8h às 18h", "8h30-12h e 14h-18h"           (todos os dias)
+//   "Seg a Sex 08:00-18:00; Sáb 08:00-12:00", "seg, qua, sex 9-17", "08-18 seg-sex"
+//   "22:00-06:00" (passa da meia-noite), "24 horas", "Dom fechado", "dias úteis 8-17"
+// Textos sem nenhum horário reconhecido (ex: "comercial") não são interpretados
+final class HorarioFuncionamento {
+    static final int MINUTOS_POR_FAIXA = 5;
+    static final int FAIXAS_POR_DIA = 24 * 60 / MINUTOS_POR_FAIXA;
+    static final int FAIXAS_POR_SEMANA = 7 * FAIXAS_POR_DIA;
+    private static final int TODOS_OS_DIAS = 0x7F;
+    private static final String[] DIAS = {"seg", "ter", "qua", "qui", "sex", "sab", "dom"};
+
+    private final long[] faixas = new long[(FAIXAS_POR_SEMANA + 63) / 64];
+    private int hash;
+
+    private HorarioFuncionamento() {}
+
+    // Faixa da semana correspondente ao instante (no fuso do próprio instante)
+    static int faixa(ZonedDateTime instante) {
+        int minuto = instante.getHour() * 60 + instante.getMinute();
+        return (instante.getDayOfWeek().getValue() - 1) * FAIXAS_POR_DIA + minuto / MINUTOS_POR_FAIXA;
+    }
+
+    boolean aberto(int faixa) {
+        return (faixas[faixa >>> 6] & (1L << faixa)) != 0;
+    }
+
+    // Minutos a partir do início da faixa até o ponto fechar; -1 se nunca fecha (24 horas todos os dias)
+    int minutosAteFechar(int faixa) {
+        for (int i = 0; i < FAIXAS_POR_SEMANA; i++) {
+            if (!aberto((faixa + i) % FAIXAS_POR_SEMANA)) return i * MINUTOS_POR_FAIXA;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof HorarioFuncionamento h && Arrays.equals(faixas, h.faixas);
+    }
+
+    @Override
+    public int hashCode() {
+        if (hash == 0) hash = Arrays.hashCode(faixas) | 1; // Nunca 0: calculado uma vez
+        return hash;
+    }
+
+    // ---------------- Interpretação ----------------
+
+    // Unidade do texto: dias (máscara, bit 0 = segunda), horário (minutos desde 00:00), separador de intervalo
+    // ("-", "a", "às", "até"), "fechado" ou "24 horas"
+    private record Lexema(char tipo, int valor) {}
+    private static final char DIA = 'D', HORA = 'H', ATE = '-', FECHADO = 'F', DIA_INTEIRO = 'I';
+
+    // Horário interpretado, ou null se o texto não tiver nenhum horário reconhecido
+    static HorarioFuncionamento interpretar(String horario) {
+        List<Lexema> lexemas = lexemas(IndiceMateriais.normalizar(horario).replace("-feira", "").replace(" feira", ""));
+        HorarioFuncionamento h = new HorarioFuncionamento();
+        boolean reconhecido = false;
+        int diasPendentes = 0;           // Dias lidos que ainda esperam os seus intervalos
+        List<int[]> intervalos = new ArrayList<>(); // Intervalos lidos que ainda esperam os seus dias
+        boolean fechadoPendente = false;
+        List<int[]> aplicadosAntes = null; // Intervalos escritos antes dos dias ("08-18 seg, ter"), para os dias seguintes
+        for (int i = 0; i < lexemas.size(); i++) {
+            Lexema l = lexemas.get(i);
+            if (l.tipo() == DIA) {
+                int dias = l.valor();
+                if (i + 2 < lexemas.size() && lexemas.get(i + 1).tipo() == ATE && lexemas.get(i + 2).tipo() == DIA) {
+                    dias = diasEntre(l.valor(), lexemas.get(i + 2).valor());
+                    i += 2;
+                }
+                if (!intervalos.isEmpty() || fechadoPendente) {
+                    if (diasPendentes != 0) { // "seg-sex 8-18, sab 8-12": fecha o grupo anterior
+                        h.aplicar(diasPendentes, intervalos);
+                        diasPendentes = dias;
+                        aplicadosAntes = null;
+                    } else { // "8-18 seg-sex": os intervalos vieram antes dos dias
+                        h.aplicar(dias, intervalos);
+                        aplicadosAntes = new ArrayList<>(intervalos);
+                    }
+                    intervalos.clear();
+                    fechadoPendente = false;
+                } else if (aplicadosAntes != null) {
+                    h.aplicar(dias, aplicadosAntes);
+                } else {
+                    diasPendentes |= dias;
+                }
+            } else if (l.tipo() == HORA && i + 2 < lexemas.size() && lexemas.get(i + 1).tipo() == ATE && lexemas.get(i + 2).tipo() == HORA) {
+                intervalos.add(new int[] {l.valor(), lexemas.get(i + 2).valor()});
+                reconhecido = true;
+                aplicadosAntes = null;
+                i += 2;
+            } else if (l.tipo() == DIA_INTEIRO || (l.tipo() == HORA && l.valor() == 24 * 60)) { // "24 horas", "24h"
+                intervalos.add(new int[] {0, 24 * 60});
+                reconhecido = true;
+                aplicadosAntes = null;
+            } else if (l.tipo() == FECHADO) {
+                fechadoPendente = true;
+                reconhecido = true;
+                aplicadosAntes = null;
+            }
+        }
+        if (!intervalos.isEmpty()) h.aplicar(diasPendentes == 0 ? TODOS_OS_DIAS : diasPendentes, intervalos);
+        return reconhecido ? h : null;
+    }
+
+    // Marca os intervalos (minutos desde 00:00) nos dias da máscara; um intervalo que termina antes de começar
+    // passa da meia-noite. Arredonda para dentro: uma faixa só conta como aberta se o ponto abre nela inteira
+    private void aplicar(int dias, List<int[]> intervalos) {
+        for (int dia = 0; dia < 7; dia++) {
+            if ((dias & (1 << dia)) == 0) continue;
+            for (int[] intervalo : intervalos) {
+                int inicio = (intervalo[0] + MINUTOS_POR_FAIXA - 1) / MINUTOS_POR_FAIXA;
+                int fim = intervalo[1] / MINUTOS_POR_FAIXA;
+                if (fim <= inicio && intervalo[1] <= intervalo[0]) fim += FAIXAS_POR_DIA; // "22:00-06:00"; "00:00-00:00": dia todo
+                for (int f = inicio; f < fim; f++) {
+                    int faixa = (dia * FAIXAS_POR_DIA + f) % FAIXAS_POR_SEMANA;
+                    faixas[faixa >>> 6] |= 1L << faixa;
+                }
+            }
+        }
+    }
+
+    // Máscara dos dias de 'de' até 'ate' (cada um com um só bit), dando a volta na semana se preciso ("sab-seg")
+    private static int diasEntre(int de, int ate) {
+        int inicio = Integer.numberOfTrailingZeros(de);
+        int fim = Integer.numberOfTrailingZeros(ate);
+        int dias = 0;
+        for (int d = inicio; ; d = (d + 1) % 7) {
+            dias |= 1 << d;
+            if (d == fim) return dias;
+        }
+    }
+
+    private static List<Lexema> lexemas(String texto) {
+        List<Lexema> lexemas = new ArrayList<>();
+        int i = 0;
+        while (i < texto.length()) {
+            char c = texto.charAt(i);
+            if (Character.isDigit(c)) {
+                // Horário: "8", "08", "8h", "8hs", "8h30", "08:00", "8.30", "8:30h"
+                int inicio = i;
+                while (i < texto.length() && Character.isDigit(texto.charAt(i))) i++;
+                int horas = i - inicio <= 2 ? Integer.parseInt(texto, inicio, i, 10) : 99;
+                int minutos = 0;
+                if (i < texto.length() && ":.h".indexOf(texto.charAt(i)) >= 0 && digitos(texto, i + 1, 2)) {
+                    minutos = Integer.parseInt(texto, i + 1, i + 3, 10);
+                    i += 3;
+                }
+                while (i < texto.length() && "hrs".indexOf(texto.charAt(i)) >= 0) i++;
+                boolean valido = horas < 24 && minutos < 60 || horas == 24 && minutos == 0;
+                if (!valido) continue;
+                if (horas == 24 && texto.startsWith(" horas", i)) {
+                    lexemas.add(new Lexema(DIA_INTEIRO, 0));
+                    i += 6;
+                } else {
+                    lexemas.add(new Lexema(HORA, horas * 60 + minutos));
+                }
+            } else if (Character.isLetter(c)) {
+                int inicio = i;
+                while (i < texto.length() && Character.isLetter(texto.charAt(i))) i++;
+                Lexema l = palavra(texto.substring(inicio, i));
+                if (l != null) lexemas.add(l);
+            } else {
+                if (c == '-' || c == '–' || c == '~') lexemas.add(new Lexema(ATE, 0));
+                i++;
+            }
+        }
+        return lexemas;
+    }
+
+    private static boolean digitos(String texto, int inicio, int quantidade) {
+        if (inicio + quantidade > texto.length()) return false;
+        for (int i = inicio; i < inicio + quantidade; i++) if (!Character.isDigit(texto.charAt(i))) return false;
+        return inicio + quantidade == texto.length() || !Character.isDigit(texto.charAt(inicio + quantidade));
+    }
+
+    // Dias da semana (abreviados ou por extenso), separadores por extenso e palavras especiais; null para as demais
+    private static Lexema palavra(String palavra) {
+        switch (palavra) {
+            case "a", "as", "ate" -> { return new Lexema(ATE, 0); }
+            case "fechado", "fechada" -> { return new Lexema(FECHADO, 0); }
+            case "diariamente", "todos", "todo", "diario" -> { return new Lexema(DIA, TODOS_OS_DIAS); }
+            case "uteis" -> { return new Lexema(DIA, 0x1F); }
+            case "feriado", "feriados" -> { return new Lexema(DIA, 0); } // Sem calendário de feriados: não muda nenhum dia
+            default -> {
+                if (palavra.length() < 3) return null;
+                String prefixo = palavra.substring(0, 3);
+                for (int d = 0; d < DIAS.length; d++) {
+                    if (DIAS[d].equals(prefixo) && (palavra.length() == 3 || extenso(d).startsWith(palavra))) return new Lexema(DIA, 1 << d);
+                }
+                return null;
+            }
+        }
+    }
+
+    private static String extenso(int dia) {
+        return switch (dia) {
+            case 0 -> "segunda";
+            case 1 -> "terca";
+            case 2 -> "quarta";
+            case 3 -> "quinta";
+            case 4 -> "sexta";
+            case 5 -> "sabado";
+            default -> "domingo";
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Estado de um IMPORTAR em andamento em uma conexão: depois do comando, cada linha recebida é
+// uma linha CSV (endereco,materiais,horario[,latitude,longitude] — ou, como o EXPORTAR gera,
+// id,endereco,materiais,horario[,latitude,longitude]) até a linha FIM
+// - As linhas são cadastradas em lotes: um bloqueio e um fsync do diário por lote, não por ponto
+// - A cada lote gravado a resposta ganha uma linha PROGRESSO;n; o resumo e a linha em branco vêm após o FIM
+// - A linha que completa um lote (e o FIM) adia a resposta até a gravação (Resposta.adiar): no motor NIO a
+//   conexão só volta a ser lida depois dela
+// - Se a gravação falhar, as linhas seguintes são descartadas até o FIM (não são lidas como comandos); o resumo
+//   conta os pontos que chegaram a ser gravados, inclusive os do começo do lote em que o diário falhou
+// - Em um servidor seguidor, cada lote vai ao líder como um IMPORTAR (Replicacao.cadastrarLote)
+class ImportacaoCsv {
+    static final int TAMANHO_LOTE = 1000;
+
+    private final RepositorioPontos repositorio;
+    private final Resposta saida;
+    private final List<String[]> lote = new ArrayList<>(TAMANHO_LOTE);
+    private long importadas = 0;
+    private long invalidas = 0;
+    private boolean primeiraLinha = true;
+    private boolean falhou = false;
+
+    ImportacaoCsv(RepositorioPontos repositorio, Resposta saida) {
+        this.repositorio = repositorio;
+        this.saida = saida;
+    }
+
+    // Recebe uma linha da importação; retorna false quando a importação terminou (linha FIM)
+    boolean receber(String linha) throws IOException {
+        if (linha.equals("FIM")) {
+            int enviados = lote.size();
+            saida.adiar(gravarLote(), (gravados, falha) -> {
+                contar(enviados, gravados, falha);
+                if (falhou) {
+                    saida.println("Erro ao Salvar os Pontos em Disco. Pontos importados antes da falha: " + importadas);
+                } else {
+                    saida.println("Importação Concluída: " + importadas + " pontos importados, " + invalidas + " linhas inválidas.");
+                }
+                saida.println();
+            });
+            return false;
+        }
+        if (falhou || linha.isBlank()) return true;
+
+        List<String> campos = Csv.separar(linha);
+        if (primeiraLinha) {
+            primeiraLinha = false;
+            if (campos.contains("endereco")) return true; // Cabeçalho
+        }
+        if (campos.size() == 4 || campos.size() == 6) campos = campos.subList(1, campos.size()); // Arquivo do EXPORTAR: o ID antigo é ignorado
+        if (campos.size() == 5 && campos.get(3).isEmpty() && campos.get(4).isEmpty()) campos = campos.subList(0, 3); // Sem localização
+        if ((campos.size() != 3 && campos.size() != 5) || campos.get(0).isEmpty() || campos.get(1).isEmpty() || campos.get(2).isEmpty()
+                || (campos.size() == 5 && !localizacaoValida(campos.get(3), campos.get(4)))) {
+            invalidas++;
+            return true;
+        }
+        lote.add(campos.toArray(new String[0]));
+        if (lote.size() == TAMANHO_LOTE) {
+            saida.adiar(gravarLote(), (gravados, falha) -> {
+                contar(TAMANHO_LOTE, gravados, falha);
+                if (!falhou) saida.println("PROGRESSO;" + importadas);
+            });
+        }
+        return true;
+    }
+
+    private static boolean localizacaoValida(String latitude, String longitude) {
+        try {
+            return PontoColeta.localizacaoValida(Double.parseDouble(latitude), Double.parseDouble(longitude));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Envia o lote ao repositório (ou ao líder); o futuro conclui com a quantidade gravada
+    private CompletableFuture<Integer> gravarLote() {
+        if (lote.isEmpty() || falhou) return CompletableFuture.completedFuture(0);
+        List<String[]> registros = new ArrayList<>(lote);
+        lote.clear();
+        Replicacao replicacao = Servidor.replicacao();
+        return replicacao != null ? replicacao.cadastrarLote(registros) : repositorio.cadastrarLote(registros);
+    }
+
+    // Resultado da gravação de um lote (na vez da conexão): os pontos gravados contam mesmo se o diário falhou
+    // no meio do lote, porque já estão no catálogo
+    private void contar(int enviados, Integer gravados, Throwable falha) {
+        if (falha != null) {
+            falhou = true;
+            return;
+        }
+        importadas += gravados;
+        if (gravados < enviados) falhou = true;
+    }
+}
@@ -0,0 +1,260 @@
+package ecoColeta;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+// Índice espacial dos pontos com localização: grade de células de TAMANHO_CELULA graus
+// - Cada célula guarda os IDs e a posição de cada ponto como vetor unitário (x, y, z): comparar distâncias é
+//   só calcular a corda entre dois vetores, sem trigonometria; a distância em km (arco) só é calculada
+//   para os k pontos devolvidos
+// - Os vetores também ficam em um array indexado pelo ID, para calcular a distância de um ponto conhecido
+//   (ex: os poucos pontos que aceitam um material raro) sem passar pela grade nem pelo PontoColeta;
+//   esse array é alterado no lugar, então uma consulta concorrente a uma troca de localização pode
+//   calcular a distância daquele ponto com parte do vetor antigo
+// - Como no IndiceMateriais, as alterações vêm de um único escritor por vez e as consultas não bloqueiam:
+//   o conteúdo de uma célula é publicado por uma referência volátil e nunca muda depois de visível
+//   (o acréscimo escreve além da quantidade publicada; a remoção cria arrays novos)
+// - A busca dos k mais próximos percorre anéis de células em volta da consulta e para quando nenhum
+//   ponto fora dos anéis já vistos pode estar mais perto que o k-ésimo encontrado
+// Não trata a volta do antimeridiano (longitude ±180), irrelevante para pontos no Brasil
+class IndiceEspacial {
+    static final double TAMANHO_CELULA = 0.02; // Graus (cerca de 2,2 km de latitude)
+    static final double RAIO_TERRA_KM = 6371.0088;
+
+    // Conteúdo imutável de uma célula até 'quantidade'; vetores em trios (x, y, z)
+    private record Conteudo(int[] ids, double[] vetores, int quantidade) {}
+
+    private static final class Celula {
+        volatile Conteudo conteudo = new Conteudo(new int[4], new double[12], 0);
+    }
+
+    private final Map<Long, Celula> celulas = new ConcurrentHashMap<>();
+    private volatile double[] vetoresPorId = vazio(3 * 1024); // NaN: ID sem localização
+
+    // Um resultado da busca: o ID e a distância em km
+    record Vizinho(int id, double distanciaKm) {}
+
+    // ---------------- Escrita (um escritor por vez) ----------------
+
+    void adicionar(int id, double latitude, double longitude) {
+        Celula celula = celulas.computeIfAbsent(chave(latitude, longitude), _ -> new Celula());
+        Conteudo atual = celula.conteudo;
+        int[] ids = atual.ids();
+        double[] vetores = atual.vetores();
+        int q = atual.quantidade();
+        if (q == ids.length) {
+            ids = Arrays.copyOf(ids, q * 2);
+            vetores = Arrays.copyOf(vetores, q * 6);
+        }
+        ids[q] = id; // Além da quantidade publicada: nenhum leitor olha esta posição ainda
+        vetor(latitude, longitude, vetores, 3 * q);
+        celula.conteudo = new Conteudo(ids, vetores, q + 1);
+
+        double[] porId = vetoresPorId;
+        if (3 * id + 2 >= porId.length) {
+            double[] maior = vazio(Math.max(porId.length * 2, 3 * id + 3));
+            System.arraycopy(porId, 0, maior, 0, porId.length);
+            vetoresPorId = porId = maior;
+        }
+        vetor(latitude, longitude, porId, 3 * id);
+    }
+
+    // Na troca de localização o repositório adiciona a nova antes de remover a antiga:
+    // o vetor por ID só é apagado se ainda for o da localização removida
+    void remover(int id, double latitude, double longitude) {
+        double[] removido = new double[3];
+        vetor(latitude, longitude, removido, 0);
+        double[] porId = vetoresPorId;
+        if (3 * id + 2 < porId.length && corda2(porId, 3 * id, removido[0], removido[1], removido[2]) == 0) porId[3 * id] = Double.NaN;
+
+        long chave = chave(latitude, longitude);
+        Celula celula = celulas.get(chave);
+        if (celula == null) return;
+        Conteudo atual = celula.conteudo;
+        int q = atual.quantidade();
+        for (int i = 0; i < q; i++) {
+            if (atual.ids()[i] != id) continue;
+            if (q == 1) {
+                celulas.remove(chave);
+                celula.conteudo = new Conteudo(new int[4], new double[12], 0);
+                return;
+            }
+            int[] ids = new int[Math.max(4, atual.ids().length)];
+            double[] vetores = new double[ids.length * 3];
+            System.arraycopy(atual.ids(), 0, ids, 0, i);
+            System.arraycopy(atual.ids(), i + 1, ids, i, q - i - 1);
+            System.arraycopy(atual.vetores(), 0, vetores, 0, 3 * i);
+            System.arraycopy(atual.vetores(), 3 * i + 3, vetores, 3 * i, 3 * (q - i - 1));
+            celula.conteudo = new Conteudo(ids, vetores, q - 1);
+            return;
+        }
+    }
+
+    int celulasOcupadas() {
+        return celulas.size();
+    }
+
+    // ---------------- Consulta ----------------
+
+    // Os k pontos mais próximos de (latitude, longitude) aceitos pelo filtro, do mais perto ao mais longe
+    Vizinho[] proximos(double latitude, double longitude, int k, IntPredicate filtro) {
+        Melhores melhores = new Melhores(k, latitude, longitude);
+        int li = indice(latitude);
+        int lj = indice(longitude);
+        int ocupadas = celulas.size();
+        for (int anel = 0; ; anel++) {
+            // Mais células no anel do que ocupadas na grade: passa a percorrer as ocupadas diretamente
+            if ((long) (2 * anel + 1) * (2 * anel + 1) > 2L * ocupadas) {
+                for (Map.Entry<Long, Celula> e : celulas.entrySet()) {
+                    long chave = e.getKey();
+                    int i = (int) (chave >> 32);
+                    int j = (int) chave;
+                    if (Math.max(Math.abs(i - li), Math.abs(j - lj)) >= anel) melhores.avaliar(e.getValue().conteudo, filtro);
+                }
+                return melhores.resultado();
+            }
+            if (anel == 0) {
+                avaliar(li, lj, melhores, filtro);
+            } else {
+                for (int d = -anel; d <= anel; d++) {
+                    avaliar(li - anel, lj + d, melhores, filtro);
+                    avaliar(li + anel, lj + d, melhores, filtro);
+                }
+                for (int d = -anel + 1; d <= anel - 1; d++) {
+                    avaliar(li + d, lj - anel, melhores, filtro);
+                    avaliar(li + d, lj + anel, melhores, filtro);
+                }
+            }
+            if (melhores.completo() && melhores.piorKm() <= distanciaMinimaForaDoAnel(latitude, anel)) {
+                return melhores.resultado();
+            }
+        }
+    }
+
+    // Oferece o ponto do ID aos melhores candidatos, se ele tiver localização
+    void oferecer(Melhores melhores, int id) {
+        double[] porId = vetoresPorId;
+        if (3 * id + 2 < porId.length && !Double.isNaN(porId[3 * id])) melhores.oferecer(id, porId, 3 * id);
+    }
+
+    private void avaliar(int i, int j, Melhores melhores, IntPredicate filtro) {
+        Celula celula = celulas.get(chave(i, j));
+        if (celula != null) melhores.avaliar(celula.conteudo, filtro);
+    }
+
+    // Menor distância possível até um ponto fora dos anéis 0..anel: ele está a pelo menos anel * TAMANHO_CELULA
+    // graus em latitude ou em longitude; para a longitude, a separação encolhe com a latitude, então usa
+    // a maior latitude que um ponto ainda dentro da faixa de latitude pode ter
+    static double distanciaMinimaForaDoAnel(double latitude, int anel) {
+        double graus = anel * TAMANHO_CELULA;
+        double porLatitude = Math.toRadians(graus) * RAIO_TERRA_KM;
+        double latitudeMaxima = Math.min(90, Math.abs(latitude) + graus + TAMANHO_CELULA);
+        double seno = Math.cos(Math.toRadians(latitudeMaxima)) * Math.sin(Math.toRadians(Math.min(graus, 180)) / 2);
+        double porLongitude = 2 * RAIO_TERRA_KM * Math.asin(Math.min(1, seno));
+        return Math.min(porLatitude, porLongitude);
+    }
+
+    // Vetor unitário da posição, gravado em destino[inicio..inicio+2]
+    static void vetor(double latitude, double longitude, double[] destino, int inicio) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        destino[inicio] = Math.cos(lat) * Math.cos(lon);
+        destino[inicio + 1] = Math.cos(lat) * Math.sin(lon);
+        destino[inicio + 2] = Math.sin(lat);
+    }
+
+    // Quadrado da corda entre o vetor em v[i..i+2] e (x, y, z); cresce junto com a distância pela superfície
+    private static double corda2(double[] v, int i, double x, double y, double z) {
+        double dx = v[i] - x, dy = v[i + 1] - y, dz = v[i + 2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Arco correspondente à corda (ângulo central = 2 asin(corda / 2)), em km
+    private static double arcoKm(double corda2) {
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1, Math.sqrt(corda2) / 2));
+    }
+
+    private static double[] vazio(int tamanho) {
+        double[] vetores = new double[tamanho];
+        Arrays.fill(vetores, Double.NaN);
+        return vetores;
+    }
+
+    private static int indice(double graus) {
+        return (int) Math.floor(graus / TAMANHO_CELULA);
+    }
+
+    private static long chave(double latitude, double longitude) {
+        return chave(indice(latitude), indice(longitude));
+    }
+
+    private static long chave(int i, int j) {
+        return ((long) i << 32) | (j & 0xFFFFFFFFL);
+    }
+
+    // Os k melhores candidatos até o momento, em ordem crescente de distância (k é pequeno: inserção direta)
+    // As distâncias guardadas são quadrados de cordas; só resultado() e piorKm() convertem para km
+    static final class Melhores {
+        private final int[] ids;
+        private final double[] distancias;
+        private final double[] consulta = new double[6]; // Vetor da consulta e espaço para o do candidato
+        private int quantidade = 0;
+
+        Melhores(int k, double latitude, double longitude) {
+            this.ids = new int[k];
+            this.distancias = new double[k];
+            vetor(latitude, longitude, consulta, 0);
+        }
+
+        private void avaliar(Conteudo conteudo, IntPredicate filtro) {
+            int[] idsCelula = conteudo.ids();
+            double[] vetores = conteudo.vetores();
+            double x = consulta[0], y = consulta[1], z = consulta[2];
+            for (int i = 0; i < conteudo.quantidade(); i++) {
+                double distancia = corda2(vetores, 3 * i, x, y, z);
+                if (quantidade == ids.length && distancia >= distancias[quantidade - 1]) continue; // Antes do filtro, que é mais caro
+                if (filtro.test(idsCelula[i])) inserir(idsCelula[i], distancia);
+            }
+        }
+
+        // Candidato avulso, pela latitude e longitude
+        void oferecer(int id, double latitude, double longitude) {
+            vetor(latitude, longitude, consulta, 3);
+            oferecer(id, consulta, 3);
+        }
+
+        // Candidato avulso, pelo vetor em v[i..i+2]
+        private void oferecer(int id, double[] v, int i) {
+            double distancia = corda2(v, i, consulta[0], consulta[1], consulta[2]);
+            if (quantidade == ids.length && distancia >= distancias[quantidade - 1]) return;
+            inserir(id, distancia);
+        }
+
+        private void inserir(int id, double distancia) {
+            int posicao = quantidade < ids.length ? quantidade++ : quantidade - 1;
+            while (posicao > 0 && distancias[posicao - 1] > distancia) {
+                ids[posicao] = ids[posicao - 1];
+                distancias[posicao] = distancias[posicao - 1];
+                posicao--;
+            }
+            ids[posicao] = id;
+            distancias[posicao] = distancia;
+        }
+
+        boolean completo() {
+            return quantidade == ids.length;
+        }
+
+        double piorKm() {
+            return arcoKm(distancias[quantidade - 1]);
+        }
+
+        Vizinho[] resultado() {
+            Vizinho[] resultado = new Vizinho[quantidade];
+            for (int i = 0; i < quantidade; i++) resultado[i] = new Vizinho(ids[i], arcoKm(distancias[i]));
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Índice dos horários de funcionamento: cada horário distinto (HorarioFuncionamento) -> IDs dos pontos que o usam
+// - Os catálogos têm poucos horários distintos ("08:00-18:00" se repete em milhares de pontos): um só mapa de
+//   bits por horário, e "quais pontos estão abertos agora" é a união dos grupos cujo bit da faixa está ligado
+// - O horário de cada ponto também fica em um array indexado pelo ID, para testar um ponto conhecido (ex: os
+//   que aceitam um material) sem passar pelo PontoColeta
+// - Como nos outros índices, as alterações vêm de um único escritor por vez e as consultas não bloqueiam
+class IndiceHorarios {
+    private record Grupo(HorarioFuncionamento horario, ConjuntoIds ids) {}
+
+    private final Map<HorarioFuncionamento, Grupo> grupos = new ConcurrentHashMap<>();
+    private volatile HorarioFuncionamento[] porId = new HorarioFuncionamento[1024]; // Nulo: horário não interpretado
+    private final ConjuntoIds naoInterpretados = new ConjuntoIds(); // Pontos cujo horário não foi reconhecido
+
+    // ---------------- Escrita (um escritor por vez) ----------------
+
+    void adicionar(int id, String horario) {
+        colocar(id, HorarioFuncionamento.interpretar(horario));
+    }
+
+    void remover(int id) {
+        naoInterpretados.remover(id);
+        HorarioFuncionamento[] atual = porId;
+        if (id >= atual.length || atual[id] == null) return;
+        Grupo grupo = grupos.get(atual[id]);
+        atual[id] = null;
+        if (grupo != null) sairDoGrupo(grupo, id);
+    }
+
+    // O ponto entra no grupo do novo horário antes de sair do antigo; se o horário interpretado não mudou
+    // (ex: "08-18" -> "08:00-18:00"), nada muda
+    void atualizar(int id, String horario) {
+        HorarioFuncionamento novo = HorarioFuncionamento.interpretar(horario);
+        HorarioFuncionamento antigo = obter(id);
+        if (novo != null && novo.equals(antigo)) return;
+        Grupo anterior = antigo == null ? null : grupos.get(antigo);
+        naoInterpretados.remover(id);
+        colocar(id, novo);
+        if (anterior != null) sairDoGrupo(anterior, id);
+    }
+
+    private void colocar(int id, HorarioFuncionamento h) {
+        HorarioFuncionamento[] atual = porId;
+        if (h == null) {
+            naoInterpretados.adicionar(id);
+            if (id < atual.length) atual[id] = null;
+            return;
+        }
+        Grupo grupo = grupos.computeIfAbsent(h, _ -> new Grupo(h, new ConjuntoIds()));
+        grupo.ids().adicionar(id);
+        if (id >= atual.length) {
+            HorarioFuncionamento[] maior = new HorarioFuncionamento[Math.max(atual.length * 2, id + 1)];
+            System.arraycopy(atual, 0, maior, 0, atual.length);
+            porId = atual = maior;
+        }
+        atual[id] = grupo.horario(); // O objeto do grupo: pontos com o mesmo horário compartilham o mapa de bits
+    }
+
+    // Grupos que ficam vazios são descartados
+    private void sairDoGrupo(Grupo grupo, int id) {
+        grupo.ids().remover(id);
+        if (grupo.ids().vazio()) grupos.remove(grupo.horario());
+    }
+
+    // ---------------- Consulta ----------------
+
+    // Horário interpretado do ponto, ou null se não houver (ID inexistente ou horário não reconhecido)
+    HorarioFuncionamento obter(int id) {
+        HorarioFuncionamento[] atual = porId;
+        return id < atual.length ? atual[id] : null;
+    }
+
+    boolean aberto(int id, int faixa) {
+        HorarioFuncionamento h = obter(id);
+        return h != null && h.aberto(faixa);
+    }
+
+    // Conjuntos dos pontos abertos na faixa da semana, um por horário distinto (sem IDs em comum)
+    List<ConjuntoIds> abertos(int faixa) {
+        List<ConjuntoIds> abertos = new ArrayList<>();
+        for (Grupo g : grupos.values()) {
+            if (g.horario().aberto(faixa)) abertos.add(g.ids());
+        }
+        return abertos;
+    }
+
+    int horariosDistintos() {
+        return grupos.size();
+    }
+
+    int naoInterpretados() {
+        return naoInterpretados.quantidade();
+    }
+}
@@ -0,0 +1,262 @@
+package ecoColeta;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+// Índice dos materiais aceitos, sobre o vocabulário controlado (VocabularioMateriais)
+// - Cada material do vocabulário tem o seu mapa de bits de IDs, e a máscara de materiais de cada ponto fica em
+//   um array denso indexado pelo ID: testar se um ponto aceita um material é um E bit a bit, sem texto
+// - Palavras fora do vocabulário (ex: "fluorescentes") ficam em um índice invertido de termos livres
+// As alterações vêm do escritor do RepositorioPontos (uma por vez); as buscas não usam bloqueio
+class IndiceMateriais {
+    private final ConjuntoIds[] porMaterial = new ConjuntoIds[VocabularioMateriais.QUANTIDADE]; // Código -> IDs dos pontos
+    private final Map<String, ConjuntoIds> termos = new ConcurrentHashMap<>(); // Termo livre -> IDs dos pontos que o contêm
+    private final ConjuntoIds indexados = new ConjuntoIds(); // Todos os pontos, para a consulta sem termos
+    private volatile AtomicLongArray mascaras = new AtomicLongArray(1024); // ID -> máscara de materiais do ponto
+
+    IndiceMateriais() {
+        for (int i = 0; i < porMaterial.length; i++) porMaterial[i] = new ConjuntoIds();
+    }
+
+    // Indexa os materiais de um novo ponto
+    void adicionar(PontoColeta p) {
+        indexados.adicionar(p.getId());
+        entrar(p.getId(), p.getMascaraMateriais(), livres(p), 0);
+    }
+
+    // Retira um ponto do índice, descartando termos livres que ficaram sem nenhum ponto
+    void remover(PontoColeta p) {
+        sair(p.getId(), p.getMascaraMateriais(), livres(p), 0, List.of());
+        indexados.remover(p.getId());
+    }
+
+    // Reindexa um ponto após a alteração dos seus materiais; os materiais e termos novos entram antes
+    // de os antigos saírem, para que uma busca concorrente não deixe de encontrar o ponto
+    void atualizar(PontoColeta atual, PontoColeta atualizado) {
+        if (atual.getMateriais().equals(atualizado.getMateriais())) return;
+        List<String> novos = livres(atualizado);
+        entrar(atualizado.getId(), atualizado.getMascaraMateriais(), novos, atual.getMascaraMateriais());
+        sair(atual.getId(), atual.getMascaraMateriais(), livres(atual), atualizado.getMascaraMateriais(), novos);
+    }
+
+    // Termos livres do ponto (só analisa o texto de novo se a máscara indicar que ele tem algum)
+    private static List<String> livres(PontoColeta p) {
+        if ((p.getMascaraMateriais() & VocabularioMateriais.OUTROS) == 0) return List.of();
+        List<String> livres = new ArrayList<>();
+        VocabularioMateriais.classificar(p.getMateriais(), livres);
+        return livres;
+    }
+
+    // Enquanto os materiais antigos não saem, a máscara do ponto tem os antigos e os novos
+    private void entrar(int id, long mascara, List<String> livres, long mascaraAnterior) {
+        AtomicLongArray atual = mascaras;
+        if (id >= atual.length()) {
+            // Cresce antes de o ID entrar nos conjuntos (os mapas das consultas têm o tamanho do array);
+            // leitores que ainda usam o array antigo enxergam o estado anterior
+            AtomicLongArray maior = new AtomicLongArray(Math.max(atual.length() * 2, id + 1));
+            for (int i = 0; i < atual.length(); i++) maior.set(i, atual.get(i));
+            mascaras = atual = maior;
+        }
+        for (long m = mascara & ~VocabularioMateriais.OUTROS; m != 0; m &= m - 1) {
+            porMaterial[Long.numberOfTrailingZeros(m)].adicionar(id);
+        }
+        for (String termo : livres) termos.computeIfAbsent(termo, t -> new ConjuntoIds()).adicionar(id);
+        atual.set(id, mascara | mascaraAnterior);
+    }
+
+    // Tira o ponto dos materiais e termos que não continuam na máscara e nos termos que ficam
+    private void sair(int id, long mascara, List<String> livres, long mascaraFica, List<String> livresFicam) {
+        for (long m = mascara & ~mascaraFica & ~VocabularioMateriais.OUTROS; m != 0; m &= m - 1) {
+            porMaterial[Long.numberOfTrailingZeros(m)].remover(id);
+        }
+        for (String termo : livres) {
+            if (livresFicam.contains(termo)) continue;
+            ConjuntoIds ids = termos.get(termo);
+            if (ids == null) continue;
+            ids.remover(id);
+            if (ids.vazio()) termos.remove(termo);
+        }
+        AtomicLongArray atual = mascaras;
+        if (id < atual.length()) atual.set(id, mascaraFica);
+    }
+
+    // ---------------- Consulta ----------------
+
+    // Retorna os IDs (em ordem crescente) dos pontos que aceitam os materiais buscados
+    BitSet buscar(String material) {
+        return BitSet.valueOf(filtro(material).mapa());
+    }
+
+    // Máscara de materiais do ponto (0 se o ID não estiver no índice)
+    long mascara(int id) {
+        AtomicLongArray atual = mascaras;
+        return id < atual.length() ? atual.get(id) : 0;
+    }
+
+    // Quantos pontos aceitam o material do vocabulário
+    int quantidade(int codigo) {
+        return porMaterial[codigo].quantidade();
+    }
+
+    // Resolve a consulta: cada termo dela precisa aparecer dentro de um sinônimo de um material do ponto
+    // (VocabularioMateriais.casamentos) ou dentro de um dos seus termos livres; palavras como "de" são
+    // ignoradas quando a consulta tem outros termos ("óleo de cozinha")
+    Filtro filtro(String material) {
+        List<String> partes = new ArrayList<>(tokenizar(normalizar(material)));
+        if (partes.size() > 1) {
+            List<String> semIgnoradas = new ArrayList<>(partes);
+            semIgnoradas.removeIf(VocabularioMateriais::ignorada);
+            if (!semIgnoradas.isEmpty()) partes = semIgnoradas;
+        }
+        long[] mascarasPartes = new long[partes.size()];
+        List<List<ConjuntoIds>> livresPartes = new ArrayList<>(partes.size());
+        for (int i = 0; i < partes.size(); i++) {
+            String parte = partes.get(i);
+            mascarasPartes[i] = VocabularioMateriais.casamentos(parte);
+            // Percorre os termos livres distintos (poucos), e não os pontos
+            List<ConjuntoIds> daParte = new ArrayList<>(2);
+            for (Map.Entry<String, ConjuntoIds> e : termos.entrySet()) {
+                if (e.getKey().contains(parte)) daParte.add(e.getValue());
+            }
+            livresPartes.add(daParte);
+        }
+        return new Filtro(mascarasPartes, livresPartes);
+    }
+
+    // Consulta de materiais já resolvida contra o índice: para cada termo da consulta, a máscara dos materiais do
+    // vocabulário e os conjuntos dos termos livres que casam com ele; um ponto passa se casar com todos os termos
+    // (consulta sem termos: qualquer ponto). Os conjuntos são consultados sem cópia
+    final class Filtro {
+        private final long[] mascarasPartes;
+        private final List<List<ConjuntoIds>> livresPartes;
+
+        private Filtro(long[] mascarasPartes, List<List<ConjuntoIds>> livresPartes) {
+            this.mascarasPartes = mascarasPartes;
+            this.livresPartes = livresPartes;
+        }
+
+        // Limite superior de quantos pontos passam: a menor soma dos tamanhos dos conjuntos de um termo
+        int estimativa() {
+            if (mascarasPartes.length == 0) return indexados.quantidade();
+            int estimativa = Integer.MAX_VALUE;
+            for (int i = 0; i < mascarasPartes.length; i++) {
+                int daParte = 0;
+                for (long m = mascarasPartes[i]; m != 0; m &= m - 1) daParte += porMaterial[Long.numberOfTrailingZeros(m)].quantidade();
+                for (ConjuntoIds c : livresPartes.get(i)) daParte += c.quantidade();
+                estimativa = Math.min(estimativa, daParte);
+            }
+            return estimativa;
+        }
+
+        // Teste de um ponto: uma leitura do array de máscaras (e os termos livres, se houver)
+        boolean aceita(int id) {
+            if (mascarasPartes.length == 0) return indexados.contem(id);
+            long mascara = mascara(id);
+            for (int i = 0; i < mascarasPartes.length; i++) {
+                if ((mascara & mascarasPartes[i]) != 0) continue;
+                if (!contidoEmAlgum(livresPartes.get(i), id)) return false;
+            }
+            return true;
+        }
+
+        // Percorre os IDs que passam, cada um uma vez (sem ordem garantida); com um só termo, direto nos conjuntos
+        // do índice, descartando os já vistos pela máscara do ponto em vez de consultar os conjuntos anteriores
+        void paraCada(IntConsumer acao) {
+            if (mascarasPartes.length == 0) {
+                indexados.paraCada(acao);
+                return;
+            }
+            if (mascarasPartes.length > 1) {
+                long[] mapa = mapa();
+                for (int i = 0; i < mapa.length; i++) {
+                    for (long palavra = mapa[i]; palavra != 0; palavra &= palavra - 1) acao.accept((i << 6) + Long.numberOfTrailingZeros(palavra));
+                }
+                return;
+            }
+            long vistos = 0;
+            for (long m = mascarasPartes[0]; m != 0; m &= m - 1) {
+                long anteriores = vistos;
+                porMaterial[Long.numberOfTrailingZeros(m)].paraCada(id -> {
+                    if ((mascara(id) & anteriores) == 0) acao.accept(id);
+                });
+                vistos |= m & -m;
+            }
+            List<ConjuntoIds> livres = livresPartes.get(0);
+            long dosMateriais = vistos;
+            for (int i = 0; i < livres.size(); i++) {
+                List<ConjuntoIds> anteriores = livres.subList(0, i);
+                livres.get(i).paraCada(id -> {
+                    if ((mascara(id) & dosMateriais) == 0 && !contidoEmAlgum(anteriores, id)) acao.accept(id);
+                });
+            }
+        }
+
+        // Mapa de bits (palavras de 64 IDs) dos pontos que passam, montado palavra a palavra a partir dos conjuntos
+        long[] mapa() {
+            long[] resultado = new long[(mascaras.length() + 63) >>> 6];
+            if (mascarasPartes.length == 0) {
+                indexados.adicionarEm(resultado);
+                return resultado;
+            }
+            long[] daParte = mascarasPartes.length > 1 ? new long[resultado.length] : resultado;
+            for (int i = 0; i < mascarasPartes.length; i++) {
+                long[] destino = i == 0 ? resultado : daParte;
+                if (i > 0) Arrays.fill(daParte, 0);
+                for (long m = mascarasPartes[i]; m != 0; m &= m - 1) porMaterial[Long.numberOfTrailingZeros(m)].adicionarEm(destino);
+                for (ConjuntoIds c : livresPartes.get(i)) c.adicionarEm(destino);
+                if (i > 0) for (int j = 0; j < resultado.length; j++) resultado[j] &= daParte[j];
+            }
+            return resultado;
+        }
+    }
+
+    private static boolean contidoEmAlgum(List<ConjuntoIds> conjuntos, int id) {
+        for (ConjuntoIds c : conjuntos) if (c.contem(id)) return true;
+        return false;
+    }
+
+    // Tabela de normalização dos caracteres Latin-1 (ASCII e acentuados do português), montada uma vez
+    private static final char[] LATIN1 = new char[256];
+    static {
+        for (char c = 0; c < 256; c++) {
+            String decomposto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            String minusculo = decomposto.toLowerCase(Locale.ROOT);
+            LATIN1[c] = minusculo.length() == 1 ? minusculo.charAt(0) : c;
+        }
+    }
+
+    // Converte para minúsculas e remove acentos (ex: "Plástico" -> "plastico")
+    static String normalizar(String texto) {
+        char[] resultado = new char[texto.length()];
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 256) return normalizarCompleto(texto); // Fora do Latin-1: caminho geral
+            resultado[i] = LATIN1[c];
+        }
+        return new String(resultado);
+    }
+
+    private static String normalizarCompleto(String texto) {
+        String semAcento = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcento.toLowerCase(Locale.ROOT);
+    }
+
+    // Separa o texto normalizado em termos compostos apenas de letras e números
+    static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= texto.length(); i++) {
+            boolean letra = i < texto.length() && Character.isLetterOrDigit(texto.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                tokens.add(texto.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+}
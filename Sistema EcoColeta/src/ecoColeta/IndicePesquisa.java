@@ -0,0 +1,390 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+// Índice da pesquisa livre (PESQUISAR) sobre o endereço e os materiais dos pontos, tolerante a erros de digitação
+// - Cada palavra distinta do catálogo (normalizada) tem um código e a lista dos pontos que a contêm (ListaIds);
+//   os materiais também entram pelo nome do vocabulário ("PET" -> "plastico")
+// - Um índice de trigramas sobre as palavras distintas (poucas, mesmo com milhões de pontos) encontra as
+//   palavras parecidas com cada termo da consulta: com o mesmo início ou a até 1 ou 2 edições de distância
+// - Os pontos são pontuados pela soma, para cada termo, do peso do casamento (exato, prefixo, aproximado)
+//   vezes a raridade da palavra (idf); os k melhores saem de um heap de tamanho k
+// - Palavras muito comuns (ex: "rua", "papel") não geram candidatos quando a consulta tem palavras mais raras:
+//   só somam pontos aos candidatos das demais, sem percorrer as suas listas
+// Como nos outros índices, as alterações vêm de um único escritor por vez e as consultas não bloqueiam
+class IndicePesquisa {
+    private static final double PESO_PREFIXO = 0.7;
+    private static final double[] PESO_EDICOES = {1.0, 0.6, 0.4}; // Por distância de edição
+    private static final int MAXIMO_PALAVRAS_POR_TERMO = 64; // As mais parecidas com o termo
+    private static final int FRACAO_COMUM = 16; // Palavra em mais de 1/16 dos pontos: comum
+
+    // Resultado da pesquisa: quantos pontos casaram e os IDs dos melhores, do mais ao menos relevante
+    record Resultado(int total, int[] ids) {}
+
+    private final Map<String, Integer> codigos = new ConcurrentHashMap<>(); // Palavra -> código
+    private volatile String[] palavras = new String[1024];                  // Código -> palavra
+    private volatile ListaIds[] pontosDaPalavra = new ListaIds[1024];       // Código -> IDs dos pontos
+    private final Map<String, ListaIds> trigramas = new ConcurrentHashMap<>(); // Trigrama -> códigos das palavras
+    private int proximoCodigo = 0;         // Só acessado pelo escritor
+    private volatile int indexados = 0;
+    private volatile int maiorId = 0;      // Limite dos mapas de bits locais das consultas
+
+    // ---------------- Escrita (um escritor por vez) ----------------
+
+    void adicionar(PontoColeta p) {
+        for (String palavra : palavrasDoPonto(p)) entrar(palavra, p.getId());
+        if (p.getId() > maiorId) maiorId = p.getId();
+        indexados++;
+    }
+
+    void remover(PontoColeta p) {
+        for (String palavra : palavrasDoPonto(p)) sair(palavra, p.getId());
+        indexados--;
+    }
+
+    // As palavras novas entram antes de as antigas saírem, para que uma pesquisa concorrente não perca o ponto
+    void atualizar(PontoColeta atual, PontoColeta atualizado) {
+        if (atual.getEndereco().equals(atualizado.getEndereco()) && atual.getMateriais().equals(atualizado.getMateriais())) return;
+        Set<String> novas = palavrasDoPonto(atualizado);
+        for (String palavra : novas) entrar(palavra, atualizado.getId());
+        for (String palavra : palavrasDoPonto(atual)) {
+            if (!novas.contains(palavra)) sair(palavra, atual.getId());
+        }
+    }
+
+    private void entrar(String palavra, int id) {
+        int codigo = codigo(palavra); // Antes de ler o array: pode crescer ao criar a palavra
+        pontosDaPalavra[codigo].adicionar(id);
+    }
+
+    // Palavras sem pontos continuam no dicionário (e nos trigramas): o vocabulário de endereços é limitado
+    private void sair(String palavra, int id) {
+        Integer codigo = codigos.get(palavra);
+        if (codigo != null) pontosDaPalavra[codigo].remover(id);
+    }
+
+    // Código da palavra, criando-a no dicionário e nos trigramas se for nova; a palavra é publicada no mapa
+    // só depois dos arrays, e entra nos trigramas depois de publicada
+    private int codigo(String palavra) {
+        Integer existente = codigos.get(palavra);
+        if (existente != null) return existente;
+        int codigo = proximoCodigo++;
+        if (codigo >= palavras.length) {
+            String[] maiorPalavras = new String[palavras.length * 2];
+            ListaIds[] maiorListas = new ListaIds[palavras.length * 2];
+            System.arraycopy(palavras, 0, maiorPalavras, 0, palavras.length);
+            System.arraycopy(pontosDaPalavra, 0, maiorListas, 0, pontosDaPalavra.length);
+            palavras = maiorPalavras;
+            pontosDaPalavra = maiorListas;
+        }
+        palavras[codigo] = palavra;
+        pontosDaPalavra[codigo] = new ListaIds();
+        codigos.put(palavra, codigo);
+        if (!numero(palavra)) { // Números só casam exatamente: não precisam dos trigramas
+            for (String trigrama : trigramas(palavra)) trigramas.computeIfAbsent(trigrama, _ -> new ListaIds()).adicionar(codigo);
+        }
+        return codigo;
+    }
+
+    // Palavras normalizadas do endereço e dos materiais, mais os nomes no vocabulário dos materiais reconhecidos
+    private static Set<String> palavrasDoPonto(PontoColeta p) {
+        Set<String> resultado = new LinkedHashSet<>(IndiceMateriais.tokenizar(IndiceMateriais.normalizar(p.getEndereco() + " " + p.getMateriais())));
+        for (long m = p.getMascaraMateriais() & ~VocabularioMateriais.OUTROS; m != 0; m &= m - 1) {
+            resultado.addAll(IndiceMateriais.tokenizar(IndiceMateriais.normalizar(VocabularioMateriais.nome(Long.numberOfTrailingZeros(m)))));
+        }
+        return resultado;
+    }
+
+    private static boolean numero(String palavra) {
+        for (int i = 0; i < palavra.length(); i++) if (!Character.isDigit(palavra.charAt(i))) return false;
+        return true;
+    }
+
+    // Trigramas da palavra com uma marca de início e fim ("rua" -> "^ru", "rua", "ua$")
+    private static List<String> trigramas(String palavra) {
+        String marcada = "^" + palavra + "$";
+        List<String> resultado = new ArrayList<>(marcada.length() - 2);
+        for (int i = 0; i + 3 <= marcada.length(); i++) resultado.add(marcada.substring(i, i + 3));
+        return resultado;
+    }
+
+    // ---------------- Consulta ----------------
+
+    // Uma palavra do dicionário que casa com um termo da consulta e o seu peso (casamento x raridade)
+    private record Casamento(ListaIds pontos, double peso) {}
+
+    // Os 'inicio + limite' pontos mais relevantes para o texto; devolve os IDs a partir de 'inicio'
+    // - Se algum termo casar com palavras raras, os candidatos são os pontos dessas palavras, e as palavras
+    //   comuns só somam pontos a eles
+    // - Se todos os termos casarem só com palavras comuns ("rua papel"), os candidatos são os pontos que têm
+    //   todos os termos, cruzados palavra a palavra em mapas de bits, na ordem dos IDs
+    Resultado pesquisar(String texto, int inicio, int limite) {
+        int catalogo = Math.max(1, indexados);
+        List<String> termos = new ArrayList<>(new LinkedHashSet<>(IndiceMateriais.tokenizar(IndiceMateriais.normalizar(texto))));
+        List<List<Casamento>> raros = new ArrayList<>();
+        List<List<Casamento>> comuns = new ArrayList<>();
+        int candidatosRaros = 0;
+        for (String termo : termos) {
+            List<Casamento> casamentos = casamentos(termo, catalogo);
+            if (casamentos.isEmpty()) continue;
+            int pontos = 0;
+            for (Casamento c : casamentos) pontos += c.pontos().quantidade();
+            if (pontos * (long) FRACAO_COMUM <= catalogo) {
+                raros.add(casamentos);
+                candidatosRaros += pontos;
+            } else {
+                comuns.add(casamentos);
+            }
+        }
+        if (raros.isEmpty()) return comuns.isEmpty() ? new Resultado(0, new int[0]) : todosOsTermos(comuns, inicio, limite);
+
+        Pontuacao pontuacao = new Pontuacao(candidatosRaros);
+        for (List<Casamento> termo : raros) {
+            for (Casamento c : termo) c.pontos().paraCada(id -> pontuacao.somar(id, c.peso()));
+        }
+        if (!comuns.isEmpty()) {
+            pontuacao.paraCada((id, _) -> {
+                for (List<Casamento> termo : comuns) {
+                    for (Casamento c : termo) if (c.pontos().contem(id)) pontuacao.somar(id, c.peso());
+                }
+            });
+        }
+        Melhores melhores = new Melhores(inicio + limite);
+        pontuacao.paraCada(melhores::oferecer);
+        return new Resultado(pontuacao.quantidade(), melhores.aPartirDe(inicio));
+    }
+
+    // Termos só com palavras comuns: pontos que casam com todos eles, em ordem de ID
+    private Resultado todosOsTermos(List<List<Casamento>> termos, int inicio, int limite) {
+        int tamanho = (maiorId >>> 6) + 1;
+        long[] resultado = null;
+        for (List<Casamento> termo : termos) {
+            long[] doTermo = new long[tamanho];
+            for (Casamento c : termo) c.pontos().adicionarEm(doTermo);
+            if (resultado == null) resultado = doTermo;
+            else for (int i = 0; i < tamanho; i++) resultado[i] &= doTermo[i];
+        }
+        int total = 0;
+        for (long palavra : resultado) total += Long.bitCount(palavra);
+        int[] ids = new int[Math.max(0, Math.min(limite, total - inicio))];
+        int posicao = 0, n = 0;
+        for (int i = 0; i < tamanho && n < ids.length; i++) {
+            for (long palavra = resultado[i]; palavra != 0 && n < ids.length; palavra &= palavra - 1) {
+                if (posicao++ >= inicio) ids[n++] = (i << 6) + Long.numberOfTrailingZeros(palavra);
+            }
+        }
+        return new Resultado(total, ids);
+    }
+
+    // Palavras do dicionário que casam com o termo: a própria palavra, as que começam com ele (3 letras ou mais)
+    // e as que estão a até 1 (4 a 7 letras) ou 2 edições (8 ou mais) dele; números só casam exatamente
+    private List<Casamento> casamentos(String termo, int catalogo) {
+        Map<Integer, Double> pesos = new HashMap<>();
+        Integer exato = codigos.get(termo);
+        if (exato != null) pesos.put(exato, 1.0);
+        boolean numero = numero(termo);
+        int edicoes = numero || termo.length() < 4 ? 0 : termo.length() < 8 ? 1 : 2;
+        if (!numero && termo.length() >= 3) {
+            // Candidatas pelos trigramas em comum: uma edição muda no máximo 3 trigramas, e uma palavra que
+            // começa com o termo tem todos os trigramas dele menos o do fim
+            List<String> doTermo = trigramas(termo);
+            int minimoPrefixo = doTermo.size() - 1;
+            int minimoEdicao = Math.max(1, doTermo.size() - 3 * edicoes);
+            String[] dicionario = palavras;
+            Contagem emComum = new Contagem(dicionario.length); // Cabe no dicionário lido: os trigramas vêm depois
+            for (String trigrama : doTermo) {
+                ListaIds lista = trigramas.get(trigrama);
+                if (lista != null) lista.paraCada(emComum);
+            }
+            for (int i = 0; i < emComum.quantidade; i++) {
+                int codigo = emComum.tocadas[i];
+                int comuns = emComum.porCodigo[codigo];
+                String palavra = dicionario[codigo];
+                if (palavra == null || palavra.equals(termo)) continue;
+                double peso = 0;
+                if (comuns >= minimoPrefixo && palavra.startsWith(termo)) peso = PESO_PREFIXO;
+                if (edicoes > 0 && comuns >= minimoEdicao && Math.abs(palavra.length() - termo.length()) <= edicoes) {
+                    int distancia = distancia(termo, palavra, edicoes);
+                    if (distancia <= edicoes) peso = Math.max(peso, PESO_EDICOES[distancia]);
+                }
+                if (peso > 0) pesos.put(codigo, peso);
+            }
+        }
+        ListaIds[] listas = pontosDaPalavra;
+        List<Casamento> casamentos = new ArrayList<>(pesos.size());
+        for (Map.Entry<Integer, Double> e : pesos.entrySet()) {
+            ListaIds pontos = listas[e.getKey()];
+            int quantidade = pontos.quantidade();
+            if (quantidade == 0) continue;
+            casamentos.add(new Casamento(pontos, e.getValue() * Math.log(1 + (double) catalogo / quantidade))); // idf
+        }
+        if (casamentos.size() > MAXIMO_PALAVRAS_POR_TERMO) {
+            casamentos.sort((a, b) -> Double.compare(b.peso(), a.peso()));
+            casamentos = new ArrayList<>(casamentos.subList(0, MAXIMO_PALAVRAS_POR_TERMO));
+        }
+        return casamentos;
+    }
+
+    // Trigramas em comum com o termo, por código de palavra, e as palavras com pelo menos um
+    private static final class Contagem implements IntConsumer {
+        final int[] porCodigo;
+        int[] tocadas = new int[64];
+        int quantidade = 0;
+
+        Contagem(int palavras) {
+            porCodigo = new int[palavras];
+        }
+
+        @Override
+        public void accept(int codigo) {
+            if (codigo >= porCodigo.length || porCodigo[codigo]++ > 0) return;
+            if (quantidade == tocadas.length) tocadas = Arrays.copyOf(tocadas, quantidade * 2);
+            tocadas[quantidade++] = codigo;
+        }
+    }
+
+    // Distância de edição (Levenshtein) entre a e b, ou maximo + 1 se passar de maximo; só calcula a faixa
+    // da matriz a até 'maximo' da diagonal e para quando uma linha inteira já passou do limite
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) return maximo + 1;
+        int acima = maximo + 1; // Qualquer valor acima do limite vale o mesmo
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) anterior[j] = Math.min(j, acima);
+        for (int i = 1; i <= a.length(); i++) {
+            Arrays.fill(atual, acima);
+            atual[0] = Math.min(i, acima);
+            int menor = atual[0];
+            for (int j = Math.max(1, i - maximo); j <= Math.min(b.length(), i + maximo); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                atual[j] = Math.min(acima, Math.min(anterior[j - 1] + custo, Math.min(anterior[j], atual[j - 1]) + 1));
+                menor = Math.min(menor, atual[j]);
+            }
+            if (menor > maximo) return acima;
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[b.length()];
+    }
+
+    // Pontuação acumulada por ID em uma tabela de endereçamento aberto, do tamanho dos candidatos
+    // (um array do tamanho do catálogo por consulta custaria mais que a própria pesquisa)
+    private static final class Pontuacao {
+        interface Visitante {
+            void visitar(int id, double pontos);
+        }
+
+        private final int[] ids;
+        private final double[] pontos;
+        private final int mascara;
+        private int quantidade = 0;
+
+        Pontuacao(int estimativa) {
+            int capacidade = Integer.highestOneBit(Math.max(16, estimativa * 2 - 1)) << 1;
+            ids = new int[capacidade];
+            pontos = new double[capacidade];
+            mascara = capacidade - 1;
+        }
+
+        void somar(int id, double valor) {
+            int i = (id * 0x9E3779B9) >>> 1 & mascara;
+            while (ids[i] != 0 && ids[i] != id) i = (i + 1) & mascara; // ID 0 não existe: marca posição livre
+            if (ids[i] == 0) {
+                if (quantidade == mascara) return; // Cheia: só se a estimativa estiver errada (lista alterada no meio)
+                ids[i] = id;
+                quantidade++;
+            }
+            pontos[i] += valor;
+        }
+
+        void paraCada(Visitante visitante) {
+            for (int i = 0; i < ids.length; i++) if (ids[i] != 0) visitante.visitar(ids[i], pontos[i]);
+        }
+
+        int quantidade() {
+            return quantidade;
+        }
+    }
+
+    // Os k pontos de maior pontuação (empate: menor ID primeiro), em um heap cuja raiz é o pior dos k
+    private static final class Melhores {
+        private final int[] ids;
+        private final double[] pontos;
+        private int tamanho = 0;
+
+        Melhores(int k) {
+            ids = new int[k];
+            pontos = new double[k];
+        }
+
+        void oferecer(int id, double valor) {
+            if (ids.length == 0) return;
+            if (tamanho < ids.length) {
+                ids[tamanho] = id;
+                pontos[tamanho] = valor;
+                subir(tamanho++);
+            } else if (pior(ids[0], pontos[0], id, valor)) {
+                ids[0] = id;
+                pontos[0] = valor;
+                descer(0);
+            }
+        }
+
+        // Os IDs do melhor ao pior, a partir da posição 'inicio'
+        int[] aPartirDe(int inicio) {
+            int n = tamanho;
+            int[] ordenados = new int[n];
+            for (int i = n - 1; i >= 0; i--) { // Retira o pior de cada vez
+                ordenados[i] = ids[0];
+                tamanho--;
+                ids[0] = ids[tamanho];
+                pontos[0] = pontos[tamanho];
+                descer(0);
+            }
+            return inicio >= n ? new int[0] : Arrays.copyOfRange(ordenados, inicio, n);
+        }
+
+        // a é pior que b
+        private static boolean pior(int idA, double a, int idB, double b) {
+            return a < b || a == b && idA > idB;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int pai = (i - 1) / 2;
+                if (!pior(ids[i], pontos[i], ids[pai], pontos[pai])) return;
+                trocar(i, pai);
+                i = pai;
+            }
+        }
+
+        private void descer(int i) {
+            while (true) {
+                int menor = i, esquerda = 2 * i + 1, direita = esquerda + 1;
+                if (esquerda < tamanho && pior(ids[esquerda], pontos[esquerda], ids[menor], pontos[menor])) menor = esquerda;
+                if (direita < tamanho && pior(ids[direita], pontos[direita], ids[menor], pontos[menor])) menor = direita;
+                if (menor == i) return;
+                trocar(i, menor);
+                i = menor;
+            }
+        }
+
+        private void trocar(int i, int j) {
+            int id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            double p = pontos[i];
+            pontos[i] = pontos[j];
+            pontos[j] = p;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Sugestões enquanto o usuário digita (SUGERIR): logradouros e materiais do catálogo, em ordem de quantos pontos
+// os têm, cada tipo em uma TrieSugestoes
+// - Logradouro: o começo do endereço, até a primeira ',' ou ' - ' e sem o número ("Rua Barão de Jaguara, 120 -
+//   Centro" -> "Rua Barão de Jaguara"); entra na árvore também a partir de cada palavra significativa,
+//   então "jag" sugere "Rua Barão de Jaguara"
+// - Material: o nome no vocabulário, também a partir dos sinônimos ("pet" e "lata" sugerem plástico e metal)
+// Como nos outros índices, as alterações vêm de um único escritor por vez e as consultas não bloqueiam
+class IndiceSugestoes {
+    enum Tipo { ENDERECO, MATERIAL }
+
+    record Sugestao(Tipo tipo, String texto, int pontos) {}
+
+    private static final int MENOR_PALAVRA = 3; // Palavras menores ("de", "n") não começam chaves
+    private static final Set<String> MARCAS_NUMERO = Set.of("n", "n.", "nº", "n°", "no", "num", "número", "numero");
+
+    private final TrieSugestoes logradouros = new TrieSugestoes();
+    private final TrieSugestoes materiais = new TrieSugestoes();
+    // Chave normalizada do logradouro -> sugestão (texto do primeiro ponto com essa chave e quantidade de pontos)
+    private final Map<String, TrieSugestoes.Sugestao> porLogradouro = new HashMap<>(); // Só acessado pelo escritor
+    private final TrieSugestoes.Sugestao[] porMaterial = new TrieSugestoes.Sugestao[VocabularioMateriais.QUANTIDADE];
+    private final List<List<String>> chavesDoMaterial = new ArrayList<>();
+
+    // Os materiais do vocabulário ficam sempre na árvore; os sem pontos (peso 0) não são sugeridos
+    IndiceSugestoes() {
+        for (int codigo = 0; codigo < VocabularioMateriais.QUANTIDADE; codigo++) {
+            porMaterial[codigo] = new TrieSugestoes.Sugestao(VocabularioMateriais.nome(codigo), 0);
+            List<String> chaves = chavesDoTexto(chave(VocabularioMateriais.nome(codigo)));
+            chaves.addAll(VocabularioMateriais.sinonimos(codigo));
+            for (String c : chaves) materiais.colocar(c, porMaterial[codigo]);
+            chavesDoMaterial.add(chaves);
+        }
+    }
+
+    // ---------------- Escrita (um escritor por vez) ----------------
+
+    void adicionar(PontoColeta p) {
+        alterarLogradouro(p.getEndereco(), 1);
+        alterarMateriais(p.getMascaraMateriais(), 1);
+    }
+
+    void remover(PontoColeta p) {
+        alterarLogradouro(p.getEndereco(), -1);
+        alterarMateriais(p.getMascaraMateriais(), -1);
+    }
+
+    void atualizar(PontoColeta atual, PontoColeta atualizado) {
+        if (!chave(logradouro(atual.getEndereco())).equals(chave(logradouro(atualizado.getEndereco())))) {
+            alterarLogradouro(atualizado.getEndereco(), 1);
+            alterarLogradouro(atual.getEndereco(), -1);
+        }
+        long antes = atual.getMascaraMateriais();
+        long depois = atualizado.getMascaraMateriais();
+        alterarMateriais(depois & ~antes, 1);
+        alterarMateriais(antes & ~depois, -1);
+    }
+
+    // Só um logradouro novo ou que ficou sem pontos muda a estrutura da árvore; os demais só mudam de peso
+    private void alterarLogradouro(String endereco, int diferenca) {
+        String texto = logradouro(endereco);
+        String chave = chave(texto);
+        if (chave.isEmpty()) return;
+        TrieSugestoes.Sugestao s = porLogradouro.get(chave);
+        if (s == null) {
+            if (diferenca < 0) return;
+            s = new TrieSugestoes.Sugestao(texto, diferenca);
+            porLogradouro.put(chave, s);
+            for (String c : chavesDoTexto(chave)) logradouros.colocar(c, s);
+            return;
+        }
+        if (logradouros.alterar(s, diferenca)) {
+            for (String c : chavesDoTexto(chave)) logradouros.aumentar(c, s);
+        } else if (s.peso == 0) {
+            porLogradouro.remove(chave);
+            for (String c : chavesDoTexto(chave)) logradouros.tirar(c, s);
+        }
+    }
+
+    private void alterarMateriais(long mascara, int diferenca) {
+        for (long m = mascara & ~VocabularioMateriais.OUTROS; m != 0; m &= m - 1) {
+            int codigo = Long.numberOfTrailingZeros(m);
+            TrieSugestoes.Sugestao s = porMaterial[codigo];
+            if (materiais.alterar(s, diferenca)) {
+                for (String c : chavesDoMaterial.get(codigo)) materiais.aumentar(c, s);
+            }
+        }
+    }
+
+    // ---------------- Consulta ----------------
+
+    // As até n sugestões com mais pontos para o prefixo digitado, do tipo pedido (null: os dois)
+    List<Sugestao> sugerir(String prefixo, int n, Tipo tipo) {
+        String chave = chave(prefixo);
+        if (chave.isEmpty() || n <= 0) return List.of();
+        List<Sugestao> resultado = new ArrayList<>(n);
+        if (tipo != Tipo.ENDERECO) {
+            for (TrieSugestoes.Sugestao s : materiais.sugerir(chave, n)) resultado.add(new Sugestao(Tipo.MATERIAL, s.texto, s.peso));
+        }
+        if (tipo != Tipo.MATERIAL) {
+            for (TrieSugestoes.Sugestao s : logradouros.sugerir(chave, n)) resultado.add(new Sugestao(Tipo.ENDERECO, s.texto, s.peso));
+        }
+        resultado.sort((a, b) -> Integer.compare(b.pontos(), a.pontos())); // Estável: empate, materiais primeiro
+        return resultado.size() > n ? resultado.subList(0, n) : resultado;
+    }
+
+    // Começo do endereço, até a primeira ',', ' - ' ou '/', sem o número do imóvel no fim
+    static String logradouro(String endereco) {
+        int fim = endereco.length();
+        for (String separador : new String[] {",", " - ", "/"}) {
+            int i = endereco.indexOf(separador);
+            if (i >= 0 && i < fim) fim = i;
+        }
+        String parte = endereco.substring(0, fim).trim();
+        // Retira "120", "nº 120", "n. 120" do fim, deixando ao menos duas palavras ("Rua 7" fica)
+        int espaco = parte.lastIndexOf(' ');
+        if (espaco < 0 || !numero(parte, espaco + 1)) return parte;
+        String semNumero = parte.substring(0, espaco).stripTrailing();
+        int palavras = semNumero.split(" +").length;
+        if (palavras < 2) return parte;
+        int anterior = semNumero.lastIndexOf(' ');
+        if (palavras > 2 && MARCAS_NUMERO.contains(semNumero.substring(anterior + 1).toLowerCase(Locale.ROOT))) {
+            semNumero = semNumero.substring(0, anterior).stripTrailing();
+        }
+        return semNumero;
+    }
+
+    private static boolean numero(String texto, int inicio) {
+        for (int i = inicio; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (!Character.isDigit(c) && c != '.') return false;
+        }
+        return inicio < texto.length();
+    }
+
+    // Chave da árvore: palavras normalizadas separadas por um espaço
+    // (as palavras de IndiceMateriais.tokenizar, montadas em uma passada)
+    private static String chave(String texto) {
+        String normalizado = IndiceMateriais.normalizar(texto);
+        StringBuilder chave = new StringBuilder(normalizado.length());
+        boolean separar = false;
+        for (int i = 0; i < normalizado.length(); i++) {
+            char c = normalizado.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                separar = chave.length() > 0;
+                continue;
+            }
+            if (separar) chave.append(' ');
+            chave.append(c);
+            separar = false;
+        }
+        return chave.toString();
+    }
+
+    // A chave inteira e os trechos dela que começam em cada palavra significativa seguinte
+    private static List<String> chavesDoTexto(String chave) {
+        List<String> resultado = new ArrayList<>();
+        if (chave.isEmpty()) return resultado;
+        resultado.add(chave);
+        for (int i = chave.indexOf(' '); i >= 0; i = chave.indexOf(' ', i + 1)) {
+            int fimPalavra = chave.indexOf(' ', i + 1);
+            int tamanho = (fimPalavra < 0 ? chave.length() : fimPalavra) - i - 1;
+            if (tamanho >= MENOR_PALAVRA && !Character.isDigit(chave.charAt(i + 1))) resultado.add(chave.substring(i + 1));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,76 @@
+package ecoColeta;
+
+// Linha de comando do protocolo de texto separada em campos por ';', guardados como posições na linha
+// Substitui o String.split de cada comando (array, substrings e expressão regular): os números são lidos
+// direto da linha e só os campos de texto usados viram String
+// Cada conexão tem a sua, reaproveitada a cada comando (não é segura para uso por várias threads)
+class LinhaComando {
+    private String linha = "";
+    private int fimNome;                 // Fim do nome do comando (primeiro ';' ou fim da linha)
+    private int[] inicios = new int[8];
+    private int[] fins = new int[8];
+    private int quantidade;
+
+    // Passa a trabalhar com a linha recebida; os campos só são separados por separar()
+    void ler(String linha) {
+        this.linha = linha;
+        int separador = linha.indexOf(';');
+        fimNome = separador < 0 ? linha.length() : separador;
+        quantidade = 0;
+    }
+
+    String linha() {
+        return linha;
+    }
+
+    int fimNome() {
+        return fimNome;
+    }
+
+    boolean temArgumentos() {
+        return fimNome < linha.length();
+    }
+
+    // Separa a linha como linha.split(";", limite): no máximo limite campos (o nome do comando é o campo 0)
+    // e o último fica com o restante da linha, inclusive outros ';'; retorna a quantidade de campos
+    int separar(int limite) {
+        if (inicios.length < limite) {
+            inicios = new int[limite];
+            fins = new int[limite];
+        }
+        quantidade = 0;
+        int inicio = 0;
+        while (quantidade < limite - 1) {
+            int separador = linha.indexOf(';', inicio);
+            if (separador < 0) break;
+            inicios[quantidade] = inicio;
+            fins[quantidade++] = separador;
+            inicio = separador + 1;
+        }
+        inicios[quantidade] = inicio;
+        fins[quantidade++] = linha.length();
+        return quantidade;
+    }
+
+    int quantidade() {
+        return quantidade;
+    }
+
+    String texto(int campo) {
+        return linha.substring(inicios[campo], fins[campo]);
+    }
+
+    // Número inteiro do campo, ignorando espaços nas pontas (como Integer.parseInt(campo.trim()))
+    int inteiro(int campo) {
+        int inicio = inicios[campo];
+        int fim = fins[campo];
+        while (inicio < fim && linha.charAt(inicio) <= ' ') inicio++;
+        while (fim > inicio && linha.charAt(fim - 1) <= ' ') fim--;
+        return Integer.parseInt(linha, inicio, fim, 10);
+    }
+
+    // Número decimal do campo (ponto como separador decimal), ignorando espaços nas pontas
+    double decimal(int campo) {
+        return Double.parseDouble(linha.substring(inicios[campo], fins[campo]).trim());
+    }
+}
@@ -0,0 +1,106 @@
+package ecoColeta;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Lista de IDs em ordem crescente que pode ser lida por várias threads sem bloqueio, para índices com muitas
+// listas pequenas (ex: uma por palavra), onde um ConjuntoIds por lista gastaria um mapa de bits do tamanho do catálogo
+// - Enquanto é esparsa, fica em um array ordenado; os IDs novos são os maiores, então quase sempre só acrescenta
+//   no fim (em uma posição que nenhum leitor ainda enxerga) e publica o novo tamanho
+// - Quando o array passaria a ocupar mais que um mapa de bits até o maior ID, vira um ConjuntoIds
+// As alterações devem vir de um único escritor por vez, como no ConjuntoIds
+class ListaIds {
+    private record Ordenados(int[] ids, int tamanho) {}
+
+    private volatile Ordenados ordenados = new Ordenados(new int[2], 0); // Nulo depois de virar mapa de bits
+    private volatile ConjuntoIds mapa;
+    private int quantidade = 0; // Só acessado pelo escritor
+
+    void adicionar(int id) {
+        Ordenados atual = ordenados;
+        if (atual == null) {
+            if (!mapa.contem(id)) quantidade++;
+            mapa.adicionar(id);
+            return;
+        }
+        int[] ids = atual.ids();
+        int n = atual.tamanho();
+        if (n > 0 && ids[n - 1] >= id) {
+            // Fora de ordem (ex: um ponto antigo que mudou de endereço): insere em uma cópia
+            int posicao = Arrays.binarySearch(ids, 0, n, id);
+            if (posicao >= 0) return;
+            posicao = -posicao - 1;
+            int[] copia = new int[Math.max(ids.length, n + 1)];
+            System.arraycopy(ids, 0, copia, 0, posicao);
+            copia[posicao] = id;
+            System.arraycopy(ids, posicao, copia, posicao + 1, n - posicao);
+            ordenados = new Ordenados(copia, n + 1);
+        } else if (n >= 64 && (n + 1) * 32L > ids[n - 1]) {
+            // Denso: 4 bytes por ID passam de 1 bit por ID até o maior
+            ConjuntoIds conjunto = new ConjuntoIds();
+            for (int i = 0; i < n; i++) conjunto.adicionar(ids[i]);
+            conjunto.adicionar(id);
+            mapa = conjunto; // Publicado antes de o array sair: quem não vê o array encontra o mapa
+            ordenados = null;
+        } else {
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n] = id;
+            ordenados = new Ordenados(ids, n + 1);
+        }
+        quantidade++;
+    }
+
+    void remover(int id) {
+        Ordenados atual = ordenados;
+        if (atual == null) {
+            if (!mapa.contem(id)) return;
+            mapa.remover(id);
+            quantidade--;
+            return;
+        }
+        int n = atual.tamanho();
+        int posicao = Arrays.binarySearch(atual.ids(), 0, n, id);
+        if (posicao < 0) return;
+        int[] copia = new int[atual.ids().length]; // Cópia: leitores do array atual não veem os IDs se deslocando
+        System.arraycopy(atual.ids(), 0, copia, 0, posicao);
+        System.arraycopy(atual.ids(), posicao + 1, copia, posicao, n - posicao - 1);
+        ordenados = new Ordenados(copia, n - 1);
+        quantidade--;
+    }
+
+    // Quantidade de IDs; lida fora do escritor é só uma estimativa (pode estar atrasada)
+    int quantidade() {
+        return quantidade;
+    }
+
+    boolean contem(int id) {
+        Ordenados atual = ordenados;
+        if (atual == null) return mapa.contem(id);
+        return Arrays.binarySearch(atual.ids(), 0, atual.tamanho(), id) >= 0;
+    }
+
+    // Percorre os IDs em ordem crescente
+    void paraCada(IntConsumer acao) {
+        Ordenados atual = ordenados;
+        if (atual == null) {
+            mapa.paraCada(acao);
+            return;
+        }
+        int[] ids = atual.ids();
+        for (int i = 0; i < atual.tamanho(); i++) acao.accept(ids[i]);
+    }
+
+    // Acrescenta (OU bit a bit) os IDs em um mapa de bits local da consulta; IDs além do tamanho do destino são ignorados
+    void adicionarEm(long[] destino) {
+        Ordenados atual = ordenados;
+        if (atual == null) {
+            mapa.adicionarEm(destino);
+            return;
+        }
+        int[] ids = atual.ids();
+        for (int i = 0; i < atual.tamanho(); i++) {
+            int indice = ids[i] >>> 6;
+            if (indice < destino.length) destino[indice] |= 1L << ids[i];
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package ecoColeta;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Lista somente leitura para o ListView da listagem que busca as linhas no servidor por páginas,
+// só quando o ListView pede uma linha para desenhar (ao rolar)
+// - Guarda poucas páginas recentes, então a memória do cliente não depende do tamanho do catálogo
+// - A busca não bloqueia: enquanto a página não chega a linha aparece como "Carregando...",
+//   e a chegada avisa o ListView para redesenhar essas linhas
+// - Com os eventos de ASSINAR (aplicar), a lista acompanha as alterações do catálogo: muda o total e as
+//   linhas já carregadas e descarta só as páginas que a alteração deslocou, sem repetir o LISTAR inteiro
+// Usada apenas na thread do JavaFX
+class ListaPaginada extends ObservableListBase<String> {
+    static final int TAMANHO_PAGINA = 100;
+    private static final int PAGINAS_EM_MEMORIA = 16;
+    private static final String CARREGANDO = "Carregando...";
+
+    // Uma página vinda do servidor: total de pontos no catálogo e as linhas a partir da posição pedida
+    record Pagina(int total, List<String> linhas) {}
+
+    // Como buscar uma página (LISTAR;inicio;limite na conexão do cliente); o futuro completa na thread do JavaFX
+    interface Fonte {
+        CompletableFuture<Pagina> buscar(int inicio, int limite);
+    }
+
+    private final Fonte fonte;
+    private int total; // Fixado ao abrir a tela (ou mudado pelos eventos); pontos além do fim aparecem em branco
+    private final Set<Integer> pedidas = new HashSet<>(); // Páginas a caminho, para não pedir duas vezes
+    private long versao = -1; // Último evento aplicado
+    private int geracao = 0;  // Muda quando um evento desloca as linhas: páginas pedidas antes chegam desatualizadas
+
+    // Páginas mais recentes, em ordem de acesso; a mais antiga sai quando o limite é atingido
+    private final Map<Integer, List<String>> paginas = new LinkedHashMap<>(PAGINAS_EM_MEMORIA, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> maisAntiga) {
+            return size() > PAGINAS_EM_MEMORIA;
+        }
+    };
+
+    // A primeira página é buscada por quem cria a lista, pois é ela que informa o total
+    ListaPaginada(Pagina primeira, Fonte fonte) {
+        this.fonte = fonte;
+        this.total = primeira.total();
+        paginas.put(0, primeira.linhas());
+    }
+
+    @Override
+    public String get(int indice) {
+        int numero = indice / TAMANHO_PAGINA;
+        List<String> linhas = paginas.get(numero);
+        if (linhas == null) {
+            pedir(numero);
+            return CARREGANDO;
+        }
+        int posicao = indice % TAMANHO_PAGINA;
+        return posicao < linhas.size() ? linhas.get(posicao) : "";
+    }
+
+    @Override
+    public int size() {
+        return total;
+    }
+
+    private void pedir(int numero) {
+        if (!pedidas.add(numero)) return;
+        int pedidaNa = geracao;
+        fonte.buscar(numero * TAMANHO_PAGINA, TAMANHO_PAGINA).whenComplete((pagina, erro) -> {
+            pedidas.remove(numero); // Em caso de erro, a página é pedida de novo na próxima vez que for exibida
+            if (erro == null && pedidaNa == geracao) {
+                receber(numero, pagina);
+            } else if (erro == null) {
+                avisarPagina(numero); // Desatualizada: o ListView pede a página de novo, se ainda estiver visível
+            }
+        });
+    }
+
+    // Passa a aceitar os eventos posteriores à versão (a do ASSINADO que precedeu a primeira página)
+    void acompanharDesde(long versao) {
+        this.versao = versao;
+    }
+
+    long versao() {
+        return versao;
+    }
+
+    // Aplica um bloco de eventos de ASSINAR (os de versão já aplicada são ignorados); a listagem é em ordem de ID
+    void aplicar(List<String> eventos) {
+        for (String evento : eventos) {
+            String[] campos = evento.split(";", 3);
+            long versaoEvento = Long.parseLong(campos[1]);
+            if (versaoEvento <= versao) continue;
+            versao = versaoEvento;
+            switch (campos[0]) {
+                case "CADASTRADO" -> cadastrado(campos[2]);
+                case "ATUALIZADO" -> atualizado(campos[2]);
+                case "REMOVIDO" -> removido(Integer.parseInt(campos[2]));
+                case "RESSINCRONIZAR" -> ressincronizar(Integer.parseInt(campos[2]));
+                default -> {}
+            }
+        }
+    }
+
+    // ID novo é o maior: a linha entra no fim, e só a última página (se carregada e com espaço) a recebe
+    private void cadastrado(String linha) {
+        int numero = total / TAMANHO_PAGINA;
+        List<String> ultima = paginas.get(numero);
+        if (ultima != null && ultima.size() == total % TAMANHO_PAGINA && posicao(ultima, id(linha)) < 0) {
+            List<String> nova = new ArrayList<>(ultima);
+            nova.add(linha);
+            paginas.put(numero, nova);
+        } else if (pedidas.contains(numero)) {
+            geracao++; // A página a caminho pode ter saído antes do cadastro
+        }
+        total++;
+        beginChange();
+        nextAdd(total - 1, total);
+        endChange();
+    }
+
+    private void atualizado(String linha) {
+        int id = id(linha);
+        for (Map.Entry<Integer, List<String>> e : paginas.entrySet()) {
+            int posicao = posicao(e.getValue(), id);
+            if (posicao < 0) continue;
+            List<String> nova = new ArrayList<>(e.getValue());
+            String anterior = nova.set(posicao, linha);
+            e.setValue(nova);
+            beginChange();
+            nextSet(e.getKey() * TAMANHO_PAGINA + posicao, anterior);
+            endChange();
+            return;
+        }
+    }
+
+    // As linhas depois do ponto removido sobem uma posição: descarta as páginas que podem conter o ponto ou
+    // vir depois dele (pela ordem de ID) e elas são buscadas de novo quando aparecerem na tela
+    private void removido(int id) {
+        int indice = -1;
+        int primeiraDescartada = Integer.MAX_VALUE;
+        for (Iterator<Map.Entry<Integer, List<String>>> it = paginas.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, List<String>> e = it.next();
+            List<String> linhas = e.getValue();
+            if (!linhas.isEmpty() && id(linhas.get(linhas.size() - 1)) < id) continue; // Página antes do ponto
+            int posicao = posicao(linhas, id);
+            if (posicao >= 0) indice = e.getKey() * TAMANHO_PAGINA + posicao;
+            primeiraDescartada = Math.min(primeiraDescartada, e.getKey() * TAMANHO_PAGINA);
+            it.remove();
+        }
+        if (total == 0) return;
+        total--;
+        geracao++;
+        if (indice < 0) indice = Math.min(primeiraDescartada, total); // Posição desconhecida: a primeira afetada
+        beginChange();
+        nextRemove(indice, CARREGANDO);
+        endChange();
+    }
+
+    private void ressincronizar(int novoTotal) {
+        List<String> removidas = Collections.nCopies(total, CARREGANDO);
+        paginas.clear();
+        total = novoTotal;
+        geracao++;
+        beginChange();
+        nextRemove(0, removidas);
+        nextAdd(0, total);
+        endChange();
+    }
+
+    // Posição da linha do ponto na página, ou -1
+    private static int posicao(List<String> linhas, int id) {
+        for (int i = 0; i < linhas.size(); i++) if (id(linhas.get(i)) == id) return i;
+        return -1;
+    }
+
+    // ID do começo de uma linha "id - ponto"
+    private static int id(String linha) {
+        int fim = linha.indexOf(' ');
+        return Integer.parseInt(fim < 0 ? linha : linha.substring(0, fim));
+    }
+
+    private void avisarPagina(int numero) {
+        int inicio = numero * TAMANHO_PAGINA;
+        int fim = Math.min(total, inicio + TAMANHO_PAGINA);
+        if (inicio >= fim) return;
+        beginChange();
+        for (int i = inicio; i < fim; i++) nextSet(i, CARREGANDO);
+        endChange();
+    }
+
+    // Guarda a página e avisa o ListView que as linhas dela mudaram
+    private void receber(int numero, Pagina pagina) {
+        paginas.put(numero, pagina.linhas());
+        avisarPagina(numero);
+    }
+}
@@ -0,0 +1,165 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Métricas do servidor, lidas pelo comando METRICAS e pelo endpoint HTTP no formato de texto do Prometheus
+// - Comandos: tempo de execução de cada comando (HistogramaLatencia) e quantos terminaram em exceção, por
+//   protocolo; o tempo vai do início do comando até a resposta estar pronta para a conexão (sem a rede), o que
+//   inclui, nas respostas adiadas (Resposta.adiar), a espera pela operação
+// - Valores lidos na hora da consulta (conexões, pontos no catálogo, bytes...) e outros tempos (como a espera
+//   pelo bloqueio de escrita do repositório) são registrados por quem os tem
+// Medir um comando custa duas leituras de System.nanoTime() e três somas atômicas (ver BenchmarkMetricas);
+// -Decocoleta.metricas=false deixa os comandos sem medição
+class Metricas {
+    static final boolean ATIVAS = Boolean.parseBoolean(System.getProperty("ecocoleta.metricas", "true"));
+
+    // Contadores de um comando em um protocolo (texto ou binário)
+    static final class Comando {
+        final String protocolo;
+        final String nome;
+        final HistogramaLatencia latencia = new HistogramaLatencia();
+        final LongAdder erros = new LongAdder();
+
+        private Comando(String protocolo, String nome) {
+            this.protocolo = protocolo;
+            this.nome = nome;
+        }
+
+        // Para quem mede o próprio trecho (como o protocolo binário)
+        void registrar(long inicio, boolean erro) {
+            latencia.registrar(System.nanoTime() - inicio);
+            if (erro) erros.increment();
+        }
+    }
+
+    // Um valor lido na hora da consulta: contador (só cresce) ou medidor (sobe e desce)
+    private record Valor(String nome, String ajuda, boolean contador, LongSupplier leitura) {}
+
+    // Um tempo medido fora dos comandos
+    private record Tempo(String nome, String ajuda, HistogramaLatencia histograma) {}
+
+    private final List<Comando> comandos = new CopyOnWriteArrayList<>();
+    private final List<Valor> valores = new CopyOnWriteArrayList<>();
+    private final List<Tempo> tempos = new CopyOnWriteArrayList<>();
+
+    // ---------------- Registro (na inicialização do servidor) ----------------
+
+    Comando comando(String protocolo, String nome) {
+        Comando c = new Comando(protocolo, nome);
+        comandos.add(c);
+        return c;
+    }
+
+    // O comando do protocolo de texto com a medição em volta (ou ele mesmo, com as métricas desligadas)
+    TabelaComandos.Comando medir(String nome, TabelaComandos.Comando comando) {
+        if (!ATIVAS) return comando;
+        Comando c = comando("texto", nome);
+        return (linha, saida) -> {
+            long inicio = System.nanoTime();
+            boolean erro = true;
+            try {
+                boolean continuar = comando.executar(linha, saida);
+                erro = false;
+                return continuar;
+            } finally {
+                CompletableFuture<?> adiada = saida.adiada();
+                if (erro || adiada == null) {
+                    c.registrar(inicio, erro);
+                } else {
+                    adiada.whenComplete((resultado, falha) -> c.registrar(inicio, falha != null));
+                }
+            }
+        };
+    }
+
+    void contador(String nome, String ajuda, LongSupplier leitura) {
+        valores.add(new Valor(nome, ajuda, true, leitura));
+    }
+
+    void medidor(String nome, String ajuda, LongSupplier leitura) {
+        valores.add(new Valor(nome, ajuda, false, leitura));
+    }
+
+    void tempo(String nome, String ajuda, HistogramaLatencia histograma) {
+        tempos.add(new Tempo(nome, ajuda, histograma));
+    }
+
+    // ---------------- Consulta ----------------
+
+    // Resposta do METRICAS: NOME;valor por valor, e para cada tempo e comando (os que já rodaram)
+    // NOME;quantidade;media_us;p50_us;p99_us;p999_us;max_us, ou COMANDO;protocolo;nome;quantidade;erros;...
+    void escrever(Resposta saida) {
+        for (Valor v : valores) saida.println(v.nome().toUpperCase(Locale.ROOT) + ";" + v.leitura().getAsLong());
+        for (Tempo t : tempos) saida.println(t.nome().toUpperCase(Locale.ROOT) + ";" + resumo(t.histograma().retrato()));
+        for (Comando c : comandos) {
+            HistogramaLatencia.Retrato r = c.latencia.retrato();
+            if (r.quantidade() == 0) continue;
+            saida.println("COMANDO;" + c.protocolo + ";" + c.nome + ";" + r.quantidade() + ";" + c.erros.sum() + ";" + resumoTempos(r));
+        }
+    }
+
+    private static String resumo(HistogramaLatencia.Retrato r) {
+        return r.quantidade() + ";" + resumoTempos(r);
+    }
+
+    private static String resumoTempos(HistogramaLatencia.Retrato r) {
+        return String.format(Locale.ROOT, "%.1f;%.1f;%.1f;%.1f;%.1f", r.mediaNanos() / 1000, r.percentilNanos(0.5) / 1000.0,
+                r.percentilNanos(0.99) / 1000.0, r.percentilNanos(0.999) / 1000.0, r.maximoNanos() / 1000.0);
+    }
+
+    // Formato de texto do Prometheus (versão 0.0.4): os tempos como summary em segundos, com os quantis
+    String prometheus() {
+        StringBuilder texto = new StringBuilder(8192);
+        for (Valor v : valores) {
+            String nome = "ecocoleta_" + v.nome() + (v.contador() ? "_total" : "");
+            cabecalho(texto, nome, v.ajuda(), v.contador() ? "counter" : "gauge");
+            texto.append(nome).append(' ').append(v.leitura().getAsLong()).append('\n');
+        }
+        for (Tempo t : tempos) {
+            String nome = "ecocoleta_" + t.nome() + "_segundos";
+            cabecalho(texto, nome, t.ajuda(), "summary");
+            resumoPrometheus(texto, nome, "", t.histograma().retrato());
+        }
+        List<HistogramaLatencia.Retrato> retratos = new ArrayList<>(comandos.size());
+        for (Comando c : comandos) retratos.add(c.latencia.retrato());
+        cabecalho(texto, "ecocoleta_comando_segundos", "Tempo de execução dos comandos", "summary");
+        for (int i = 0; i < comandos.size(); i++) {
+            resumoPrometheus(texto, "ecocoleta_comando_segundos", rotulos(comandos.get(i)), retratos.get(i));
+        }
+        cabecalho(texto, "ecocoleta_comando_erros_total", "Comandos que terminaram em exceção", "counter");
+        for (Comando c : comandos) {
+            texto.append("ecocoleta_comando_erros_total{").append(rotulos(c)).append("} ").append(c.erros.sum()).append('\n');
+        }
+        return texto.toString();
+    }
+
+    private static void cabecalho(StringBuilder texto, String nome, String ajuda, String tipo) {
+        texto.append("# HELP ").append(nome).append(' ').append(ajuda).append('\n');
+        texto.append("# TYPE ").append(nome).append(' ').append(tipo).append('\n');
+    }
+
+    private static String rotulos(Comando c) {
+        return "protocolo=\"" + c.protocolo + "\",comando=\"" + c.nome + "\"";
+    }
+
+    private static void resumoPrometheus(StringBuilder texto, String nome, String rotulos, HistogramaLatencia.Retrato r) {
+        String separador = rotulos.isEmpty() ? "" : ",";
+        for (double quantil : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            texto.append(nome).append('{').append(rotulos).append(separador).append("quantile=\"").append(quantil).append("\"} ")
+                    .append(segundos(r.percentilNanos(quantil))).append('\n');
+        }
+        String chaves = rotulos.isEmpty() ? "" : "{" + rotulos + "}";
+        texto.append(nome).append("_sum").append(chaves).append(' ').append(segundos(r.somaNanos())).append('\n');
+        texto.append(nome).append("_count").append(chaves).append(' ').append(r.quantidade()).append('\n');
+    }
+
+    private static String segundos(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,29 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+
+// Forma de atender as conexões dos clientes; o Servidor escolhe a implementação pela configuração
+interface MotorConexoes {
+
+    // Aceita e atende conexões no canal informado até que parar() seja chamado
+    void executar(ServerSocketChannel servidor) throws IOException;
+
+    // Deixa de aceitar conexões e encerra o laço de executar()
+    void parar();
+
+    // Encerramento gradual: deixa de aceitar conexões e fecha cada uma depois de atender os comandos que o
+    // cliente já enviou, avisando o cliente (Sessao.avisarEncerramento); retorna quando todas fecharem ou no
+    // prazo, quando as que restarem são fechadas como em parar()
+    void drenar(long prazoMillis) throws InterruptedException;
+
+    // Quantidade de clientes conectados no momento
+    int conexoesAtivas();
+
+    // Totais desde o início, para as métricas
+    long conexoesAceitas();
+
+    long bytesRecebidos();
+
+    long bytesEnviados();
+}
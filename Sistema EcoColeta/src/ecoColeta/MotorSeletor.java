@@ -0,0 +1,341 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Motor não bloqueante: uma única thread com java.nio Selector atende todas as conexões
+// Cada conexão guarda apenas seus buffers; não há uma thread (nem pilha) por cliente
+// Eventos de ASSINAR: quem altera o catálogo põe a conexão na fila comEventos e acorda o seletor, que entrega
+// um bloco por vez e só enquanto o cliente estiver consumindo (mesmo limite de saída das respostas)
+// Nada bloqueia a thread do seletor: uma resposta que depende do diário em disco fica adiada (Resposta.adiar) e a
+// conexão deixa de ser lida; quando a gravação termina, a conexão entra na fila comRetomada e o seletor completa
+// a resposta e continua os comandos dela (as demais conexões seguem sendo atendidas enquanto isso, e os fsyncs
+// juntam as alterações de todas)
+// Respostas longas (EXPORTAR, SINCRONIZAR completo) são produzidas um bloco por vez (Resposta.produzir): a conexão
+// volta para comRetomada a cada bloco e só recebe o próximo quando o que está pendente baixar do limite de saída,
+// então o catálogo não é montado inteiro na memória e as demais conexões são atendidas entre um bloco e outro
+// Ao drenar, a thread do seletor fecha o canal de aceite e lê cada conexão até o socket ficar vazio: os comandos
+// que o cliente já enviou são atendidos (com as mesmas pausas de uma resposta adiada ou de um cliente que não
+// consome), e só então a conexão recebe o aviso e fecha depois das respostas pendentes
+class MotorSeletor implements MotorConexoes {
+    private final int maxConexoes;  // Acima disso o seletor deixa de aceitar novas conexões
+    private final int limiteSaida;  // Bytes pendentes de envio a partir dos quais a conexão deixa de ser lida
+    private final ByteBuffer leitura = ByteBuffer.allocateDirect(16 * 1024); // Compartilhado: só a thread do seletor lê
+    private volatile Selector seletor;
+    private volatile boolean rodando = true;
+    private volatile boolean drenando = false;
+    private boolean drenado = false; // A thread do seletor já marcou as conexões
+    private SelectionKey chaveAceite;
+    private final Queue<Conexao> comEventos = new ConcurrentLinkedQueue<>(); // Conexões com entrega agendada
+    private final Queue<Conexao> comRetomada = new ConcurrentLinkedQueue<>(); // Respostas adiadas já prontas
+    private int ativas = 0;
+    private volatile int ativasPublicadas = 0;
+    // Totais para as métricas: só a thread do seletor altera, as outras só leem
+    private volatile long aceitas = 0;
+    private volatile long recebidos = 0;
+    private volatile long enviados = 0;
+
+    MotorSeletor(int maxConexoes, int limiteSaida) {
+        this.maxConexoes = maxConexoes;
+        this.limiteSaida = limiteSaida;
+    }
+
+    // Estado de uma conexão registrada no seletor
+    private final class Conexao implements Resposta.Destino, Notificacoes.Entregador, Sessao.Retomada {
+        final SocketChannel canal;
+        final SelectionKey chave;
+        final Sessao sessao;
+        final ArrayDeque<ByteBuffer> pendentes = new ArrayDeque<>(); // Respostas que ainda não couberam no socket
+        long bytesPendentes = 0;
+        boolean encerrar = false; // Fecha a conexão assim que as respostas pendentes forem enviadas
+        final AtomicBoolean agendada = new AtomicBoolean(); // Já está em comEventos
+        boolean eventosAtrasados = false; // Restam eventos, esperando o cliente consumir os pendentes
+        boolean producaoAtrasada = false; // Restam blocos da resposta, esperando o cliente consumir os pendentes
+
+        Conexao(SocketChannel canal) throws IOException {
+            this.canal = canal;
+            this.chave = canal.register(seletor, SelectionKey.OP_READ, this);
+            this.sessao = new Sessao(new Resposta(this, 1024, true), this, this);
+        }
+
+        // Chamado pela thread que concluiu a operação da resposta adiada
+        @Override
+        public void agendarRetomada() {
+            comRetomada.add(this);
+            seletor.wakeup();
+        }
+
+        // Chamado por qualquer thread: a entrega acontece na thread do seletor
+        @Override
+        public void agendar() {
+            if (agendada.compareAndSet(false, true)) {
+                comEventos.add(this);
+                seletor.wakeup();
+            }
+        }
+
+        // Tenta escrever direto no socket; o que sobrar fica na fila e passa a aguardar OP_WRITE
+        @Override
+        public void escrever(ByteBuffer dados) throws IOException {
+            if (pendentes.isEmpty()) enviados += canal.write(dados);
+            if (!dados.hasRemaining()) return;
+            ByteBuffer copia = dados;
+            if (!dados.isReadOnly()) { // Buffers somente leitura (anexados à Resposta) são imutáveis e não precisam de cópia
+                copia = ByteBuffer.allocate(dados.remaining());
+                copia.put(dados).flip(); // O buffer da Resposta é reutilizado, então guardamos uma cópia
+            }
+            pendentes.add(copia);
+            bytesPendentes += copia.remaining();
+            atualizarInteresse();
+        }
+
+        // Envia o que estiver pendente enquanto o socket aceitar
+        void descarregar() throws IOException {
+            while (!pendentes.isEmpty()) {
+                ByteBuffer proximo = pendentes.peek();
+                int escritos = canal.write(proximo);
+                bytesPendentes -= escritos;
+                enviados += escritos;
+                if (proximo.hasRemaining()) break;
+                pendentes.poll();
+            }
+            atualizarInteresse();
+            if (eventosAtrasados && pendentes.isEmpty()) {
+                eventosAtrasados = false;
+                agendar();
+            }
+            if (producaoAtrasada && bytesPendentes < limiteSaida) {
+                producaoAtrasada = false;
+                agendarRetomada();
+            }
+        }
+
+        // Escuta escrita só quando há algo pendente; para de ler quando o cliente não consome as respostas
+        // ou enquanto espera uma resposta adiada
+        void atualizarInteresse() {
+            int interesse = 0;
+            if (!encerrar && bytesPendentes < limiteSaida && !sessao.esperando()) interesse |= SelectionKey.OP_READ;
+            if (!pendentes.isEmpty()) interesse |= SelectionKey.OP_WRITE;
+            if (chave.isValid()) chave.interestOps(interesse);
+        }
+    }
+
+    @Override
+    public void executar(ServerSocketChannel servidor) throws IOException {
+        seletor = Selector.open();
+        servidor.configureBlocking(false);
+        chaveAceite = servidor.register(seletor, SelectionKey.OP_ACCEPT);
+        try {
+            while (rodando) {
+                seletor.select();
+                if (drenando && !drenado) drenarConexoes();
+                retomarSessoes();
+                entregarEventos();
+                Iterator<SelectionKey> chaves = seletor.selectedKeys().iterator();
+                while (chaves.hasNext()) {
+                    SelectionKey chave = chaves.next();
+                    chaves.remove();
+                    if (!chave.isValid()) continue;
+                    if (chave.isAcceptable()) {
+                        aceitar(servidor);
+                    } else {
+                        atender((Conexao) chave.attachment());
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Seletor fechado por parar()
+        } finally {
+            for (SelectionKey chave : seletor.keys()) {
+                if (chave.attachment() instanceof Conexao c) c.canal.close();
+            }
+            seletor.close();
+        }
+    }
+
+    // Aceita os clientes que estiverem na fila, respeitando o limite de conexões
+    private void aceitar(ServerSocketChannel servidor) throws IOException {
+        SocketChannel canal;
+        while (ativas < maxConexoes && (canal = servidor.accept()) != null) {
+            canal.configureBlocking(false);
+            new Conexao(canal);
+            ativas++;
+            ativasPublicadas = ativas;
+            aceitas++;
+            System.out.println("Cliente conectado: " + canal.getRemoteAddress());
+        }
+        if (ativas >= maxConexoes) chaveAceite.interestOps(0); // Backpressure: novos clientes aguardam na fila do SO
+    }
+
+    // Trata leitura e escrita de uma conexão pronta
+    private void atender(Conexao c) {
+        try {
+            if (c.chave.isWritable()) {
+                c.descarregar();
+            }
+            if (drenado) { // Lê sem esperar OP_READ: com o socket já vazio ele não viria, e o aviso não sairia
+                if (c.chave.isValid()) lerAteEsvaziar(c);
+                return;
+            }
+            if (c.chave.isValid() && c.chave.isReadable()) {
+                leitura.clear();
+                int lidos = c.canal.read(leitura);
+                if (lidos < 0) {
+                    fechar(c);
+                    return;
+                }
+                recebidos += lidos;
+                leitura.flip();
+                if (!c.sessao.receber(leitura)) c.encerrar = true;
+                c.atualizarInteresse();
+            }
+            if (c.encerrar && c.pendentes.isEmpty() && !c.sessao.esperando()) fechar(c);
+        } catch (IOException e) {
+            fechar(c);
+        }
+    }
+
+    // Na thread do seletor: para de aceitar e encerra cada conexão depois do que o cliente já enviou
+    private void drenarConexoes() {
+        drenado = true;
+        chaveAceite.cancel();
+        try {
+            chaveAceite.channel().close();
+        } catch (IOException e) {}
+        for (SelectionKey chave : seletor.keys()) {
+            if (!(chave.attachment() instanceof Conexao c) || !chave.isValid()) continue;
+            if (c.sessao.esperando()) continue; // Continua depois de completar a resposta (retomarSessoes)
+            try {
+                lerAteEsvaziar(c);
+            } catch (IOException e) {
+                fechar(c);
+            }
+        }
+    }
+
+    // Drenando: atende o que já está no socket até a leitura não trazer mais nada, e então avisa e encerra; se a
+    // resposta ficar adiada ou o cliente não consumir, para aqui e continua quando a conexão voltar a ser lida
+    private void lerAteEsvaziar(Conexao c) throws IOException {
+        while (!c.encerrar && !c.sessao.esperando() && c.bytesPendentes < limiteSaida) {
+            leitura.clear();
+            int lidos = c.canal.read(leitura);
+            if (lidos < 0) {
+                fechar(c);
+                return;
+            }
+            if (lidos == 0) {
+                c.sessao.avisarEncerramento();
+                c.encerrar = true;
+                break;
+            }
+            recebidos += lidos;
+            leitura.flip();
+            if (!c.sessao.receber(leitura)) c.encerrar = true;
+        }
+        c.atualizarInteresse();
+        if (c.encerrar && c.pendentes.isEmpty() && !c.sessao.esperando()) fechar(c);
+    }
+
+    // Completa as respostas adiadas cuja operação terminou, escreve o próximo bloco das respostas longas e
+    // continua os comandos que já tinham chegado; só as conexões que estavam na fila no início da volta (as que
+    // voltam com o próximo bloco ficam para a volta seguinte do seletor)
+    private void retomarSessoes() {
+        for (int n = comRetomada.size(); n > 0; n--) {
+            Conexao c = comRetomada.poll();
+            if (c == null) break;
+            if (!c.chave.isValid()) continue; // Fechada enquanto esperava: a resposta não tem mais para onde ir
+            if (c.sessao.produzindo() && c.bytesPendentes >= limiteSaida) {
+                c.producaoAtrasada = true; // descarregar() agenda quando o cliente consumir
+                continue;
+            }
+            try {
+                boolean continuar = c.sessao.retomar(); // Com mais blocos a escrever, a Sessao já agendou o próximo
+                if (continuar && drenado && !c.sessao.esperando()) { // Os comandos já lidos foram atendidos
+                    lerAteEsvaziar(c);
+                    continue;
+                }
+                if (!continuar) c.encerrar = true;
+                c.atualizarInteresse();
+                if (c.encerrar && c.pendentes.isEmpty() && !c.sessao.esperando()) fechar(c);
+            } catch (IOException e) {
+                fechar(c);
+            }
+        }
+    }
+
+    // Um bloco de eventos para cada conexão agendada; as que ainda têm eventos voltam para a fila (ou esperam
+    // o cliente consumir o que está pendente), então uma conexão com muitos eventos não atrasa as outras
+    private void entregarEventos() {
+        for (int n = comEventos.size(); n > 0; n--) {
+            Conexao c = comEventos.poll();
+            if (c == null) break;
+            c.agendada.set(false); // Publicações a partir daqui agendam de novo
+            if (!c.chave.isValid() || c.encerrar) continue;
+            if (c.bytesPendentes >= limiteSaida) {
+                c.eventosAtrasados = true;
+                continue;
+            }
+            try {
+                if (c.sessao.entregarEventos()) {
+                    if (c.bytesPendentes < limiteSaida) c.agendar();
+                    else c.eventosAtrasados = true;
+                }
+            } catch (IOException e) {
+                fechar(c);
+            }
+        }
+    }
+
+    private void fechar(Conexao c) {
+        c.sessao.encerrar();
+        c.chave.cancel();
+        try { c.canal.close(); } catch (IOException e) {}
+        ativas--;
+        ativasPublicadas = ativas;
+        System.out.println("Cliente desconectado.");
+        if (ativas < maxConexoes && chaveAceite.isValid()) chaveAceite.interestOps(SelectionKey.OP_ACCEPT);
+    }
+
+    @Override
+    public void drenar(long prazoMillis) throws InterruptedException {
+        drenando = true;
+        Selector s = seletor;
+        if (s != null) s.wakeup();
+        long prazo = System.nanoTime() + prazoMillis * 1_000_000;
+        while (ativasPublicadas > 0 && System.nanoTime() < prazo) Thread.sleep(10);
+        parar(); // As que restarem são fechadas ao sair do laço
+    }
+
+    @Override
+    public void parar() {
+        rodando = false;
+        Selector s = seletor;
+        if (s != null) s.wakeup();
+    }
+
+    @Override
+    public int conexoesAtivas() {
+        return ativasPublicadas;
+    }
+
+    @Override
+    public long conexoesAceitas() {
+        return aceitas;
+    }
+
+    @Override
+    public long bytesRecebidos() {
+        return recebidos;
+    }
+
+    @Override
+    public long bytesEnviados() {
+        return enviados;
+    }
+}
@@ -0,0 +1,191 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Motor que atende cada conexão em uma thread virtual, com leitura e escrita bloqueantes
+// O número de conexões simultâneas é limitado: ao atingir o limite o servidor para de aceitar
+// e os novos clientes aguardam na fila do sistema operacional (backpressure)
+// Uma conexão que assinou os eventos (ASSINAR) ganha uma segunda thread virtual só para entregá-los
+// Ao drenar, a leitura de cada conexão é encerrada (shutdownInput) só quando o socket não tiver mais nada a ler:
+// o shutdownInput descarta o que o cliente já enviou, então os comandos que já chegaram são atendidos antes; a
+// próxima leitura vê o fim e a conexão é avisada e fechada
+class MotorThreadsVirtuais implements MotorConexoes {
+    private final Semaphore vagas;                 // Uma vaga por conexão permitida
+    private final AtomicInteger ativas = new AtomicInteger();
+    private final LongAdder aceitas = new LongAdder();
+    private final LongAdder recebidos = new LongAdder();
+    private final LongAdder enviados = new LongAdder();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<SocketChannel> abertas = ConcurrentHashMap.newKeySet(); // Para drenar()
+    private volatile ServerSocketChannel servidor;
+    private volatile boolean rodando = true;
+    private volatile boolean drenando = false;
+
+    MotorThreadsVirtuais(int maxConexoes) {
+        this.vagas = new Semaphore(maxConexoes);
+    }
+
+    @Override
+    public void executar(ServerSocketChannel servidor) throws IOException {
+        this.servidor = servidor;
+        servidor.configureBlocking(true);
+        try {
+            while (rodando) {
+                vagas.acquire(); // Bloqueia enquanto o limite de conexões estiver ocupado
+                SocketChannel canal;
+                try {
+                    canal = servidor.accept(); // Aguarda um cliente se conectar
+                } catch (IOException e) {
+                    vagas.release();
+                    if (!rodando || e instanceof ClosedChannelException) break; // Servidor encerrado
+                    continue;
+                }
+                executor.execute(() -> atender(canal));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!drenando) executor.shutdownNow(); // Drenando, as conexões ainda terminam o que estão atendendo
+        }
+    }
+
+    // Laço de uma conexão: lê bytes do cliente, entrega à sessão e escreve as respostas
+    private void atender(SocketChannel canal) {
+        ativas.incrementAndGet();
+        aceitas.increment();
+        abertas.add(canal);
+        try (canal) {
+            System.out.println("Cliente conectado: " + canal.getRemoteAddress());
+            Entrega entrega = new Entrega();
+            Sessao sessao = new Sessao(new Resposta(dados -> {
+                while (dados.hasRemaining()) enviados.add(canal.write(dados));
+            }, 1024), entrega);
+            entrega.sessao = sessao;
+            try {
+                ByteBuffer leitura = ByteBuffer.allocate(2048);
+                int lidos;
+                while ((lidos = canal.read(leitura)) >= 0) {
+                    recebidos.add(lidos);
+                    leitura.flip();
+                    if (!sessao.receber(leitura)) break;
+                    leitura.clear();
+                }
+                if (lidos < 0 && drenando) sessao.avisarEncerramento();
+            } finally {
+                sessao.encerrar();
+                entrega.encerrar();
+            }
+            System.out.println("Cliente desconectado.");
+        } catch (IOException e) {
+            System.out.println("Cliente desconectado."); // Cliente fechou a conexão
+        } finally {
+            abertas.remove(canal);
+            ativas.decrementAndGet();
+            vagas.release();
+        }
+    }
+
+    // Entrega dos eventos de uma conexão: a thread virtual é criada no primeiro agendamento e fica esperando
+    // o sinal (quem altera o catálogo só libera o semáforo); a escrita bloqueia enquanto o cliente não lê, e os
+    // eventos que ficarem para trás viram RESSINCRONIZAR em Notificacoes
+    private final class Entrega implements Notificacoes.Entregador {
+        final Semaphore sinal = new Semaphore(0);
+        final AtomicBoolean iniciada = new AtomicBoolean();
+        volatile boolean encerrada = false;
+        Sessao sessao;
+
+        @Override
+        public void agendar() {
+            if (sinal.availablePermits() == 0) sinal.release(); // Vários agendamentos seguidos: uma entrega só
+            if (iniciada.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::entregar);
+                } catch (RejectedExecutionException e) {
+                    // Servidor parando: a conexão também será fechada
+                }
+            }
+        }
+
+        private void entregar() {
+            try {
+                while (!encerrada) {
+                    sinal.acquire();
+                    sinal.drainPermits();
+                    while (!encerrada && sessao.entregarEventos()) {}
+                }
+            } catch (InterruptedException | IOException e) {
+                // Servidor parando ou conexão fechada: a thread da conexão encerra o resto
+            }
+        }
+
+        void encerrar() {
+            encerrada = true;
+            sinal.release(); // Acorda a thread de entrega para terminar
+        }
+    }
+
+    @Override
+    public void drenar(long prazoMillis) throws InterruptedException {
+        drenando = true;
+        rodando = false;
+        try {
+            if (servidor != null) servidor.close();
+        } catch (IOException e) {}
+        long prazo = System.nanoTime() + prazoMillis * 1_000_000;
+        while (ativas.get() > 0 && System.nanoTime() < prazo) {
+            for (SocketChannel canal : abertas) encerrarLeituraSeVazia(canal); // A cada volta: também as aceitas agora
+            Thread.sleep(10);
+        }
+        executor.shutdownNow(); // As que passaram do prazo são interrompidas, o que fecha o canal
+    }
+
+    // Com bytes ainda por ler, a thread da conexão os lê e atende (a chegada deles a acorda), e a próxima volta de
+    // drenar() tenta de novo; o que chegar depois do shutdownInput já encontra a conexão em encerramento
+    private static void encerrarLeituraSeVazia(SocketChannel canal) {
+        try {
+            if (canal.socket().getInputStream().available() == 0) canal.shutdownInput();
+        } catch (IOException e) {} // Leitura já encerrada, ou conexão fechada
+    }
+
+    @Override
+    public void parar() {
+        rodando = false;
+        try {
+            if (servidor != null) servidor.close();
+        } catch (IOException e) {}
+        executor.shutdownNow();
+    }
+
+    @Override
+    public int conexoesAtivas() {
+        return ativas.get();
+    }
+
+    @Override
+    public long conexoesAceitas() {
+        return aceitas.sum();
+    }
+
+    @Override
+    public long bytesRecebidos() {
+        return recebidos.sum();
+    }
+
+    @Override
+    public long bytesEnviados() {
+        return enviados.sum();
+    }
+}
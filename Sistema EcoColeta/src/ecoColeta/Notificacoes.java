@@ -0,0 +1,126 @@
+package ecoColeta;
+
+import java.security.SecureRandom;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Alterações do catálogo empurradas às conexões que assinaram (ASSINAR), para os clientes manterem a lista
+// atualizada sem repetir o LISTAR
+// - Cada alteração vira um evento numerado pela versão do repositório, guardado em um anel com os últimos
+//   CAPACIDADE eventos; cada assinatura só guarda até qual versão já entregou
+// - Publicar não espera nenhuma conexão: só grava o evento e acorda as assinaturas, e cada motor entrega os
+//   eventos na vez da conexão; quem ficou mais de CAPACIDADE eventos para trás recebe RESSINCRONIZAR
+//   (com a versão e o total de pontos) e recarrega a lista
+// - As versões recomeçam a cada execução do servidor (a recuperação do disco também gera versões), então
+//   retomar uma assinatura exige a mesma instância do servidor
+// Linhas enviadas (blocos terminados por linha em branco):
+//   CADASTRADO;versao;id - ponto | ATUALIZADO;versao;id - ponto | REMOVIDO;versao;id | RESSINCRONIZAR;versao;total
+// Na replicação (REPLICAR, ver Replicacao) o ponto vai inteiro, como no EXPORTAR: CADASTRADO;versao;linha CSV
+class Notificacoes {
+    static final int CAPACIDADE = 8192;
+    private static final int EVENTOS_POR_ENVIO = 512; // Por vez, para uma conexão não monopolizar o seletor
+
+    enum Tipo { CADASTRADO, ATUALIZADO, REMOVIDO }
+
+    // Uma alteração e o total de pontos logo depois dela (ponto nulo na remoção)
+    record Evento(long versao, Tipo tipo, int id, PontoColeta ponto, int total) {
+        String linha() {
+            return tipo + ";" + versao + ";" + (ponto == null ? String.valueOf(id) : id + " - " + ponto);
+        }
+
+        // Com o ID, as coordenadas e os campos exatos, para os servidores seguidores
+        String linhaReplicacao() {
+            return tipo + ";" + versao + ";" + (ponto == null ? String.valueOf(id) : ponto.linhaCsv());
+        }
+    }
+
+    // Como o motor entrega os eventos de uma conexão: agenda uma chamada a Sessao.entregarEventos()
+    // na vez da conexão (chamado pela thread que alterou o catálogo: não pode bloquear)
+    interface Entregador {
+        void agendar();
+    }
+
+    private final Evento[] anel = new Evento[CAPACIDADE]; // Posição versao % CAPACIDADE; publicado por 'ultimo'
+    private volatile Evento ultimo;
+    private final Set<Assinatura> assinaturas = ConcurrentHashMap.newKeySet();
+    private final String instancia = Long.toString(new SecureRandom().nextLong() >>> 1, 36); // Identifica esta execução
+
+    Notificacoes() {
+        ultimo = new Evento(0, null, 0, null, 0); // Catálogo vazio, antes de qualquer alteração
+    }
+
+    String instancia() {
+        return instancia;
+    }
+
+    // Chamado pelo escritor do repositório, na ordem das versões
+    void publicar(Evento evento) {
+        anel[(int) (evento.versao() % CAPACIDADE)] = evento;
+        ultimo = evento; // Publica a posição do anel gravada acima
+        for (Assinatura a : assinaturas) a.entregador.agendar();
+    }
+
+    // Nova assinatura; ainda não é acordada pelas publicações, até ser ativada
+    // - Retoma depois da versão informada se ela for desta instância e os eventos seguintes ainda estiverem
+    //   no anel; senão (ou sem versão) começa agora, e quem assinou deve partir do total atual
+    // - 'replicacao': os eventos saem no formato de linhaReplicacao (REPLICAR)
+    Assinatura assinar(String instancia, long versao, Entregador entregador, boolean replicacao) {
+        Evento atual = ultimo;
+        boolean retomada = this.instancia.equals(instancia) && versao >= 0 && versao <= atual.versao()
+                && atual.versao() - versao <= CAPACIDADE;
+        return new Assinatura(retomada ? versao : atual.versao(), retomada ? -1 : atual.total(), entregador, replicacao);
+    }
+
+    int assinaturas() {
+        return assinaturas.size();
+    }
+
+    final class Assinatura {
+        private final Entregador entregador;
+        private final int totalInicial; // Pontos na versão inicial; -1 quando retoma uma assinatura anterior
+        private final boolean replicacao;
+        private long cursor; // Última versão entregue (só a thread de entrega da conexão usa)
+
+        private Assinatura(long cursor, int totalInicial, Entregador entregador, boolean replicacao) {
+            this.cursor = cursor;
+            this.totalInicial = totalInicial;
+            this.entregador = entregador;
+            this.replicacao = replicacao;
+        }
+
+        // Resposta ao ASSINAR: ASSINADO;instancia;versao;total (começa agora) ou ASSINADO;instancia;versao (retoma)
+        String confirmacao() {
+            return "ASSINADO;" + instancia + ";" + cursor + (totalInicial < 0 ? "" : ";" + totalInicial);
+        }
+
+        // Passa a ser acordada pelas publicações, e já agenda a entrega do que foi publicado até aqui
+        void ativar() {
+            assinaturas.add(this);
+            entregador.agendar();
+        }
+
+        void cancelar() {
+            assinaturas.remove(this);
+        }
+
+        // Escreve um bloco com os próximos eventos (se houver); devolve true se ainda restam eventos
+        boolean escrever(Resposta saida) {
+            Evento atual = ultimo;
+            if (atual.versao() == cursor) return false;
+            long fim = Math.min(atual.versao(), cursor + EVENTOS_POR_ENVIO);
+            for (long v = cursor + 1; v <= fim; v++) {
+                Evento e = anel[(int) (v % CAPACIDADE)];
+                if (e == null || e.versao() != v) { // Sobrescrito: a conexão ficou para trás
+                    saida.println("RESSINCRONIZAR;" + atual.versao() + ";" + atual.total());
+                    saida.println();
+                    cursor = atual.versao();
+                    return false;
+                }
+                saida.println(replicacao ? e.linhaReplicacao() : e.linha());
+            }
+            saida.println();
+            cursor = fim;
+            return fim < atual.versao();
+        }
+    }
+}
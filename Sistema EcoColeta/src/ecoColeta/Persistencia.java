@@ -0,0 +1,422 @@
+package ecoColeta;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// Persistência dos pontos de coleta: diário (write-ahead log) só de acréscimo mais snapshots compactados
+// - Cada CADASTRAR/ATUALIZAR/REMOVER vira um registro no diário; uma thread gravadora junta os registros
+//   que chegam enquanto o fsync anterior acontece e grava todos com um único fsync (group commit)
+// - O snapshot guarda o catálogo inteiro; ao ser concluído, os segmentos de diário anteriores são apagados
+// - Na inicialização, carrega o snapshot e reaplica apenas os segmentos posteriores a ele
+// - Depois de uma falha de gravação o diário para: o segmento pode ter ficado com parte de um lote, e a
+//   recuperação descarta tudo o que vier depois dela, então nenhum registro seguinte é aceito
+class Persistencia {
+    // Textos em UTF-8 com tamanho int (writeUTF limita cada texto a 64 KB em UTF-8 modificado)
+    private static final int MAGICO_SNAPSHOT = 0x45434F33; // "ECO3": textos com tamanho int, latitude e longitude
+    private static final int MAGICO_SNAPSHOT_ECO2 = 0x45434F32; // "ECO2": textos em writeUTF; ainda aceito na leitura
+    private static final int MAGICO_SNAPSHOT_ANTIGO = 0x45434F53; // "ECOS": idem, sem localização
+    private static final byte CADASTRO = 'c', ATUALIZACAO = 'a', REMOCAO = 'R';
+    private static final byte CADASTRO_UTF = 'C', ATUALIZACAO_UTF = 'A'; // Registros antigos, com textos em writeUTF
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20;
+    private static final long LIMITE_FILA = 64L << 20; // Bytes aguardando gravação; além disso os registros são recusados
+
+    // Quem aplica os registros recuperados do disco na memória do servidor
+    // Os registros com localização chegam pelas versões com latitude e longitude (NaN quando ausentes)
+    interface Recuperacao {
+        void cadastrar(int id, String endereco, String materiais, String horario);
+        void atualizar(int id, String endereco, String materiais, String horario);
+        void remover(int id);
+
+        default void cadastrar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+            cadastrar(id, endereco, materiais, horario);
+        }
+
+        default void atualizar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+            atualizar(id, endereco, materiais, horario);
+        }
+    }
+
+    // Registro aguardando gravação; sem dados significa pedido de troca de segmento (ou, com segmento -1, de
+    // encerramento do diário)
+    private record Pendente(ByteBuffer dados, long novoSegmento, CompletableFuture<Void> gravado) {}
+
+    private final Path diretorio;
+    private final LinkedBlockingQueue<Pendente> fila = new LinkedBlockingQueue<>();
+    private final AtomicLong bytesNaFila = new AtomicLong(); // Limita a fila quando o disco não acompanha
+    private volatile FileChannel segmentoAtual;
+    private long numeroSegmento = 0;          // Segmento em que os novos registros são gravados
+    private volatile long registrosDesdeSnapshot = 0;
+    private volatile long lotesGravados = 0;  // Quantidade de fsyncs (para medir o agrupamento)
+    private Thread gravadora;
+    private volatile boolean encerrada = false;
+    private volatile IOException falha;       // Primeira falha de gravação; a partir dela o diário está parado
+
+    Persistencia(Path diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    // ---------------- Recuperação ----------------
+
+    // Carrega snapshot e diário e abre um segmento novo para as próximas gravações;
+    // retorna o próximo ID livre
+    int recuperar(Recuperacao destino) throws IOException {
+        Files.createDirectories(diretorio);
+        int proximoId = 1;
+        long primeiroSegmento = 0;
+
+        Path snapshot = diretorio.resolve("pontos.snapshot");
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 20))) {
+                int magico = in.readInt();
+                if (magico != MAGICO_SNAPSHOT && magico != MAGICO_SNAPSHOT_ECO2 && magico != MAGICO_SNAPSHOT_ANTIGO) {
+                    throw new IOException("Snapshot inválido: " + snapshot);
+                }
+                boolean utf = magico != MAGICO_SNAPSHOT;
+                proximoId = in.readInt();
+                primeiroSegmento = in.readLong();
+                int quantidade = in.readInt();
+                for (int i = 0; i < quantidade; i++) {
+                    int id = in.readInt();
+                    String endereco = lerTexto(in, utf), materiais = lerTexto(in, utf), horario = lerTexto(in, utf);
+                    if (magico != MAGICO_SNAPSHOT_ANTIGO) {
+                        destino.cadastrar(id, endereco, materiais, horario, in.readDouble(), in.readDouble());
+                    } else {
+                        destino.cadastrar(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+                    }
+                }
+            }
+        }
+
+        for (long numero : segmentosExistentes()) {
+            if (numero < primeiroSegmento) continue;
+            proximoId = Math.max(proximoId, reaplicar(nomeSegmento(numero), destino));
+            numeroSegmento = numero;
+        }
+
+        numeroSegmento++;
+        segmentoAtual = abrirSegmento(numeroSegmento);
+        return proximoId;
+    }
+
+    // Reaplica um segmento do diário; um registro incompleto no fim (queda durante a escrita) é descartado
+    private int reaplicar(Path arquivo, Recuperacao destino) throws IOException {
+        int maiorId = 0;
+        long valido = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), 1 << 20))) {
+            while (true) {
+                byte[] dados;
+                long esperado;
+                try {
+                    int tamanho = in.readInt();
+                    if (tamanho < 5 || tamanho > TAMANHO_MAXIMO_REGISTRO) break; // Tamanho corrompido
+                    esperado = in.readInt() & 0xFFFFFFFFL;
+                    dados = new byte[tamanho];
+                    in.readFully(dados);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(dados);
+                if (crc.getValue() != esperado) break;
+
+                DataInputStream registro = new DataInputStream(new ByteArrayInputStream(dados));
+                byte operacao = registro.readByte();
+                int id = registro.readInt();
+                boolean utf = operacao == CADASTRO_UTF || operacao == ATUALIZACAO_UTF;
+                if (utf) operacao = operacao == CADASTRO_UTF ? CADASTRO : ATUALIZACAO;
+                if (operacao == CADASTRO || operacao == ATUALIZACAO) {
+                    String endereco = lerTexto(registro, utf), materiais = lerTexto(registro, utf), horario = lerTexto(registro, utf);
+                    // Localização opcional no fim do registro (registros antigos não têm)
+                    double latitude = Double.NaN, longitude = Double.NaN;
+                    if (registro.available() >= 16) {
+                        latitude = registro.readDouble();
+                        longitude = registro.readDouble();
+                    }
+                    if (operacao == CADASTRO) {
+                        destino.cadastrar(id, endereco, materiais, horario, latitude, longitude);
+                    } else {
+                        destino.atualizar(id, endereco, materiais, horario, latitude, longitude);
+                    }
+                } else if (operacao == REMOCAO) {
+                    destino.remover(id);
+                }
+                maiorId = Math.max(maiorId, id + 1);
+                valido += 8 + dados.length;
+                registrosDesdeSnapshot++; // Registros reaplicados também contam para a próxima compactação
+            }
+        }
+        if (valido < Files.size(arquivo)) {
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+                canal.truncate(valido); // Descarta o final corrompido
+            }
+        }
+        return maiorId;
+    }
+
+    // ---------------- Gravação ----------------
+
+    // Inicia a thread que grava os registros em lotes
+    void iniciar() {
+        gravadora = new Thread(this::gravarLotes, "persistencia-diario");
+        gravadora.setDaemon(true);
+        gravadora.start();
+    }
+
+    // Os métodos registrar* devem ser chamados sob o mesmo bloqueio que ordena as alterações na memória,
+    // para que o diário tenha a mesma ordem; o futuro conclui quando o registro estiver em disco, na thread
+    // gravadora e na ordem do diário (quem espera a gravação para aplicar a alteração a aplica nessa ordem)
+    CompletableFuture<Void> registrarCadastro(int id, String endereco, String materiais, String horario) {
+        return registrarCadastro(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+    }
+
+    CompletableFuture<Void> registrarCadastro(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+        return enfileirar(codificar(CADASTRO, id, latitude, longitude, endereco, materiais, horario));
+    }
+
+    CompletableFuture<Void> registrarAtualizacao(int id, String endereco, String materiais, String horario) {
+        return registrarAtualizacao(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+    }
+
+    CompletableFuture<Void> registrarAtualizacao(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+        return enfileirar(codificar(ATUALIZACAO, id, latitude, longitude, endereco, materiais, horario));
+    }
+
+    CompletableFuture<Void> registrarRemocao(int id) {
+        return enfileirar(codificar(REMOCAO, id, Double.NaN, Double.NaN));
+    }
+
+    boolean precisaCompactar(long limiteRegistros) {
+        return registrosDesdeSnapshot >= limiteRegistros;
+    }
+
+    long lotesGravados() {
+        return lotesGravados;
+    }
+
+    // Primeira etapa da compactação, chamada sob o mesmo bloqueio dos registrar*: os registros seguintes passam a
+    // ir para um segmento novo, que o snapshot não inclui; o futuro conclui com o número dele quando os registros
+    // anteriores estiverem gravados e o segmento trocado, na thread gravadora, antes de concluir os seguintes
+    // (é nesse momento que o catálogo na memória tem exatamente o que o snapshot deve guardar)
+    CompletableFuture<Long> iniciarSnapshot() {
+        if (falha != null) return CompletableFuture.failedFuture(parado());
+        long novo = ++numeroSegmento;
+        registrosDesdeSnapshot = 0;
+        CompletableFuture<Void> troca = new CompletableFuture<>();
+        CompletableFuture<Long> segmento = troca.thenApply(v -> novo);
+        fila.add(new Pendente(null, novo, troca));
+        return segmento;
+    }
+
+    // Segunda etapa, fora do bloqueio e depois da troca: grava a cópia do catálogo e apaga os segmentos já
+    // incluídos nela
+    void gravarSnapshot(List<PontoColeta> copia, int proximoId, long primeiroSegmento) throws IOException {
+        Path temporario = diretorio.resolve("pontos.snapshot.tmp");
+        try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(arquivo, 1 << 20))) {
+            out.writeInt(MAGICO_SNAPSHOT);
+            out.writeInt(proximoId);
+            out.writeLong(primeiroSegmento);
+            out.writeInt(copia.size());
+            for (PontoColeta p : copia) {
+                out.writeInt(p.getId());
+                escreverTexto(out, p.getEndereco());
+                escreverTexto(out, p.getMateriais());
+                escreverTexto(out, p.getHorario());
+                out.writeDouble(p.getLatitude());
+                out.writeDouble(p.getLongitude());
+            }
+            out.flush();
+            arquivo.getFD().sync();
+        }
+        Files.move(temporario, diretorio.resolve("pontos.snapshot"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (long numero : segmentosExistentes()) {
+            if (numero < primeiroSegmento) Files.deleteIfExists(nomeSegmento(numero));
+        }
+    }
+
+    // Encerramento do servidor, sob o mesmo bloqueio dos registrar*: o futuro conclui quando o que já está na
+    // fila chegar ao disco e o segmento for fechado (esperar por ele sem o bloqueio: a conclusão dos registros
+    // anteriores pode precisar dele); os registros seguintes falham, como em uma falha de gravação
+    CompletableFuture<Void> encerrar() {
+        if (encerrada) return CompletableFuture.completedFuture(null);
+        encerrada = true;
+        CompletableFuture<Void> fechado = new CompletableFuture<>();
+        fila.add(new Pendente(null, -1, fechado));
+        return fechado;
+    }
+
+    // Sem bloquear quem chama (os registrar* rodam sob o bloqueio de escrita, de que a conclusão dos registros
+    // anteriores precisa): com a fila cheia, o registro é recusado como em uma falha de gravação
+    private CompletableFuture<Void> enfileirar(ByteBuffer dados) {
+        if (encerrada) return CompletableFuture.failedFuture(new IOException("Diário encerrado."));
+        if (falha != null) return CompletableFuture.failedFuture(parado());
+        if (bytesNaFila.get() >= LIMITE_FILA) return CompletableFuture.failedFuture(new IOException("Fila do diário cheia."));
+        bytesNaFila.addAndGet(dados.remaining());
+        CompletableFuture<Void> gravado = new CompletableFuture<>();
+        registrosDesdeSnapshot++;
+        fila.add(new Pendente(dados, 0, gravado));
+        return gravado;
+    }
+
+    // Laço da thread gravadora: tudo o que chegou durante o último fsync é gravado no próximo
+    private void gravarLotes() {
+        List<Pendente> lote = new ArrayList<>();
+        boolean fim = false;
+        while (!fim) {
+            try {
+                lote.add(fila.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            fila.drainTo(lote, 8192);
+            for (Pendente p : lote) {
+                if (p.dados() != null) bytesNaFila.addAndGet(-p.dados().remaining());
+            }
+            if (falha != null) {
+                fim = recusar(lote, 0);
+                lote.clear();
+                continue;
+            }
+            int gravados = 0; // Início do lote já em disco (antes de uma troca de segmento)
+            try {
+                List<ByteBuffer> dados = new ArrayList<>(lote.size());
+                for (int i = 0; i < lote.size(); i++) {
+                    Pendente p = lote.get(i);
+                    if (p.dados() != null) {
+                        dados.add(p.dados());
+                    } else if (p.novoSegmento() < 0) { // Encerramento: nada chega depois dele
+                        gravar(dados);
+                        dados.clear();
+                        segmentoAtual.close();
+                        fim = true;
+                    } else {
+                        gravar(dados); // Fecha o segmento atual com o que veio antes da troca
+                        dados.clear();
+                        gravados = i;
+                        segmentoAtual.close();
+                        segmentoAtual = abrirSegmento(p.novoSegmento());
+                        gravados = i + 1; // A troca também
+                    }
+                }
+                gravar(dados);
+                lotesGravados++;
+                for (Pendente p : lote) p.gravado().complete(null);
+            } catch (IOException e) {
+                // O segmento pode ter ficado com parte do lote (ou fechado, se a troca falhou): para o diário,
+                // conclui o que já estava em disco e recusa o resto
+                falha = e;
+                System.err.println("Falha ao gravar o diário; as próximas alterações serão recusadas: " + e.getMessage());
+                for (int i = 0; i < gravados; i++) lote.get(i).gravado().complete(null);
+                fim = recusar(lote, gravados);
+            }
+            lote.clear();
+        }
+    }
+
+    // Falha os pendentes a partir de 'inicio' depois que o diário parou; o encerramento ainda fecha o segmento
+    // e conclui normalmente (retorna true se ele estava entre eles)
+    private boolean recusar(List<Pendente> lote, int inicio) {
+        boolean fim = false;
+        for (Pendente p : lote.subList(inicio, lote.size())) {
+            if (p.dados() == null && p.novoSegmento() < 0) {
+                try {
+                    segmentoAtual.close();
+                } catch (IOException e) {
+                    // Já está parado; só libera o arquivo
+                }
+                p.gravado().complete(null);
+                fim = true;
+            } else {
+                p.gravado().completeExceptionally(parado());
+            }
+        }
+        return fim;
+    }
+
+    private IOException parado() {
+        return new IOException("Diário parado por uma falha de gravação.", falha);
+    }
+
+    private void gravar(List<ByteBuffer> dados) throws IOException {
+        if (dados.isEmpty()) return;
+        escrever(segmentoAtual, dados.toArray(new ByteBuffer[0]));
+    }
+
+    // Escreve os buffers no segmento e sincroniza; os testes o substituem para simular uma falha do disco
+    void escrever(FileChannel segmento, ByteBuffer[] buffers) throws IOException {
+        long restante = 0;
+        for (ByteBuffer b : buffers) restante += b.remaining();
+        while (restante > 0) restante -= segmento.write(buffers);
+        segmento.force(false);
+    }
+
+    // Registro: [tamanho][crc32][operação][id][campos: tamanho int e UTF-8][latitude e longitude, só quando
+    // informadas]; um registro maior que o limite da recuperação falha aqui, antes de entrar na fila
+    private static ByteBuffer codificar(byte operacao, int id, double latitude, double longitude, String... campos) {
+        byte[][] textos = new byte[campos.length][];
+        int tamanho = 1 + 4;
+        for (int i = 0; i < campos.length; i++) {
+            textos[i] = campos[i].getBytes(StandardCharsets.UTF_8);
+            tamanho += 4 + textos[i].length;
+        }
+        boolean localizada = PontoColeta.localizacaoValida(latitude, longitude);
+        if (localizada) tamanho += 16;
+        if (tamanho > TAMANHO_MAXIMO_REGISTRO) throw new IllegalArgumentException("Registro maior que o limite do diário");
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + tamanho);
+        buffer.putInt(tamanho).putInt(0).put(operacao).putInt(id);
+        for (byte[] texto : textos) buffer.putInt(texto.length).put(texto);
+        if (localizada) buffer.putDouble(latitude).putDouble(longitude);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 8, tamanho);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Texto do snapshot ou de um registro; 'utf': no formato antigo, de writeUTF
+    private static String lerTexto(DataInputStream in, boolean utf) throws IOException {
+        if (utf) return in.readUTF();
+        int tamanho = in.readInt();
+        if (tamanho < 0 || tamanho > TAMANHO_MAXIMO_REGISTRO) throw new IOException("Tamanho de texto inválido: " + tamanho);
+        byte[] bytes = new byte[tamanho];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private FileChannel abrirSegmento(long numero) throws IOException {
+        return FileChannel.open(nomeSegmento(numero), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path nomeSegmento(long numero) {
+        return diretorio.resolve(String.format("diario-%06d.log", numero));
+    }
+
+    // Números dos segmentos de diário presentes no diretório, em ordem crescente
+    private List<Long> segmentosExistentes() throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, "diario-*.log")) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                numeros.add(Long.parseLong(nome.substring(7, nome.length() - 4)));
+            }
+        }
+        numeros.sort(null);
+        return numeros;
+    }
+}
@@ -0,0 +1,95 @@
+package ecoColeta;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+// Classe que representa um Ponto de Coleta de materiais recicláveis
+// É imutável: uma atualização cria um novo objeto com o mesmo ID, assim leitores nunca veem um ponto pela metade
+class PontoColeta {
+    private final int id;            // Identificador estável do ponto (usado por ATUALIZAR e REMOVER)
+    private final String endereco;   // Endereço do ponto de coleta
+    private final String materiais;  // Materiais aceitos nesse ponto (texto compartilhado entre pontos com o mesmo texto)
+    private final long mascaraMateriais; // Os mesmos materiais no vocabulário controlado (VocabularioMateriais)
+    private final String horario;    // Horário de funcionamento
+    private final double latitude;   // Localização opcional, em graus (NaN quando não informada)
+    private final double longitude;
+    private volatile byte[] binario; // Campos já codificados para o protocolo binário, calculados no primeiro uso
+    // Maior endereço, lista de materiais ou horário aceito pelo protocolo binário, em bytes UTF-8: os três
+    // cabem em uma linha do protocolo de texto (ver Sessao), como a que um seguidor encaminha ao líder
+    static final int TAMANHO_MAXIMO_CAMPO = 16 * 1024;
+
+    // Construtor da classe que inicializa os atributos
+    public PontoColeta(int id, String endereco, String materiais, String horario) {
+        this(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+    }
+
+    public PontoColeta(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+        this.id = id;
+        this.endereco = endereco;
+        this.materiais = VocabularioMateriais.compartilhar(materiais);
+        this.mascaraMateriais = VocabularioMateriais.classificar(materiais, null);
+        this.horario = horario;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Latitude e longitude válidas (as duas informadas e dentro dos limites)
+    static boolean localizacaoValida(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    // Método que retorna uma representação em String do objeto (usado para exibir informações)
+    @Override
+    public String toString() {
+        return descrever(endereco, materiais, horario);
+    }
+
+    // O mesmo texto a partir dos campos, para quem só tem os campos (ex: respostas binárias no cliente)
+    static String descrever(String endereco, String materiais, String horario) {
+        return "Endereço: " + endereco + " | Materiais aceitos: " + materiais + " | Horário: " + horario;
+    }
+
+    // Codificação do ponto no protocolo binário (id, endereco, materiais, horario); como o ponto é imutável,
+    // é feita uma só vez e as páginas seguintes só copiam os bytes (duas threads podem calcular ao mesmo
+    // tempo, com o mesmo resultado; o campo é volatile para que quem lê o vetor de outra thread o veja preenchido)
+    byte[] binario() {
+        byte[] bytes = binario;
+        if (bytes == null) {
+            ByteBuffer b = ByteBuffer.allocate(5 + ProtocoloBinario.tamanhoTexto(endereco) + ProtocoloBinario.tamanhoTexto(materiais)
+                    + ProtocoloBinario.tamanhoTexto(horario));
+            ProtocoloBinario.escreverVarint(b, id);
+            ProtocoloBinario.escreverTexto(b, endereco);
+            ProtocoloBinario.escreverTexto(b, materiais);
+            ProtocoloBinario.escreverTexto(b, horario);
+            bytes = Arrays.copyOf(b.array(), b.position());
+            binario = bytes;
+        }
+        return bytes;
+    }
+
+    // Linha CSV do EXPORTAR: id,endereco,materiais,horario,latitude,longitude (sem localização, as duas vazias)
+    String linhaCsv() {
+        String lat = temLocalizacao() ? String.valueOf(latitude) : "";
+        String lon = temLocalizacao() ? String.valueOf(longitude) : "";
+        return Csv.juntar(String.valueOf(id), endereco, materiais, horario, lat, lon);
+    }
+
+    // Ponto de uma linha gerada por linhaCsv (cópia local do catálogo nos clientes)
+    static PontoColeta daLinhaCsv(String linha) {
+        List<String> campos = Csv.separar(linha);
+        boolean localizado = campos.size() >= 6 && !campos.get(4).isEmpty() && !campos.get(5).isEmpty();
+        return new PontoColeta(Integer.parseInt(campos.get(0)), campos.get(1), campos.get(2), campos.get(3),
+                localizado ? Double.parseDouble(campos.get(4)) : Double.NaN, localizado ? Double.parseDouble(campos.get(5)) : Double.NaN);
+    }
+
+    // Métodos getters para acessar os atributos do ponto de coleta
+    public int getId() { return id; }
+    public String getEndereco() { return endereco; }
+    public String getMateriais() { return materiais; }
+    public long getMascaraMateriais() { return mascaraMateriais; }
+    public String getHorario() { return horario; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public boolean temLocalizacao() { return localizacaoValida(latitude, longitude); }
+}
@@ -0,0 +1,165 @@
+package ecoColeta;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Protocolo binário, alternativa ao protocolo de texto (linhas terminadas por linha em branco)
+// - Negociação: o cliente abre a conexão com os 4 bytes de SAUDACAO e o servidor responde com os mesmos;
+//   um comando de texto nunca começa com o byte 0, então quem não envia a saudação segue no texto
+// - Quadro: [tamanho int32][código 1 byte][identificador varint][campos], o tamanho conta a partir do código
+// - Campos: inteiros em varint (7 bits por byte) e textos como [tamanho em bytes varint][UTF-8],
+//   então um campo pode conter ';' ou linhas em branco sem quebrar o protocolo
+// Usado pelo servidor (AtendimentoBinario) e pelos clientes (ServicoConexao)
+final class ProtocoloBinario {
+    private ProtocoloBinario() {}
+
+    static final byte[] SAUDACAO = {0, 'E', 'C', 1};
+    static final int TAMANHO_MAXIMO_QUADRO = 1024 * 1024; // Maior pedido aceito pelo servidor (respostas não têm limite)
+
+    // Pedidos (cliente -> servidor)
+    static final byte CADASTRAR = 1;  // endereco, materiais, horario[, latitude, longitude] (double, 8 bytes cada)
+    static final byte LISTAR = 2;     // inicio, limite (página por posição)
+    static final byte PROXIMO = 3;    // cursor, limite (continua a partir do ID)
+    static final byte BUSCAR = 4;     // material
+    static final byte ATUALIZAR = 5;  // id, endereco, materiais, horario[, latitude, longitude]
+    static final byte REMOVER = 6;    // id
+    static final byte TEXTO = 7;      // comando do protocolo de texto (demais comandos, como EXPORTAR, PROXIMOS e SAIR)
+
+    // Respostas (servidor -> cliente)
+    static final byte CADASTRADO = 0x41; // id
+    static final byte ATUALIZADO = 0x42;
+    static final byte REMOVIDO = 0x43;
+    static final byte PONTOS = 0x44;     // total, cursor (0 = fim), quantidade, {id, endereco, materiais, horario}...
+    static final byte LINHAS = 0x45;     // texto da resposta do protocolo de texto (linhas com \n)
+    static final byte ERRO = 0x46;       // código, mensagem
+
+    // Códigos de ERRO
+    static final int ERRO_FORMATO = 1;
+    static final int ERRO_ID_INVALIDO = 2;
+    static final int ERRO_DISCO = 3;
+    static final int ERRO_DESCONHECIDO = 4;
+
+    // ---------------- Inteiros ----------------
+
+    static void escreverVarint(ByteBuffer destino, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            destino.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        destino.put((byte) valor);
+    }
+
+    static long lerVarint(ByteBuffer origem) {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            byte b = origem.get();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if (b >= 0) return valor;
+        }
+        throw new IllegalArgumentException("Varint longo demais");
+    }
+
+    // Lê um varint que deve caber em um int não negativo (IDs, posições, limites)
+    static int lerInt(ByteBuffer origem) {
+        long valor = lerVarint(origem);
+        if (valor < 0 || valor > Integer.MAX_VALUE) throw new IllegalArgumentException("Inteiro fora do intervalo");
+        return (int) valor;
+    }
+
+    static int tamanhoVarint(long valor) {
+        int bytes = 1;
+        while ((valor & ~0x7FL) != 0) {
+            valor >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    // ---------------- Textos ----------------
+
+    // Escreve o texto em UTF-8 direto no array do buffer, sem criar o array de bytes intermediário
+    // Texto só com ASCII (o caso comum) é copiado de uma vez; os demais, caractere a caractere
+    @SuppressWarnings("deprecation") // getBytes(int, int, byte[], int) copia os bytes baixos, exatamente o ASCII
+    static void escreverTexto(ByteBuffer destino, String texto) {
+        int bytes = tamanhoUtf8(texto);
+        escreverVarint(destino, bytes);
+        if (destino.remaining() < bytes) throw new BufferOverflowException();
+        if (!destino.hasArray()) { // Buffers diretos não são usados pelo protocolo, mas funcionam
+            destino.put(texto.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        byte[] a = destino.array();
+        int p = destino.arrayOffset() + destino.position();
+        if (bytes == texto.length()) {
+            texto.getBytes(0, bytes, a, p);
+        } else {
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c < 0x80) {
+                    a[p++] = (byte) c;
+                } else if (c < 0x800) {
+                    a[p++] = (byte) (0xC0 | (c >> 6));
+                    a[p++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < texto.length() && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, texto.charAt(++i));
+                    a[p++] = (byte) (0xF0 | (cp >> 18));
+                    a[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    a[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    a[p++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    a[p++] = '?'; // Metade de um par: mesmo tratamento de String.getBytes
+                } else {
+                    a[p++] = (byte) (0xE0 | (c >> 12));
+                    a[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    a[p++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+        destino.position(destino.position() + bytes);
+    }
+
+    // Bytes que o texto ocupa em UTF-8 (sem o prefixo de tamanho)
+    static int tamanhoUtf8(String texto) {
+        int bytes = texto.length();
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length() && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                bytes += 2; // 4 bytes para os 2 chars do par
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    // Espaço que o campo de texto ocupa no quadro (prefixo + bytes)
+    static int tamanhoTexto(String texto) {
+        int bytes = tamanhoUtf8(texto);
+        return tamanhoVarint(bytes) + bytes;
+    }
+
+    // Limite superior de tamanhoTexto sem percorrer o texto (até 3 bytes por char em UTF-8)
+    static int tamanhoMaximoTexto(String texto) {
+        return 5 + 3 * texto.length();
+    }
+
+    static String lerTexto(ByteBuffer origem) {
+        int tamanho = lerInt(origem);
+        if (tamanho > origem.remaining()) throw new IllegalArgumentException("Texto além do fim do quadro");
+        String texto;
+        if (origem.hasArray()) {
+            texto = new String(origem.array(), origem.arrayOffset() + origem.position(), tamanho, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[tamanho];
+            origem.get(origem.position(), bytes);
+            texto = new String(bytes, StandardCharsets.UTF_8);
+        }
+        origem.position(origem.position() + tamanho);
+        return texto;
+    }
+}
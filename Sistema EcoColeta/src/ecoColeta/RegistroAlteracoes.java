@@ -0,0 +1,98 @@
+package ecoColeta;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Registro das alterações do catálogo para o SINCRONIZAR: a versão e o ID de cada alteração, em ordem de versão
+// - O que mudou desde uma versão começa na primeira posição depois dela (busca binária): cada ID dali em diante
+//   mudou, e o cliente só precisa do estado atual dele (ou saber que foi removido), uma vez por trecho
+// - Só a última alteração de cada ID interessa: quando o registro passa do dobro dos IDs já vistos, é
+//   compactado mantendo só a última posição de cada ID (continua em ordem de versão), então quem pede desde a
+//   versão 0 recebe o catálogo inteiro
+// - Como no ListaIds, o escritor acrescenta no fim (em posições que nenhum leitor enxerga) e publica o novo
+//   tamanho; as consultas não bloqueiam. As alterações vêm de um único escritor por vez
+class RegistroAlteracoes {
+    private record Registro(long[] versoes, int[] ids, int tamanho) {}
+
+    // Um trecho do registro: os IDs alterados (em ordem de versão, sem repetição) até a versão 'ate'
+    record Trecho(int[] ids, long ate, boolean continua) {}
+
+    private volatile Registro registro = new Registro(new long[16], new int[16], 0);
+    private final BitSet vistos = new BitSet(); // IDs que já estão no registro (só o escritor usa)
+    private int distintos = 0;
+
+    void registrar(long versao, int id) {
+        Registro atual = registro;
+        if (!vistos.get(id)) {
+            vistos.set(id);
+            distintos++;
+        }
+        if (atual.tamanho() == atual.versoes().length) {
+            atual = atual.tamanho() >= 2 * distintos + 1024 ? compactar(atual) : crescer(atual);
+        }
+        int n = atual.tamanho();
+        atual.versoes()[n] = versao;
+        atual.ids()[n] = id;
+        registro = new Registro(atual.versoes(), atual.ids(), n + 1);
+    }
+
+    // Até 'limite' IDs distintos alterados depois da versão; 'ate' é a versão da última alteração incluída
+    // (ou a pedida, se nada mudou)
+    // O registro só é compactado quando enche, então um ID alterado várias vezes pode se repetir nas posições:
+    // fica a última alteração dele no trecho, e as repetições não contam para o limite
+    Trecho desde(long versao, int limite) {
+        Registro atual = registro;
+        int n = atual.tamanho();
+        int inicio = Arrays.binarySearch(atual.versoes(), 0, n, versao);
+        inicio = inicio >= 0 ? inicio + 1 : -inicio - 1;
+        if (inicio >= n || limite <= 0) return new Trecho(new int[0], Math.max(versao, 0), false);
+
+        BitSet noTrecho = new BitSet();
+        int fim = inicio, distintosNoTrecho = 0;
+        for (; fim < n; fim++) {
+            int id = atual.ids()[fim];
+            if (noTrecho.get(id)) continue;
+            if (distintosNoTrecho == limite) break; // Um ID novo além do limite: o trecho termina antes dele
+            noTrecho.set(id);
+            distintosNoTrecho++;
+        }
+        int[] ids = new int[distintosNoTrecho];
+        int j = distintosNoTrecho;
+        for (int i = fim - 1; i >= inicio; i--) { // Do fim para o começo: a última alteração de cada ID
+            int id = atual.ids()[i];
+            if (!noTrecho.get(id)) continue;
+            noTrecho.clear(id);
+            ids[--j] = id;
+        }
+        return new Trecho(ids, atual.versoes()[fim - 1], fim < n);
+    }
+
+    private static Registro crescer(Registro atual) {
+        int capacidade = atual.versoes().length * 2;
+        return new Registro(Arrays.copyOf(atual.versoes(), capacidade), Arrays.copyOf(atual.ids(), capacidade), atual.tamanho());
+    }
+
+    // Cópia só com a última alteração de cada ID; a capacidade deixa espaço para mais tantas alterações
+    private Registro compactar(Registro atual) {
+        int n = atual.tamanho();
+        BitSet ultimas = new BitSet(n);
+        BitSet jaVisto = new BitSet();
+        int mantidas = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int id = atual.ids()[i];
+            if (jaVisto.get(id)) continue;
+            jaVisto.set(id);
+            ultimas.set(i);
+            mantidas++;
+        }
+        int capacidade = Math.max(16, mantidas * 2);
+        long[] versoes = new long[capacidade];
+        int[] ids = new int[capacidade];
+        int j = 0;
+        for (int i = ultimas.nextSetBit(0); i >= 0; i = ultimas.nextSetBit(i + 1)) {
+            versoes[j] = atual.versoes()[i];
+            ids[j++] = atual.ids()[i];
+        }
+        return new Registro(versoes, ids, j);
+    }
+}
@@ -0,0 +1,242 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Modo seguidor do servidor (-Decocoleta.lider=host:porta): cópia do catálogo do líder, mantida em dia pela rede,
+// que atende LISTAR, BUSCAR e as demais leituras sem passar pelo líder
+// - Ao iniciar, traz o catálogo inteiro com SINCRONIZAR (em trechos de Servidor.MAXIMO_SINCRONIZACAO); depois
+//   recebe as alterações pela assinatura REPLICAR, na ordem das versões do líder e com cada ponto inteiro (CSV)
+// - As versões do líder são seguidas (uma por alteração): um evento só é aplicado se for o próximo da versão
+//   que a cópia tem; os já cobertos pelo SINCRONIZAR são pulados e, se faltar algum (assinatura que não pôde
+//   ser retomada, RESSINCRONIZAR, falha no meio), a cópia volta ao SINCRONIZAR desde a sua versão antes de seguir
+// - Líder reiniciado (outra instância): o SINCRONIZAR traz o catálogo inteiro e o que não veio é removido
+// - CADASTRAR, ATUALIZAR, REMOVER e IMPORTAR são encaminhados ao líder; logo atrás de cada um vai um VERSAO
+//   pela mesma conexão, e a resposta só volta ao cliente quando a cópia chegar a essa versão (quem escreveu lê
+//   a própria alteração no seguidor), ou depois de ESPERA_MAXIMA_MILLIS; nada disso para uma thread: a resposta é
+//   um futuro encadeado (a conexão do cliente a adia, ver Resposta.adiar) e a espera pela versão é uma lista de
+//   futuros que a aplicação dos eventos conclui
+// O seguidor não tem diário: a cópia vem do líder a cada início
+class Replicacao implements AutoCloseable {
+    private static final long TEMPO_LIMITE_MILLIS = 30_000;
+    private static final long ESPERA_MAXIMA_MILLIS = Long.getLong("ecocoleta.esperaReplicacao", 2000);
+    // Conexões com o líder para as alterações encaminhadas: as de uma conexão são atendidas uma a uma, cada uma
+    // esperando o diário do líder, então várias deixam o fsync em grupo juntar as de clientes diferentes
+    private static final int CONEXOES_LIDER = Integer.getInteger("ecocoleta.conexoesLider", 4);
+
+    private final RepositorioPontos repositorio;
+    private final ServicoConexao[] lider;
+    private final AtomicInteger proximaConexao = new AtomicInteger();
+    private volatile ServicoConexao.Assinatura assinatura;
+
+    // A cópia está na versão 'versao' da instância 'instancia' do líder (nula: ainda não sincronizou);
+    // alterados só com a trava, por quem aplica (a thread da assinatura, ou iniciar())
+    private final ReentrantLock trava = new ReentrantLock(); // Não pode ser synchronized: quem espera é thread virtual
+    private volatile String instancia;
+    private volatile long versao;
+
+    // Respostas encaminhadas esperando a cópia chegar à versão 'alvo' da instância; fora da trava, que a thread
+    // da assinatura segura durante um SINCRONIZAR inteiro
+    private record Espera(String instancia, long alvo, CompletableFuture<Void> pronta) {}
+    private final Queue<Espera> esperas = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder alteracoes = new LongAdder();
+    private final LongAdder sincronizacoes = new LongAdder();
+    private final LongAdder encaminhadas = new LongAdder();
+
+    Replicacao(RepositorioPontos repositorio, String host, int porta) throws IOException {
+        this.repositorio = repositorio;
+        this.lider = new ServicoConexao[CONEXOES_LIDER];
+        for (int i = 0; i < lider.length; i++) lider[i] = new ServicoConexao(host, porta, TEMPO_LIMITE_MILLIS, false);
+    }
+
+    // Assina as alterações e traz o catálogo; retorna quando a cópia estiver pronta para atender
+    // Os eventos que chegarem antes do fim do SINCRONIZAR já estão nele (foram publicados antes do pedido)
+    void iniciar() throws IOException {
+        assinatura = lider[0].replicar(this::receber);
+        try {
+            assinatura.inicio().join();
+        } catch (CompletionException e) {
+            throw new IOException("O servidor líder recusou a replicação: " + e.getCause().getMessage(), e.getCause());
+        }
+        trava.lock();
+        try {
+            sincronizar();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    void medir(Metricas metricas) {
+        metricas.medidor("replicacao_versao_lider", "Versão do líder que a cópia deste seguidor já aplicou", () -> versao);
+        metricas.contador("replicacao_alteracoes", "Alterações do líder recebidas pela assinatura REPLICAR", alteracoes::sum);
+        metricas.contador("replicacao_sincronizacoes", "Vezes que a cópia recorreu ao SINCRONIZAR", sincronizacoes::sum);
+        metricas.contador("replicacao_encaminhadas", "Alterações encaminhadas ao líder", encaminhadas::sum);
+    }
+
+    // ---------------- Alterações encaminhadas ----------------
+
+    // Envia o comando ao líder; o futuro conclui com as linhas da resposta dele, depois que a cópia chegar à
+    // versão da alteração, e falha se o líder não responder
+    CompletableFuture<List<String>> encaminhar(String comando) {
+        ServicoConexao conexao = lider[Math.floorMod(proximaConexao.getAndIncrement(), lider.length)];
+        CompletableFuture<List<String>> resposta = conexao.enviar(comando);
+        CompletableFuture<List<String>> versaoLider = conexao.enviar("VERSAO"); // Atendido depois da alteração
+        return resposta.thenCompose(linhas -> versaoLider.thenCompose(this::aguardar).thenApply(v -> {
+            encaminhadas.increment();
+            return linhas;
+        }));
+    }
+
+    // IMPORTAR de um lote (registros como os de RepositorioPontos.cadastrarLote) em um único pedido ao líder;
+    // o futuro conclui com quantos o líder cadastrou (menos que o lote se o diário dele falhou no meio, como em
+    // RepositorioPontos.cadastrarLote) e falha com IOException se o líder não responder ou recusar o lote
+    CompletableFuture<Integer> cadastrarLote(List<String[]> registros) {
+        if (registros.isEmpty()) return CompletableFuture.completedFuture(0);
+        StringBuilder comando = new StringBuilder(registros.size() * 64).append("IMPORTAR");
+        for (String[] r : registros) comando.append('\n').append(Csv.juntar(r));
+        comando.append("\nFIM");
+        return encaminhar(comando.toString()).handle((linhas, falha) -> {
+            if (falha != null) {
+                throw new CompletionException(new IOException("Servidor líder indisponível", falha instanceof CompletionException ? falha.getCause() : falha));
+            }
+            String resumo = linhas.isEmpty() ? "" : linhas.get(linhas.size() - 1);
+            if (resumo.startsWith("Importação Concluída: ")) return registros.size();
+            if (resumo.startsWith("Erro ao Salvar os Pontos em Disco. Pontos importados antes da falha: ")) {
+                return Integer.parseInt(resumo.substring(resumo.lastIndexOf(' ') + 1));
+            }
+            throw new CompletionException(new IOException(linhas.isEmpty() ? "Resposta vazia do líder" : resumo));
+        });
+    }
+
+    // VERSAO;instancia;versao: conclui quando a cópia chegar lá (a mesma instância; se o líder reiniciou, não
+    // espera), ou depois de ESPERA_MAXIMA_MILLIS
+    private CompletableFuture<Void> aguardar(List<String> resposta) {
+        String[] campos = resposta.isEmpty() ? new String[0] : resposta.get(0).split(";");
+        if (campos.length != 3 || !campos[0].equals("VERSAO")) return CompletableFuture.completedFuture(null); // Líder sem VERSAO
+        CompletableFuture<Void> pronta = new CompletableFuture<Void>().completeOnTimeout(null, ESPERA_MAXIMA_MILLIS, TimeUnit.MILLISECONDS);
+        esperas.add(new Espera(campos[1], Long.parseLong(campos[2]), pronta));
+        liberarEsperas(); // A cópia pode ter chegado lá antes de a espera entrar na lista
+        return pronta;
+    }
+
+    // Conclui (e tira da lista) as esperas atendidas pela versão atual da cópia e as que já expiraram
+    private void liberarEsperas() {
+        for (Iterator<Espera> it = esperas.iterator(); it.hasNext(); ) {
+            Espera e = it.next();
+            if (e.pronta().isDone() || !e.instancia().equals(instancia) || versao >= e.alvo()) {
+                it.remove();
+                e.pronta().complete(null);
+            }
+        }
+    }
+
+    // ---------------- Alterações recebidas ----------------
+
+    // Bloco de eventos da assinatura (na thread dela): CADASTRADO;versao;csv, ATUALIZADO;versao;csv,
+    // REMOVIDO;versao;id ou RESSINCRONIZAR;versao;total
+    private void receber(List<String> bloco) {
+        trava.lock();
+        try {
+            if (instancia == null) return; // iniciar() ainda vai sincronizar
+            ServicoConexao.Assinatura a = assinatura;
+            if (a == null || !instancia.equals(a.instancia())) { // O líder reiniciou: a cópia é de outra instância
+                sincronizar();
+                return;
+            }
+            List<RepositorioPontos.Replicada> novas = new ArrayList<>(bloco.size());
+            long ate = versao;
+            for (String linha : bloco) {
+                int fimTipo = linha.indexOf(';');
+                int fimVersao = linha.indexOf(';', fimTipo + 1);
+                long v = Long.parseLong(linha, fimTipo + 1, fimVersao, 10);
+                if (v <= ate) continue; // Já veio pelo SINCRONIZAR
+                if (v != ate + 1 || linha.startsWith("RESSINCRONIZAR;")) { // Faltam alterações
+                    aplicar(novas, ate);
+                    sincronizar();
+                    ate = versao;
+                    continue;
+                }
+                String dados = linha.substring(fimVersao + 1);
+                if (linha.startsWith("REMOVIDO;")) {
+                    novas.add(new RepositorioPontos.Replicada(Integer.parseInt(dados), null));
+                } else {
+                    PontoColeta p = PontoColeta.daLinhaCsv(dados);
+                    novas.add(new RepositorioPontos.Replicada(p.getId(), p));
+                }
+                alteracoes.increment();
+                ate = v;
+            }
+            aplicar(novas, ate);
+        } catch (IOException | RuntimeException e) {
+            // O próximo evento encontra a falta e tenta de novo
+            System.err.println("Replicação: " + (e instanceof CompletionException ce ? ce.getCause() : e));
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void aplicar(List<RepositorioPontos.Replicada> novas, long ate) {
+        repositorio.replicar(novas);
+        novas.clear();
+        versao = ate;
+        liberarEsperas();
+    }
+
+    // Traz do líder o que mudou desde a versão da cópia (com a trava); a primeira resposta é COMPLETO quando a
+    // cópia é de outra instância (ou nenhuma), e então os pontos locais que não vierem nela são removidos
+    private void sincronizar() throws IOException {
+        sincronizacoes.increment();
+        BitSet recebidos = null; // IDs trazidos, quando é o catálogo inteiro
+        boolean continua = true;
+        while (continua) {
+            List<String> linhas = lider[0].sincronizar(instancia, versao).join();
+            String[] cabecalho = linhas.isEmpty() ? new String[0] : linhas.get(0).split(";");
+            if (cabecalho.length != 3 || !(cabecalho[0].equals("COMPLETO") || cabecalho[0].equals("SINCRONIZADO"))) {
+                throw new IOException("Resposta inesperada do líder ao SINCRONIZAR: " + (linhas.isEmpty() ? "" : linhas.get(0)));
+            }
+            if (cabecalho[0].equals("COMPLETO")) recebidos = new BitSet();
+            List<RepositorioPontos.Replicada> novas = new ArrayList<>(linhas.size());
+            continua = false;
+            for (int i = 1; i < linhas.size(); i++) {
+                String linha = linhas.get(i);
+                if (linha.equals("CONTINUA")) {
+                    continua = true;
+                } else if (linha.startsWith("REMOVIDO;")) {
+                    novas.add(new RepositorioPontos.Replicada(Integer.parseInt(linha.substring("REMOVIDO;".length())), null));
+                } else {
+                    PontoColeta p = PontoColeta.daLinhaCsv(linha);
+                    novas.add(new RepositorioPontos.Replicada(p.getId(), p));
+                    if (recebidos != null) recebidos.set(p.getId());
+                }
+            }
+            instancia = cabecalho[1];
+            aplicar(novas, Long.parseLong(cabecalho[2]));
+        }
+        if (recebidos != null) {
+            List<RepositorioPontos.Replicada> sobras = new ArrayList<>();
+            for (PontoColeta p : repositorio.todos()) {
+                if (!recebidos.get(p.getId())) sobras.add(new RepositorioPontos.Replicada(p.getId(), null));
+            }
+            repositorio.replicar(sobras);
+        }
+    }
+
+    @Override
+    public void close() {
+        ServicoConexao.Assinatura a = assinatura;
+        if (a != null) a.close();
+        for (ServicoConexao c : lider) c.close();
+    }
+}
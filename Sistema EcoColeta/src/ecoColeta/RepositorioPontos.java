@@ -0,0 +1,552 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Catálogo de pontos de coleta endereçados por ID estável
+// - Leituras (LISTAR, BUSCAR) não usam bloqueio: os pontos são imutáveis e ficam em uma tabela indexada pelo ID
+// - Escritas passam por um único bloqueio, que mantém na mesma ordem a memória, o índice e o diário
+class RepositorioPontos {
+    // Até quantos pontos aceitando o material a busca por proximidade calcula todas as distâncias em vez de
+    // usar a grade; cada ponto custa um acesso fora de ordem ao array de vetores (cerca de 30 ns), e acima
+    // disso a grade, que olha só a vizinhança da consulta, fica mais barata (ver BenchmarkProximos)
+    private static final int VARREDURA_MAXIMA = 8192;
+    // Em ABERTOS, testar o horário de um ponto do material custa cerca de tantas vezes quanto cruzar uma palavra
+    // de 64 IDs de dois mapas de bits; define quando percorrer o material ID a ID (ver BenchmarkAbertos)
+    private static final int CUSTO_TESTE_POR_ID = 16;
+
+    private final TabelaPontos pontos = new TabelaPontos();
+    private final IndiceMateriais indiceMateriais = new IndiceMateriais();
+    private final IndiceEspacial indiceEspacial = new IndiceEspacial(); // Só os pontos com localização
+    private final IndiceHorarios indiceHorarios = new IndiceHorarios();
+    private final IndicePesquisa indicePesquisa = new IndicePesquisa();
+    private final IndiceSugestoes indiceSugestoes = new IndiceSugestoes();
+    private final Notificacoes notificacoes = new Notificacoes(); // Eventos de alteração para as conexões que assinaram
+    private final RegistroAlteracoes alteracoes = new RegistroAlteracoes(); // O que mudou desde cada versão (SINCRONIZAR)
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final HistogramaLatencia esperaEscrita = new HistogramaLatencia(); // Só quando o bloqueio estava ocupado
+    private final LongAdder falhasGravacao = new LongAdder();
+    private int proximoId = 1;
+    private volatile long versao = 0; // Incrementada a cada alteração; usada para invalidar caches de leitura
+    private Persistencia persistencia; // Nulo quando não há gravação em disco
+    // Alterações enfileiradas no diário e ainda não aplicadas, pelo ID (ver alterar); só com o bloqueio
+    private record AGravar(PontoColeta ponto) {}
+    private final HashMap<Integer, AGravar> aGravar = new HashMap<>();
+    private volatile Geocodificador geocodificador; // Nulo: pontos sem coordenadas ficam sem localização
+
+    // ---------------- Leitura ----------------
+
+    // Todos os pontos em ordem de ID (visão fracamente consistente, não bloqueia escritores)
+    Iterable<PontoColeta> todos() {
+        return pontos;
+    }
+
+    PontoColeta obter(int id) {
+        return pontos.obter(id);
+    }
+
+    int tamanho() {
+        return pontos.tamanho();
+    }
+
+    boolean vazio() {
+        return pontos.tamanho() == 0;
+    }
+
+    // Até 'limite' pontos em ordem de ID, começando no ID informado (inclusive)
+    List<PontoColeta> pagina(int idInicial, int limite) {
+        List<PontoColeta> pagina = new ArrayList<>(Math.min(limite, 1024));
+        Iterator<PontoColeta> it = pontos.aPartirDe(idInicial);
+        while (pagina.size() < limite && it.hasNext()) pagina.add(it.next());
+        return pagina;
+    }
+
+    // ID do ponto na posição informada da listagem (0 = primeiro), ou -1 além do fim
+    int idNaPosicao(int posicao) {
+        return pontos.idNaPosicao(posicao);
+    }
+
+    // Número de alterações aplicadas até agora; muda depois que a alteração já está visível na tabela
+    long versao() {
+        return versao;
+    }
+
+    Notificacoes notificacoes() {
+        return notificacoes;
+    }
+
+    // Esperas pelo bloqueio de escrita (só as que encontraram outro escritor) e gravações no diário que falharam
+    HistogramaLatencia esperaEscrita() {
+        return esperaEscrita;
+    }
+
+    long falhasGravacao() {
+        return falhasGravacao.sum();
+    }
+
+    // IDs alterados depois da versão (até 'limite'), para as cópias locais dos clientes; o estado atual de cada
+    // um vem de obter() (nulo: removido)
+    RegistroAlteracoes.Trecho alteracoesDesde(long versao, int limite) {
+        return alteracoes.desde(versao, limite);
+    }
+
+    // Pontos que aceitam os materiais informados (IndiceMateriais.filtro), em ordem de ID
+    List<PontoColeta> buscarPorMaterial(String material) {
+        BitSet ids = indiceMateriais.buscar(material);
+        List<PontoColeta> encontrados = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            PontoColeta p = pontos.obter(id);
+            if (p != null) encontrados.add(p); // Pode ter sido removido depois da consulta ao índice
+        }
+        return encontrados;
+    }
+
+    // Quantos pontos aceitam o material do vocabulário (código de VocabularioMateriais)
+    int quantidadePorMaterial(int codigo) {
+        return indiceMateriais.quantidade(codigo);
+    }
+
+    // Um ponto encontrado por PROXIMOS e a sua distância da consulta
+    record Proximo(PontoColeta ponto, double distanciaKm) {}
+
+    // Até k pontos com localização mais próximos de (latitude, longitude) que aceitam o material,
+    // do mais perto ao mais longe (material em branco: qualquer ponto)
+    // - Material raro: calcula a distância de cada ponto que o aceita, sem passar pela grade
+    // - Material comum: percorre a grade a partir da consulta, descartando os pontos que não o aceitam
+    // O filtro do material é consultado direto no índice de materiais, sem copiar os conjuntos para um BitSet
+    // (a cópia custaria mais que a própria busca na grade); na grade, cada ponto é testado pela sua máscara
+    List<Proximo> proximos(double latitude, double longitude, int k, String material) {
+        IndiceEspacial.Vizinho[] vizinhos;
+        if (material.isBlank()) {
+            vizinhos = indiceEspacial.proximos(latitude, longitude, k, id -> true);
+        } else {
+            IndiceMateriais.Filtro filtro = indiceMateriais.filtro(material);
+            if (filtro.estimativa() <= VARREDURA_MAXIMA) {
+                IndiceEspacial.Melhores melhores = new IndiceEspacial.Melhores(k, latitude, longitude);
+                filtro.paraCada(id -> indiceEspacial.oferecer(melhores, id));
+                vizinhos = melhores.resultado();
+            } else {
+                vizinhos = indiceEspacial.proximos(latitude, longitude, k, filtro::aceita);
+            }
+        }
+        List<Proximo> encontrados = new ArrayList<>(vizinhos.length);
+        for (IndiceEspacial.Vizinho v : vizinhos) {
+            PontoColeta p = pontos.obter(v.id());
+            if (p != null) encontrados.add(new Proximo(p, v.distanciaKm())); // Pode ter sido removido depois da consulta
+        }
+        return encontrados;
+    }
+
+    // Resultado de ABERTOS: quantos pontos estão abertos e os primeiros deles, em ordem de ID
+    record Abertos(int total, List<PontoColeta> pontos) {}
+
+    // Pontos que aceitam o material (em branco: qualquer um) e estão abertos na faixa da semana
+    // (HorarioFuncionamento.faixa); devolve o total e até 'limite' pontos
+    // - Material raro: testa o horário de cada ponto que o aceita (array por ID do índice de horários)
+    // - Material comum: cruza palavra a palavra os mapas de bits do material e dos grupos de horários abertos
+    //   (64 IDs por operação), sem olhar ponto a ponto
+    Abertos abertos(String material, int faixa, int limite) {
+        List<ConjuntoIds> abertos = indiceHorarios.abertos(faixa);
+        BitSet encontrados;
+        if (material.isBlank()) {
+            int palavras = 0;
+            for (ConjuntoIds c : abertos) palavras = Math.max(palavras, c.palavras());
+            long[] uniao = new long[palavras];
+            for (ConjuntoIds c : abertos) c.adicionarEm(uniao);
+            encontrados = BitSet.valueOf(uniao);
+        } else {
+            IndiceMateriais.Filtro filtro = indiceMateriais.filtro(material);
+            int palavras = 0;
+            for (ConjuntoIds c : abertos) palavras = Math.max(palavras, c.palavras());
+            if ((long) filtro.estimativa() * CUSTO_TESTE_POR_ID <= (long) palavras * (abertos.size() + 1)) {
+                BitSet resultado = encontrados = new BitSet();
+                filtro.paraCada(id -> {
+                    if (indiceHorarios.aberto(id, faixa)) resultado.set(id);
+                });
+            } else {
+                long[] doMaterial = filtro.mapa();
+                long[] resultado = new long[doMaterial.length];
+                for (ConjuntoIds c : abertos) c.adicionarIntersecaoEm(resultado, doMaterial);
+                encontrados = BitSet.valueOf(resultado);
+            }
+        }
+        List<PontoColeta> primeiros = new ArrayList<>(Math.min(limite, encontrados.cardinality()));
+        for (int id = encontrados.nextSetBit(0); id >= 0 && primeiros.size() < limite; id = encontrados.nextSetBit(id + 1)) {
+            PontoColeta p = pontos.obter(id);
+            if (p != null) primeiros.add(p); // Pode ter sido removido depois da consulta
+        }
+        return new Abertos(encontrados.cardinality(), primeiros);
+    }
+
+    // Resultado de PESQUISAR: quantos pontos casaram com o texto e os da página pedida, do mais ao menos relevante
+    record Pesquisa(int total, List<PontoColeta> pontos) {}
+
+    // Pesquisa livre no endereço e nos materiais, tolerante a erros de digitação (IndicePesquisa); devolve
+    // os pontos das posições 'inicio' a 'inicio + limite' da ordem de relevância
+    Pesquisa pesquisar(String texto, int inicio, int limite) {
+        IndicePesquisa.Resultado resultado = indicePesquisa.pesquisar(texto, inicio, limite);
+        List<PontoColeta> encontrados = new ArrayList<>(resultado.ids().length);
+        for (int id : resultado.ids()) {
+            PontoColeta p = pontos.obter(id);
+            if (p != null) encontrados.add(p); // Pode ter sido removido depois da consulta
+        }
+        return new Pesquisa(resultado.total(), encontrados);
+    }
+
+    // Logradouros e materiais que começam com o texto digitado (ou têm uma palavra que começa com ele), dos que
+    // têm mais aos que têm menos pontos; tipo null: os dois
+    List<IndiceSugestoes.Sugestao> sugerir(String prefixo, int n, IndiceSugestoes.Tipo tipo) {
+        return indiceSugestoes.sugerir(prefixo, n, tipo);
+    }
+
+    // Horário interpretado do ponto, ou null se o texto não foi reconhecido
+    HorarioFuncionamento horario(int id) {
+        return indiceHorarios.obter(id);
+    }
+
+    // ---------------- Escrita ----------------
+    // Cada método devolve um futuro que conclui depois que a alteração estiver no diário e aplicada (quem chama
+    // escolhe esperar ou adiar a resposta, ver Resposta.adiar); se a gravação falhar, ele falha com IOException
+    // Com diário, a alteração é codificada e enfileirada sob o bloqueio, mas só é aplicada (tabela, índices,
+    // versão e notificações) quando o registro estiver em disco: uma falha de gravação não deixa na memória nem
+    // anuncia aos assinantes o que o diário não tem (o ID reservado fica sem uso)
+
+    CompletableFuture<PontoColeta> cadastrar(String endereco, String materiais, String horario) {
+        return cadastrar(endereco, materiais, horario, Double.NaN, Double.NaN);
+    }
+
+    // Latitude e longitude NaN: localização pelo geocodificador, se houver e conhecer o endereço
+    CompletableFuture<PontoColeta> cadastrar(String endereco, String materiais, String horario, double latitude, double longitude) {
+        if (!PontoColeta.localizacaoValida(latitude, longitude)) {
+            double[] local = geocodificar(endereco); // Antes do bloqueio: uma falta no cache não atrasa os outros escritores
+            if (local != null) {
+                latitude = local[0];
+                longitude = local[1];
+            }
+        }
+        bloquearEscrita();
+        try {
+            return cadastrarBloqueado(endereco, materiais, horario, latitude, longitude);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Cadastra vários pontos com uma única aquisição do bloqueio e um só futuro para o lote
+    // (os registros do lote vão juntos para o mesmo fsync); cada registro é {endereco, materiais, horario}
+    // ou {endereco, materiais, horario, latitude, longitude}, com as coordenadas já validadas
+    // O futuro conclui com quantos foram cadastrados: menos que o lote se o diário falhou no meio dele (os do
+    // começo já estão gravados e no catálogo; o diário para na falha, então os seguintes não entram)
+    CompletableFuture<Integer> cadastrarLote(List<String[]> registros) {
+        if (registros.isEmpty()) return CompletableFuture.completedFuture(0);
+        CompletableFuture<?>[] gravacoes = new CompletableFuture<?>[registros.size()];
+        AtomicInteger cadastrados = new AtomicInteger();
+        double[][] locais = new double[registros.size()][];
+        for (int i = 0; i < registros.size(); i++) {
+            String[] r = registros.get(i);
+            locais[i] = r.length == 5 ? new double[] {Double.parseDouble(r[3]), Double.parseDouble(r[4])} : geocodificar(r[0]);
+        }
+        bloquearEscrita();
+        try {
+            for (int i = 0; i < registros.size(); i++) {
+                String[] r = registros.get(i);
+                double latitude = locais[i] == null ? Double.NaN : locais[i][0];
+                double longitude = locais[i] == null ? Double.NaN : locais[i][1];
+                gravacoes[i] = cadastrarBloqueado(r[0], r[1], r[2], latitude, longitude).thenRun(cadastrados::incrementAndGet);
+            }
+        } finally {
+            escrita.unlock();
+        }
+        return CompletableFuture.allOf(gravacoes).handle((v, falha) -> cadastrados.get());
+    }
+
+    private CompletableFuture<PontoColeta> cadastrarBloqueado(String endereco, String materiais, String horario, double latitude, double longitude) {
+        PontoColeta novo = new PontoColeta(proximoId, endereco, materiais, horario, latitude, longitude);
+        CompletableFuture<PontoColeta> cadastro = alterar(novo.getId(), novo,
+                p -> p.registrarCadastro(novo.getId(), endereco, materiais, horario, novo.getLatitude(), novo.getLongitude()),
+                () -> {
+                    aplicarCadastro(novo);
+                    return novo;
+                });
+        proximoId++; // Só depois de o registro entrar na fila
+        return cadastro;
+    }
+
+    // Retorna o ponto com os novos dados, ou null se o ID não existir; a localização do ponto é mantida,
+    // a não ser que o endereço tenha mudado (ou o ponto não tenha localização) e o geocodificador o conheça
+    CompletableFuture<PontoColeta> atualizar(int id, String endereco, String materiais, String horario) {
+        PontoColeta atual = pontos.obter(id);
+        if (atual != null && (!atual.temLocalizacao() || !atual.getEndereco().equals(endereco))) {
+            double[] local = geocodificar(endereco);
+            if (local != null) return atualizar(id, endereco, materiais, horario, local);
+        }
+        return atualizar(id, endereco, materiais, horario, null);
+    }
+
+    // Idem, trocando também a localização (NaN: o ponto passa a não ter localização)
+    CompletableFuture<PontoColeta> atualizar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+        return atualizar(id, endereco, materiais, horario, new double[] {latitude, longitude});
+    }
+
+    private CompletableFuture<PontoColeta> atualizar(int id, String endereco, String materiais, String horario, double[] localizacao) {
+        bloquearEscrita();
+        try {
+            PontoColeta atual = atual(id);
+            if (atual == null) return CompletableFuture.completedFuture(null);
+            double latitude = localizacao == null ? atual.getLatitude() : localizacao[0];
+            double longitude = localizacao == null ? atual.getLongitude() : localizacao[1];
+            PontoColeta atualizado = new PontoColeta(id, endereco, materiais, horario, latitude, longitude);
+            return alterar(id, atualizado, p -> p.registrarAtualizacao(id, endereco, materiais, horario, latitude, longitude), () -> {
+                PontoColeta anterior = pontos.obter(id);
+                if (anterior == null) return null; // O cadastro dele não chegou ao disco
+                aplicarAtualizacao(anterior, atualizado);
+                return atualizado;
+            });
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    void usarGeocodificador(Geocodificador geocodificador) {
+        this.geocodificador = geocodificador;
+    }
+
+    // {latitude, longitude} do endereço, ou null se não houver geocodificador ou ele não o conhecer
+    private double[] geocodificar(String endereco) {
+        Geocodificador g = geocodificador;
+        BaseLogradouros.Local local = g == null ? null : g.localizar(endereco);
+        return local == null ? null : new double[] {local.latitude(), local.longitude()};
+    }
+
+    // Com o ponto removido, ou null se o ID não existir
+    CompletableFuture<PontoColeta> remover(int id) {
+        bloquearEscrita();
+        try {
+            if (atual(id) == null) return CompletableFuture.completedFuture(null);
+            return alterar(id, null, p -> p.registrarRemocao(id), () -> aplicarRemocao(id));
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Estado que as escritas enxergam (com o bloqueio): o da última alteração enfileirada do ID, se ainda não
+    // foi aplicada, ou o da tabela
+    private PontoColeta atual(int id) {
+        AGravar pendente = aGravar.get(id);
+        return pendente != null ? pendente.ponto() : pontos.obter(id);
+    }
+
+    // Com o bloqueio: sem diário, aplica já; com diário, codifica e enfileira o registro (se a codificação
+    // falhar, nada mudou) e aplica quando ele for gravado; até lá, 'estado' (nulo: removido) é o estado do ID
+    // para as escritas seguintes
+    // A aplicação acontece na conclusão do registro, na thread gravadora e na ordem do diário; se o registro
+    // já estiver gravado ao anexá-la, ela roda aqui mesmo, e ainda na ordem, porque os registros seguintes só
+    // entram na fila depois que este bloqueio for liberado
+    private <T> CompletableFuture<T> alterar(int id, PontoColeta estado, Function<Persistencia, CompletableFuture<Void>> registrar,
+                                             Supplier<T> aplicar) {
+        if (persistencia == null) return CompletableFuture.completedFuture(aplicar.get());
+        CompletableFuture<Void> registro = registrar.apply(persistencia);
+        AGravar pendente = new AGravar(estado);
+        aGravar.put(id, pendente);
+        return registro.handle((gravado, falha) -> {
+            T resultado = null;
+            bloquearEscrita();
+            try {
+                if (aGravar.get(id) == pendente) aGravar.remove(id); // Não há alteração do ID mais nova na fila
+                if (falha == null) resultado = aplicar.get();
+            } finally {
+                escrita.unlock();
+            }
+            if (falha == null) return resultado;
+            falhasGravacao.increment();
+            throw new CompletionException(new IOException("Falha ao gravar no diário", falha instanceof CompletionException ? falha.getCause() : falha));
+        });
+    }
+
+    // Alteração recebida do servidor líder (Replicacao): o ponto como ficou, ou nulo se foi removido
+    record Replicada(int id, PontoColeta ponto) {}
+
+    // Aplica as alterações do líder, na ordem, com uma única aquisição do bloqueio; os IDs são os do líder
+    // (o seguidor não cadastra nada por conta própria) e não há diário: o seguidor recebe tudo do líder ao iniciar
+    // Cada alteração gera uma versão deste repositório, então ASSINAR e SINCRONIZAR funcionam no seguidor
+    void replicar(List<Replicada> alteracoes) {
+        if (alteracoes.isEmpty()) return;
+        bloquearEscrita();
+        try {
+            for (Replicada r : alteracoes) {
+                if (r.ponto() == null) {
+                    aplicarRemocao(r.id());
+                    continue;
+                }
+                PontoColeta atual = pontos.obter(r.id());
+                if (atual == null) {
+                    aplicarCadastro(r.ponto());
+                } else {
+                    aplicarAtualizacao(atual, r.ponto());
+                }
+                proximoId = Math.max(proximoId, r.id() + 1);
+            }
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // As operações aplicar* são chamadas com o bloqueio de escrita (ou durante a recuperação)
+    private void aplicarCadastro(PontoColeta novo) {
+        indiceMateriais.adicionar(novo);
+        indiceHorarios.adicionar(novo.getId(), novo.getHorario());
+        indicePesquisa.adicionar(novo);
+        indiceSugestoes.adicionar(novo);
+        pontos.colocar(novo);
+        if (novo.temLocalizacao()) indiceEspacial.adicionar(novo.getId(), novo.getLatitude(), novo.getLongitude());
+        versao++;
+        alteracoes.registrar(versao, novo.getId());
+        notificacoes.publicar(new Notificacoes.Evento(versao, Notificacoes.Tipo.CADASTRADO, novo.getId(), novo, pontos.tamanho()));
+    }
+
+    private void aplicarAtualizacao(PontoColeta atual, PontoColeta atualizado) {
+        indiceMateriais.atualizar(atual, atualizado);
+        indicePesquisa.atualizar(atual, atualizado);
+        indiceSugestoes.atualizar(atual, atualizado);
+        if (!atual.getHorario().equals(atualizado.getHorario())) indiceHorarios.atualizar(atualizado.getId(), atualizado.getHorario());
+        pontos.colocar(atualizado);
+        if (atual.getLatitude() != atualizado.getLatitude() || atual.getLongitude() != atualizado.getLongitude()) {
+            if (atualizado.temLocalizacao()) indiceEspacial.adicionar(atualizado.getId(), atualizado.getLatitude(), atualizado.getLongitude());
+            if (atual.temLocalizacao()) indiceEspacial.remover(atual.getId(), atual.getLatitude(), atual.getLongitude());
+        }
+        versao++;
+        alteracoes.registrar(versao, atualizado.getId());
+        notificacoes.publicar(new Notificacoes.Evento(versao, Notificacoes.Tipo.ATUALIZADO, atualizado.getId(), atualizado, pontos.tamanho()));
+    }
+
+    private PontoColeta aplicarRemocao(int id) {
+        PontoColeta removido = pontos.remover(id);
+        if (removido != null) {
+            indiceMateriais.remover(removido);
+            indiceHorarios.remover(id);
+            indicePesquisa.remover(removido);
+            indiceSugestoes.remover(removido);
+            if (removido.temLocalizacao()) indiceEspacial.remover(id, removido.getLatitude(), removido.getLongitude());
+            versao++;
+            alteracoes.registrar(versao, id);
+            notificacoes.publicar(new Notificacoes.Evento(versao, Notificacoes.Tipo.REMOVIDO, id, null, pontos.tamanho()));
+        }
+        return removido;
+    }
+
+    // Adquire o bloqueio de escrita; o tempo de espera só é medido quando ele já estava com outro escritor
+    private void bloquearEscrita() {
+        if (escrita.tryLock()) return;
+        long inicio = System.nanoTime();
+        escrita.lock();
+        esperaEscrita.registrar(System.nanoTime() - inicio);
+    }
+
+    // ---------------- Persistência ----------------
+
+    // Recupera o catálogo do disco e passa a registrar as próximas alterações
+    void carregar(Persistencia p) throws IOException {
+        bloquearEscrita();
+        try {
+            int proximo = p.recuperar(new Persistencia.Recuperacao() {
+                @Override
+                public void cadastrar(int id, String endereco, String materiais, String horario) {
+                    cadastrar(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+                }
+
+                @Override
+                public void cadastrar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+                    aplicarCadastro(new PontoColeta(id, endereco, materiais, horario, latitude, longitude));
+                }
+
+                @Override
+                public void atualizar(int id, String endereco, String materiais, String horario) {
+                    atualizar(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+                }
+
+                @Override
+                public void atualizar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+                    PontoColeta atual = pontos.obter(id);
+                    if (atual != null) aplicarAtualizacao(atual, new PontoColeta(id, endereco, materiais, horario, latitude, longitude));
+                }
+
+                @Override
+                public void remover(int id) {
+                    aplicarRemocao(id);
+                }
+            });
+            proximoId = Math.max(proximoId, proximo);
+            persistencia = p;
+            p.iniciar();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    boolean precisaCompactar(long limiteRegistros) {
+        return persistencia != null && persistencia.precisaCompactar(limiteRegistros);
+    }
+
+    // Encerramento do servidor, depois das conexões: grava um snapshot se o diário tiver registros desde o
+    // último (o próximo início só lê o snapshot, sem reaplicar o diário) e fecha o diário
+    void encerrar() throws IOException {
+        if (persistencia == null) return;
+        if (persistencia.precisaCompactar(1)) compactar();
+        CompletableFuture<Void> fechado;
+        bloquearEscrita();
+        try {
+            fechado = persistencia.encerrar();
+        } finally {
+            escrita.unlock();
+        }
+        aguardar(fechado, "Falha ao fechar o diário"); // Sem o bloqueio: os registros anteriores ainda o usam ao concluir
+    }
+
+    // O catálogo no momento da troca de segmento (ver Persistencia.iniciarSnapshot)
+    private record Copia(List<PontoColeta> pontos, int proximoId, long segmento) {}
+
+    // Grava um snapshot; como os pontos são imutáveis, basta copiar as referências sob o bloqueio, no ponto do
+    // diário em que o segmento troca: com todos os registros anteriores aplicados e nenhum dos seguintes
+    void compactar() throws IOException {
+        CompletableFuture<Copia> copia;
+        bloquearEscrita();
+        try {
+            if (persistencia == null) return;
+            copia = persistencia.iniciarSnapshot().thenApply(this::copiar);
+        } finally {
+            escrita.unlock();
+        }
+        Copia c = aguardar(copia, "Falha ao trocar o segmento do diário");
+        persistencia.gravarSnapshot(c.pontos(), c.proximoId(), c.segmento());
+    }
+
+    private Copia copiar(long segmento) {
+        bloquearEscrita();
+        try {
+            List<PontoColeta> copia = new ArrayList<>(pontos.tamanho());
+            for (PontoColeta ponto : pontos) copia.add(ponto);
+            return new Copia(copia, proximoId, segmento);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private static <T> T aguardar(CompletableFuture<T> futuro, String mensagem) throws IOException {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            throw new IOException(mensagem, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Acumula as linhas de resposta de uma conexão e as envia de uma só vez,
+// evitando uma chamada de sistema por linha como acontecia com o PrintWriter em autoflush
+// Respostas prontas e compartilhadas (como o cache do LISTAR) entram por anexar(), sem cópia
+// Resposta adiada (adiar): parte dela depende de uma operação em andamento, como a gravação no diário
+// - Em uma Resposta síncrona (conexão com thread própria), adiar espera a operação ali mesmo
+// - Em uma assíncrona (motor NIO, em que esperar pararia todas as conexões), a operação fica em adiada() e a
+//   Sessao para de atender a conexão até ela terminar; então concluir() escreve o restante, na vez da conexão
+// Resposta produzida aos poucos (produzir): respostas longas, como o EXPORTAR, escritas um bloco por vez
+// - Na síncrona, cada bloco é enviado antes do próximo: a escrita bloqueante acompanha o ritmo do cliente
+// - Na assíncrona, só o primeiro bloco é escrito na hora; o motor pede os seguintes (continuarProducao) quando a
+//   conexão puder receber mais, e a Sessao para de atender a conexão até a resposta terminar
+class Resposta {
+
+    // Para onde os bytes acumulados são enviados (cada motor de conexões fornece o seu)
+    interface Destino {
+        void escrever(ByteBuffer dados) throws IOException;
+    }
+
+    // Escreve a parte adiada da resposta com o resultado da operação, ou com a falha dela (resultado nulo)
+    interface Continuacao<T> {
+        void escrever(T resultado, Throwable falha) throws IOException;
+    }
+
+    // Escreve o próximo bloco de uma resposta longa; retorna true enquanto faltar algum
+    interface Producao {
+        boolean escreverBloco() throws IOException;
+    }
+
+    private interface Conclusao {
+        void escrever() throws IOException;
+    }
+
+    private final Destino destino;
+    private ByteBuffer buffer;
+    private final List<ByteBuffer> partes = new ArrayList<>(); // Trechos a enviar em ordem, quando há buffers anexados
+    private int inicioTrecho = 0; // Início, no buffer, do texto escrito depois do último anexo
+
+    private final boolean assincrona;
+    private CompletableFuture<?> adiada; // Operação em andamento de que a resposta depende (só na assíncrona)
+    private Conclusao conclusao; // Escreve a parte adiada quando a operação terminar
+    private Producao producao; // Resposta longa com blocos ainda por escrever (só na assíncrona)
+
+    Resposta(Destino destino, int capacidadeInicial) {
+        this(destino, capacidadeInicial, false);
+    }
+
+    Resposta(Destino destino, int capacidadeInicial, boolean assincrona) {
+        this.destino = destino;
+        this.buffer = ByteBuffer.allocate(capacidadeInicial);
+        this.assincrona = assincrona;
+    }
+
+    boolean assincrona() {
+        return assincrona;
+    }
+
+    // O restante da resposta depende da operação: 'continuacao' o escreve quando ela terminar (no máximo uma
+    // operação adiada por vez); se ela já terminou, ou a Resposta é síncrona, escreve agora
+    <T> void adiar(CompletableFuture<T> operacao, Continuacao<? super T> continuacao) throws IOException {
+        if (adiada != null) throw new IllegalStateException("Já há uma resposta adiada");
+        if (!assincrona || operacao.isDone()) {
+            escreverAdiada(operacao, continuacao);
+            return;
+        }
+        adiada = operacao;
+        conclusao = () -> escreverAdiada(operacao, continuacao);
+    }
+
+    // Operação de que a resposta depende, ou null se não houver
+    CompletableFuture<?> adiada() {
+        return adiada;
+    }
+
+    // Depois de a operação adiada terminar: escreve o restante da resposta
+    void concluir() throws IOException {
+        Conclusao c = conclusao;
+        adiada = null;
+        conclusao = null;
+        if (c != null) c.escrever();
+    }
+
+    // Espera a operação (na Resposta assíncrona, ela já terminou) e escreve com o resultado ou a falha
+    private static <T> void escreverAdiada(CompletableFuture<T> operacao, Continuacao<? super T> continuacao) throws IOException {
+        T resultado;
+        try {
+            resultado = operacao.join();
+        } catch (CompletionException e) {
+            continuacao.escrever(null, e.getCause());
+            return;
+        } catch (CancellationException e) {
+            continuacao.escrever(null, e);
+            return;
+        }
+        continuacao.escrever(resultado, null);
+    }
+
+    // Escreve a resposta longa bloco a bloco (ver comentário da classe); o último bloco fica para o próximo
+    // enviar(), como as demais linhas
+    void produzir(Producao blocos) throws IOException {
+        if (adiada != null || producao != null) throw new IllegalStateException("Já há uma resposta em andamento");
+        if (!assincrona) {
+            while (blocos.escreverBloco()) enviar();
+            return;
+        }
+        if (blocos.escreverBloco()) producao = blocos;
+    }
+
+    // Há blocos da resposta longa por escrever
+    boolean produzindo() {
+        return producao != null;
+    }
+
+    // Escreve o próximo bloco da resposta longa (sem enviar); retorna true se ainda faltar algum
+    boolean continuarProducao() throws IOException {
+        if (producao != null && !producao.escreverBloco()) producao = null;
+        return producao != null;
+    }
+
+    // Mesma forma de uso do PrintWriter: uma linha de texto seguida de quebra de linha
+    void println(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        garantirEspaco(bytes.length + 1);
+        buffer.put(bytes).put((byte) '\n');
+    }
+
+    // Linha em branco, que marca o fim de uma resposta no protocolo
+    void println() {
+        garantirEspaco(1);
+        buffer.put((byte) '\n');
+    }
+
+    // Acesso direto ao buffer para respostas binárias, com espaço para ao menos a quantidade de bytes pedida;
+    // vale até a próxima escrita, que pode trocar o buffer por um maior
+    ByteBuffer reservar(int bytes) {
+        garantirEspaco(bytes);
+        return buffer;
+    }
+
+    // Anexa bytes prontos depois do texto já escrito; o buffer deve ser somente leitura, porque
+    // os destinos podem guardá-lo sem copiar até o socket aceitar os dados
+    void anexar(ByteBuffer compartilhado) {
+        fecharTrecho();
+        partes.add(compartilhado);
+    }
+
+    // Envia tudo o que foi acumulado e prepara o buffer para a próxima resposta
+    void enviar() throws IOException {
+        try {
+            if (partes.isEmpty()) {
+                if (buffer.position() == 0) return;
+                buffer.flip();
+                destino.escrever(buffer);
+            } else {
+                fecharTrecho();
+                for (ByteBuffer parte : partes) destino.escrever(parte);
+            }
+        } finally {
+            buffer.clear();
+            partes.clear();
+            inicioTrecho = 0;
+        }
+    }
+
+    // Guarda como parte o texto escrito desde o último anexo
+    private void fecharTrecho() {
+        if (buffer.position() == inicioTrecho) return;
+        partes.add(buffer.slice(inicioTrecho, buffer.position() - inicioTrecho));
+        inicioTrecho = buffer.position();
+    }
+
+    // Dobra a capacidade do buffer quando a resposta não cabe nele
+    private void garantirEspaco(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        int capacidade = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+        ByteBuffer maior = ByteBuffer.allocate(capacidade);
+        buffer.flip();
+        maior.put(buffer);
+        buffer = maior;
+    }
+}
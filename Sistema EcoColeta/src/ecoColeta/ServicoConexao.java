@@ -0,0 +1,544 @@
+package ecoColeta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Conexão do cliente com o servidor que não bloqueia quem chama: cada comando vira um CompletableFuture
+// com as linhas da resposta
+// - Usa o modo com identificador do protocolo ("@id;COMANDO"), então vários comandos podem estar
+//   a caminho ao mesmo tempo: uma thread envia, outra lê as respostas e as entrega pelo identificador
+// - Um pedido cancelado antes de ser enviado não sai; se já saiu, a resposta é descartada ao chegar
+// - Cada pedido tem um tempo limite; se o servidor parar de responder ou a conexão cair, os pedidos
+//   pendentes falham e a conexão é refeita no próximo pedido
+// - As threads de envio e de leitura são virtuais: uma aplicação com milhares de conexões (como o GeradorCarga)
+//   não ocupa duas threads do sistema por conexão
+// - Com o protocolo binário (-Decocoleta.protocolo=binario), os métodos de cada comando enviam quadros
+//   binários e as respostas são convertidas nas mesmas linhas do protocolo de texto; se o servidor
+//   não responder à saudação, a conexão segue no protocolo de texto
+class ServicoConexao implements AutoCloseable {
+    // Protocolo padrão dos clientes, ajustável na linha de comando
+    static final boolean BINARIO_PADRAO = System.getProperty("ecocoleta.protocolo", "texto").equalsIgnoreCase("binario");
+
+    private final String host;
+    private final int porta;
+    private final long tempoLimiteMillis;
+    private final boolean binario;
+    private volatile boolean binarioRecusado = false; // O servidor não respondeu à saudação: não tenta de novo
+    private final AtomicLong proximoId = new AtomicLong();
+    private final AtomicLong alteracoesEnviadas = new AtomicLong(); // CADASTRAR, ATUALIZAR e REMOVER pedidos por esta conexão
+    private final ExecutorService envio = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("ecocoleta-envio").factory());
+    private ByteBuffer quadroEnvio = ByteBuffer.allocate(1024); // Usado só pela thread de envio
+
+    // Campos de um pedido binário, escritos depois do código e do identificador
+    private interface Campos {
+        void escrever(ByteBuffer quadro);
+    }
+
+    // Converte o quadro de resposta (a partir dos campos) nas linhas que o protocolo de texto daria
+    private interface Leitura {
+        List<String> linhas(byte codigo, ByteBuffer quadro);
+    }
+
+    private record Pedido(CompletableFuture<List<String>> resposta, Leitura leitura) {}
+
+    // Uma conexão aberta, com os pedidos já enviados por ela e ainda sem resposta
+    private final class Canal {
+        final Socket socket;
+        final boolean binario;
+        final OutputStream saida;
+        final Map<Long, Pedido> pendentes = new ConcurrentHashMap<>();
+
+        Canal(Socket socket, boolean binario) throws IOException {
+            this.socket = socket;
+            this.binario = binario;
+            this.saida = socket.getOutputStream();
+        }
+
+        // Laço da thread leitora
+        void ler() {
+            try {
+                if (binario) {
+                    lerQuadros();
+                } else {
+                    lerLinhas();
+                }
+            } catch (IOException | RuntimeException e) {
+                encerrar(e instanceof IOException io ? io : new IOException("Resposta inválida do servidor.", e));
+            }
+        }
+
+        // Protocolo de texto: "@id", as linhas da resposta e a linha em branco final
+        private void lerLinhas() throws IOException {
+            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<String> linhas = new ArrayList<>();
+            String id = null;
+            while (true) {
+                String linha = entrada.readLine();
+                if (linha == null) throw new EOFException("O servidor fechou a conexão.");
+                if (id == null && linha.startsWith("@")) {
+                    id = linha.substring(1);
+                } else if (!linha.trim().isEmpty()) {
+                    linhas.add(linha);
+                } else {
+                    Pedido pedido = id == null ? null : pendentes.remove(Long.parseLong(id, 36));
+                    if (pedido != null) pedido.resposta().complete(linhas); // Ausente: cancelado ou expirado
+                    linhas = new ArrayList<>();
+                    id = null;
+                }
+            }
+        }
+
+        // Protocolo binário: [tamanho][código][identificador][campos], com um buffer reaproveitado
+        private void lerQuadros() throws IOException {
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            ByteBuffer quadro = ByteBuffer.allocate(64 * 1024);
+            while (true) {
+                int tamanho = entrada.readInt();
+                if (tamanho <= 0) throw new IOException("Quadro inválido recebido do servidor.");
+                if (tamanho > quadro.capacity()) quadro = ByteBuffer.allocate(Math.max(tamanho, quadro.capacity() * 2));
+                entrada.readFully(quadro.array(), 0, tamanho);
+                quadro.clear().limit(tamanho);
+                byte codigo = quadro.get();
+                Pedido pedido = pendentes.remove(ProtocoloBinario.lerVarint(quadro));
+                if (pedido == null) continue; // Cancelado ou expirado
+                try {
+                    pedido.resposta().complete(pedido.leitura().linhas(codigo, quadro));
+                } catch (RuntimeException e) {
+                    pedido.resposta().completeExceptionally(new IOException("Resposta inválida do servidor.", e));
+                }
+            }
+        }
+
+        // Fecha esta conexão e falha os pedidos que dependiam dela
+        void encerrar(IOException causa) {
+            try {
+                socket.close();
+            } catch (IOException e) {}
+            if (canal == this) canal = null;
+            for (Pedido pedido : pendentes.values()) pedido.resposta().completeExceptionally(causa);
+            pendentes.clear();
+        }
+    }
+
+    private volatile Canal canal; // Trocado pela thread de envio (ao reconectar) e pela leitora (ao cair)
+
+    // Conecta já na criação, para que a aplicação saiba de imediato se o servidor está no ar
+    ServicoConexao(String host, int porta, long tempoLimiteMillis) throws IOException {
+        this(host, porta, tempoLimiteMillis, BINARIO_PADRAO);
+    }
+
+    ServicoConexao(String host, int porta, long tempoLimiteMillis, boolean binario) throws IOException {
+        this.host = host;
+        this.porta = porta;
+        this.tempoLimiteMillis = tempoLimiteMillis;
+        this.binario = binario;
+        conectar();
+    }
+
+    // Envia um comando do protocolo de texto e retorna as linhas da resposta (sem o identificador
+    // e a linha em branco final); no protocolo binário ele vai em um quadro TEXTO
+    // O futuro falha com TimeoutException se a resposta não chegar no tempo limite
+    CompletableFuture<List<String>> enviar(String comando) {
+        return pedir(comando, ProtocoloBinario.TEXTO, q -> ProtocoloBinario.escreverTexto(q, comando), ServicoConexao::linhas);
+    }
+
+    // Métodos de cada comando: no protocolo binário os campos vão separados, então podem conter ';'
+
+    CompletableFuture<List<String>> cadastrar(String endereco, String materiais, String horario) {
+        return cadastrar(endereco, materiais, horario, Double.NaN, Double.NaN);
+    }
+
+    // Latitude e longitude NaN: ponto sem localização
+    CompletableFuture<List<String>> cadastrar(String endereco, String materiais, String horario, double latitude, double longitude) {
+        return pedir("CADASTRAR;" + endereco + ";" + materiais + ";" + horario + localizacaoTexto(latitude, longitude), ProtocoloBinario.CADASTRAR, q -> {
+            ProtocoloBinario.escreverTexto(q, endereco);
+            ProtocoloBinario.escreverTexto(q, materiais);
+            ProtocoloBinario.escreverTexto(q, horario);
+            escreverLocalizacao(q, latitude, longitude);
+        }, ServicoConexao::linhas);
+    }
+
+    CompletableFuture<List<String>> listar(int inicio, int limite) {
+        return pedir("LISTAR;" + inicio + ";" + limite, ProtocoloBinario.LISTAR, q -> {
+            ProtocoloBinario.escreverVarint(q, inicio);
+            ProtocoloBinario.escreverVarint(q, limite);
+        }, ServicoConexao::linhas);
+    }
+
+    CompletableFuture<List<String>> proximo(int cursor, int limite) {
+        return pedir("PROXIMO;" + cursor + ";" + limite, ProtocoloBinario.PROXIMO, q -> {
+            ProtocoloBinario.escreverVarint(q, cursor);
+            ProtocoloBinario.escreverVarint(q, limite);
+        }, ServicoConexao::linhas);
+    }
+
+    // A resposta do BUSCAR não tem as linhas TOTAL e CURSOR, como no protocolo de texto
+    CompletableFuture<List<String>> buscar(String material) {
+        return pedir("BUSCAR;" + material, ProtocoloBinario.BUSCAR, q -> ProtocoloBinario.escreverTexto(q, material), (codigo, quadro) -> {
+            List<String> linhas = linhas(codigo, quadro);
+            if (codigo != ProtocoloBinario.PONTOS) return linhas;
+            List<String> pontos = linhas.subList(1, linhas.size());
+            return pontos.isEmpty() ? List.of("Nenhum Ponto Encontrado para o Material: " + material) : pontos;
+        });
+    }
+
+    CompletableFuture<List<String>> atualizar(int id, String endereco, String materiais, String horario) {
+        return atualizar(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+    }
+
+    // Latitude e longitude NaN: o ponto mantém a localização que tinha
+    CompletableFuture<List<String>> atualizar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+        return pedir("ATUALIZAR;" + id + ";" + endereco + ";" + materiais + ";" + horario + localizacaoTexto(latitude, longitude),
+                ProtocoloBinario.ATUALIZAR, q -> {
+            ProtocoloBinario.escreverVarint(q, id);
+            ProtocoloBinario.escreverTexto(q, endereco);
+            ProtocoloBinario.escreverTexto(q, materiais);
+            ProtocoloBinario.escreverTexto(q, horario);
+            escreverLocalizacao(q, latitude, longitude);
+        }, ServicoConexao::linhas);
+    }
+
+    // Pontos mais próximos da localização que aceitam o material (em branco: qualquer um), com a distância;
+    // vai como comando de texto nos dois protocolos
+    CompletableFuture<List<String>> proximos(double latitude, double longitude, int quantidade, String material) {
+        return enviar("PROXIMOS;" + latitude + ";" + longitude + ";" + quantidade + ";" + material);
+    }
+
+    // Pesquisa livre no endereço e nos materiais (tolerante a erros de digitação): TOTAL;n e os pontos das
+    // posições 'inicio' a 'inicio + limite' em ordem de relevância; vai como comando de texto nos dois protocolos
+    CompletableFuture<List<String>> pesquisar(String texto, int inicio, int limite) {
+        return enviar("PESQUISAR;" + texto + ";" + inicio + ";" + limite);
+    }
+
+    // Até n sugestões para o texto digitado ("tipo;texto;pontos"); tipo MATERIAL, ENDERECO ou vazio (os dois);
+    // vai como comando de texto nos dois protocolos
+    CompletableFuture<List<String>> sugerir(String prefixo, int n, String tipo) {
+        return enviar("SUGERIR;" + prefixo + ";" + n + (tipo.isEmpty() ? "" : ";" + tipo));
+    }
+
+    // Pontos que aceitam o material e estão abertos no instante (em branco: agora): TOTAL;n e um ponto por linha,
+    // com o horário em que fecha; vai como comando de texto nos dois protocolos
+    CompletableFuture<List<String>> abertos(String material, String instante) {
+        return enviar("ABERTOS;" + material + ";" + instante);
+    }
+
+    // Localização do endereço pela base de logradouros do servidor (LOCALIZACAO;latitude;longitude;descricao),
+    // sem cadastrar; vai como comando de texto nos dois protocolos
+    CompletableFuture<List<String>> geocodificar(String endereco) {
+        return enviar("GEOCODIFICAR;" + endereco);
+    }
+
+    CompletableFuture<List<String>> remover(int id) {
+        return pedir("REMOVER;" + id, ProtocoloBinario.REMOVER, q -> ProtocoloBinario.escreverVarint(q, id), ServicoConexao::linhas);
+    }
+
+    // Alterações do catálogo desde a versão, para a cópia local (CatalogoLocal); sem instância, o catálogo inteiro;
+    // vai como comando de texto nos dois protocolos
+    CompletableFuture<List<String>> sincronizar(String instancia, long versao) {
+        return enviar(instancia == null ? "SINCRONIZAR" : "SINCRONIZAR;" + instancia + ";" + versao);
+    }
+
+    // Quantas alterações esta conexão já pediu ao servidor: a cópia local sabe que ficou para trás sem esperar
+    long alteracoesEnviadas() {
+        return alteracoesEnviadas.get();
+    }
+
+    // Passa a receber os eventos de alteração do catálogo (ASSINAR), em uma conexão de texto só para eles
+    // e com a própria thread leitora, que entrega cada bloco de eventos a 'aoReceber'
+    Assinatura assinar(Consumer<List<String>> aoReceber) {
+        return assinar("ASSINAR", aoReceber);
+    }
+
+    // Idem com REPLICAR: os eventos trazem o ponto inteiro em CSV (servidores seguidores, ver Replicacao)
+    Assinatura replicar(Consumer<List<String>> aoReceber) {
+        return assinar("REPLICAR", aoReceber);
+    }
+
+    private Assinatura assinar(String comando, Consumer<List<String>> aoReceber) {
+        Assinatura assinatura = new Assinatura(comando, aoReceber);
+        Thread.ofVirtual().name("ecocoleta-eventos").start(assinatura::executar);
+        return assinatura;
+    }
+
+    // Versão e total de pontos do catálogo quando a assinatura começou: os eventos seguintes partem daí
+    record Inicio(String instancia, long versao, int total) {}
+
+    // Se a conexão cair, é refeita com ASSINAR;instancia;versao do último evento recebido, e o servidor continua
+    // de onde parou; se não puder (servidor reiniciado ou eventos demais perdidos), chega RESSINCRONIZAR;versao;total
+    final class Assinatura implements AutoCloseable {
+        private static final long ESPERA_RECONEXAO_MILLIS = 1000;
+
+        private final String comando; // ASSINAR ou REPLICAR
+        private final Consumer<List<String>> aoReceber;
+        private final CompletableFuture<Inicio> inicio = new CompletableFuture<>();
+        private volatile Socket socket;
+        private volatile boolean fechada = false;
+        private volatile String instancia; // Do último ASSINADO
+        private long versao;      // Do último evento recebido
+
+        private Assinatura(String comando, Consumer<List<String>> aoReceber) {
+            this.comando = comando;
+            this.aoReceber = aoReceber;
+        }
+
+        // Completa com a primeira resposta ASSINADO; falha se a primeira conexão falhar
+        CompletableFuture<Inicio> inicio() {
+            return inicio;
+        }
+
+        // Instância do servidor que está enviando os eventos (muda se ele reiniciar)
+        String instancia() {
+            return instancia;
+        }
+
+        private void executar() {
+            while (!fechada) {
+                try (Socket s = abrir()) {
+                    socket = s;
+                    if (fechada) return; // Fechada enquanto conectava
+                    String pedido = instancia == null ? comando : comando + ";" + instancia + ";" + versao;
+                    s.getOutputStream().write((pedido + "\n").getBytes(StandardCharsets.UTF_8));
+                    BufferedReader entrada = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                    List<String> bloco = new ArrayList<>();
+                    String linha;
+                    while ((linha = entrada.readLine()) != null) {
+                        if (!linha.trim().isEmpty()) {
+                            bloco.add(linha);
+                        } else if (!bloco.isEmpty()) {
+                            receber(bloco);
+                            bloco = new ArrayList<>();
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (inicio.completeExceptionally(e)) return; // Nem a primeira conexão deu certo
+                }
+                try {
+                    if (!fechada) Thread.sleep(ESPERA_RECONEXAO_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void receber(List<String> bloco) {
+            String primeira = bloco.get(0);
+            if (primeira.startsWith("ASSINADO;")) { // ASSINADO;instancia;versao[;total]
+                String[] campos = primeira.split(";");
+                instancia = campos[1];
+                versao = Long.parseLong(campos[2]);
+                if (campos.length > 3 && !inicio.complete(new Inicio(instancia, versao, Integer.parseInt(campos[3])))) {
+                    aoReceber.accept(List.of("RESSINCRONIZAR;" + campos[2] + ";" + campos[3])); // Reconexão sem retomada
+                }
+                return;
+            }
+            if (!inicio.isDone()) { // Recusado (ex: servidor sem ASSINAR): não adianta reconectar
+                inicio.completeExceptionally(new IOException(primeira));
+                close();
+                return;
+            }
+            String ultima = bloco.get(bloco.size() - 1);
+            int inicioVersao = ultima.indexOf(';') + 1;
+            int fimVersao = ultima.indexOf(';', inicioVersao);
+            if (inicioVersao == 0 || fimVersao < 0) return; // Não é um bloco de eventos
+            versao = Long.parseLong(ultima, inicioVersao, fimVersao, 10);
+            aoReceber.accept(bloco);
+        }
+
+        @Override
+        public void close() {
+            fechada = true;
+            inicio.cancel(false);
+            Socket atual = socket;
+            try {
+                if (atual != null) atual.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    // Double.toString usa sempre ponto decimal, como o servidor espera
+    private static String localizacaoTexto(double latitude, double longitude) {
+        return PontoColeta.localizacaoValida(latitude, longitude) ? ";" + latitude + ";" + longitude : "";
+    }
+
+    private static void escreverLocalizacao(ByteBuffer quadro, double latitude, double longitude) {
+        if (PontoColeta.localizacaoValida(latitude, longitude)) quadro.putDouble(latitude).putDouble(longitude);
+    }
+
+    // Envia o pedido no protocolo da conexão atual (decidido na thread de envio, que é quem conecta)
+    private CompletableFuture<List<String>> pedir(String comando, byte codigo, Campos campos, Leitura leitura) {
+        CompletableFuture<List<String>> resposta = new CompletableFuture<>();
+        if (comando.startsWith("CADASTRAR;") || comando.startsWith("ATUALIZAR;") || comando.startsWith("REMOVER;")) {
+            alteracoesEnviadas.incrementAndGet();
+        }
+        long id = proximoId.incrementAndGet();
+        try {
+            envio.execute(() -> {
+                if (resposta.isDone()) return; // Cancelado ou expirado antes de ser enviado
+                Canal atual = canal;
+                try {
+                    if (atual == null) atual = conectar();
+                    atual.pendentes.put(id, new Pedido(resposta, leitura));
+                    if (atual.binario) {
+                        escreverQuadro(atual.saida, codigo, id, campos);
+                    } else {
+                        atual.saida.write(("@" + Long.toString(id, 36) + ";" + comando + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                    atual.saida.flush();
+                } catch (IOException e) {
+                    if (atual != null) atual.encerrar(e);
+                    resposta.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            resposta.completeExceptionally(new IOException("Conexão encerrada.", e));
+        }
+        resposta.orTimeout(tempoLimiteMillis, TimeUnit.MILLISECONDS);
+        resposta.whenComplete((_, erro) -> {
+            Canal atual = canal;
+            // Libera pedidos cancelados ou expirados; se um pedido já enviado expirou, o servidor
+            // não está respondendo e a conexão é descartada (o próximo pedido reconecta)
+            if (atual != null && atual.pendentes.remove(id) != null && erro instanceof TimeoutException) {
+                atual.encerrar(new SocketTimeoutException("O servidor não respondeu a tempo."));
+            }
+        });
+        return resposta;
+    }
+
+    // Monta o quadro no buffer reaproveitado (dobrando-o se os campos não couberem) e o escreve de uma vez
+    private void escreverQuadro(OutputStream saida, byte codigo, long id, Campos campos) throws IOException {
+        while (true) {
+            try {
+                quadroEnvio.clear();
+                quadroEnvio.putInt(0).put(codigo);
+                ProtocoloBinario.escreverVarint(quadroEnvio, id);
+                campos.escrever(quadroEnvio);
+                quadroEnvio.putInt(0, quadroEnvio.position() - 4);
+                saida.write(quadroEnvio.array(), 0, quadroEnvio.position());
+                return;
+            } catch (BufferOverflowException e) {
+                quadroEnvio = ByteBuffer.allocate(quadroEnvio.capacity() * 2);
+            }
+        }
+    }
+
+    // Linhas equivalentes às do protocolo de texto para cada resposta binária
+    private static List<String> linhas(byte codigo, ByteBuffer quadro) {
+        switch (codigo) {
+            case ProtocoloBinario.CADASTRADO:
+                return List.of("Ponto de Coleta Cadastrado com Sucesso! ID: " + ProtocoloBinario.lerInt(quadro));
+            case ProtocoloBinario.ATUALIZADO:
+                return List.of("Ponto de Coleta Atualizado com Sucesso!");
+            case ProtocoloBinario.REMOVIDO:
+                return List.of("Ponto de Coleta Removido com Sucesso!");
+            case ProtocoloBinario.PONTOS: {
+                int total = ProtocoloBinario.lerInt(quadro);
+                int cursor = ProtocoloBinario.lerInt(quadro);
+                int quantidade = ProtocoloBinario.lerInt(quadro);
+                List<String> linhas = new ArrayList<>(quantidade + 2);
+                linhas.add("TOTAL;" + total);
+                for (int i = 0; i < quantidade; i++) {
+                    int id = ProtocoloBinario.lerInt(quadro);
+                    String endereco = ProtocoloBinario.lerTexto(quadro);
+                    String materiais = ProtocoloBinario.lerTexto(quadro);
+                    String horario = ProtocoloBinario.lerTexto(quadro);
+                    linhas.add(id + " - " + PontoColeta.descrever(endereco, materiais, horario));
+                }
+                if (cursor != 0) linhas.add("CURSOR;" + cursor); // IDs começam em 1: 0 indica o fim da listagem
+                return linhas;
+            }
+            case ProtocoloBinario.LINHAS: {
+                String texto = new String(quadro.array(), quadro.position(), quadro.remaining(), StandardCharsets.UTF_8);
+                List<String> linhas = new ArrayList<>();
+                for (String linha : texto.split("\n")) {
+                    if (!linha.trim().isEmpty()) linhas.add(linha);
+                }
+                return linhas;
+            }
+            case ProtocoloBinario.ERRO:
+                ProtocoloBinario.lerInt(quadro); // Código do erro; a mensagem já é a do protocolo de texto
+                return List.of(ProtocoloBinario.lerTexto(quadro));
+            default:
+                throw new IllegalStateException("Código de resposta desconhecido: " + codigo);
+        }
+    }
+
+    private Canal conectar() throws IOException {
+        Socket socket = abrir();
+        try {
+            boolean binarioAceito = false;
+            if (binario && !binarioRecusado) {
+                binarioAceito = saudar(socket);
+                if (!binarioAceito) { // A saudação consumiu a conexão: abre outra para o protocolo de texto
+                    binarioRecusado = true;
+                    socket.close();
+                    socket = abrir();
+                }
+            }
+            Canal novo = new Canal(socket, binarioAceito);
+            canal = novo;
+            Thread.ofVirtual().name("ecocoleta-leitura").start(novo::ler);
+            return novo;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private Socket abrir() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, porta), (int) tempoLimiteMillis);
+            socket.setTcpNoDelay(true); // Pedidos pequenos e seguidos não devem esperar o algoritmo de Nagle
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Envia a saudação do protocolo binário e espera o servidor repeti-la; um servidor sem o protocolo
+    // binário não responde (aguarda o fim de uma linha) ou encerra a conexão
+    private boolean saudar(Socket socket) throws IOException {
+        socket.getOutputStream().write(ProtocoloBinario.SAUDACAO);
+        socket.setSoTimeout((int) Math.min(tempoLimiteMillis, 2000));
+        try {
+            byte[] resposta = socket.getInputStream().readNBytes(ProtocoloBinario.SAUDACAO.length);
+            socket.setSoTimeout(0);
+            return Arrays.equals(resposta, ProtocoloBinario.SAUDACAO);
+        } catch (SocketTimeoutException e) {
+            return false;
+        }
+    }
+
+    // Encerra o envio e a conexão; pedidos pendentes falham
+    @Override
+    public void close() {
+        envio.shutdownNow();
+        Canal atual = canal;
+        if (atual != null) atual.encerrar(new IOException("Conexão encerrada."));
+    }
+}
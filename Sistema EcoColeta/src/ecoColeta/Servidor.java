@@ -3,48 +3,72 @@ package ecoColeta;
 // Importações necessárias para comunicação via rede, leitura/escrita e manipulação de listas
 import java.io.*;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.NumberFormat;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
 import java.util.*;
-
-// Classe que representa um Ponto de Coleta de materiais recicláveis
-class PontoColeta {
-    private String endereco;   // Endereço do ponto de coleta
-    private String materiais;  // Materiais aceitos nesse ponto
-    private String horario;    // Horário de funcionamento
-
-    // Construtor da classe que inicializa os atributos
-    public PontoColeta(String endereco, String materiais, String horario) {
-        this.endereco = endereco;
-        this.materiais = materiais;
-        this.horario = horario;
-    }
-
-    // Método que retorna uma representação em String do objeto (usado para exibir informações)
-    @Override
-    public String toString() {
-        return "Endereço: " + endereco + " | Materiais aceitos: " + materiais + " | Horário: " + horario;
-    }
-
-    // Método getter para acessar os materiais aceitos
-    public String getMateriais() { return materiais; }
-
-    // Métodos setters para atualizar os atributos do ponto de coleta
-    public void setEndereco(String endereco) { this.endereco = endereco; }
-    public void setMateriais(String materiais) { this.materiais = materiais; }
-    public void setHorario(String horario) { this.horario = horario; }
-}
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import com.sun.net.httpserver.HttpServer;
 
 // Classe principal do servidor
 public class Servidor {
-    // Lista que armazenará todos os pontos de coleta, sincronizada para acesso seguro por múltiplas threads
-    private static List<PontoColeta> pontos = Collections.synchronizedList(new ArrayList<>());
-    
-    // Variável que indica se o servidor está rodando
-    private static boolean rodando = true;
+    // Catálogo de pontos de coleta, endereçados por ID e seguro para acesso por múltiplas threads
+    private static RepositorioPontos repositorio = new RepositorioPontos();
+    private static final CacheListagem cacheListagem = new CacheListagem(repositorio);
+    private static final Metricas metricas = new Metricas(); // Lidas por METRICAS e pelo endpoint HTTP
+    private static final LongAdder comandosDesconhecidos = new LongAdder();
+    private static final Encerramento encerramento = new Encerramento(); // Etapas do SAIR e do SIGTERM
+
+    // Configurações do servidor, ajustáveis na linha de comando (ex: -Decocoleta.motor=nio)
+    private static final int PORTA = Integer.getInteger("ecocoleta.porta", 12345);
+    private static final String MOTOR = System.getProperty("ecocoleta.motor", "virtual");
+    private static final int MAX_CONEXOES = Integer.getInteger("ecocoleta.maxConexoes", 10000);
+    private static final int LIMITE_SAIDA = Integer.getInteger("ecocoleta.limiteSaida", 1024 * 1024);
+    private static final Path DIRETORIO_DADOS = Path.of(System.getProperty("ecocoleta.dados", "dados"));
+    private static final long REGISTROS_POR_SNAPSHOT = Long.getLong("ecocoleta.registrosPorSnapshot", 100_000);
+    private static final String LOGRADOUROS = System.getProperty("ecocoleta.logradouros"); // Nulo: amostra distribuída com o servidor
+    private static final int CAPACIDADE_GEOCODIFICADOR = Integer.getInteger("ecocoleta.geocache", 10_000);
+    private static final int PORTA_METRICAS = Integer.getInteger("ecocoleta.portaMetricas", 0); // 0: sem endpoint HTTP
+    private static final String LIDER = System.getProperty("ecocoleta.lider"); // host:porta; nulo: este servidor é o líder
+    private static final long PRAZO_ENCERRAMENTO = Long.getLong("ecocoleta.prazoEncerramento", 10_000); // Para drenar as conexões
+    static final ZoneId FUSO = ZoneId.of(System.getProperty("ecocoleta.fuso", "America/Sao_Paulo")); // Dos horários dos pontos
+    static final int MAXIMO_PAGINA = 1000; // Maior página aceita por LISTAR;inicio;limite e PROXIMO
+    static final int MAXIMO_PROXIMOS = 100; // Maior quantidade de pontos devolvida por PROXIMOS
+    static final int MAXIMO_PESQUISA = 1000; // Quantos dos pontos mais relevantes PESQUISAR deixa paginar
+    static final int MAXIMO_SUGESTOES = 20;
+    static final int LINHAS_POR_BLOCO = 1000; // Das respostas longas (EXPORTAR, SINCRONIZAR), escritas aos poucos
+    static final int MAXIMO_SINCRONIZACAO = 10_000; // Pontos alterados por resposta do SINCRONIZAR; o cliente pede o resto
 
     // Método principal que inicia o servidor
     public static void main(String[] args) {
-        try (ServerSocket servidor = new ServerSocket(12345)) { // Cria o servidor na porta 12345
-            System.out.println("Servidor iniciado na porta 12345...");
+        MotorConexoes motor = criarMotor(MOTOR);
+        // As conexões são a primeira etapa do encerramento: as alterações em andamento terminam antes de o diário fechar
+        encerramento.registrar("conexões", () -> motor.drenar(PRAZO_ENCERRAMENTO));
+        encerramento.instalarGancho();
+        try (ServerSocketChannel servidor = ServerSocketChannel.open()) {
+            if (LIDER == null) {
+                carregar(new Persistencia(DIRETORIO_DADOS)); // Recupera o catálogo salvo antes de aceitar clientes
+            } else {
+                seguir(LIDER); // Copia o catálogo do líder antes de aceitar clientes
+            }
+            medirMotor(motor);
+            if (PORTA_METRICAS > 0) publicarMetricas(PORTA_METRICAS);
+            servidor.bind(new InetSocketAddress(PORTA), 1024); // Cria o servidor na porta configurada
+            System.out.println("Servidor iniciado na porta " + PORTA + " (motor: " + MOTOR + ")...");
             System.out.println("Digite 'SAIR' no console para encerrar o servidor.");
 
             // Thread separada para ler comandos do console (como "SAIR" para encerrar o servidor)
@@ -54,8 +78,7 @@ public class Servidor {
                     while (true) {
                         String comando = console.readLine(); // Lê o comando digitado
                         if (comando != null && comando.equalsIgnoreCase("SAIR")) { // Se for "SAIR"
-                            rodando = false; // Para o loop principal
-                            try { servidor.close(); } catch (IOException e) {} // Fecha o servidor
+                            encerramento.executar(); // Drena as conexões e grava o que estiver pendente
                             System.out.println("Servidor encerrado.");
                             System.exit(0); // Encerra o programa
                         }
@@ -65,140 +88,621 @@ public class Servidor {
                 }
             }).start();
 
-            // Loop principal do servidor para aceitar conexões de clientes
-            while (rodando) {
-                try {
-                    Socket socket = servidor.accept(); // Aguarda um cliente se conectar
-                    System.out.println("Cliente conectado: " + socket.getInetAddress());
-
-                    // Cria uma nova thread para cada cliente conectado (para não travar o servidor)
-                    new Thread(() -> {
-                        try (
-                            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream())); // Leitura do cliente
-                            PrintWriter saida = new PrintWriter(socket.getOutputStream(), true) // Envio de mensagens para o cliente
-                        ) {
-                            String comando;
-                            // Loop para receber comandos do cliente
-                            while ((comando = entrada.readLine()) != null) {
-
-                                if (comando.equals("ENCERRAR_TUDO")) { // Comando especial (não encerra o servidor neste caso)
-                                    saida.println("Servidor será encerrado. Todos os clientes desconectados.");
-                                    saida.println();
-                                } else if (comando.startsWith("CADASTRAR")) { // Cadastrar um novo ponto de coleta
-                                    String[] dados = comando.split(";", 4); // Divide o comando em partes
-                                    if (dados.length == 4) {
-                                        // Adiciona o novo ponto na lista
-                                        pontos.add(new PontoColeta(dados[1], dados[2], dados[3]));
-                                        saida.println("Ponto de Coleta Cadastrado com Sucesso!");
-                                        saida.println();
-                                    } else {
-                                        // Mensagem de erro caso o formato esteja incorreto
-                                        saida.println("Formato Inválido. Use: CADASTRAR;endereco;materiais;horario");
-                                        saida.println();
-                                    }
-                                } else if (comando.equals("LISTAR")) { // Listar todos os pontos de coleta
-                                    if (pontos.isEmpty()) {
-                                        saida.println("Nenhum Ponto de Coleta Cadastrado.");
-                                        saida.println();
-                                    } else {
-                                        int i = 1;
-                                        synchronized (pontos) { // Sincroniza o acesso à lista
-                                            for (PontoColeta p : pontos) {
-                                                saida.println(i + " - " + p.toString());
-                                                i++;
-                                            }
-                                        }
-                                        saida.println();
-                                    }
-                                } else if (comando.startsWith("BUSCAR")) { // Buscar pontos por material
-                                    String[] dados = comando.split(";", 2);
-                                    if (dados.length == 2) {
-                                        String material = dados[1];
-                                        boolean encontrado = false;
-                                        synchronized (pontos) {
-                                            for (PontoColeta p : pontos) {
-                                                if (p.getMateriais().toLowerCase().contains(material.toLowerCase())) {
-                                                    saida.println(p.toString());
-                                                    encontrado = true;
-                                                }
-                                            }
-                                        }
-                                        if (!encontrado) {
-                                            saida.println("Nenhum Ponto Encontrado para o Material: " + material);
-                                        }
-                                        saida.println();
-                                    } else {
-                                        saida.println("Formato Inválido. Use: BUSCAR;material");
-                                        saida.println();
-                                    }
-                                } else if (comando.startsWith("ATUALIZAR")) { // Atualizar um ponto de coleta
-                                    String[] dados = comando.split(";", 5);
-                                    if (dados.length == 5) {
-                                        try {
-                                            int index = Integer.parseInt(dados[1]) - 1; // Converte índice informado
-                                            if (index >= 0 && index < pontos.size()) {
-                                                // Atualiza os dados do ponto
-                                                pontos.get(index).setEndereco(dados[2]);
-                                                pontos.get(index).setMateriais(dados[3]);
-                                                pontos.get(index).setHorario(dados[4]);
-                                                saida.println("Ponto de Coleta Atualizado com Sucesso!");
-                                                saida.println();
-                                            } else {
-                                                saida.println("Índice Inválido.");
-                                                saida.println();
-                                            }
-                                        } catch (NumberFormatException e) {
-                                            saida.println("Formato Inválido. O índice deve ser um Número.");
-                                            saida.println();
-                                        }
-                                    } else {
-                                        saida.println("Formato Inválido. Use: ATUALIZAR;indice;novoEndereco;novosMateriais;novoHorario");
-                                        saida.println();
-                                    }
-                                } else if (comando.startsWith("REMOVER")) { // Remover ponto de coleta
-                                    String[] dados = comando.split(";", 2);
-                                    if (dados.length == 2) {
-                                        try {
-                                            int index = Integer.parseInt(dados[1]) - 1;
-                                            if (index >= 0 && index < pontos.size()) {
-                                                pontos.remove(index); // Remove o ponto da lista
-                                                saida.println("Ponto de Coleta Removido com Sucesso!");
-                                                saida.println();
-                                            } else {
-                                                saida.println("Índice Inválido.");
-                                                saida.println();
-                                            }
-                                        } catch (NumberFormatException e) {
-                                            saida.println("Formato Inválido. O índice deve ser um Número.");
-                                            saida.println();
-                                        }
-                                    } else {
-                                        saida.println("Formato Inválido. Use: REMOVER;indice");
-                                        saida.println();
-                                    }
-                                } else if (comando.equals("SAIR")) { // Comando para encerrar a conexão do cliente
-                                    saida.println("Conexão Encerrada.");
-                                    saida.println();
-                                    break;
-                                } else { // Caso o comando seja desconhecido
-                                    saida.println("Comando Inválido.");
-                                    saida.println();
-                                }
-                            }
-                        } catch (SocketException e) {
-                            System.out.println("Cliente desconectado."); // Cliente fechou a conexão
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                    }).start(); // Fim da thread do cliente
+            // Aceita e atende os clientes até o servidor ser encerrado
+            motor.executar(servidor);
 
-                } catch (IOException e) {
-                    if (!rodando) break; // Sai do loop caso o servidor tenha sido encerrado
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void medirMotor(MotorConexoes motor) {
+        metricas.medidor("conexoes_ativas", "Clientes conectados", motor::conexoesAtivas);
+        metricas.contador("conexoes_aceitas", "Conexões aceitas desde o início", motor::conexoesAceitas);
+        metricas.contador("bytes_recebidos", "Bytes lidos das conexões", motor::bytesRecebidos);
+        metricas.contador("bytes_enviados", "Bytes escritos nas conexões", motor::bytesEnviados);
+    }
+
+    // Endpoint HTTP só na interface local (GET /metrics, formato de texto do Prometheus); os coletores remotos
+    // passam por um proxy, como os demais comandos de administração
+    private static void publicarMetricas(int porta) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 16);
+        http.createContext("/metrics", troca -> {
+            try (troca) {
+                byte[] corpo = metricas.prometheus().getBytes(StandardCharsets.UTF_8);
+                troca.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                troca.sendResponseHeaders(200, corpo.length);
+                troca.getResponseBody().write(corpo);
+            }
+        });
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        http.start();
+        encerramento.registrar("métricas", () -> http.stop(0));
+        System.out.println("Métricas em http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + porta + "/metrics");
+    }
+
+    // Cria o motor de conexões escolhido: "virtual" (uma thread virtual por cliente) ou "nio" (seletor único)
+    static MotorConexoes criarMotor(String tipo) {
+        if (tipo.equalsIgnoreCase("nio")) {
+            return new MotorSeletor(MAX_CONEXOES, LIMITE_SAIDA);
+        }
+        return new MotorThreadsVirtuais(MAX_CONEXOES);
+    }
+
+    // Recupera snapshot e diário para a memória, passa a registrar as alterações em disco, prepara o
+    // geocodificador (base de logradouros e cache da última execução) e agenda a compactação periódica
+    // (novo snapshot quando o diário cresce demais), que também grava o cache do geocodificador
+    static void carregar(Persistencia p) throws IOException {
+        long inicio = System.nanoTime();
+        repositorio.carregar(p);
+        System.out.printf("Catálogo carregado: %d pontos em %d ms.%n", repositorio.tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+        prepararGeocodificador();
+
+        ScheduledExecutorService compactador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
+        compactador.scheduleWithFixedDelay(() -> {
+            try {
+                if (repositorio.precisaCompactar(REGISTROS_POR_SNAPSHOT)) repositorio.compactar();
+                geocodificador.salvar();
+            } catch (IOException | RuntimeException e) { // Uma falha não pode cancelar as próximas execuções
+                e.printStackTrace();
+            }
+        }, 10, 10, TimeUnit.SECONDS);
+        encerramento.registrar("catálogo", () -> {
+            compactador.shutdown();
+            compactador.awaitTermination(PRAZO_ENCERRAMENTO, TimeUnit.MILLISECONDS); // Compactação em andamento
+            repositorio.encerrar(); // Snapshot (o próximo início não reaplica o diário) e diário fechado
+        });
+    }
+
+    // Servidor seguidor (ver Replicacao): traz o catálogo do líder (host:porta) e passa a receber as alterações
+    // dele; as alterações pedidas a este servidor são encaminhadas ao líder
+    static void seguir(String lider) throws IOException {
+        int separador = lider.lastIndexOf(':');
+        if (separador < 0) throw new IllegalArgumentException("Use -Decocoleta.lider=host:porta");
+        long inicio = System.nanoTime();
+        Replicacao r = new Replicacao(repositorio, lider.substring(0, separador), Integer.parseInt(lider.substring(separador + 1)));
+        r.iniciar();
+        r.medir(metricas);
+        replicacao = r;
+        encerramento.registrar("replicação", r::close);
+        System.out.printf("Seguindo o líder %s: %d pontos em %d ms.%n", lider, repositorio.tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+        prepararGeocodificador(); // Só para o GEOCODIFICAR: as alterações são localizadas pelo líder
+    }
+
+    // Base de logradouros e cache da última execução
+    private static void prepararGeocodificador() throws IOException {
+        BaseLogradouros base = BaseLogradouros.carregar(LOGRADOUROS == null ? null : Path.of(LOGRADOUROS));
+        geocodificador = new Geocodificador(base, CAPACIDADE_GEOCODIFICADOR, DIRETORIO_DADOS.resolve("geocodificador.cache"));
+        geocodificador.carregar();
+        repositorio.usarGeocodificador(geocodificador);
+        System.out.printf("Geocodificador: %d logradouros, %d endereços em cache.%n", base.tamanho(), geocodificador.estatisticas().entradas());
+        Geocodificador g = geocodificador;
+        metricas.contador("geocodificador_acertos", "Endereços achados no cache do geocodificador", () -> g.estatisticas().acertos());
+        metricas.contador("geocodificador_faltas", "Endereços procurados na base de logradouros", () -> g.estatisticas().faltas());
+        metricas.medidor("geocodificador_entradas", "Endereços no cache do geocodificador", () -> g.estatisticas().entradas());
+        encerramento.registrar("geocodificador", g::salvar); // Guarda os endereços já localizados
+    }
+
+    private static volatile Geocodificador geocodificador; // Nulo até carregar(): GEOCODIFICAR responde que não há base
+    private static volatile Replicacao replicacao; // Não nula em um servidor seguidor
+
+    // Replicação com o líder, ou null se este servidor for o líder
+    static Replicacao replicacao() {
+        return replicacao;
+    }
+
+    static RepositorioPontos repositorio() {
+        return repositorio;
+    }
+
+    static Metricas metricas() {
+        return metricas;
+    }
+
+    // Comandos do protocolo de texto, pelo nome; um comando novo é só mais um registro,
+    // sem alongar o caminho dos demais (IMPORTAR e ASSINAR ficam na Sessao, porque mudam o estado da conexão;
+    // ASSINAR só chega aqui pelo protocolo binário)
+    // Cada comando é registrado com a medição do seu tempo (Metricas.medir); em um seguidor, as alterações
+    // são encaminhadas ao líder
+    private static final TabelaComandos comandos = new TabelaComandos();
+    static {
+        registrar("ENCERRAR_TUDO", Servidor::encerrarTudo);
+        registrar("CADASTRAR", LIDER == null ? Servidor::cadastrar : Servidor::encaminhar);
+        registrar("LISTAR", Servidor::listar);
+        registrar("PROXIMO", Servidor::proximo);
+        registrar("EXPORTAR", Servidor::exportar);
+        registrar("SINCRONIZAR", Servidor::sincronizar);
+        registrar("BUSCAR", Servidor::buscar);
+        registrar("MATERIAIS", Servidor::materiais);
+        registrar("PESQUISAR", Servidor::pesquisar);
+        registrar("SUGERIR", Servidor::sugerir);
+        registrar("ATUALIZAR", LIDER == null ? Servidor::atualizar : Servidor::encaminhar);
+        registrar("REMOVER", LIDER == null ? Servidor::remover : Servidor::encaminhar);
+        registrar("PROXIMOS", Servidor::proximos);
+        registrar("ABERTOS", Servidor::abertos);
+        registrar("GEOCODIFICAR", Servidor::geocodificar);
+        registrar("CACHE_GEOCODIFICADOR", Servidor::cacheGeocodificador);
+        registrar("METRICAS", Servidor::consultarMetricas);
+        registrar("VERSAO", Servidor::versao);
+        registrar("ASSINAR", Servidor::assinar);
+        registrar("SAIR", Servidor::sair);
+
+        metricas.medidor("pontos", "Pontos de coleta no catálogo", repositorio::tamanho);
+        metricas.contador("alteracoes", "Alterações do catálogo (versão do repositório)", repositorio::versao);
+        metricas.medidor("assinaturas", "Conexões que assinaram os eventos (ASSINAR)", () -> repositorio.notificacoes().assinaturas());
+        metricas.contador("falhas_gravacao", "Alterações cuja gravação no diário falhou", repositorio::falhasGravacao);
+        metricas.contador("comandos_desconhecidos", "Linhas com um comando que não existe", comandosDesconhecidos::sum);
+        metricas.tempo("espera_escrita", "Espera pelo bloqueio de escrita do catálogo, quando ocupado", repositorio.esperaEscrita());
+    }
+
+    private static void registrar(String nome, TabelaComandos.Comando comando) {
+        comandos.registrar(nome, metricas.medir(nome, comando));
+    }
+
+    // Executa um comando recebido de um cliente e escreve a resposta (terminada por linha em branco);
+    // retorna false quando o cliente pediu para encerrar a conexão
+    // A LinhaComando é da conexão e é reaproveitada a cada comando
+    static boolean processarComando(String comando, LinhaComando linha, Resposta saida) throws IOException {
+        linha.ler(comando);
+        TabelaComandos.Comando executor = comandos.obter(comando, 0, linha.fimNome());
+        if (executor == null) { // Caso o comando seja desconhecido
+            comandosDesconhecidos.increment();
+            saida.println("Comando Inválido.");
+            saida.println();
+            return true;
+        }
+        return executor.executar(linha, saida);
+    }
+
+    // Servidor seguidor: a alteração vai para o líder e a resposta dele volta ao cliente (ver Replicacao),
+    // adiada até chegar
+    private static boolean encaminhar(LinhaComando linha, Resposta saida) throws IOException {
+        saida.adiar(replicacao.encaminhar(linha.linha()), (linhas, falha) -> {
+            if (falha != null) {
+                saida.println("Servidor Líder Indisponível.");
+            } else {
+                for (String resposta : linhas) saida.println(resposta);
+            }
+            saida.println();
+        });
+        return true;
+    }
+
+    // Comando especial (não encerra o servidor neste caso)
+    private static boolean encerrarTudo(LinhaComando linha, Resposta saida) {
+        saida.println("Servidor será encerrado. Todos os clientes desconectados.");
+        saida.println();
+        return true;
+    }
+
+    // Cadastrar um novo ponto de coleta: CADASTRAR;endereco;materiais;horario[;latitude;longitude]
+    // A resposta sai quando o ponto estiver no diário em disco (adiada, no motor NIO)
+    private static boolean cadastrar(LinhaComando linha, Resposta saida) throws IOException {
+        double[] localizacao = lerLocalizacao(linha, 6);
+        if (localizacao != null || linha.separar(4) == 4) {
+            // Adiciona o novo ponto no catálogo (e no diário em disco)
+            CompletableFuture<PontoColeta> novo = localizacao != null
+                    ? repositorio.cadastrar(linha.texto(1), linha.texto(2), linha.texto(3), localizacao[0], localizacao[1])
+                    : repositorio.cadastrar(linha.texto(1), linha.texto(2), linha.texto(3));
+            saida.adiar(novo, (ponto, falha) -> {
+                saida.println(falha == null ? "Ponto de Coleta Cadastrado com Sucesso! ID: " + ponto.getId() : "Erro ao Salvar o Ponto de Coleta em Disco.");
+                saida.println();
+            });
+            return true;
+        }
+        // Mensagem de erro caso o formato esteja incorreto
+        saida.println("Formato Inválido. Use: CADASTRAR;endereco;materiais;horario[;latitude;longitude]");
+        saida.println();
+        return true;
+    }
+
+    // Listar todos os pontos de coleta (LISTAR) ou uma página, por posição (LISTAR;inicio;limite)
+    private static boolean listar(LinhaComando linha, Resposta saida) {
+        if (!linha.temArgumentos()) {
+            // Resposta já codificada, remontada só quando o catálogo muda (inclui a linha em branco final)
+            saida.anexar(cacheListagem.obter());
+            return true;
+        }
+        try {
+            if (linha.separar(3) != 3) throw new NumberFormatException();
+            int inicio = linha.inteiro(1);
+            int limite = linha.inteiro(2);
+            if (inicio < 0 || limite <= 0) throw new NumberFormatException();
+            int idInicial = repositorio.idNaPosicao(inicio); // Salta blocos inteiros, sem percorrer os pontos anteriores
+            enviarPagina(saida, idInicial < 0 ? Integer.MAX_VALUE : idInicial, limite);
+        } catch (NumberFormatException e) {
+            saida.println("Formato Inválido. Use: LISTAR;inicio;limite");
+            saida.println();
+        }
+        return true;
+    }
+
+    // Continua a listagem a partir do cursor: PROXIMO;cursor;limite
+    private static boolean proximo(LinhaComando linha, Resposta saida) {
+        try {
+            if (linha.separar(3) != 3) throw new NumberFormatException();
+            int cursor = linha.inteiro(1);
+            int limite = linha.inteiro(2);
+            if (cursor < 0 || limite <= 0) throw new NumberFormatException();
+            enviarPagina(saida, cursor, limite);
+        } catch (NumberFormatException e) {
+            saida.println("Formato Inválido. Use: PROXIMO;cursor;limite");
+            saida.println();
+        }
+        return true;
+    }
+
+    // Todos os pontos em CSV, em blocos de LINHAS_POR_BLOCO (Resposta.produzir): o catálogo não é montado
+    // inteiro na memória e, no motor NIO, cada bloco só é escrito quando o cliente tiver consumido os anteriores
+    private static boolean exportar(LinhaComando linha, Resposta saida) throws IOException {
+        saida.println("id,endereco,materiais,horario,latitude,longitude");
+        Iterator<PontoColeta> pontos = repositorio.todos().iterator();
+        saida.produzir(() -> {
+            for (int i = 0; i < LINHAS_POR_BLOCO && pontos.hasNext(); i++) saida.println(pontos.next().linhaCsv());
+            if (pontos.hasNext()) return true;
+            saida.println();
+            return false;
+        });
+        return true;
+    }
+
+    // Alterações do catálogo para a cópia local dos clientes: SINCRONIZAR[;instancia;versao]
+    // - SINCRONIZADO;instancia;versao: só o que mudou depois da versão pedida (da mesma instância do servidor)
+    // - COMPLETO;instancia;versao: sem versão, ou de outra instância (o servidor reiniciou), vai o catálogo inteiro
+    //   e o cliente descarta a cópia que tinha
+    // Seguem uma linha CSV por ponto alterado (como no EXPORTAR), REMOVIDO;id por ponto removido e, se a resposta
+    // parou em MAXIMO_SINCRONIZACAO alterações, CONTINUA: o cliente pede de novo a partir da versão recebida
+    private static boolean sincronizar(LinhaComando linha, Resposta saida) throws IOException {
+        int campos = linha.separar(3);
+        long versao;
+        try {
+            if (campos != 1 && campos != 3) throw new NumberFormatException();
+            versao = campos == 3 ? Long.parseLong(linha.texto(2).trim()) : 0;
+            if (versao < 0) throw new NumberFormatException();
+        } catch (NumberFormatException e) {
+            saida.println("Formato Inválido. Use: SINCRONIZAR[;instancia;versao]");
+            saida.println();
+            return true;
+        }
+        String instancia = repositorio.notificacoes().instancia();
+        boolean completo = campos == 1 || !linha.texto(1).equals(instancia);
+        if (completo) versao = 0;
+        RegistroAlteracoes.Trecho trecho = repositorio.alteracoesDesde(versao, MAXIMO_SINCRONIZACAO);
+        saida.println((completo ? "COMPLETO;" : "SINCRONIZADO;") + instancia + ";" + trecho.ate());
+        int[] ids = trecho.ids();
+        int[] proximo = {0};
+        saida.produzir(() -> { // Em blocos, como no EXPORTAR
+            int fim = Math.min(ids.length, proximo[0] + LINHAS_POR_BLOCO);
+            for (int i = proximo[0]; i < fim; i++) {
+                PontoColeta p = repositorio.obter(ids[i]);
+                if (p != null) {
+                    saida.println(p.linhaCsv());
+                } else if (!completo) { // Quem recebe o catálogo inteiro não tem o que remover
+                    saida.println("REMOVIDO;" + ids[i]);
                 }
             }
+            proximo[0] = fim;
+            if (fim < ids.length) return true;
+            if (trecho.continua()) saida.println("CONTINUA");
+            saida.println();
+            return false;
+        });
+        return true;
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    // Buscar pontos por material: BUSCAR;material
+    // O material é comparado com o vocabulário (VocabularioMateriais) e com os termos livres dos pontos, e não com
+    // o texto inteiro: palavras como "de" e "usado" são ignoradas e sozinhas não casam com "óleo de cozinha usado"
+    private static boolean buscar(LinhaComando linha, Resposta saida) {
+        if (linha.separar(2) == 2) {
+            String material = linha.texto(1);
+            // Consulta o índice invertido em vez de percorrer todos os pontos
+            List<PontoColeta> encontrados = repositorio.buscarPorMaterial(material);
+            for (PontoColeta p : encontrados) {
+                saida.println(p.getId() + " - " + p.toString()); // Com o ID, usado por ATUALIZAR e REMOVER
+            }
+            if (encontrados.isEmpty()) {
+                saida.println("Nenhum Ponto Encontrado para o Material: " + material);
+            }
+        } else {
+            saida.println("Formato Inválido. Use: BUSCAR;material");
+        }
+        saida.println();
+        return true;
+    }
+
+    // Pesquisa livre no endereço e nos materiais, tolerante a erros de digitação: PESQUISAR;texto[;inicio;limite]
+    // Responde TOTAL;n (no máximo MAXIMO_PESQUISA: só os mais relevantes podem ser paginados) e os pontos
+    // das posições pedidas, do mais ao menos relevante (sem inicio e limite: os primeiros 20)
+    private static boolean pesquisar(LinhaComando linha, Resposta saida) {
+        int campos = linha.separar(4);
+        try {
+            if (campos != 2 && campos != 4) throw new NumberFormatException();
+            String texto = linha.texto(1);
+            int inicio = campos == 4 ? linha.inteiro(2) : 0;
+            int limite = campos == 4 ? linha.inteiro(3) : 20;
+            if (texto.isBlank() || inicio < 0 || limite <= 0) throw new NumberFormatException();
+            inicio = Math.min(inicio, MAXIMO_PESQUISA);
+            limite = Math.min(limite, MAXIMO_PESQUISA - inicio);
+            RepositorioPontos.Pesquisa pesquisa = repositorio.pesquisar(texto, inicio, limite);
+            saida.println("TOTAL;" + Math.min(pesquisa.total(), MAXIMO_PESQUISA));
+            for (PontoColeta p : pesquisa.pontos()) {
+                saida.println(p.getId() + " - " + p.toString());
+            }
+            if (pesquisa.total() == 0) saida.println("Nenhum Ponto Encontrado para: " + texto);
+        } catch (NumberFormatException e) {
+            saida.println("Formato Inválido. Use: PESQUISAR;texto[;inicio;limite]");
+        }
+        saida.println();
+        return true;
+    }
+
+    // Sugestões para o texto que está sendo digitado: SUGERIR;prefixo;n[;MATERIAL|ENDERECO]
+    // Uma linha "tipo;texto;pontos" por sugestão (no máximo MAXIMO_SUGESTOES), das que têm mais às que têm
+    // menos pontos; sem sugestões, só a linha em branco
+    private static boolean sugerir(LinhaComando linha, Resposta saida) {
+        int campos = linha.separar(4);
+        try {
+            if (campos != 3 && campos != 4) throw new IllegalArgumentException();
+            String prefixo = linha.texto(1);
+            int n = linha.inteiro(2);
+            IndiceSugestoes.Tipo tipo = campos == 4 ? IndiceSugestoes.Tipo.valueOf(linha.texto(3).trim().toUpperCase(Locale.ROOT)) : null;
+            if (n <= 0) throw new IllegalArgumentException();
+            for (IndiceSugestoes.Sugestao s : repositorio.sugerir(prefixo, Math.min(n, MAXIMO_SUGESTOES), tipo)) {
+                saida.println(s.tipo() + ";" + s.texto() + ";" + s.pontos());
+            }
+        } catch (IllegalArgumentException e) { // Inclui NumberFormatException
+            saida.println("Formato Inválido. Use: SUGERIR;prefixo;n[;MATERIAL|ENDERECO]");
+        }
+        saida.println();
+        return true;
+    }
+
+    // Vocabulário de materiais reconhecidos por BUSCAR (sinônimos, acentos e plural são aceitos):
+    // uma linha "material;pontos" por material
+    private static boolean materiais(LinhaComando linha, Resposta saida) {
+        for (int codigo = 0; codigo < VocabularioMateriais.QUANTIDADE; codigo++) {
+            saida.println(VocabularioMateriais.nome(codigo) + ";" + repositorio.quantidadePorMaterial(codigo));
+        }
+        saida.println();
+        return true;
+    }
+
+    // Atualizar um ponto de coleta: ATUALIZAR;id;novoEndereco;novosMateriais;novoHorario[;latitude;longitude]
+    // (sem latitude e longitude, o ponto mantém a localização que tinha)
+    private static boolean atualizar(LinhaComando linha, Resposta saida) throws IOException {
+        double[] localizacao = lerLocalizacao(linha, 7);
+        if (localizacao != null || linha.separar(5) == 5) {
+            try {
+                int id = linha.inteiro(1); // Converte o ID informado
+                CompletableFuture<PontoColeta> atualizado = localizacao != null
+                        ? repositorio.atualizar(id, linha.texto(2), linha.texto(3), linha.texto(4), localizacao[0], localizacao[1])
+                        : repositorio.atualizar(id, linha.texto(2), linha.texto(3), linha.texto(4));
+                saida.adiar(atualizado, (ponto, falha) -> {
+                    if (falha != null) {
+                        saida.println("Erro ao Salvar o Ponto de Coleta em Disco.");
+                    } else if (ponto != null) {
+                        saida.println("Ponto de Coleta Atualizado com Sucesso!");
+                    } else {
+                        saida.println("ID Inválido.");
+                    }
+                    saida.println();
+                });
+                return true;
+            } catch (NumberFormatException e) {
+                saida.println("Formato Inválido. O ID deve ser um Número.");
+            }
+        } else {
+            saida.println("Formato Inválido. Use: ATUALIZAR;id;novoEndereco;novosMateriais;novoHorario[;latitude;longitude]");
+        }
+        saida.println();
+        return true;
+    }
+
+    // Remover ponto de coleta: REMOVER;id
+    private static boolean remover(LinhaComando linha, Resposta saida) throws IOException {
+        if (linha.separar(2) == 2) {
+            try {
+                int id = linha.inteiro(1);
+                saida.adiar(repositorio.remover(id), (removido, falha) -> { // Remove o ponto do catálogo
+                    if (falha != null) {
+                        saida.println("Erro ao Salvar o Ponto de Coleta em Disco.");
+                    } else if (removido != null) {
+                        saida.println("Ponto de Coleta Removido com Sucesso!");
+                    } else {
+                        saida.println("ID Inválido.");
+                    }
+                    saida.println();
+                });
+                return true;
+            } catch (NumberFormatException e) {
+                saida.println("Formato Inválido. O ID deve ser um Número.");
+            }
+        } else {
+            saida.println("Formato Inválido. Use: REMOVER;id");
+        }
+        saida.println();
+        return true;
+    }
+
+    // Pontos mais próximos de uma localização que aceitam o material: PROXIMOS;latitude;longitude;quantidade;material
+    // (material em branco: qualquer ponto); um ponto por linha, do mais perto ao mais longe, com a distância
+    private static boolean proximos(LinhaComando linha, Resposta saida) {
+        try {
+            if (linha.separar(5) != 5) throw new NumberFormatException();
+            double latitude = linha.decimal(1);
+            double longitude = linha.decimal(2);
+            int quantidade = linha.inteiro(3);
+            if (!PontoColeta.localizacaoValida(latitude, longitude) || quantidade <= 0) throw new NumberFormatException();
+            String material = linha.texto(4);
+            List<RepositorioPontos.Proximo> encontrados = repositorio.proximos(latitude, longitude, Math.min(quantidade, MAXIMO_PROXIMOS), material);
+            NumberFormat distancia = FORMATO_DISTANCIA.get();
+            for (RepositorioPontos.Proximo p : encontrados) {
+                saida.println(p.ponto().getId() + " - " + p.ponto().toString() + " | Distância: " + distancia.format(p.distanciaKm()) + " km");
+            }
+            if (encontrados.isEmpty()) {
+                saida.println(material.isBlank() ? "Nenhum Ponto com Localização Cadastrado."
+                        : "Nenhum Ponto com Localização Encontrado para o Material: " + material);
+            }
+        } catch (NumberFormatException e) {
+            saida.println("Formato Inválido. Use: PROXIMOS;latitude;longitude;quantidade;material");
+        }
+        saida.println();
+        return true;
+    }
+
+    // Pontos que aceitam o material e estão abertos no instante: ABERTOS;material;instante[;limite]
+    // (material em branco: qualquer um; instante em branco: agora; senão segundos ou milissegundos desde 1970,
+    // ou data e hora ISO, como "2026-10-18T14:30" no fuso do servidor ou "2026-10-18T14:30-03:00")
+    // Responde TOTAL;n e até 'limite' pontos (padrão e máximo MAXIMO_PAGINA), cada um com o horário em que fecha
+    private static boolean abertos(LinhaComando linha, Resposta saida) {
+        int campos = linha.separar(4);
+        try {
+            if (campos < 3) throw new NumberFormatException();
+            String material = linha.texto(1);
+            ZonedDateTime instante = lerInstante(linha.texto(2).trim());
+            int limite = campos == 4 ? linha.inteiro(3) : MAXIMO_PAGINA;
+            if (limite <= 0) throw new NumberFormatException();
+            int faixa = HorarioFuncionamento.faixa(instante);
+            RepositorioPontos.Abertos abertos = repositorio.abertos(material, faixa, Math.min(limite, MAXIMO_PAGINA));
+            saida.println("TOTAL;" + abertos.total());
+            for (PontoColeta p : abertos.pontos()) {
+                saida.println(p.getId() + " - " + p.toString() + " | " + descreverFechamento(repositorio.horario(p.getId()), faixa));
+            }
+            if (abertos.total() == 0) {
+                saida.println(material.isBlank() ? "Nenhum Ponto Aberto neste Horário."
+                        : "Nenhum Ponto Aberto neste Horário para o Material: " + material);
+            }
+        } catch (NumberFormatException | DateTimeException e) {
+            saida.println("Formato Inválido. Use: ABERTOS;material;instante[;limite] (instante vazio: agora)");
+        }
+        saida.println();
+        return true;
+    }
+
+    static ZonedDateTime lerInstante(String texto) {
+        if (texto.isEmpty()) return ZonedDateTime.now(FUSO);
+        if (texto.chars().allMatch(Character::isDigit)) {
+            long valor = Long.parseLong(texto);
+            Instant instante = valor >= 100_000_000_000L ? Instant.ofEpochMilli(valor) : Instant.ofEpochSecond(valor);
+            return instante.atZone(FUSO);
+        }
+        texto = texto.replace(' ', 'T');
+        try {
+            return OffsetDateTime.parse(texto).atZoneSameInstant(FUSO);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(texto).atZone(FUSO); // Sem fuso: hora local do servidor
+        }
+    }
+
+    // "Aberto até 18:00" (ou até outro dia da semana, ou "Aberto 24 horas") a partir do início da faixa
+    private static String descreverFechamento(HorarioFuncionamento h, int faixa) {
+        int minutos = h == null ? -1 : h.minutosAteFechar(faixa);
+        if (minutos < 0) return "Aberto 24 horas";
+        int fecha = faixa * HorarioFuncionamento.MINUTOS_POR_FAIXA + minutos; // Minutos desde segunda 00:00
+        String hora = String.format("%02d:%02d", fecha / 60 % 24, fecha % 60);
+        int dias = fecha / (24 * 60) - faixa / HorarioFuncionamento.FAIXAS_POR_DIA;
+        if (dias == 0) return "Aberto até " + hora;
+        return "Aberto até " + DayOfWeek.of(fecha / (24 * 60) % 7 + 1).getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("pt-BR")) + " " + hora;
+    }
+
+    // Localização de um endereço pela base de logradouros, sem cadastrar nada: GEOCODIFICAR;endereco
+    // Responde LOCALIZACAO;latitude;longitude;descricao (o logradouro reconhecido), para conferir antes do cadastro
+    private static boolean geocodificar(LinhaComando linha, Resposta saida) {
+        Geocodificador g = geocodificador;
+        if (linha.separar(2) != 2 || linha.texto(1).isBlank()) {
+            saida.println("Formato Inválido. Use: GEOCODIFICAR;endereco");
+        } else if (g == null) {
+            saida.println("Geocodificador Indisponível.");
+        } else {
+            BaseLogradouros.Local local = g.localizar(linha.texto(1));
+            saida.println(local == null ? "Endereço Não Encontrado na Base de Logradouros."
+                    : "LOCALIZACAO;" + local.latitude() + ";" + local.longitude() + ";" + local.descricao());
+        }
+        saida.println();
+        return true;
+    }
+
+    // Contadores do cache do geocodificador (acertos, faltas, taxa de acerto e ocupação)
+    private static boolean cacheGeocodificador(LinhaComando linha, Resposta saida) {
+        Geocodificador g = geocodificador;
+        if (g == null) {
+            saida.println("Geocodificador Indisponível.");
+        } else {
+            Geocodificador.Estatisticas e = g.estatisticas();
+            saida.println("ACERTOS;" + e.acertos());
+            saida.println("FALTAS;" + e.faltas());
+            saida.println("TAXA_ACERTO;" + String.format(Locale.ROOT, "%.4f", e.taxaAcerto()));
+            saida.println("ENTRADAS;" + e.entradas() + ";" + e.capacidade());
+            saida.println("LOGRADOUROS;" + e.logradouros());
+        }
+        saida.println();
+        return true;
+    }
+
+    // Versão do catálogo: VERSAO;instancia;versao (a mesma de SINCRONIZAR e ASSINAR); o seguidor a pede ao líder
+    // logo depois de encaminhar uma alteração, para esperar a cópia chegar nela
+    private static boolean versao(LinhaComando linha, Resposta saida) {
+        saida.println("VERSAO;" + repositorio.notificacoes().instancia() + ";" + repositorio.versao());
+        saida.println();
+        return true;
+    }
+
+    // Métricas do servidor (ver Metricas.escrever): valores, tempos e uma linha por comando já executado
+    private static boolean consultarMetricas(LinhaComando linha, Resposta saida) {
+        metricas.escrever(saida);
+        saida.println();
+        return true;
+    }
+
+    // NumberFormat não é seguro para várias threads: um por thread, com vírgula decimal
+    private static final ThreadLocal<NumberFormat> FORMATO_DISTANCIA = ThreadLocal.withInitial(() -> {
+        NumberFormat formato = NumberFormat.getNumberInstance(Locale.forLanguageTag("pt-BR"));
+        formato.setMinimumFractionDigits(2);
+        formato.setMaximumFractionDigits(2);
+        return formato;
+    });
+
+    // Latitude e longitude nos dois últimos campos, quando a linha tem exatamente 'campos' campos e eles
+    // são coordenadas válidas; senão retorna null e o comando é lido no formato sem localização
+    private static double[] lerLocalizacao(LinhaComando linha, int campos) {
+        if (linha.separar(campos) != campos) return null;
+        try {
+            double latitude = linha.decimal(campos - 2);
+            double longitude = linha.decimal(campos - 1);
+            if (PontoColeta.localizacaoValida(latitude, longitude)) return new double[] {latitude, longitude};
+        } catch (NumberFormatException e) {
+            // Campos de texto com ';' (ex: horário "8h;18h"): formato sem localização
+        }
+        return null;
+    }
+
+    // Os eventos são empurrados em linhas de texto: no protocolo binário o cliente abre outra conexão, de texto
+    private static boolean assinar(LinhaComando linha, Resposta saida) {
+        saida.println("ASSINAR só está disponível no protocolo de texto.");
+        saida.println();
+        return true;
+    }
+
+    // Comando para encerrar a conexão do cliente
+    private static boolean sair(LinhaComando linha, Resposta saida) {
+        saida.println("Conexão Encerrada.");
+        saida.println();
+        return false;
+    }
+
+    // Escreve uma página da listagem: TOTAL;n, as linhas dos pontos a partir do ID informado e,
+    // se ainda houver pontos, CURSOR;id (o ID de onde o próximo PROXIMO deve continuar)
+    // O cursor é um ID, e não uma posição: cadastros e remoções entre as páginas não repetem nem pulam pontos
+    private static void enviarPagina(Resposta saida, int idInicial, int limite) {
+        limite = Math.min(limite, MAXIMO_PAGINA);
+        List<PontoColeta> pagina = repositorio.pagina(idInicial, limite + 1); // Um a mais para saber se há continuação
+        saida.println("TOTAL;" + repositorio.tamanho());
+        for (int i = 0; i < Math.min(limite, pagina.size()); i++) {
+            PontoColeta p = pagina.get(i);
+            saida.println(p.getId() + " - " + p.toString());
         }
+        if (pagina.size() > limite) saida.println("CURSOR;" + pagina.get(limite).getId());
+        saida.println();
     }
 }
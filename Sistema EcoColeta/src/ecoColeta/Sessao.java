@@ -0,0 +1,236 @@
+package ecoColeta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Estado do protocolo de uma conexão: separa os bytes recebidos em linhas de comando
+// e as entrega ao Servidor; é independente do motor (threads virtuais ou seletor NIO)
+// Modo com identificador (opcional, por comando): "@id;COMANDO" recebe a resposta precedida da linha "@id",
+// o que permite ao cliente enviar vários comandos sem esperar as respostas (são processados em ordem)
+// Se o primeiro byte da conexão for o da saudação do protocolo binário, a conexão passa ao AtendimentoBinario
+// Depois de ASSINAR a conexão só recebe os eventos de Notificacoes, entregues pelo motor (entregarEventos);
+// linhas recebidas são ignoradas, e SAIR encerra a conexão. REPLICAR é o ASSINAR dos servidores seguidores
+// (ver Replicacao), com os pontos inteiros nos eventos
+// Resposta adiada (ver Resposta.adiar, ex: a gravação no diário no motor NIO): a conexão para no comando que a
+// adiou e guarda os bytes que chegaram depois dele; quando a operação termina o motor chama retomar(), na vez da
+// conexão, que completa a resposta e continua dali, então as respostas saem na ordem dos comandos
+// Resposta produzida aos poucos (ver Resposta.produzir, ex: EXPORTAR no motor NIO): a conexão também para no
+// comando, e o motor chama retomar() a cada bloco, quando a conexão puder receber mais
+class Sessao {
+    // Avisado, por qualquer thread, quando a operação da resposta adiada terminar (ou, na thread do motor, a cada
+    // bloco de uma resposta produzida aos poucos); o motor chama retomar()
+    interface Retomada {
+        void agendarRetomada();
+    }
+
+    private static final int TAMANHO_MAXIMO_LINHA = 64 * 1024; // Protege o servidor de linhas sem fim
+
+    private final Resposta resposta;
+    private final LinhaComando linhaComando = new LinhaComando(); // Campos do comando atual, reaproveitados
+    private ImportacaoCsv importacao; // Não nulo entre IMPORTAR e FIM: as linhas são dados, não comandos
+    private AtendimentoBinario binario; // Não nulo quando a conexão negociou o protocolo binário
+    private final Notificacoes.Entregador entregador; // Nulo: o motor não entrega eventos (ASSINAR é recusado)
+    private final Retomada retomada; // Nulo: a Resposta é síncrona e nunca fica adiada
+    private ByteBuffer restante; // Bytes recebidos depois do comando com a resposta adiada
+    private Notificacoes.Assinatura assinatura; // Não nula depois de ASSINAR
+    private boolean ativar = false; // ASSINAR respondido nesta chamada de receber: ativa depois de enviar a resposta
+    private boolean primeiroByte = true;
+    private byte[] linha = new byte[256]; // Bytes da linha ainda incompleta
+    private int tamanhoLinha = 0;
+
+    Sessao(Resposta resposta) {
+        this(resposta, null);
+    }
+
+    Sessao(Resposta resposta, Notificacoes.Entregador entregador) {
+        this(resposta, entregador, null);
+    }
+
+    // Com uma Resposta assíncrona, a retomada é obrigatória
+    Sessao(Resposta resposta, Notificacoes.Entregador entregador, Retomada retomada) {
+        if (resposta.assincrona() && retomada == null) throw new IllegalArgumentException("Resposta assíncrona sem retomada");
+        this.resposta = resposta;
+        this.entregador = entregador;
+        this.retomada = retomada;
+    }
+
+    // Processa todas as linhas completas disponíveis e envia as respostas acumuladas;
+    // retorna false quando a conexão deve ser encerrada (comando SAIR ou linha longa demais)
+    // Se uma resposta ficar adiada, para nela e guarda o restante dos dados (o motor deixa de ler a conexão
+    // enquanto esperando() for verdadeiro)
+    boolean receber(ByteBuffer dados) throws IOException {
+        if (primeiroByte && dados.hasRemaining()) {
+            primeiroByte = false;
+            if (dados.get(dados.position()) == ProtocoloBinario.SAUDACAO[0]) {
+                binario = new AtendimentoBinario(Servidor.repositorio(), resposta);
+            }
+        }
+        if (binario != null) {
+            boolean continuar = binario.receber(dados);
+            resposta.enviar();
+            if (continuar && resposta.adiada() != null) esperar(dados);
+            return continuar;
+        }
+        if (assinatura != null) return procurarSair(dados);
+
+        boolean continuar = true;
+        while (continuar && assinatura == null && !esperando() && dados.hasRemaining()) {
+            byte b = dados.get();
+            if (b == '\n') {
+                int fim = tamanhoLinha;
+                if (fim > 0 && linha[fim - 1] == '\r') fim--;
+                String comando = new String(linha, 0, fim, StandardCharsets.UTF_8);
+                tamanhoLinha = 0;
+                if (importacao != null) {
+                    if (!importacao.receber(comando)) importacao = null;
+                    continue;
+                }
+                if (comando.startsWith("@")) {
+                    int separador = comando.indexOf(';');
+                    String id = separador < 0 ? comando.substring(1) : comando.substring(1, separador);
+                    comando = separador < 0 ? "" : comando.substring(separador + 1);
+                    resposta.println("@" + id);
+                }
+                if (comando.equals("IMPORTAR")) { // Único comando com estado na conexão
+                    importacao = new ImportacaoCsv(Servidor.repositorio(), resposta);
+                } else if (comando.equals("ASSINAR") || comando.startsWith("ASSINAR;")) {
+                    assinar(comando, "ASSINAR", false);
+                } else if (comando.equals("REPLICAR") || comando.startsWith("REPLICAR;")) {
+                    assinar(comando, "REPLICAR", true);
+                } else {
+                    continuar = Servidor.processarComando(comando, linhaComando, resposta);
+                }
+            } else if (tamanhoLinha == TAMANHO_MAXIMO_LINHA) {
+                resposta.println("Comando muito longo.");
+                resposta.println();
+                continuar = false;
+            } else {
+                if (tamanhoLinha == linha.length) {
+                    byte[] maior = new byte[Math.min(linha.length * 2, TAMANHO_MAXIMO_LINHA)];
+                    System.arraycopy(linha, 0, maior, 0, tamanhoLinha);
+                    linha = maior;
+                }
+                linha[tamanhoLinha++] = b;
+            }
+        }
+        resposta.enviar();
+        if (continuar && esperando()) {
+            esperar(dados);
+            return true;
+        }
+        if (ativar) { // Os eventos só começam a sair depois de ASSINADO
+            ativar = false;
+            assinatura.ativar();
+            return procurarSair(dados); // Linhas que vieram junto com o ASSINAR
+        }
+        return continuar;
+    }
+
+    // Guarda o que ainda não foi processado (o buffer de leitura pode ser do motor) e pede a retomada para quando
+    // a operação terminar ou, na resposta produzida aos poucos, para o próximo bloco
+    private void esperar(ByteBuffer dados) {
+        restante = ByteBuffer.allocate(dados.remaining()).put(dados).flip();
+        if (resposta.adiada() != null) {
+            resposta.adiada().whenComplete((resultado, falha) -> retomada.agendarRetomada());
+        } else {
+            retomada.agendarRetomada();
+        }
+    }
+
+    // Há uma resposta adiada ou sendo produzida: o motor não entrega novos dados até retomar()
+    boolean esperando() {
+        return resposta.adiada() != null || resposta.produzindo();
+    }
+
+    // A resposta está sendo produzida aos poucos: o motor só deve chamar retomar() quando a conexão puder
+    // receber mais um bloco
+    boolean produzindo() {
+        return resposta.produzindo();
+    }
+
+    // Chamado pelo motor, na vez da conexão, depois de a operação adiada terminar (ou para o próximo bloco da
+    // resposta produzida aos poucos): escreve o restante da resposta e processa os dados guardados; retorna
+    // false quando a conexão deve ser encerrada
+    boolean retomar() throws IOException {
+        if (resposta.produzindo()) {
+            boolean restam = resposta.continuarProducao();
+            resposta.enviar();
+            if (restam) {
+                retomada.agendarRetomada(); // Próximo bloco
+                return true;
+            }
+        } else {
+            resposta.concluir();
+        }
+        ByteBuffer dados = restante;
+        restante = null;
+        return receber(dados);
+    }
+
+    // Conexão que assinou: as linhas recebidas só são comparadas com SAIR, sem resposta, porque a Resposta
+    // passa a ser usada apenas pela entrega dos eventos (em outra thread, no motor de threads virtuais)
+    private boolean procurarSair(ByteBuffer dados) {
+        while (dados.hasRemaining()) {
+            byte b = dados.get();
+            if (b == '\n') {
+                int fim = tamanhoLinha;
+                tamanhoLinha = 0;
+                if (fim > 0 && fim <= linha.length && linha[fim - 1] == '\r') fim--;
+                if (fim <= linha.length && new String(linha, 0, fim, StandardCharsets.UTF_8).equals("SAIR")) return false;
+            } else if (tamanhoLinha < linha.length) {
+                linha[tamanhoLinha++] = b;
+            } else {
+                tamanhoLinha = linha.length + 1; // Longa demais para ser SAIR
+            }
+        }
+        return true;
+    }
+
+    // ASSINAR[;instancia;versao]: começa a receber os eventos de agora em diante ou, com a instância e a versão do
+    // último evento recebido (depois de uma queda), retoma a partir dele; REPLICAR[;instancia;versao] idem
+    private void assinar(String comando, String nome, boolean replicacao) {
+        linhaComando.ler(comando);
+        int campos = linhaComando.separar(3);
+        if (entregador == null) {
+            resposta.println(nome + " não está disponível nesta conexão.");
+        } else if (campos != 1 && campos != 3) {
+            resposta.println("Formato Inválido. Use: " + nome + "[;instancia;versao]");
+        } else {
+            try {
+                long versao = campos == 3 ? Long.parseLong(linhaComando.texto(2).trim()) : -1;
+                String instancia = campos == 3 ? linhaComando.texto(1) : null;
+                assinatura = Servidor.repositorio().notificacoes().assinar(instancia, versao, entregador, replicacao);
+                ativar = true;
+                resposta.println(assinatura.confirmacao());
+            } catch (NumberFormatException e) {
+                resposta.println("Formato Inválido. Use: " + nome + "[;instancia;versao]");
+            }
+        }
+        resposta.println();
+    }
+
+    // Chamado pelo motor, na vez da conexão, depois de o Entregador agendar: envia um bloco de eventos;
+    // retorna true se ainda restam eventos (o motor chama de novo quando a conexão puder receber mais)
+    boolean entregarEventos() throws IOException {
+        if (assinatura == null) return false;
+        boolean restam = assinatura.escrever(resposta);
+        resposta.enviar();
+        return restam;
+    }
+
+    // Encerramento do servidor, depois do último comando atendido: avisa o cliente de texto com uma resposta sem
+    // identificador (os clientes com pedidos a caminho a descartam); conexões binárias, no meio de um IMPORTAR
+    // ou que assinaram eventos (a Resposta é da entrega) só são fechadas
+    void avisarEncerramento() throws IOException {
+        if (binario != null || importacao != null || assinatura != null) return;
+        resposta.println("Servidor em Encerramento. Conexão Encerrada.");
+        resposta.println();
+        resposta.enviar();
+    }
+
+    // Conexão encerrada: deixa de receber eventos
+    void encerrar() {
+        if (assinatura != null) assinatura.cancelar();
+    }
+}
@@ -0,0 +1,62 @@
+package ecoColeta;
+
+import java.io.IOException;
+
+// Comandos do protocolo de texto, endereçados pelo nome (o trecho antes do primeiro ';')
+// Tabela de espalhamento aberta, consultada direto pelo trecho da linha, sem criar a substring do nome:
+// o custo de achar o comando não depende de quantos comandos existem nem da posição dele na tabela
+final class TabelaComandos {
+
+    // Executa um comando e escreve a resposta (terminada por linha em branco);
+    // retorna false quando o cliente pediu para encerrar a conexão
+    interface Comando {
+        boolean executar(LinhaComando linha, Resposta saida) throws IOException;
+    }
+
+    private String[] nomes = new String[16];
+    private Comando[] comandos = new Comando[16];
+    private int quantidade = 0;
+
+    void registrar(String nome, Comando comando) {
+        if (obter(nome, 0, nome.length()) != null) throw new IllegalArgumentException("Comando já registrado: " + nome);
+        if ((quantidade + 1) * 2 > nomes.length) crescer();
+        inserir(nome, comando);
+        quantidade++;
+    }
+
+    // Comando cujo nome é o trecho [inicio, fim) do texto, ou null se não existir
+    Comando obter(String texto, int inicio, int fim) {
+        int mascara = nomes.length - 1;
+        for (int i = espalhar(texto, inicio, fim) & mascara; nomes[i] != null; i = (i + 1) & mascara) {
+            String nome = nomes[i];
+            if (nome.length() == fim - inicio && texto.regionMatches(inicio, nome, 0, nome.length())) return comandos[i];
+        }
+        return null;
+    }
+
+    private void inserir(String nome, Comando comando) {
+        int mascara = nomes.length - 1;
+        int i = espalhar(nome, 0, nome.length()) & mascara;
+        while (nomes[i] != null) i = (i + 1) & mascara;
+        nomes[i] = nome;
+        comandos[i] = comando;
+    }
+
+    private void crescer() {
+        String[] nomesAntigos = nomes;
+        Comando[] comandosAntigos = comandos;
+        nomes = new String[nomesAntigos.length * 2];
+        comandos = new Comando[nomesAntigos.length * 2];
+        for (int i = 0; i < nomesAntigos.length; i++) {
+            if (nomesAntigos[i] != null) inserir(nomesAntigos[i], comandosAntigos[i]);
+        }
+    }
+
+    // Só o tamanho e as letras das pontas: custo constante, e os nomes dos comandos já diferem nisso
+    // (colisões só custam uma sondagem a mais, regionMatches confirma o nome inteiro)
+    private static int espalhar(String texto, int inicio, int fim) {
+        if (inicio == fim) return 0;
+        int h = (texto.charAt(inicio) * 31 + texto.charAt(fim - 1)) * 31 + (fim - inicio);
+        return h ^ (h >>> 7);
+    }
+}
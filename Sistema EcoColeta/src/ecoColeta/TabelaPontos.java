@@ -0,0 +1,124 @@
+package ecoColeta;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Tabela de pontos indexada diretamente pelo ID (os IDs são inteiros crescentes e densos)
+// Os pontos ficam em blocos de tamanho fixo; o diretório de blocos é trocado por cópia quando cresce
+// Leituras não usam bloqueio; as alterações vêm de um único escritor por vez (o do RepositorioPontos)
+class TabelaPontos implements Iterable<PontoColeta> {
+    private static final int BITS_BLOCO = 12;
+    private static final int TAMANHO_BLOCO = 1 << BITS_BLOCO; // 4096 pontos por bloco
+
+    // Um bloco sabe quantos pontos guarda, para que a paginação por posição salte blocos inteiros
+    private static final class Bloco {
+        final AtomicReferenceArray<PontoColeta> pontos = new AtomicReferenceArray<>(TAMANHO_BLOCO);
+        volatile int quantidade = 0;
+    }
+
+    private volatile Bloco[] blocos = new Bloco[0];
+    private volatile int quantidade = 0;
+
+    PontoColeta obter(int id) {
+        Bloco[] atual = blocos;
+        int bloco = id >>> BITS_BLOCO;
+        if (id < 0 || bloco >= atual.length) return null;
+        return atual[bloco].pontos.get(id & (TAMANHO_BLOCO - 1));
+    }
+
+    // Grava o ponto na posição do seu ID; retorna o ponto que estava lá (ou null)
+    PontoColeta colocar(PontoColeta ponto) {
+        int id = ponto.getId();
+        int bloco = id >>> BITS_BLOCO;
+        Bloco[] atual = blocos;
+        if (bloco >= atual.length) {
+            Bloco[] maior = java.util.Arrays.copyOf(atual, Math.max(bloco + 1, atual.length * 2));
+            for (int i = atual.length; i < maior.length; i++) maior[i] = new Bloco();
+            blocos = atual = maior; // Publica o diretório novo; os blocos existentes são compartilhados
+        }
+        PontoColeta anterior = atual[bloco].pontos.getAndSet(id & (TAMANHO_BLOCO - 1), ponto);
+        if (anterior == null) {
+            atual[bloco].quantidade++;
+            quantidade++;
+        }
+        return anterior;
+    }
+
+    PontoColeta remover(int id) {
+        Bloco[] atual = blocos;
+        int bloco = id >>> BITS_BLOCO;
+        if (id < 0 || bloco >= atual.length) return null;
+        PontoColeta anterior = atual[bloco].pontos.getAndSet(id & (TAMANHO_BLOCO - 1), null);
+        if (anterior != null) {
+            atual[bloco].quantidade--;
+            quantidade--;
+        }
+        return anterior;
+    }
+
+    int tamanho() {
+        return quantidade;
+    }
+
+    // ID do ponto que ocupa a posição informada na ordem de ID (0 = primeiro), ou -1 se não houver
+    // Salta os blocos anteriores pela contagem e só percorre o bloco onde a posição cai
+    int idNaPosicao(int posicao) {
+        if (posicao < 0) return -1;
+        Bloco[] atual = blocos;
+        int restante = posicao;
+        for (int b = 0; b < atual.length; b++) {
+            int noBloco = atual[b].quantidade;
+            if (restante >= noBloco) {
+                restante -= noBloco;
+                continue;
+            }
+            for (int i = 0; i < TAMANHO_BLOCO; i++) {
+                if (atual[b].pontos.get(i) != null && restante-- == 0) return (b << BITS_BLOCO) | i;
+            }
+            // Bloco alterado durante a leitura (tinha menos pontos que a contagem): continua no próximo
+        }
+        return -1;
+    }
+
+    // Percorre os pontos em ordem de ID a partir do ID informado (visão fracamente consistente)
+    Iterator<PontoColeta> aPartirDe(int idInicial) {
+        Bloco[] atual = blocos;
+        return new Iterator<>() {
+            private int id = Math.max(0, idInicial);
+            private PontoColeta proximo = avancar();
+
+            private PontoColeta avancar() {
+                while ((id >>> BITS_BLOCO) < atual.length) {
+                    Bloco bloco = atual[id >>> BITS_BLOCO];
+                    if (bloco.quantidade == 0) { // Bloco vazio: vai direto ao início do próximo
+                        id = ((id >>> BITS_BLOCO) + 1) << BITS_BLOCO;
+                        continue;
+                    }
+                    PontoColeta p = bloco.pontos.get(id & (TAMANHO_BLOCO - 1));
+                    id++;
+                    if (p != null) return p;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximo != null;
+            }
+
+            @Override
+            public PontoColeta next() {
+                if (proximo == null) throw new NoSuchElementException();
+                PontoColeta atualPonto = proximo;
+                proximo = avancar();
+                return atualPonto;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<PontoColeta> iterator() {
+        return aPartirDe(0);
+    }
+}
@@ -0,0 +1,104 @@
+package ecoColeta;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+// Importação e exportação de arquivos CSV pelo cliente (console e interface gráfica)
+// Cada transferência usa uma conexão própria, para não ocupar a conexão dos demais comandos,
+// e lê/grava o arquivo aos poucos: a memória usada não depende do tamanho do arquivo
+// Interromper a thread que chama cancela a transferência (o que já foi importado permanece)
+final class TransferenciaCsv {
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private TransferenciaCsv() {}
+
+    // Recebe a quantidade de linhas processadas até o momento
+    interface Progresso {
+        void atualizar(long linhas);
+    }
+
+    // Transferências pelo servidor da conexão principal do cliente (GerenciadorConexoes.enderecoPrincipal)
+    static String importar(InetSocketAddress servidor, Path arquivo, Progresso progresso) throws IOException {
+        return importar(servidor.getHostString(), servidor.getPort(), arquivo, progresso);
+    }
+
+    static long exportar(InetSocketAddress servidor, Path arquivo, Progresso progresso) throws IOException {
+        return exportar(servidor.getHostString(), servidor.getPort(), arquivo, progresso);
+    }
+
+    // Envia o arquivo com IMPORTAR ... FIM e retorna o resumo do servidor
+    // Uma thread separada lê as linhas PROGRESSO enquanto esta envia o arquivo; sem isso, servidor e
+    // cliente poderiam travar um esperando o outro esvaziar o buffer do socket
+    static String importar(String host, int porta, Path arquivo, Progresso progresso) throws IOException {
+        try (Socket socket = new Socket(host, porta);
+             BufferedReader origem = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter saida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), TAMANHO_BUFFER);
+
+            CompletableFuture<String> resumo = new CompletableFuture<>();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    StringBuilder texto = new StringBuilder();
+                    String linha;
+                    while ((linha = entrada.readLine()) != null && !linha.isEmpty()) {
+                        if (linha.startsWith("PROGRESSO;")) {
+                            progresso.atualizar(Long.parseLong(linha.substring("PROGRESSO;".length())));
+                        } else {
+                            texto.append(texto.isEmpty() ? "" : "\n").append(linha);
+                        }
+                    }
+                    if (linha == null) throw new EOFException("O servidor fechou a conexão.");
+                    resumo.complete(texto.toString());
+                } catch (IOException | RuntimeException e) {
+                    resumo.completeExceptionally(e);
+                }
+            });
+
+            saida.write("IMPORTAR\n");
+            String linha;
+            while ((linha = origem.readLine()) != null && !resumo.isDone()) {
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Importação cancelada.");
+                saida.write(linha.equals("FIM") ? "\"FIM\"" : linha); // Um dado "FIM" não pode encerrar a importação
+                saida.write('\n');
+            }
+            saida.write("FIM\n");
+            saida.flush();
+            try {
+                return resumo.join();
+            } catch (RuntimeException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+    }
+
+    // Grava no arquivo a resposta do EXPORTAR (cabeçalho e uma linha por ponto); retorna a quantidade de pontos
+    static long exportar(String host, int porta, Path arquivo, Progresso progresso) throws IOException {
+        try (Socket socket = new Socket(host, porta);
+             BufferedWriter destino = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), TAMANHO_BUFFER);
+            socket.getOutputStream().write("EXPORTAR\n".getBytes(StandardCharsets.UTF_8));
+            long pontos = -1; // A primeira linha é o cabeçalho
+            String linha;
+            while ((linha = entrada.readLine()) != null && !linha.isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Exportação cancelada.");
+                destino.write(linha);
+                destino.newLine();
+                if (++pontos % 10_000 == 0 && pontos > 0) progresso.atualizar(pontos);
+            }
+            if (linha == null) throw new EOFException("O servidor fechou a conexão.");
+            progresso.atualizar(Math.max(0, pontos));
+            return Math.max(0, pontos);
+        }
+    }
+}
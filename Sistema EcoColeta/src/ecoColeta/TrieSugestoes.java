@@ -0,0 +1,211 @@
+package ecoColeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Árvore de prefixos compactada (radix trie) das sugestões do SUGERIR: chave normalizada -> sugestões com peso
+// - Cada aresta guarda um trecho da chave, não uma letra: nós só existem onde as chaves se separam
+// - Cada nó guarda um limite para o maior peso da sua subárvore, então as n sugestões de maior peso de um
+//   prefixo saem visitando os nós em ordem desse limite, sem percorrer todas as chaves que começam com ele
+// - Chaves novas ou retiradas copiam só o caminho da raiz até a chave e publicam a nova raiz: as consultas
+//   não bloqueiam e sempre veem uma árvore inteira (um escritor por vez)
+// - Pesos mudam no lugar (a mesma Sugestao pode estar em várias chaves); os limites dos caminhos sobem com folga
+//   de 1/8, então uma sugestão popular só percorre os caminhos de vez em quando, e não descem quando o peso
+//   baixa: um limite acima do real só faz a consulta visitar um nó a mais
+class TrieSugestoes {
+    static final class Sugestao {
+        final String texto;
+        volatile int peso; // Só alterado pelo escritor
+        private int limite;  // Peso já coberto pelos limites dos caminhos das chaves (só o escritor usa)
+
+        Sugestao(String texto, int peso) {
+            this.texto = texto;
+            this.peso = peso;
+            this.limite = peso;
+        }
+    }
+
+    private static final class No {
+        final String rotulo;      // Trecho da chave na aresta que chega ao nó (vazio só na raiz)
+        final No[] filhos;        // Em ordem da primeira letra do rótulo
+        final char[] primeiras;   // Primeira letra do rótulo de cada filho: a busca do filho não visita os filhos
+        final Sugestao[] aqui;    // Sugestões cuja chave termina neste nó
+        volatile int maximo;      // Maior peso na subárvore, ou mais (ver aumentar)
+
+        No(String rotulo, No[] filhos, Sugestao[] aqui) {
+            this.rotulo = rotulo;
+            this.filhos = filhos;
+            this.aqui = aqui;
+            this.primeiras = new char[filhos.length];
+            for (int i = 0; i < filhos.length; i++) primeiras[i] = filhos[i].rotulo.charAt(0);
+            int m = 0;
+            for (No f : filhos) m = Math.max(m, f.maximo);
+            for (Sugestao s : aqui) m = Math.max(m, s.limite);
+            this.maximo = m;
+        }
+
+        int filho(char c) {
+            return Arrays.binarySearch(primeiras, c);
+        }
+    }
+
+    private static final No[] SEM_FILHOS = new No[0];
+    private static final Sugestao[] SEM_SUGESTOES = new Sugestao[0];
+
+    private volatile No raiz = new No("", SEM_FILHOS, SEM_SUGESTOES);
+
+    // ---------------- Escrita (um escritor por vez) ----------------
+
+    // Coloca a sugestão na chave (já normalizada), se ainda não estiver nela
+    void colocar(String chave, Sugestao s) {
+        raiz = colocar(raiz, chave, 0, s);
+    }
+
+    // Tira a sugestão da chave; nós que ficam vazios somem
+    void tirar(String chave, Sugestao s) {
+        No nova = tirar(raiz, chave, 0, s);
+        raiz = nova != null ? nova : new No("", SEM_FILHOS, SEM_SUGESTOES);
+    }
+
+    // Soma ao peso da sugestão; devolve true se o novo peso passou dos limites dos caminhos, e então cada
+    // chave da sugestão deve passar por aumentar
+    boolean alterar(Sugestao s, int diferenca) {
+        s.peso = Math.max(0, s.peso + diferenca);
+        if (s.peso <= s.limite) return false;
+        s.limite = s.peso + Math.max(8, s.peso / 8);
+        return true;
+    }
+
+    // Sobe os limites do caminho até a chave para cobrir o limite da sugestão
+    void aumentar(String chave, Sugestao s) {
+        int peso = s.limite;
+        No no = raiz;
+        int posicao = 0;
+        while (true) {
+            if (no.maximo < peso) no.maximo = peso;
+            if (posicao == chave.length()) return;
+            int i = no.filho(chave.charAt(posicao));
+            if (i < 0) return;
+            no = no.filhos[i];
+            posicao += no.rotulo.length();
+        }
+    }
+
+    // Novo nó com a sugestão na chave a partir de 'posicao', que é onde o rótulo do nó termina
+    private static No colocar(No no, String chave, int posicao, Sugestao s) {
+        if (posicao == chave.length()) {
+            for (Sugestao existente : no.aqui) if (existente == s) return no;
+            Sugestao[] aqui = Arrays.copyOf(no.aqui, no.aqui.length + 1);
+            aqui[no.aqui.length] = s;
+            return new No(no.rotulo, no.filhos, aqui);
+        }
+        int i = no.filho(chave.charAt(posicao));
+        No novoFilho;
+        if (i < 0) {
+            novoFilho = new No(chave.substring(posicao), SEM_FILHOS, new Sugestao[] {s});
+            int ponto = -i - 1;
+            No[] filhos = new No[no.filhos.length + 1];
+            System.arraycopy(no.filhos, 0, filhos, 0, ponto);
+            filhos[ponto] = novoFilho;
+            System.arraycopy(no.filhos, ponto, filhos, ponto + 1, no.filhos.length - ponto);
+            return new No(no.rotulo, filhos, no.aqui);
+        }
+        No filho = no.filhos[i];
+        int comum = emComum(filho.rotulo, chave, posicao);
+        if (comum < filho.rotulo.length()) {
+            // A chave se separa no meio do rótulo: um nó intermediário fica com o trecho em comum
+            No resto = new No(filho.rotulo.substring(comum), filho.filhos, filho.aqui);
+            filho = new No(filho.rotulo.substring(0, comum), new No[] {resto}, SEM_SUGESTOES);
+        }
+        novoFilho = colocar(filho, chave, posicao + comum, s);
+        No[] filhos = no.filhos.clone();
+        filhos[i] = novoFilho;
+        return new No(no.rotulo, filhos, no.aqui);
+    }
+
+    // Novo nó (ou null, se ficou vazio) sem a sugestão na chave a partir de 'posicao'
+    private static No tirar(No no, String chave, int posicao, Sugestao s) {
+        if (posicao == chave.length()) {
+            int j = 0;
+            while (j < no.aqui.length && no.aqui[j] != s) j++;
+            if (j == no.aqui.length) return no;
+            Sugestao[] aqui = new Sugestao[no.aqui.length - 1];
+            System.arraycopy(no.aqui, 0, aqui, 0, j);
+            System.arraycopy(no.aqui, j + 1, aqui, j, no.aqui.length - j - 1);
+            return compactar(no.rotulo, no.filhos, aqui);
+        }
+        int i = no.filho(chave.charAt(posicao));
+        if (i < 0) return no;
+        No filho = no.filhos[i];
+        if (emComum(filho.rotulo, chave, posicao) < filho.rotulo.length()) return no; // Chave ausente
+        No novoFilho = tirar(filho, chave, posicao + filho.rotulo.length(), s);
+        if (novoFilho == filho) return no;
+        No[] filhos;
+        if (novoFilho == null) {
+            filhos = new No[no.filhos.length - 1];
+            System.arraycopy(no.filhos, 0, filhos, 0, i);
+            System.arraycopy(no.filhos, i + 1, filhos, i, no.filhos.length - i - 1);
+        } else {
+            filhos = no.filhos.clone();
+            filhos[i] = novoFilho;
+        }
+        return compactar(no.rotulo, filhos, no.aqui);
+    }
+
+    // Quantas letras do rótulo coincidem com a chave a partir de 'posicao'
+    private static int emComum(String rotulo, String chave, int posicao) {
+        int comum = 0;
+        while (comum < rotulo.length() && posicao + comum < chave.length() && rotulo.charAt(comum) == chave.charAt(posicao + comum)) comum++;
+        return comum;
+    }
+
+    // Nó sem sugestões some se não tiver filhos e se junta ao filho se tiver só um (a raiz fica sempre)
+    private static No compactar(String rotulo, No[] filhos, Sugestao[] aqui) {
+        if (aqui.length == 0 && !rotulo.isEmpty()) {
+            if (filhos.length == 0) return null;
+            if (filhos.length == 1) return new No(rotulo + filhos[0].rotulo, filhos[0].filhos, filhos[0].aqui);
+        }
+        return new No(rotulo, filhos, aqui);
+    }
+
+    // ---------------- Consulta ----------------
+
+    // As até n sugestões de maior peso (e peso positivo) cujas chaves começam com o prefixo normalizado, sem
+    // repetir uma sugestão que está em várias chaves (ex: "rua barao jaguara" e "jaguara")
+    List<Sugestao> sugerir(String prefixo, int n) {
+        No no = raiz;
+        int posicao = 0;
+        while (posicao < prefixo.length()) {
+            int i = no.filho(prefixo.charAt(posicao));
+            if (i < 0) return List.of();
+            No filho = no.filhos[i];
+            int comparar = Math.min(filho.rotulo.length(), prefixo.length() - posicao);
+            if (!prefixo.regionMatches(posicao, filho.rotulo, 0, comparar)) return List.of();
+            posicao += comparar;
+            no = filho;
+        }
+        // Melhor primeiro: a fila tem nós (pelo limite da subárvore) e sugestões (pelo peso, lido uma vez);
+        // uma sugestão que sai da fila não perde para nada que ainda esteja nela
+        record Item(Object valor, int peso) {}
+        PriorityQueue<Item> fila = new PriorityQueue<>((a, b) -> Integer.compare(b.peso(), a.peso()));
+        fila.add(new Item(no, no.maximo));
+        List<Sugestao> resultado = new ArrayList<>(n);
+        Set<Sugestao> vistas = new HashSet<>();
+        while (resultado.size() < n && !fila.isEmpty()) {
+            Item proximo = fila.poll();
+            if (proximo.peso() <= 0) break;
+            if (proximo.valor() instanceof Sugestao s) {
+                if (vistas.add(s)) resultado.add(s);
+            } else {
+                No atual = (No) proximo.valor();
+                for (Sugestao s : atual.aqui) fila.add(new Item(s, s.peso));
+                for (No f : atual.filhos) fila.add(new Item(f, f.maximo));
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,130 @@
+package ecoColeta;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Vocabulário controlado dos materiais aceitos: cada material tem um código (bit de uma máscara long) e sinônimos
+// - O texto livre de um ponto ("Papel, PET e latas de alumínio") vira a máscara dos seus materiais
+//   (papel | plástico | metal), sem diferenciar maiúsculas, acentos e plural; o PontoColeta guarda a máscara
+// - Palavras fora do vocabulário (ex: "fluorescentes") ligam o bit OUTROS e continuam pesquisáveis como termos
+//   livres no IndiceMateriais
+// - Os catálogos repetem os mesmos poucos textos em milhares de pontos: compartilhar devolve uma cópia só de cada
+final class VocabularioMateriais {
+    static final long OUTROS = 1L << 63; // O texto tem palavras fora do vocabulário
+    private static final int LIMITE_COMPARTILHADOS = 10_000; // Textos distintos guardados; além disso, cada ponto tem a sua cópia
+
+    // Nome de exibição de cada material (o código é a posição) seguido dos sinônimos, normalizados e no singular;
+    // um sinônimo pode ter duas palavras
+    private static final String[][] MATERIAIS = {
+        {"papel", "papel", "jornal", "revista", "papelaria"},
+        {"papelão", "papelao"},
+        {"plástico", "plastico", "pet", "pead", "pebd", "pvc", "sacola", "sacolinha"},
+        {"vidro", "vidro", "espelho"},
+        {"metal", "metal", "aluminio", "lata", "latinha", "ferro", "cobre", "aco", "sucata"},
+        {"óleo", "oleo"},
+        {"pilhas", "pilha"},
+        {"baterias", "bateria"},
+        {"lâmpadas", "lampada"},
+        {"eletrônicos", "eletronico", "eletroeletronico", "celular", "computador", "informatica"},
+        {"medicamentos", "medicamento", "remedio"},
+        {"orgânicos", "organico", "compostagem"},
+        {"madeira", "madeira"},
+        {"entulho", "entulho"},
+        {"pneus", "pneu"},
+        {"isopor", "isopor", "eps"},
+        {"longa vida", "longa vida", "tetra pak", "tetrapak", "tetra"},
+        {"têxteis", "textil", "texteis", "roupa", "tecido"},
+        {"cartuchos", "cartucho", "toner"},
+    };
+    static final int QUANTIDADE = MATERIAIS.length;
+
+    // Palavras que não dizem o material ("óleo de cozinha usado", "lixo eletrônico"); não viram termos livres
+    private static final Set<String> IGNORADAS = Set.of("de", "do", "da", "dos", "das", "e", "em", "com", "ou", "para",
+            "lixo", "usado", "usada", "velho", "velha", "tipo", "etc", "geral");
+
+    // Sinônimo -> máscara dos materiais; "recicláveis" vale pelos materiais da coleta seletiva
+    private static final Map<String, Long> SINONIMOS = new HashMap<>();
+    static {
+        for (int codigo = 0; codigo < QUANTIDADE; codigo++) {
+            for (int i = 1; i < MATERIAIS[codigo].length; i++) SINONIMOS.merge(MATERIAIS[codigo][i], 1L << codigo, (a, b) -> a | b);
+        }
+        SINONIMOS.put("reciclavel", SINONIMOS.get("papel") | SINONIMOS.get("papelao") | SINONIMOS.get("plastico")
+                | SINONIMOS.get("vidro") | SINONIMOS.get("metal"));
+    }
+
+    private static final Map<String, String> compartilhados = new ConcurrentHashMap<>();
+
+    private VocabularioMateriais() {}
+
+    static String nome(int codigo) {
+        return MATERIAIS[codigo][0];
+    }
+
+    // Sinônimos do material, normalizados e no singular (ex: plástico -> "plastico", "pet", "pead", ...)
+    static List<String> sinonimos(int codigo) {
+        return List.of(MATERIAIS[codigo]).subList(1, MATERIAIS[codigo].length);
+    }
+
+    // Máscara dos materiais do texto (com OUTROS se houver palavras fora do vocabulário), acrescentando essas
+    // palavras em 'livres' quando não for null
+    static long classificar(String materiais, List<String> livres) {
+        List<String> palavras = IndiceMateriais.tokenizar(IndiceMateriais.normalizar(materiais));
+        long mascara = 0;
+        for (int i = 0; i < palavras.size(); i++) {
+            String palavra = singular(palavras.get(i));
+            Long dosMateriais = null;
+            if (i + 1 < palavras.size()) { // Sinônimo de duas palavras ("longa vida")
+                dosMateriais = SINONIMOS.get(palavra + " " + singular(palavras.get(i + 1)));
+                if (dosMateriais != null) i++;
+            }
+            if (dosMateriais == null) dosMateriais = SINONIMOS.get(palavras.get(i));
+            if (dosMateriais == null) dosMateriais = SINONIMOS.get(palavra);
+            if (dosMateriais != null) {
+                mascara |= dosMateriais;
+            } else if (!IGNORADAS.contains(palavra)) {
+                mascara |= OUTROS;
+                if (livres != null) livres.add(palavras.get(i));
+            }
+        }
+        return mascara;
+    }
+
+    // Materiais com algum sinônimo que contém a parte (um termo normalizado) da consulta, como fazia o contains
+    // sobre o texto: "plast" -> plástico, "pet" -> plástico, "papel" -> papel e papelão, "latas" -> metal
+    static long casamentos(String parte) {
+        String singular = singular(parte);
+        long mascara = 0;
+        for (Map.Entry<String, Long> e : SINONIMOS.entrySet()) {
+            if (e.getKey().contains(parte) || e.getKey().contains(singular)) mascara |= e.getValue();
+        }
+        return mascara;
+    }
+
+    static boolean ignorada(String parte) {
+        return IGNORADAS.contains(singular(parte));
+    }
+
+    // Uma cópia só de cada texto de materiais; o primeiro objeto recebido é o que fica guardado
+    static String compartilhar(String materiais) {
+        String existente = compartilhados.get(materiais);
+        if (existente != null) return existente;
+        if (compartilhados.size() >= LIMITE_COMPARTILHADOS) return materiais;
+        existente = compartilhados.putIfAbsent(materiais, materiais);
+        return existente == null ? materiais : existente;
+    }
+
+    // Singular de uma palavra normalizada: "latas" -> "lata", "metais" -> "metal", "papeis" -> "papel",
+    // "papeloes" -> "papelao", "celulares" -> "celular"
+    private static String singular(String palavra) {
+        int n = palavra.length();
+        if (n < 4 || palavra.charAt(n - 1) != 's') return palavra;
+        if (palavra.endsWith("oes")) return palavra.substring(0, n - 3) + "ao";
+        if (palavra.endsWith("ais")) return palavra.substring(0, n - 2) + "l";
+        if (palavra.endsWith("eis")) return palavra.substring(0, n - 2) + "l";
+        if (palavra.endsWith("res")) return palavra.substring(0, n - 2);
+        return palavra.substring(0, n - 1);
+    }
+}
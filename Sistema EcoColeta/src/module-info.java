@@ -1,5 +1,6 @@
 module Projeto_Integrador_II_B {
     requires java.desktop;
+    requires jdk.httpserver;
     requires javafx.controls;
     requires javafx.graphics;
     requires javafx.fxml;
@@ -0,0 +1,96 @@
+package ecoColeta;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// O Servidor inteiro (main) em outro processo, para os testes do que o Servidor só lê ao iniciar: o diário em
+// disco (-Decocoleta.dados) e o modo seguidor (-Decocoleta.lider); encerrado pelo SAIR do console, como em produção
+final class ProcessoServidor implements AutoCloseable {
+    final int porta;
+    private final Process processo;
+    private final List<String> saida = new ArrayList<>(); // Linhas do console, para a mensagem de um teste que falhou
+
+    // 'propriedades': pares nome=valor, sem o prefixo ecocoleta.
+    ProcessoServidor(String motor, Path dados, String... propriedades) throws IOException {
+        try (ServerSocket livre = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            porta = livre.getLocalPort();
+        }
+        List<String> comando = new ArrayList<>();
+        ProcessHandle.Info atual = ProcessHandle.current().info();
+        comando.add(atual.command().orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        if (atual.arguments().map(List::of).orElse(List.of()).contains("--enable-preview")) comando.add("--enable-preview");
+        comando.addAll(List.of("-cp", classes(), "-Decocoleta.porta=" + porta,
+                "-Decocoleta.motor=" + motor, "-Decocoleta.dados=" + dados, "-Decocoleta.prazoEncerramento=2000"));
+        for (String p : propriedades) comando.add("-Decocoleta." + p);
+        comando.add("ecoColeta.Servidor");
+        processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+
+        // Pronto quando anunciar a porta; o resto do console é lido até o fim para o processo não travar nele
+        BufferedReader console = new BufferedReader(new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8));
+        String linha;
+        while ((linha = console.readLine()) != null && !linha.startsWith("Servidor iniciado")) guardar(linha);
+        if (linha == null) throw new IOException("O servidor não iniciou: " + console());
+        Thread.ofPlatform().daemon().start(() -> {
+            try {
+                for (String l; (l = console.readLine()) != null; ) guardar(l);
+            } catch (IOException e) {
+                // Processo encerrado
+            }
+        });
+    }
+
+    // Onde estão as classes do Servidor (o caminho de classes deste processo pode ser só o do executor de testes)
+    private static String classes() throws IOException {
+        try {
+            return Path.of(Servidor.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void guardar(String linha) {
+        synchronized (saida) {
+            saida.add(linha);
+        }
+    }
+
+    String console() {
+        synchronized (saida) {
+            return String.join("\n", saida);
+        }
+    }
+
+    ServidorDeTeste.Cliente conectar() throws IOException {
+        return new ServidorDeTeste.Cliente(new Socket(InetAddress.getLoopbackAddress(), porta));
+    }
+
+    // SAIR no console: drena as conexões, grava o snapshot e fecha o diário
+    @Override
+    public void close() throws IOException {
+        try (OutputStream entrada = processo.getOutputStream()) {
+            entrada.write("SAIR\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Já terminou
+        }
+        try {
+            if (!processo.waitFor(20, TimeUnit.SECONDS)) {
+                processo.destroyForcibly();
+                throw new IOException("O servidor não encerrou pelo SAIR: " + console());
+            }
+        } catch (InterruptedException e) {
+            processo.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ecoColeta;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Um motor do Servidor neste processo, em uma porta livre, para os testes por socket (como no BenchmarkServidor)
+// O catálogo é o do Servidor, sem diário, e é o mesmo para todos os testes: cada teste cadastra os pontos que usa
+final class ServidorDeTeste implements AutoCloseable {
+    final int porta;
+    final MotorConexoes motor;
+    private final ServerSocketChannel canal;
+
+    ServidorDeTeste(String tipo) throws IOException {
+        canal = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        porta = ((InetSocketAddress) canal.getLocalAddress()).getPort();
+        motor = Servidor.criarMotor(tipo);
+        Thread.ofPlatform().daemon().start(() -> {
+            try {
+                motor.executar(canal);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    Cliente conectar() throws IOException {
+        return new Cliente(new Socket(InetAddress.getLoopbackAddress(), porta));
+    }
+
+    @Override
+    public void close() throws IOException {
+        motor.parar();
+        canal.close();
+    }
+
+    // Conexão do protocolo de texto sem o ServicoConexao: as linhas vão como o teste escrever e a resposta é lida
+    // até a linha em branco
+    static final class Cliente implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader entrada;
+        final OutputStream saida;
+
+        Cliente(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setSoTimeout(10_000);
+            entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            saida = socket.getOutputStream();
+        }
+
+        // Envia as linhas de uma vez só, sem esperar respostas entre elas
+        void enviar(String... linhas) throws IOException {
+            StringBuilder texto = new StringBuilder();
+            for (String linha : linhas) texto.append(linha).append('\n');
+            saida.write(texto.toString().getBytes(StandardCharsets.UTF_8));
+            saida.flush();
+        }
+
+        // Linhas da próxima resposta, sem a linha em branco final; nulo se a conexão fechou antes dela
+        List<String> resposta() throws IOException {
+            List<String> linhas = new ArrayList<>();
+            while (true) {
+                String linha = entrada.readLine();
+                if (linha == null) return null;
+                if (linha.isEmpty()) return linhas;
+                linhas.add(linha);
+            }
+        }
+
+        List<String> pedir(String comando) throws IOException {
+            enviar(comando);
+            return resposta();
+        }
+
+        // ID informado na resposta do CADASTRAR
+        int cadastrar(String endereco, String materiais, String horario) throws IOException {
+            String resposta = pedir("CADASTRAR;" + endereco + ";" + materiais + ";" + horario).get(0);
+            return Integer.parseInt(resposta.substring(resposta.lastIndexOf(' ') + 1));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// ASSINAR: as alterações feitas por outra conexão chegam como eventos, na ordem das versões, e uma assinatura
+// retomada com a instância e a última versão recebe o que perdeu (Notificacoes)
+class TesteAssinatura {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void alteracoesDeOutraConexaoChegamComoEventos(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente escritor = servidor.conectar()) {
+            String instancia;
+            long versao;
+            int id;
+            try (ServidorDeTeste.Cliente assinante = servidor.conectar()) {
+                String[] assinado = assinante.pedir("ASSINAR").get(0).split(";");
+                assertEquals("ASSINADO", assinado[0]);
+                assertEquals(Servidor.repositorio().tamanho(), Integer.parseInt(assinado[3]));
+                instancia = assinado[1];
+                versao = Long.parseLong(assinado[2]);
+
+                id = escritor.cadastrar("Rua Assinada, " + motor, "papel", "8-18");
+                escritor.pedir("ATUALIZAR;" + id + ";Rua Assinada, 2;papel;8-18");
+                escritor.pedir("REMOVER;" + id);
+
+                List<String> eventos = eventos(assinante, 3);
+                assertEquals(List.of(
+                        "CADASTRADO;" + (versao + 1) + ";" + id + " - " + PontoColeta.descrever("Rua Assinada, " + motor, "papel", "8-18"),
+                        "ATUALIZADO;" + (versao + 2) + ";" + id + " - " + PontoColeta.descrever("Rua Assinada, 2", "papel", "8-18"),
+                        "REMOVIDO;" + (versao + 3) + ";" + id), eventos);
+                versao += 3;
+            }
+
+            // Com a conexão caída, o cadastro seguinte fica para a assinatura retomada
+            int outro = escritor.cadastrar("Rua Perdida, " + motor, "vidro", "8-18");
+            try (ServidorDeTeste.Cliente assinante = servidor.conectar()) {
+                assertEquals(List.of("ASSINADO;" + instancia + ";" + versao), assinante.pedir("ASSINAR;" + instancia + ";" + versao));
+                assertEquals(List.of("CADASTRADO;" + (versao + 1) + ";" + outro + " - " + PontoColeta.descrever("Rua Perdida, " + motor, "vidro", "8-18")),
+                        eventos(assinante, 1));
+
+                assinante.enviar("LISTAR", "SAIR"); // Depois de ASSINAR, só o SAIR é lido
+                assertNull(assinante.resposta());
+            }
+        }
+    }
+
+    // Linhas dos próximos blocos de eventos, até juntar 'quantidade'
+    private static List<String> eventos(ServidorDeTeste.Cliente assinante, int quantidade) throws IOException {
+        List<String> eventos = new ArrayList<>();
+        while (eventos.size() < quantidade) {
+            List<String> bloco = assinante.resposta();
+            assertTrue(bloco != null && !bloco.isEmpty(), "Conexão encerrada antes dos eventos");
+            eventos.addAll(bloco);
+        }
+        return eventos;
+    }
+}
@@ -0,0 +1,63 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Encerramento gradual (MotorConexoes.drenar): os comandos que o cliente já enviou são atendidos antes do aviso,
+// mesmo os que ainda estavam no socket, sem ter sido lidos pelo motor
+class TesteEncerramento {
+    private static final int PONTOS_POR_RESPOSTA = 50;
+
+    @BeforeAll
+    static void povoar() {
+        List<String[]> lote = new ArrayList<>();
+        for (int i = 0; i < PONTOS_POR_RESPOSTA; i++) lote.add(new String[] {"Rua do Encerramento, " + i, "papel", "08:00-18:00"});
+        Servidor.repositorio().cadastrarLote(lote).join();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void comandosJaEnviadosSaoAtendidosAntesDoAviso(String motor) throws IOException, InterruptedException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            // O cliente não lê: o motor para de atender quando a saída enche (escrita bloqueada, ou limite de saída
+            // no NIO) e o resto dos comandos fica no socket; a linha final, sem quebra, não é um comando completo
+            int comandos = 3000;
+            StringBuilder texto = new StringBuilder();
+            for (int i = 0; i < comandos; i++) texto.append('@').append(i).append(";LISTAR;0;").append(PONTOS_POR_RESPOSTA).append('\n');
+            texto.append("@parcial;VERSAO");
+            cliente.saida.write(texto.toString().getBytes(StandardCharsets.UTF_8));
+            cliente.saida.flush();
+            Thread.sleep(300);
+
+            Thread drenagem = Thread.ofPlatform().start(() -> {
+                try {
+                    servidor.motor.drenar(20_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            for (int i = 0; i < comandos; i++) {
+                List<String> resposta = cliente.resposta();
+                assertEquals("@" + i, resposta.get(0));
+                assertTrue(resposta.size() > PONTOS_POR_RESPOSTA, resposta.toString()); // Identificador, TOTAL e os pontos
+            }
+            assertEquals(List.of("Servidor em Encerramento. Conexão Encerrada."), cliente.resposta());
+            assertNull(cliente.resposta());
+            drenagem.join(20_000);
+            assertFalse(drenagem.isAlive());
+            assertEquals(0, servidor.motor.conexoesAtivas());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// EXPORTAR: o catálogo sai em blocos (Resposta.produzir) e os comandos seguintes esperam a resposta terminar
+class TesteExportacao {
+
+    @BeforeAll
+    static void povoar() {
+        List<String[]> lote = new ArrayList<>();
+        for (int i = 0; i < 2 * Servidor.LINHAS_POR_BLOCO + 500; i++) {
+            lote.add(new String[] {"Rua Exportada, " + i, "papel", "08:00-18:00"});
+        }
+        Servidor.repositorio().cadastrarLote(lote).join();
+    }
+
+    @Test
+    void respostaAssincronaEscreveUmBlocoPorRetomada() throws IOException {
+        ByteArrayOutputStream enviados = new ByteArrayOutputStream();
+        int[] retomadas = {0};
+        Resposta resposta = new Resposta(dados -> {
+            enviados.write(dados.array(), dados.arrayOffset() + dados.position(), dados.remaining());
+            dados.position(dados.limit());
+        }, 1024, true);
+        Sessao sessao = new Sessao(resposta, null, () -> retomadas[0]++);
+        int pontos = Servidor.repositorio().tamanho();
+
+        assertTrue(sessao.receber(ByteBuffer.wrap("EXPORTAR\nVERSAO\n".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(sessao.esperando());
+        assertEquals(1 + Servidor.LINHAS_POR_BLOCO, linhas(enviados).size()); // Cabeçalho e o primeiro bloco
+
+        int blocos = 1;
+        while (sessao.esperando()) {
+            assertEquals(blocos, retomadas[0]); // Cada bloco pede a retomada seguinte ao motor
+            assertTrue(sessao.retomar());
+            blocos++;
+        }
+        assertEquals((pontos + Servidor.LINHAS_POR_BLOCO - 1) / Servidor.LINHAS_POR_BLOCO, blocos);
+
+        List<String> linhas = linhas(enviados);
+        assertEquals(1 + pontos + 1, linhas.indexOf("") + 1); // Cabeçalho, pontos e a linha em branco
+        assertTrue(linhas.get(linhas.indexOf("") + 1).startsWith("VERSAO;")); // Só depois do EXPORTAR inteiro
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void exportaOCatalogoInteiroNaOrdemDosComandos(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            int pontos = Servidor.repositorio().tamanho();
+            cliente.enviar("@1;EXPORTAR", "@2;VERSAO");
+
+            List<String> exportacao = cliente.resposta();
+            assertEquals("@1", exportacao.get(0));
+            assertEquals("id,endereco,materiais,horario,latitude,longitude", exportacao.get(1));
+            assertEquals(pontos, exportacao.size() - 2);
+            List<String> versao = cliente.resposta();
+            assertEquals("@2", versao.get(0));
+            assertTrue(versao.get(1).startsWith("VERSAO;"));
+        }
+    }
+
+    private static List<String> linhas(ByteArrayOutputStream enviados) {
+        List<String> linhas = new ArrayList<>(List.of(enviados.toString(StandardCharsets.UTF_8).split("\n", -1)));
+        linhas.remove(linhas.size() - 1); // Depois da última quebra de linha
+        assertFalse(linhas.isEmpty());
+        return linhas;
+    }
+}
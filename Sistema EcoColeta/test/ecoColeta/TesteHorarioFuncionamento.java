@@ -0,0 +1,109 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+// Interpretação dos textos de horário usada pelo ABERTOS (HorarioFuncionamento)
+class TesteHorarioFuncionamento {
+    private static final LocalDate SEGUNDA = LocalDate.of(2024, 1, 1);
+
+    private static HorarioFuncionamento interpretar(String texto) {
+        HorarioFuncionamento horario = HorarioFuncionamento.interpretar(texto);
+        assertNotNull(horario, texto);
+        return horario;
+    }
+
+    private static int faixa(DayOfWeek dia, String hora) {
+        return HorarioFuncionamento.faixa(ZonedDateTime.of(SEGUNDA.plusDays(dia.ordinal()), LocalTime.parse(hora), ZoneOffset.UTC));
+    }
+
+    private static boolean aberto(String texto, DayOfWeek dia, String hora) {
+        return interpretar(texto).aberto(faixa(dia, hora));
+    }
+
+    @Test
+    void intervaloSemDiasValeParaTodosOsDias() {
+        assertTrue(aberto("08:00-18:00", DayOfWeek.MONDAY, "08:00"));
+        assertTrue(aberto("08:00-18:00", DayOfWeek.MONDAY, "17:55"));
+        assertFalse(aberto("08:00-18:00", DayOfWeek.MONDAY, "18:00"));
+        assertFalse(aberto("08:00-18:00", DayOfWeek.MONDAY, "07:55"));
+        assertTrue(aberto("08:00-18:00", DayOfWeek.SUNDAY, "12:00"));
+    }
+
+    @Test
+    void grafiasDiferentesDoMesmoHorarioSaoIguais() {
+        HorarioFuncionamento h = interpretar("08:00-18:00");
+        assertEquals(h, interpretar("8h às 18h"));
+        assertEquals(h, interpretar("08-18"));
+        assertEquals(h, interpretar("8hs até 18hs"));
+        assertEquals(h.hashCode(), interpretar("8h às 18h").hashCode());
+    }
+
+    @Test
+    void gruposDeDiasComOsSeusIntervalos() {
+        String texto = "Seg a Sex 08:00-18:00; Sáb 08:00-12:00";
+        assertTrue(aberto(texto, DayOfWeek.FRIDAY, "09:00"));
+        assertTrue(aberto(texto, DayOfWeek.SATURDAY, "11:00"));
+        assertFalse(aberto(texto, DayOfWeek.SATURDAY, "13:00"));
+        assertFalse(aberto(texto, DayOfWeek.SUNDAY, "10:00"));
+        assertEquals(interpretar(texto), interpretar("segunda a sexta-feira 8-18, sábado 8-12"));
+    }
+
+    @Test
+    void intervalosAntesDosDias() {
+        assertEquals(interpretar("seg-sex 08-18"), interpretar("08-18 seg-sex"));
+        assertEquals(interpretar("seg, qua, sex 9-17"), interpretar("9-17 seg, qua, sex"));
+        assertFalse(aberto("seg, qua, sex 9-17", DayOfWeek.TUESDAY, "10:00"));
+    }
+
+    @Test
+    void doisIntervalosNoMesmoDia() {
+        String texto = "8h30-12h e 14h-18h";
+        assertFalse(aberto(texto, DayOfWeek.WEDNESDAY, "08:25"));
+        assertTrue(aberto(texto, DayOfWeek.WEDNESDAY, "08:30"));
+        assertFalse(aberto(texto, DayOfWeek.WEDNESDAY, "12:30"));
+        assertTrue(aberto(texto, DayOfWeek.WEDNESDAY, "15:00"));
+    }
+
+    @Test
+    void intervaloQuePassaDaMeiaNoite() {
+        String texto = "22:00-06:00";
+        assertTrue(aberto(texto, DayOfWeek.MONDAY, "23:00"));
+        assertTrue(aberto(texto, DayOfWeek.TUESDAY, "05:55"));
+        assertFalse(aberto(texto, DayOfWeek.TUESDAY, "06:00"));
+        assertTrue(aberto(texto, DayOfWeek.MONDAY, "01:00")); // Da noite de domingo
+    }
+
+    @Test
+    void diaFechadoEDiasUteis() {
+        String texto = "Seg a Sáb 8-18, Dom fechado";
+        assertTrue(aberto(texto, DayOfWeek.SATURDAY, "10:00"));
+        assertFalse(aberto(texto, DayOfWeek.SUNDAY, "10:00"));
+        assertFalse(aberto("dias úteis 8-17", DayOfWeek.SATURDAY, "10:00"));
+        assertTrue(aberto("dias úteis 8-17", DayOfWeek.THURSDAY, "16:55"));
+    }
+
+    @Test
+    void vinteEQuatroHorasNuncaFecha() {
+        assertEquals(-1, interpretar("24 horas").minutosAteFechar(faixa(DayOfWeek.MONDAY, "12:00")));
+        assertEquals(60, interpretar("08:00-18:00").minutosAteFechar(faixa(DayOfWeek.MONDAY, "17:00")));
+    }
+
+    @Test
+    void textoSemHorarioNaoEInterpretado() {
+        assertNull(HorarioFuncionamento.interpretar("comercial"));
+        assertNull(HorarioFuncionamento.interpretar(""));
+        assertNull(HorarioFuncionamento.interpretar("seg a sex"));
+    }
+}
@@ -0,0 +1,52 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Comandos com identificador ("@id;COMANDO"): enviados de uma vez, cada resposta volta com o seu, na ordem (Sessao)
+class TesteIdentificadores {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void respostasVoltamComOIdentificadorNaOrdem(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            String material = "tampinhas " + motor + "encadeadas"; // Termo só deste teste
+            cliente.enviar("@1;VERSAO", "@2;DESCONHECIDO", "VERSAO", "@3;CADASTRAR;Rua Encadeada, 1;" + material + ";8-18",
+                    "@4;BUSCAR;" + material, "@5", "@pedido-6;CADASTRAR;sem campos");
+
+            List<String> versao = cliente.resposta();
+            assertEquals("@1", versao.get(0));
+            assertTrue(versao.get(1).startsWith("VERSAO;"), versao.get(1));
+            assertEquals(List.of("@2", "Comando Inválido."), cliente.resposta());
+            assertTrue(cliente.resposta().get(0).startsWith("VERSAO;")); // Sem identificador, a resposta também não tem
+            List<String> cadastro = cliente.resposta();
+            assertEquals("@3", cadastro.get(0));
+            String id = cadastro.get(1).substring(cadastro.get(1).lastIndexOf(' ') + 1);
+            List<String> busca = cliente.resposta(); // Já vê o ponto cadastrado pelo comando anterior
+            assertEquals(2, busca.size());
+            assertEquals("@4", busca.get(0));
+            assertTrue(busca.get(1).startsWith(id + " - ") && busca.get(1).contains("Rua Encadeada, 1"), busca.get(1));
+            assertEquals(List.of("@5", "Comando Inválido."), cliente.resposta());
+            assertEquals("@pedido-6", cliente.resposta().get(0));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void muitosComandosEmUmaEscritaSaoAtendidosTodos(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            String[] comandos = new String[2000]; // Mais que um buffer de leitura de cada motor
+            for (int i = 0; i < comandos.length; i++) comandos[i] = "@" + i + ";" + (i % 2 == 0 ? "VERSAO" : "LISTAR;0;1");
+            cliente.enviar(comandos);
+            for (int i = 0; i < comandos.length; i++) assertEquals("@" + i, cliente.resposta().get(0));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// IMPORTAR: o arquivo do EXPORTAR volta pela rede como os mesmos pontos; lotes gravados no diário e o resumo com os pontos que de fato entraram no catálogo (ImportacaoCsv)
+class TesteImportacao {
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void falhaNoMeioDoLoteContaOsPontosJaGravados() throws IOException {
+        // O primeiro ponto do segundo lote vai sozinho em uma escrita; a escrita seguinte, com o resto do lote, falha
+        int primeiroDoLote = ImportacaoCsv.TAMANHO_LOTE + 1;
+        CountDownLatch escrevendo = new CountDownLatch(1);
+        Persistencia persistencia = new Persistencia(diretorio) {
+            @Override
+            CompletableFuture<Void> registrarCadastro(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+                CompletableFuture<Void> registro = super.registrarCadastro(id, endereco, materiais, horario, latitude, longitude);
+                if (id == primeiroDoLote) {
+                    try {
+                        escrevendo.await(); // Nada mais entra na fila antes de a thread gravadora tirar este registro
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return registro;
+            }
+
+            @Override
+            void escrever(FileChannel segmento, ByteBuffer[] buffers) throws IOException {
+                if (escrevendo.getCount() == 0) {
+                    segmento.write(buffers[0].slice(0, buffers[0].remaining() / 2));
+                    throw new IOException("Disco cheio");
+                }
+                if (idDoRegistro(buffers[0]) == primeiroDoLote) escrevendo.countDown();
+                super.escrever(segmento, buffers);
+            }
+        };
+        RepositorioPontos repositorio = new RepositorioPontos();
+        repositorio.carregar(persistencia);
+
+        ByteArrayOutputStream enviados = new ByteArrayOutputStream();
+        Resposta saida = new Resposta(dados -> {
+            enviados.write(dados.array(), dados.arrayOffset() + dados.position(), dados.remaining());
+            dados.position(dados.limit());
+        }, 1024);
+        ImportacaoCsv importacao = new ImportacaoCsv(repositorio, saida);
+        importacao.receber("endereco,materiais,horario");
+        for (int i = 1; i <= 3 * ImportacaoCsv.TAMANHO_LOTE; i++) importacao.receber("\"Rua Importada, " + i + "\",papel,08:00-18:00");
+        importacao.receber("FIM");
+        saida.enviar();
+        persistencia.encerrar().join();
+
+        assertEquals(List.of("PROGRESSO;" + ImportacaoCsv.TAMANHO_LOTE,
+                        "Erro ao Salvar os Pontos em Disco. Pontos importados antes da falha: " + primeiroDoLote, ""),
+                List.of(enviados.toString(StandardCharsets.UTF_8).split("\n", -1)).subList(0, 3));
+        assertEquals(primeiroDoLote, repositorio.tamanho());
+
+        RepositorioPontos recuperado = new RepositorioPontos();
+        Persistencia diario = new Persistencia(diretorio);
+        recuperado.carregar(diario);
+        diario.encerrar().join();
+        assertEquals(primeiroDoLote, recuperado.tamanho()); // O que o resumo contou está no diário
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void arquivoDoExportarVoltaComoOsMesmosPontos(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            // Textos com vírgula e aspas, e um ponto com localização: o CSV precisa levá-los intactos
+            List<Integer> ids = List.of(
+                    cliente.cadastrar("Rua Ida e Volta, 1 (" + motor + ")", "papel, vidro", "8h às 18h"),
+                    cliente.cadastrar("Praça \"Ida e Volta\" (" + motor + ")", "pilhas", "24 horas"),
+                    Integer.parseInt(cliente.pedir("CADASTRAR;Av. Ida e Volta, 3 (" + motor + ");óleo de cozinha;Seg a Sex 8-17;-23.55;-46.63")
+                            .get(0).replaceAll(".* ", "")));
+            List<String> catalogo = cliente.pedir("EXPORTAR");
+            List<String> exportados = new ArrayList<>();
+            for (int id : ids) exportados.addAll(catalogo.stream().filter(l -> l.startsWith(id + ",")).toList());
+            assertEquals(3, exportados.size());
+
+            List<String> importacao = new ArrayList<>(List.of("IMPORTAR", "id,endereco,materiais,horario,latitude,longitude"));
+            importacao.addAll(exportados);
+            importacao.add("FIM");
+            cliente.enviar(importacao.toArray(new String[0]));
+            assertEquals(List.of("Importação Concluída: 3 pontos importados, 0 linhas inválidas."), cliente.resposta());
+
+            // Cada ponto fica duas vezes no catálogo, com IDs diferentes e os mesmos dados
+            List<String> exportacao = cliente.pedir("EXPORTAR");
+            for (String linha : exportados) {
+                String dados = linha.substring(linha.indexOf(','));
+                assertEquals(2, exportacao.stream().filter(l -> l.substring(l.indexOf(',')).equals(dados)).count(), linha);
+            }
+        }
+    }
+
+    // ID do registro no buffer (depois do tamanho, do CRC e da operação)
+    private static int idDoRegistro(ByteBuffer registro) {
+        return registro.getInt(registro.position() + 9);
+    }
+}
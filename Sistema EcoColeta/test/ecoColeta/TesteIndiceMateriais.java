@@ -0,0 +1,102 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Semântica do BUSCAR sobre o vocabulário controlado (IndiceMateriais e VocabularioMateriais)
+class TesteIndiceMateriais {
+    private IndiceMateriais indice;
+
+    @BeforeEach
+    void povoar() {
+        indice = new IndiceMateriais();
+        indice.adicionar(new PontoColeta(1, "Rua A", "Papel e papelão", "8-18"));
+        indice.adicionar(new PontoColeta(2, "Rua B", "PET e latas de alumínio", "8-18"));
+        indice.adicionar(new PontoColeta(3, "Rua C", "Óleo de cozinha usado", "8-18"));
+        indice.adicionar(new PontoColeta(4, "Rua D", "Óleo de motor", "8-18"));
+        indice.adicionar(new PontoColeta(5, "Rua E", "Lâmpadas fluorescentes, celulares", "8-18"));
+        indice.adicionar(new PontoColeta(6, "Rua F", "Vidro", "8-18"));
+    }
+
+    private List<Integer> buscar(String material) {
+        BitSet ids = indice.buscar(material);
+        return ids.stream().boxed().toList();
+    }
+
+    @Test
+    void sinonimosLevamAoMaterial() {
+        assertEquals(List.of(2), buscar("plástico"));
+        assertEquals(List.of(2), buscar("metal"));
+        assertEquals(List.of(2), buscar("lata"));
+        assertEquals(List.of(5), buscar("eletrônicos"));
+    }
+
+    @Test
+    void semDiferenciarMaiusculasAcentosEPlural() {
+        assertEquals(List.of(2), buscar("PLASTICOS"));
+        assertEquals(List.of(2), buscar("Latas"));
+        assertEquals(List.of(3, 4), buscar("oleo"));
+    }
+
+    @Test
+    void parteDeUmSinonimoTambemCasa() {
+        assertEquals(List.of(1), buscar("papel")); // Papel e papelão estão no mesmo ponto
+        assertEquals(List.of(1), buscar("papelão"));
+        assertEquals(List.of(2), buscar("plast"));
+    }
+
+    @Test
+    void palavrasIgnoradasNaoRestringemAConsulta() {
+        assertEquals(List.of(3), buscar("óleo de cozinha"));
+        assertEquals(List.of(3), buscar("óleo de cozinha usado"));
+        assertEquals(List.of(5), buscar("lixo eletrônico"));
+    }
+
+    @Test
+    void todosOsTermosPrecisamCasar() {
+        assertEquals(List.of(4), buscar("óleo motor"));
+        assertEquals(List.of(), buscar("vidro metal"));
+    }
+
+    @Test
+    void termosForaDoVocabularioSaoPesquisaveis() {
+        assertEquals(List.of(5), buscar("fluorescente"));
+        assertEquals(List.of(3), buscar("cozinha"));
+        assertEquals(List.of(), buscar("usado")); // Palavras ignoradas não viram termos livres
+    }
+
+    // Diferente do contains de antes: palavras ignoradas e pedaços delas não casam com o texto do ponto
+    @Test
+    void palavraIgnoradaSozinhaNaoCasaComOTexto() {
+        assertEquals(List.of(), buscar("de"));
+        assertEquals(List.of(3), buscar("cozi")); // Pedaço de um termo livre continua casando
+    }
+
+    @Test
+    void reciclaveisValemPelaColetaSeletiva() {
+        assertEquals(List.of(1, 2, 6), buscar("recicláveis"));
+    }
+
+    @Test
+    void consultaSemTermosDevolveTodos() {
+        assertEquals(IntStream.rangeClosed(1, 6).boxed().toList(), buscar(""));
+    }
+
+    @Test
+    void acompanhaAtualizacaoERemocao() {
+        PontoColeta atual = new PontoColeta(6, "Rua F", "Vidro", "8-18");
+        PontoColeta atualizado = new PontoColeta(6, "Rua F", "Vidro e pilhas usadas", "8-18");
+        indice.atualizar(atual, atualizado);
+        assertEquals(List.of(6), buscar("pilhas"));
+
+        indice.remover(new PontoColeta(5, "Rua E", "Lâmpadas fluorescentes, celulares", "8-18"));
+        assertEquals(List.of(), buscar("fluorescente"));
+        assertEquals(List.of(), buscar("celular"));
+    }
+}
@@ -0,0 +1,354 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Recuperação do diário e dos snapshots (Persistencia): final incompleto ou corrompido, formatos antigos,
+// falha de gravação; e, pela rede, alterações com a resposta adiada até o diário e o catálogo depois de reiniciar
+class TestePersistencia {
+    @TempDir
+    Path diretorio;
+
+    // Registros recuperados, como texto e na ordem em que chegaram
+    private static final class Coletor implements Persistencia.Recuperacao {
+        final List<String> registros = new ArrayList<>();
+        int proximoId;
+
+        @Override
+        public void cadastrar(int id, String endereco, String materiais, String horario) {
+            cadastrar(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+        }
+
+        @Override
+        public void atualizar(int id, String endereco, String materiais, String horario) {
+            atualizar(id, endereco, materiais, horario, Double.NaN, Double.NaN);
+        }
+
+        @Override
+        public void cadastrar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+            registros.add("C" + id + ";" + endereco + ";" + materiais + ";" + horario + ";" + latitude + ";" + longitude);
+        }
+
+        @Override
+        public void atualizar(int id, String endereco, String materiais, String horario, double latitude, double longitude) {
+            registros.add("A" + id + ";" + endereco + ";" + materiais + ";" + horario + ";" + latitude + ";" + longitude);
+        }
+
+        @Override
+        public void remover(int id) {
+            registros.add("R" + id);
+        }
+    }
+
+    // Recupera o diretório, como na inicialização do servidor, e fecha o diário em seguida
+    private Coletor recuperar() throws IOException {
+        Coletor coletor = new Coletor();
+        Persistencia persistencia = new Persistencia(diretorio);
+        coletor.proximoId = persistencia.recuperar(coletor);
+        persistencia.iniciar();
+        persistencia.encerrar().join();
+        return coletor;
+    }
+
+    // Grava três registros no primeiro segmento do diário e devolve o arquivo dele
+    private Path gravarTres() throws IOException {
+        Persistencia persistencia = new Persistencia(diretorio);
+        persistencia.recuperar(new Coletor());
+        persistencia.iniciar();
+        persistencia.registrarCadastro(1, "Rua A, 1", "papel", "08:00-18:00").join();
+        persistencia.registrarCadastro(2, "Rua B, 2", "vidro", "08:00-12:00", -23.5, -46.6).join();
+        persistencia.registrarRemocao(1).join();
+        persistencia.encerrar().join();
+        return diretorio.resolve("diario-000001.log");
+    }
+
+    @Test
+    void reaplicaODiarioNaOrdem() throws IOException {
+        gravarTres();
+        Coletor coletor = recuperar();
+        assertEquals(List.of("C1;Rua A, 1;papel;08:00-18:00;NaN;NaN", "C2;Rua B, 2;vidro;08:00-12:00;-23.5;-46.6", "R1"),
+                coletor.registros);
+        assertEquals(3, coletor.proximoId);
+    }
+
+    @Test
+    void descartaCabecalhoIncompletoNoFim() throws IOException {
+        Path segmento = gravarTres();
+        long tamanho = Files.size(segmento);
+        Files.write(segmento, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND); // Queda no meio do cabeçalho
+
+        assertEquals(3, recuperar().registros.size());
+        assertEquals(tamanho, Files.size(segmento));
+    }
+
+    @Test
+    void descartaRegistroCortadoNoFim() throws IOException {
+        Path segmento = gravarTres();
+        long tamanho = Files.size(segmento);
+        truncar(segmento, tamanho - 2); // Queda no meio da remoção
+
+        assertEquals(2, recuperar().registros.size());
+        assertEquals(tamanho - 13, Files.size(segmento)); // A remoção ocupa 8 bytes de cabeçalho mais 5 de dados
+    }
+
+    @Test
+    void paraNoPrimeiroRegistroComCrcErrado() throws IOException {
+        Path segmento = gravarTres();
+        byte[] dados = Files.readAllBytes(segmento);
+        int segundo = 8 + lerInt(dados, 0); // Início do segundo registro
+        dados[segundo + 8 + 10] ^= 0x20;    // Um byte do endereço, depois de operação, ID e tamanho do texto
+        Files.write(segmento, dados);
+
+        assertEquals(List.of("C1;Rua A, 1;papel;08:00-18:00;NaN;NaN"), recuperar().registros);
+        assertEquals(segundo, Files.size(segmento));
+    }
+
+    @Test
+    void ignoraTamanhoCorrompido() throws IOException {
+        Path segmento = gravarTres();
+        long tamanho = Files.size(segmento);
+        try (OutputStream out = Files.newOutputStream(segmento, StandardOpenOption.APPEND)) {
+            new DataOutputStream(out).writeInt(Integer.MAX_VALUE);
+            out.write(new byte[32]);
+        }
+
+        assertEquals(3, recuperar().registros.size());
+        assertEquals(tamanho, Files.size(segmento));
+    }
+
+    @Test
+    void leRegistrosAntigosComTextosEmWriteUtf() throws IOException {
+        ByteArrayOutputStream segmento = new ByteArrayOutputStream();
+        segmento.writeBytes(registroAntigo('C', 7, "Rua Antiga, 7", "metal", "9-17"));
+        segmento.writeBytes(registroAntigo('A', 7, "Rua Antiga, 70", "metal, vidro", "9-17"));
+        Files.write(diretorio.resolve("diario-000001.log"), segmento.toByteArray());
+
+        Coletor coletor = recuperar();
+        assertEquals(List.of("C7;Rua Antiga, 7;metal;9-17;NaN;NaN", "A7;Rua Antiga, 70;metal, vidro;9-17;NaN;NaN"), coletor.registros);
+        assertEquals(8, coletor.proximoId);
+    }
+
+    @Test
+    void leSnapshotEcosSemLocalizacao() throws IOException {
+        gravarTres(); // Segmento 1, anterior ao snapshot: não é reaplicado
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(diretorio.resolve("pontos.snapshot")))) {
+            out.writeInt(0x45434F53); // "ECOS"
+            out.writeInt(10);
+            out.writeLong(2);
+            out.writeInt(2);
+            for (int id : new int[] {4, 9}) {
+                out.writeInt(id);
+                out.writeUTF("Rua " + id);
+                out.writeUTF("papel");
+                out.writeUTF("08:00-18:00");
+            }
+        }
+
+        Coletor coletor = recuperar();
+        assertEquals(List.of("C4;Rua 4;papel;08:00-18:00;NaN;NaN", "C9;Rua 9;papel;08:00-18:00;NaN;NaN"), coletor.registros);
+        assertEquals(10, coletor.proximoId);
+    }
+
+    @Test
+    void leSnapshotEco2EReaplicaOsSegmentosSeguintes() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(diretorio.resolve("pontos.snapshot")))) {
+            out.writeInt(0x45434F32); // "ECO2"
+            out.writeInt(6);
+            out.writeLong(1);
+            out.writeInt(1);
+            out.writeInt(5);
+            out.writeUTF("Praça Central");
+            out.writeUTF("óleo de cozinha");
+            out.writeUTF("24 horas");
+            out.writeDouble(-22.9);
+            out.writeDouble(-43.2);
+        }
+        Files.write(diretorio.resolve("diario-000001.log"), registroAntigo('C', 6, "Rua Nova", "pilhas", "8-12"));
+
+        Coletor coletor = recuperar();
+        assertEquals(List.of("C5;Praça Central;óleo de cozinha;24 horas;-22.9;-43.2", "C6;Rua Nova;pilhas;8-12;NaN;NaN"),
+                coletor.registros);
+        assertEquals(7, coletor.proximoId);
+    }
+
+    @Test
+    void gravaSnapshotETextosAcimaDe64Kb() throws IOException {
+        String longo = "ç".repeat(40_000); // 80 KB em UTF-8: além do limite de writeUTF
+        Persistencia persistencia = new Persistencia(diretorio);
+        persistencia.recuperar(new Coletor());
+        persistencia.iniciar();
+        persistencia.registrarCadastro(1, longo, "papel", "8-18").join();
+        long segmento = persistencia.iniciarSnapshot().join();
+        persistencia.gravarSnapshot(List.of(new PontoColeta(1, longo, "papel", "8-18")), 2, segmento);
+        persistencia.registrarAtualizacao(1, longo + "!", "papel", "8-18").join();
+        persistencia.encerrar().join();
+
+        Coletor coletor = recuperar();
+        assertEquals(List.of("C1;" + longo + ";papel;8-18;NaN;NaN", "A1;" + longo + "!;papel;8-18;NaN;NaN"), coletor.registros);
+        assertEquals(2, coletor.proximoId);
+    }
+
+    // Diário em que a escrita de número 'escrita' grava metade do primeiro registro e falha, como um disco que
+    // enche no meio da gravação
+    private Persistencia comFalhaNaEscrita(int escrita) {
+        return new Persistencia(diretorio) {
+            private int escritas = 0;
+
+            @Override
+            void escrever(FileChannel segmento, ByteBuffer[] buffers) throws IOException {
+                if (++escritas == escrita) {
+                    segmento.write(buffers[0].slice(0, buffers[0].remaining() / 2));
+                    throw new IOException("Disco cheio");
+                }
+                super.escrever(segmento, buffers);
+            }
+        };
+    }
+
+    private static String cadastro(int id) {
+        return "C" + id + ";Rua " + id + ";papel;8-18;NaN;NaN";
+    }
+
+    // Registros confirmados, na ordem; depois do primeiro que falhou nenhum pode ter sido confirmado
+    private static List<String> confirmados(List<CompletableFuture<Void>> gravacoes) {
+        List<String> confirmados = new ArrayList<>();
+        for (int i = 0; i < gravacoes.size(); i++) {
+            try {
+                gravacoes.get(i).join();
+                assertEquals(i, confirmados.size(), "Registro confirmado depois de um que falhou");
+                confirmados.add(cadastro(i + 1));
+            } catch (CompletionException e) {
+                // Não confirmado
+            }
+        }
+        return confirmados;
+    }
+
+    @Test
+    void falhaDeGravacaoParaODiarioSemPerderOQueFoiConfirmado() throws IOException {
+        Persistencia persistencia = comFalhaNaEscrita(6);
+        persistencia.recuperar(new Coletor());
+        persistencia.iniciar();
+        List<CompletableFuture<Void>> gravacoes = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            CompletableFuture<Void> gravacao = persistencia.registrarCadastro(id, "Rua " + id, "papel", "8-18");
+            gravacao.join(); // Uma escrita por registro
+            gravacoes.add(gravacao);
+        }
+        for (int id = 6; id <= 200; id++) gravacoes.add(persistencia.registrarCadastro(id, "Rua " + id, "papel", "8-18"));
+        List<String> confirmados = confirmados(gravacoes);
+
+        // Depois da falha o diário fica parado: os registros seguintes iriam depois dos bytes cortados
+        assertThrows(CompletionException.class, () -> persistencia.registrarRemocao(1).join());
+        assertThrows(CompletionException.class, () -> persistencia.iniciarSnapshot().join());
+        persistencia.encerrar().join();
+
+        assertEquals(5, confirmados.size());
+        assertEquals(confirmados, recuperar().registros);
+    }
+
+    @Test
+    void falhaDepoisDaTrocaDeSegmentoMantemOQueFoiConfirmado() throws IOException {
+        // Falha na primeira escrita no segundo segmento; quantos registros cada escrita leva depende da thread gravadora
+        Persistencia persistencia = new Persistencia(diretorio) {
+            private FileChannel primeiro;
+
+            @Override
+            void escrever(FileChannel segmento, ByteBuffer[] buffers) throws IOException {
+                if (primeiro == null) primeiro = segmento;
+                if (segmento != primeiro) {
+                    segmento.write(buffers[0].slice(0, buffers[0].remaining() / 2));
+                    throw new IOException("Disco cheio");
+                }
+                super.escrever(segmento, buffers);
+            }
+        };
+        persistencia.recuperar(new Coletor());
+        persistencia.iniciar();
+        List<CompletableFuture<Void>> gravacoes = new ArrayList<>();
+        CompletableFuture<Long> troca = null;
+        for (int id = 1; id <= 2000; id++) {
+            gravacoes.add(persistencia.registrarCadastro(id, "Rua " + id, "papel", "8-18"));
+            if (id == 1000) troca = persistencia.iniciarSnapshot();
+        }
+        List<String> confirmados = confirmados(gravacoes);
+        persistencia.encerrar().join();
+
+        assertEquals(2L, troca.join()); // A troca foi concluída antes da falha
+        assertEquals(1000, confirmados.size());
+        assertEquals(confirmados, recuperar().registros);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void alteracoesEncadeadasRespondemNaOrdemESobrevivemAoReinicio(String motor) throws IOException {
+        try (ProcessoServidor servidor = new ProcessoServidor(motor, diretorio);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            // Em uma escrita só: cada alteração adia a resposta até o diário, e os comandos seguintes esperam por ela
+            cliente.enviar("CADASTRAR;Rua Durável, 1;papel;8-18", "ATUALIZAR;1;Rua Durável, 2;papel e vidro;8-18",
+                    "CADASTRAR;Rua Removida, 3;pilhas;8-18", "REMOVER;2", "LISTAR");
+            assertEquals(List.of("Ponto de Coleta Cadastrado com Sucesso! ID: 1"), cliente.resposta());
+            assertEquals(List.of("Ponto de Coleta Atualizado com Sucesso!"), cliente.resposta());
+            assertEquals(List.of("Ponto de Coleta Cadastrado com Sucesso! ID: 2"), cliente.resposta());
+            assertEquals(List.of("Ponto de Coleta Removido com Sucesso!"), cliente.resposta());
+            assertEquals(List.of("1 - " + PontoColeta.descrever("Rua Durável, 2", "papel e vidro", "8-18")), cliente.resposta());
+        }
+
+        try (ProcessoServidor servidor = new ProcessoServidor(motor, diretorio);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            assertEquals(List.of("1 - " + PontoColeta.descrever("Rua Durável, 2", "papel e vidro", "8-18")), cliente.pedir("LISTAR"));
+            assertEquals(List.of("Ponto de Coleta Cadastrado com Sucesso! ID: 3"), cliente.pedir("CADASTRAR;Rua Nova, 4;vidro;8-18"));
+        }
+    }
+
+    // Registro de cadastro ou atualização no formato anterior, com os textos em writeUTF
+    private static byte[] registroAntigo(char operacao, int id, String endereco, String materiais, String horario) throws IOException {
+        ByteArrayOutputStream dados = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(dados);
+        out.writeByte(operacao);
+        out.writeInt(id);
+        out.writeUTF(endereco);
+        out.writeUTF(materiais);
+        out.writeUTF(horario);
+        CRC32 crc = new CRC32();
+        crc.update(dados.toByteArray());
+
+        ByteArrayOutputStream registro = new ByteArrayOutputStream();
+        DataOutputStream cabecalho = new DataOutputStream(registro);
+        cabecalho.writeInt(dados.size());
+        cabecalho.writeInt((int) crc.getValue());
+        dados.writeTo(registro);
+        return registro.toByteArray();
+    }
+
+    private static int lerInt(byte[] dados, int posicao) {
+        return (dados[posicao] & 0xFF) << 24 | (dados[posicao + 1] & 0xFF) << 16 | (dados[posicao + 2] & 0xFF) << 8 | dados[posicao + 3] & 0xFF;
+    }
+
+    private static void truncar(Path arquivo, long tamanho) throws IOException {
+        try (var canal = Files.newByteChannel(arquivo, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanho);
+        }
+    }
+}
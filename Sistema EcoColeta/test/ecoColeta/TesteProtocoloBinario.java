@@ -0,0 +1,75 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Protocolo binário (ServicoConexao com binario, AtendimentoBinario): as respostas convertidas são as mesmas
+// linhas que o protocolo de texto dá para os mesmos pontos
+class TesteProtocoloBinario {
+    private static final String HOST = InetAddress.getLoopbackAddress().getHostAddress();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void respostasIguaisAsDoProtocoloDeTexto(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServicoConexao binario = new ServicoConexao(HOST, servidor.porta, 10_000, true);
+             ServicoConexao texto = new ServicoConexao(HOST, servidor.porta, 10_000, false)) {
+            String material = "tampas binarias" + motor; // Termo só deste teste
+            // ';' no endereço só passa com os campos separados do quadro: a conexão negociou o binário
+            String cadastro = binario.cadastrar("Rua Binária; bloco " + motor, material, "8-18", -23.5, -46.6).join().get(0);
+            assertTrue(cadastro.startsWith("Ponto de Coleta Cadastrado com Sucesso! ID: "), cadastro);
+            int id = Integer.parseInt(cadastro.substring(cadastro.lastIndexOf(' ') + 1));
+
+            List<String> busca = texto.buscar(material).join();
+            assertEquals(1, busca.size());
+            assertTrue(busca.get(0).contains("Rua Binária; bloco " + motor), busca.get(0));
+            assertEquals(busca, binario.buscar(material).join());
+            assertEquals(texto.listar(0, 20).join(), binario.listar(0, 20).join());
+            assertEquals(texto.proximos(-23.5, -46.6, 3, material).join(), binario.proximos(-23.5, -46.6, 3, material).join());
+            assertTrue(binario.enviar("VERSAO").join().get(0).startsWith("VERSAO;")); // Comando de texto em um quadro TEXTO
+
+            assertEquals(List.of("Ponto de Coleta Atualizado com Sucesso!"),
+                    binario.atualizar(id, "Rua Binária, 2", material, "Seg; Qua 8-18").join());
+            assertEquals(texto.buscar(material).join(), binario.buscar(material).join());
+            assertTrue(texto.buscar(material).join().get(0).contains("Seg; Qua 8-18"));
+
+            assertEquals(List.of("Ponto de Coleta Removido com Sucesso!"), binario.remover(id).join());
+            assertEquals(texto.buscar(material).join(), binario.buscar(material).join());
+            assertEquals(texto.remover(id).join(), binario.remover(id).join()); // Erro: o ponto já não existe
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void pedidosSimultaneosRecebemCadaUmASuaResposta(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServicoConexao binario = new ServicoConexao(HOST, servidor.porta, 10_000, true)) {
+            List<CompletableFuture<List<String>>> pedidos = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                pedidos.add(i % 2 == 0 ? binario.cadastrar("Rua Simultânea, " + i, "vidro", "8-18") : binario.listar(0, 2));
+            }
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < pedidos.size(); i++) {
+                List<String> resposta = pedidos.get(i).join();
+                if (i % 2 == 0) {
+                    assertTrue(resposta.get(0).startsWith("Ponto de Coleta Cadastrado com Sucesso! ID: "), resposta.get(0));
+                    ids.add(resposta.get(0));
+                } else {
+                    assertEquals(2, resposta.stream().filter(l -> l.contains(" - Endereço: ")).count(), resposta.toString());
+                }
+            }
+            assertEquals(250, ids.size());
+        }
+    }
+}
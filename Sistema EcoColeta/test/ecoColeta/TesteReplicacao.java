@@ -0,0 +1,58 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Servidor seguidor (Replicacao), em outro processo: copia o catálogo do líder, recebe as alterações pelo REPLICAR
+// e encaminha as suas ao líder, respondendo só quando a cópia já as tem
+class TesteReplicacao {
+    @TempDir
+    Path diretorio;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void seguidorCopiaOLiderEEncaminhaAsAlteracoes(String motor) throws IOException, InterruptedException {
+        try (ProcessoServidor lider = new ProcessoServidor("nio", Files.createDirectory(diretorio.resolve("lider")));
+             ServidorDeTeste.Cliente noLider = lider.conectar()) {
+            for (int i = 1; i <= 30; i++) noLider.cadastrar("Rua do Líder, " + i, i % 2 == 0 ? "papel" : "vidro", "8-18");
+            noLider.pedir("REMOVER;7");
+
+            try (ProcessoServidor seguidor = new ProcessoServidor(motor, Files.createDirectory(diretorio.resolve("seguidor")),
+                         "lider=127.0.0.1:" + lider.porta);
+                 ServidorDeTeste.Cliente noSeguidor = seguidor.conectar()) {
+                assertEquals(noLider.pedir("LISTAR"), noSeguidor.pedir("LISTAR")); // Cópia inicial (SINCRONIZAR)
+
+                // Alterações pelo seguidor: vão ao líder, e a resposta só volta com a cópia em dia
+                assertEquals(List.of("Ponto de Coleta Cadastrado com Sucesso! ID: 31"), noSeguidor.pedir("CADASTRAR;Rua do Seguidor, 1;pilhas;8-18"));
+                assertTrue(noSeguidor.pedir("BUSCAR;pilhas").get(0).startsWith("31 - "));
+                assertEquals(List.of("Ponto de Coleta Atualizado com Sucesso!"), noSeguidor.pedir("ATUALIZAR;31;Rua do Seguidor, 2;pilhas;8-18"));
+                assertTrue(noSeguidor.pedir("BUSCAR;pilhas").get(0).contains("Rua do Seguidor, 2"));
+                assertEquals(List.of("Ponto de Coleta Removido com Sucesso!"), noSeguidor.pedir("REMOVER;1"));
+                noSeguidor.enviar("IMPORTAR", "Rua Importada no Seguidor, 1,metal,8-18", "\"Rua Importada no Seguidor, 2\",metal,8-18", "FIM");
+                assertEquals(List.of("Importação Concluída: 2 pontos importados, 0 linhas inválidas."), noSeguidor.resposta());
+                assertEquals(2, noSeguidor.pedir("BUSCAR;metal").size());
+
+                // Alterações feitas no líder chegam pelo REPLICAR
+                noLider.cadastrar("Rua do Líder, 40", "óleo de cozinha", "8-18");
+                noLider.pedir("REMOVER;2");
+                List<String> esperado = noLider.pedir("EXPORTAR");
+                List<String> copia = noSeguidor.pedir("EXPORTAR");
+                for (int tentativa = 0; !copia.equals(esperado) && tentativa < 50; tentativa++) {
+                    Thread.sleep(100);
+                    copia = noSeguidor.pedir("EXPORTAR");
+                }
+                assertEquals(esperado, copia);
+                assertEquals(31, copia.size() - 1); // 30 - 1 do líder, 1 - 1 + 2 pelo seguidor, 1 - 1 do líder de novo
+            }
+        }
+    }
+}
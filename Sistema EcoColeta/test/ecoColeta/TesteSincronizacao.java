@@ -0,0 +1,72 @@
+package ecoColeta;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// SINCRONIZAR: um ponto alterado várias vezes vai uma vez por resposta, com o estado atual (RegistroAlteracoes)
+class TesteSincronizacao {
+
+    @Test
+    void trechoTemCadaIdUmaVezNaOrdemDaUltimaAlteracao() {
+        RegistroAlteracoes registro = new RegistroAlteracoes();
+        int[] ids = {1, 2, 1, 3, 1, 2, 4};
+        for (int i = 0; i < ids.length; i++) registro.registrar(i + 1, ids[i]);
+
+        RegistroAlteracoes.Trecho tudo = registro.desde(0, 100);
+        assertArrayEquals(new int[] {3, 1, 2, 4}, tudo.ids());
+        assertEquals(7, tudo.ate());
+        assertFalse(tudo.continua());
+
+        // O limite conta IDs distintos: o trecho para antes do quarto, e as repetições até ali não contam
+        RegistroAlteracoes.Trecho parte = registro.desde(0, 3);
+        assertArrayEquals(new int[] {3, 1, 2}, parte.ids());
+        assertEquals(6, parte.ate());
+        assertTrue(parte.continua());
+        assertArrayEquals(new int[] {4}, registro.desde(parte.ate(), 3).ids());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"virtual", "nio"})
+    void pontoAtualizadoVariasVezesVemEmUmaLinha(String motor) throws IOException {
+        try (ServidorDeTeste servidor = new ServidorDeTeste(motor);
+             ServidorDeTeste.Cliente cliente = servidor.conectar()) {
+            String[] cabecalho = cliente.pedir("SINCRONIZAR").get(0).split(";");
+            assertEquals("COMPLETO", cabecalho[0]);
+            String instancia = cabecalho[1];
+            long versao = Long.parseLong(cabecalho[2]);
+
+            int id = cliente.cadastrar("Rua da Sincronização, " + motor, "papel", "08:00-18:00");
+            for (int i = 1; i <= 5; i++) {
+                cliente.pedir("ATUALIZAR;" + id + ";Rua da Sincronização, " + i + ";papel;08:00-18:00");
+            }
+
+            List<String> alteracoes = cliente.pedir("SINCRONIZAR;" + instancia + ";" + versao);
+            assertTrue(alteracoes.get(0).startsWith("SINCRONIZADO;" + instancia + ";"), alteracoes.get(0));
+            assertEquals(List.of(id + ",\"Rua da Sincronização, 5\",papel,08:00-18:00,,"), linhasDoPonto(alteracoes, id));
+
+            // O catálogo inteiro também traz o ponto uma vez só, em todas as páginas juntas
+            int vezes = 0;
+            List<String> pagina = cliente.pedir("SINCRONIZAR");
+            while (true) {
+                vezes += linhasDoPonto(pagina, id).size();
+                if (!pagina.get(pagina.size() - 1).equals("CONTINUA")) break;
+                String[] partes = pagina.get(0).split(";");
+                pagina = cliente.pedir("SINCRONIZAR;" + partes[1] + ";" + partes[2]);
+            }
+            assertEquals(1, vezes);
+        }
+    }
+
+    private static List<String> linhasDoPonto(List<String> resposta, int id) {
+        return resposta.stream().filter(l -> l.startsWith(id + ",")).toList();
+    }
+}